@@ -0,0 +1,90 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletCreateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.error.ErrorResponseDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.error.ErrorResponseDescriptionListDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.DetailedErrorStrategy;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the error responses of a business error and of an invalid request body, with the detailed error
+ * strategy of the dev and test profiles and the error counter. The logging of the handler is switched off,
+ * it would only measure the console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    private AppRuntimeException appRuntimeException;
+
+    private MethodArgumentNotValidException methodArgumentNotValidException;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        ((Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class)).setLevel(Level.OFF);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", new SimpleMeterRegistry());
+        globalExceptionHandler = new GlobalExceptionHandler();
+        ReflectionTestUtils.setField(globalExceptionHandler, "errorStrategy", new DetailedErrorStrategy());
+        ReflectionTestUtils.setField(globalExceptionHandler, "meterRegistry",
+                beanFactory.getBeanProvider(MeterRegistry.class));
+
+        appRuntimeException = new AppRuntimeException(ErrorCode.W003, "Wallet with id: 1 not found");
+
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(
+                new WalletCreateDTO("@#$%^&", null), "walletCreateDTO");
+        bindingResult.addError(new FieldError("walletCreateDTO", "name", "@#$%^&", false, null, null,
+                "must match \"[\\w ]+\""));
+        bindingResult.addError(new FieldError("walletCreateDTO", "userDTO", null, false, null, null,
+                "must not be null"));
+        methodArgumentNotValidException = new MethodArgumentNotValidException(new MethodParameter(
+                GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("createWallet", WalletCreateDTO.class), 0),
+                bindingResult);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponseDTO> handleAppRuntimeException() {
+        return globalExceptionHandler.handleAppRuntimeException(appRuntimeException);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponseDescriptionListDTO> handleMethodArgumentNotValidException() {
+        return globalExceptionHandler.handleMethodArgumentNotValidException(methodArgumentNotValidException);
+    }
+
+    @SuppressWarnings("unused")
+    private void createWallet(WalletCreateDTO walletCreateDTO) {
+        // the parameter the invalid request body is bound to
+    }
+}
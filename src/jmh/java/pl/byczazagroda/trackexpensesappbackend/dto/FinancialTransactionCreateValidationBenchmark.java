@@ -0,0 +1,69 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates the body of a created transaction, once valid and once violating every constraint, which
+ * additionally builds the violation messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class FinancialTransactionCreateValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private FinancialTransactionCreateDTO valid;
+
+    private FinancialTransactionCreateDTO invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = new FinancialTransactionCreateDTO(1L, new BigDecimal("42.99"), "Grocery store",
+                Instant.parse("2022-01-01T00:00:00Z"), FinancialTransactionType.EXPENSE, 1L);
+        invalid = new FinancialTransactionCreateDTO(0L, new BigDecimal("-42.999"), "Grocery store",
+                Instant.parse("2022-01-01T00:00:00Z"), null, 1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<FinancialTransactionCreateDTO>> validateValid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<FinancialTransactionCreateDTO>> validateInvalid() {
+        return validator.validate(invalid);
+    }
+}
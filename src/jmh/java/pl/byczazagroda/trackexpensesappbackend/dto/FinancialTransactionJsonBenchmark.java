@@ -0,0 +1,70 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pl.byczazagroda.trackexpensesappbackend.config.ApplicationConfig;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a page of transactions the way the transaction listing returns it. The list size covers the
+ * default and the maximum page size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class FinancialTransactionJsonBenchmark {
+
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private FinancialTransactionPageDTO page;
+
+    @Setup
+    public void setUp() {
+        // the defaults of Spring Boot, then the settings of the application
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        new ApplicationConfig(objectMapper).customizeObjectMapper();
+        writer = objectMapper.writerFor(FinancialTransactionPageDTO.class);
+
+        Instant date = Instant.parse("2022-01-01T00:00:00Z");
+        List<FinancialTransactionDTO> financialTransactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            financialTransactions.add(new FinancialTransactionDTO((long) i, new BigDecimal("42.99"),
+                    i % 3 == 0 ? null : "Grocery store " + i, FinancialTransactionType.EXPENSE,
+                    date.plusSeconds(i * 60L), i % 2 == 0 ? null : 1L));
+        }
+        page = new FinancialTransactionPageDTO(financialTransactions, "MjAyMi0wMS0wMVQwMDowMDowMFo6MTAw");
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
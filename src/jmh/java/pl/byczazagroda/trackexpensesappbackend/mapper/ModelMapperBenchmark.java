@@ -0,0 +1,106 @@
+package pl.byczazagroda.trackexpensesappbackend.mapper;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps one entity to its DTO, as every read of a wallet, transaction or category does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ModelMapperBenchmark {
+
+    private FinancialTransactionModelMapper financialTransactionModelMapper;
+
+    private WalletModelMapper walletModelMapper;
+
+    private FinancialTransactionCategoryModelMapper financialTransactionCategoryModelMapper;
+
+    private FinancialTransaction financialTransaction;
+
+    private Wallet wallet;
+
+    private FinancialTransactionCategory category;
+
+    @Setup
+    public void setUp() {
+        financialTransactionModelMapper = Mappers.getMapper(FinancialTransactionModelMapper.class);
+        walletModelMapper = Mappers.getMapper(WalletModelMapper.class);
+        financialTransactionCategoryModelMapper = Mappers.getMapper(FinancialTransactionCategoryModelMapper.class);
+
+        Instant now = Instant.parse("2022-01-01T00:00:00Z");
+        User user = User.builder()
+                .id(1L)
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build();
+        wallet = Wallet.builder()
+                .id(1L)
+                .user(user)
+                .name("Savings")
+                .creationDate(now)
+                .incomeTotal(new BigDecimal("1250.50"))
+                .expenseTotal(new BigDecimal("310.25"))
+                .build();
+        category = FinancialTransactionCategory.builder()
+                .id(1L)
+                .name("Groceries")
+                .type(FinancialTransactionType.EXPENSE)
+                .creationDate(now)
+                .build();
+        financialTransaction = FinancialTransaction.builder()
+                .id(1L)
+                .wallet(wallet)
+                .amount(new BigDecimal("42.99"))
+                .date(now)
+                .type(FinancialTransactionType.EXPENSE)
+                .description("Grocery store")
+                .financialTransactionCategory(category)
+                .build();
+    }
+
+    @Benchmark
+    public FinancialTransactionDTO mapFinancialTransaction() {
+        return financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(
+                financialTransaction);
+    }
+
+    @Benchmark
+    public WalletDTO mapWallet() {
+        return walletModelMapper.mapWalletEntityToWalletDTO(wallet);
+    }
+
+    @Benchmark
+    public FinancialTransactionCategoryDTO mapFinancialTransactionCategory() {
+        return financialTransactionCategoryModelMapper
+                .mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(category);
+    }
+}
@@ -0,0 +1,76 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates the access token of a request: the signature check, the parsing of the claims and the lookup in
+ * the revoked tokens, which hold the logouts of a busy access token lifetime. This runs on every authenticated
+ * request, so it should stay within a few microseconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class AccessTokenAuthenticationBenchmark {
+
+    private static final int REVOKED_TOKENS = 10_000;
+
+    private AccessTokenCodec accessTokenCodec;
+
+    private AuthServiceImpl authService;
+
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        accessTokenCodec = new AccessTokenCodec();
+        ReflectionTestUtils.setField(accessTokenCodec, "secret", "benchmark-access-token-secret-not-for-production");
+        ReflectionTestUtils.setField(accessTokenCodec, "ttlSeconds", 900L);
+        accessTokenCodec.initKey();
+
+        // the lookup does not use the repositories
+        RevokedAccessTokenCache revokedAccessTokenCache = new RevokedAccessTokenCache(null, null, null);
+        @SuppressWarnings("unchecked")
+        Map<String, Long> revokedTokens =
+                (Map<String, Long>) ReflectionTestUtils.getField(revokedAccessTokenCache, "revokedTokens");
+        long expiresAt = Instant.now().plusSeconds(900).getEpochSecond();
+        for (int i = 0; i < REVOKED_TOKENS; i++) {
+            revokedTokens.put(UUID.randomUUID().toString(), expiresAt);
+        }
+
+        authService = new AuthServiceImpl(null, null, null, null, accessTokenCodec, revokedAccessTokenCache);
+        accessToken = accessTokenCodec.issue(42L);
+    }
+
+    @Benchmark
+    public AccessTokenClaims verify() {
+        return accessTokenCodec.verify(accessToken);
+    }
+
+    @Benchmark
+    public AccessTokenClaims authenticate() {
+        return authService.authenticate(accessToken);
+    }
+
+    @Benchmark
+    public String issue() {
+        return accessTokenCodec.issue(42L);
+    }
+}
@@ -0,0 +1,41 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes the password of a registered user. BCrypt is slow on purpose, so the benchmark reports the time
+ * of one hash rather than a throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PasswordHashingBenchmark {
+
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setUp() {
+        // hashing uses neither the repository nor the executor, the strength is the default of the profiles
+        userService = new UserServiceImpl(null, new BCryptPasswordEncoder(10), null);
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return userService.hashPassword("Password1@");
+    }
+}
@@ -0,0 +1,61 @@
+package pl.byczazagroda.trackexpensesappbackend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latencies and failures of one endpoint in one stage of the run. A latency is measured from the time
+ * the request was due by the arrival rate, not from when it was sent, so a saturated server is not hidden by
+ * the generator falling behind.
+ */
+final class EndpointStatistics {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    void recordResponse(long latencyNanos, boolean successful) {
+        latencies.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+        if (!successful) {
+            errors.increment();
+        }
+    }
+
+    void recordFailure(long latencyNanos) {
+        recordResponse(latencyNanos, false);
+    }
+
+    /**
+     * Counts a request which was not sent because too many were still waiting for their response.
+     */
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    long requests() {
+        return latencies.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,350 @@
+package pl.byczazagroda.trackexpensesappbackend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import pl.byczazagroda.trackexpensesappbackend.TrackExpensesAppBackendApplication;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a scenario against the application with an open model: the requests are sent at a constant
+ * arrival rate, whether or not the earlier ones were answered, the way independent users would send them.
+ * The run goes through stages of increasing rates, each one warmed up first, so the rate at which the
+ * latencies start to climb shows where the application saturates. The latency percentiles and the
+ * throughput of every endpoint and stage are printed and saved as CSV, so the runs of two builds can be
+ * compared.
+ * <p>
+ * Without a --base-url the application is started here with the dev profile and its sample data, on a local
+ * MySQL given by --db-url, --db-username and --db-password, or else on a MySQL container, without the rate
+ * limits. A running instance given by --base-url should have them switched off as well.
+ * <p>
+ * The application started here also reports the busy request threads and async query threads of every stage.
+ * --async-queries=false runs the slow queries on the request threads, and --server-threads sets the size of the
+ * request thread pool, so the two models can be compared at the same rates. --seed-transactions adds that many
+ * transactions to the wallet given by --seed-wallet through the batch endpoint before the run, so that the
+ * listings and searches have enough rows to be slow.
+ * <p>
+ * Options, as --name=value: scenario, rates (requests per second, comma separated), duration and warmup
+ * (seconds per stage), max-in-flight, timeout-ms, base-url, db-url, db-username, db-password, report-dir,
+ * async-queries, server-threads, seed-transactions, seed-wallet.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULT_OPTIONS = Map.of(
+            "scenario", "src/loadtest/scenarios/default.jsonl",
+            "rates", "50,100,200",
+            "duration", "60",
+            "warmup", "15",
+            "max-in-flight", "500",
+            "timeout-ms", "10000",
+            "db-username", "root",
+            "db-password", "root",
+            "report-dir", "target/load-test",
+            "seed-transactions", "0");
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, String> options;
+
+    private final LoadTestScenario scenario;
+
+    private final HttpClient httpClient;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The metrics of the application started here, null for an instance given by --base-url.
+     */
+    private MeterRegistry meterRegistry;
+
+    private LoadTest(Map<String, String> options, LoadTestScenario scenario) {
+        this.options = options;
+        this.scenario = scenario;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(timeoutMillis()))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        LoadTestScenario scenario = LoadTestScenario.read(Path.of(options.get("scenario")), new ObjectMapper());
+        LoadTest loadTest = new LoadTest(options, scenario);
+
+        if (options.containsKey("base-url")) {
+            loadTest.run(options.get("base-url"));
+            return;
+        }
+        MySQLContainer<?> mySQLContainer = null;
+        if (!options.containsKey("db-url")) {
+            mySQLContainer = new MySQLContainer<>(DockerImageName.parse("mysql:8.0"))
+                    .withDatabaseName("trackexpensesappdev")
+                    .withUsername(options.get("db-username"))
+                    .withPassword(options.get("db-password"))
+                    .withUrlParam("serverTimezone", "UTC")
+                    .withUrlParam("rewriteBatchedStatements", "true");
+            mySQLContainer.start();
+            options.put("db-url", mySQLContainer.getJdbcUrl());
+        }
+        try (ConfigurableApplicationContext context = startApplication(options)) {
+            loadTest.meterRegistry = context.getBean(MeterRegistry.class);
+            loadTest.run("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+        } finally {
+            if (mySQLContainer != null) {
+                mySQLContainer.stop();
+            }
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULT_OPTIONS);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected an option as --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static ConfigurableApplicationContext startApplication(Map<String, String> options) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=" + options.get("db-url"),
+                "spring.datasource.username=" + options.get("db-username"),
+                "spring.datasource.password=" + options.get("db-password"),
+                "spring.jpa.show-sql=false",
+                "server.port=0",
+                "management.server.port=0",
+                // publishes tomcat.threads.busy
+                "server.tomcat.mbeanregistry.enabled=true",
+                // all requests come from one address, the limits would measure themselves
+                "application.rate-limit.enabled=false",
+                "logging.level.root=WARN"));
+        if (options.containsKey("async-queries")) {
+            properties.add("application.async-queries.enabled=" + options.get("async-queries"));
+        }
+        if (options.containsKey("server-threads")) {
+            properties.add("server.tomcat.threads.max=" + options.get("server-threads"));
+        }
+        return new SpringApplicationBuilder(TrackExpensesAppBackendApplication.class)
+                .profiles("dev")
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    private void run(String baseUrl) throws IOException, InterruptedException {
+        seedTransactions(baseUrl);
+        List<Integer> rates = Arrays.stream(options.get("rates").split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .toList();
+        int warmupSeconds = Integer.parseInt(options.get("warmup"));
+        int durationSeconds = Integer.parseInt(options.get("duration"));
+
+        Map<Integer, Map<String, EndpointStatistics>> results = new LinkedHashMap<>();
+        Map<Integer, ThreadUsage> threadUsages = new HashMap<>();
+        for (int rate : rates) {
+            System.out.printf("Warming up at %d requests/s for %d s%n", rate, warmupSeconds);
+            runStage(baseUrl, rate, warmupSeconds, newStatistics());
+            System.out.printf("Measuring at %d requests/s for %d s%n", rate, durationSeconds);
+            Map<String, EndpointStatistics> statistics = newStatistics();
+            ThreadUsage threadUsage = meterRegistry == null ? null : ThreadUsage.start(meterRegistry);
+            runStage(baseUrl, rate, durationSeconds, statistics);
+            if (threadUsage != null) {
+                threadUsage.stop();
+                threadUsages.put(rate, threadUsage);
+            }
+            results.put(rate, statistics);
+            printStage(rate, durationSeconds, statistics, threadUsage);
+        }
+        writeReport(results, threadUsages, durationSeconds);
+    }
+
+    /**
+     * Adds the transactions of --seed-transactions through the batch endpoint, with descriptions the search
+     * scenarios look for.
+     */
+    private void seedTransactions(String baseUrl) throws IOException, InterruptedException {
+        int count = Integer.parseInt(options.get("seed-transactions"));
+        if (count == 0) {
+            return;
+        }
+        String[] descriptions = {"groceries", "netflix subscription", "fuel", "rent", "restaurant dinner"};
+        long walletId = Long.parseLong(options.getOrDefault("seed-wallet", "1"));
+        ObjectMapper objectMapper = new ObjectMapper();
+        Instant now = Instant.now();
+        System.out.printf("Seeding %d transactions into wallet %d%n", count, walletId);
+        for (int first = 0; first < count; first += SEED_BATCH_SIZE) {
+            List<Map<String, Object>> batch = new ArrayList<>();
+            for (int i = first; i < Math.min(count, first + SEED_BATCH_SIZE); i++) {
+                batch.add(Map.of(
+                        "walletId", walletId,
+                        "amount", (i % 10_000) / 100.0,
+                        "description", "Seeded " + descriptions[i % descriptions.length] + " " + i,
+                        "date", LoadTestScenario.formatInstant(now.minusSeconds(60L * i)),
+                        "type", i % 5 == 0 ? "INCOME" : "EXPENSE"));
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/transactions/batch"))
+                    .timeout(Duration.ofMinutes(5))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(batch)))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                throw new IllegalStateException("Seeding the transactions failed with " + response.statusCode()
+                        + ": " + response.body());
+            }
+        }
+    }
+
+    private Map<String, EndpointStatistics> newStatistics() {
+        Map<String, EndpointStatistics> statistics = new LinkedHashMap<>();
+        scenario.names().forEach(name -> statistics.put(name, new EndpointStatistics()));
+        return statistics;
+    }
+
+    /**
+     * Sends a request every 1/rate of a second. A request due while max-in-flight requests are still waiting
+     * is dropped and counted, so a stalled server cannot make the generator pile up connections without end.
+     */
+    private void runStage(String baseUrl, int rate, int seconds, Map<String, EndpointStatistics> statistics) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        int maxInFlight = Integer.parseInt(options.get("max-in-flight"));
+
+        for (long intendedStart = start; intendedStart < end; intendedStart += intervalNanos) {
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadTestScenario.Request request = scenario.next();
+            EndpointStatistics endpointStatistics = statistics.get(request.name());
+            if (inFlight.get() >= maxInFlight) {
+                endpointStatistics.recordDropped();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long requestStart = intendedStart;
+            httpClient.sendAsync(toHttpRequest(baseUrl, request), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, throwable) -> {
+                        long latency = System.nanoTime() - requestStart;
+                        if (throwable != null) {
+                            endpointStatistics.recordFailure(latency);
+                        } else {
+                            endpointStatistics.recordResponse(latency, response.statusCode() < 400);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis());
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private HttpRequest toHttpRequest(String baseUrl, LoadTestScenario.Request request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + request.path()))
+                .timeout(Duration.ofMillis(timeoutMillis()))
+                .header("Accept", "application/json");
+        if (request.body() == null) {
+            return builder.method(request.method(), HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(request.method(), HttpRequest.BodyPublishers.ofString(request.body()))
+                .build();
+    }
+
+    private long timeoutMillis() {
+        return Long.parseLong(options.get("timeout-ms"));
+    }
+
+    private static void printStage(int rate, int seconds, Map<String, EndpointStatistics> statistics,
+                                   ThreadUsage threadUsage) {
+        System.out.printf("%n%d requests/s%n", rate);
+        System.out.printf("%-28s %9s %7s %8s %10s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors",
+                "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        statistics.forEach((name, endpointStatistics) -> {
+            System.out.printf(Locale.ROOT, "%-28s %9d %7d %8d %10.1f", name, endpointStatistics.requests(),
+                    endpointStatistics.errors(), endpointStatistics.dropped(),
+                    (double) endpointStatistics.requests() / seconds);
+            for (double percentile : PERCENTILES) {
+                System.out.printf(Locale.ROOT, " %9.2f", endpointStatistics.percentileMillis(percentile));
+            }
+            System.out.printf(Locale.ROOT, " %9.2f%n", endpointStatistics.maxMillis());
+        });
+        if (threadUsage != null) {
+            System.out.printf(Locale.ROOT, "busy request threads: mean %.1f, max %.0f; busy async query threads: "
+                            + "mean %.1f, max %.0f%n", threadUsage.requestThreadsMean(), threadUsage.requestThreadsMax(),
+                    threadUsage.queryThreadsMean(), threadUsage.queryThreadsMax());
+        }
+        System.out.println();
+    }
+
+    /**
+     * Writes a line per stage and endpoint. The thread usage belongs to the whole stage, it is repeated on the
+     * lines of its endpoints, and left empty for an instance given by --base-url.
+     */
+    private void writeReport(Map<Integer, Map<String, EndpointStatistics>> results,
+                             Map<Integer, ThreadUsage> threadUsages, int seconds) throws IOException {
+        Path reportDir = Path.of(options.get("report-dir"));
+        Files.createDirectories(reportDir);
+        Path report = reportDir.resolve("load-test-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report))) {
+            writer.println("rate,endpoint,requests,errors,dropped,throughput,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms,"
+                    + "request_threads_mean,request_threads_max,query_threads_mean,query_threads_max");
+            results.forEach((rate, statistics) -> statistics.forEach((name, endpointStatistics) -> {
+                StringBuilder line = new StringBuilder()
+                        .append(rate).append(',').append(name).append(',')
+                        .append(endpointStatistics.requests()).append(',')
+                        .append(endpointStatistics.errors()).append(',')
+                        .append(endpointStatistics.dropped()).append(',')
+                        .append(String.format(Locale.ROOT, "%.1f", (double) endpointStatistics.requests() / seconds));
+                for (double percentile : PERCENTILES) {
+                    line.append(String.format(Locale.ROOT, ",%.3f", endpointStatistics.percentileMillis(percentile)));
+                }
+                line.append(String.format(Locale.ROOT, ",%.3f", endpointStatistics.maxMillis()));
+                ThreadUsage threadUsage = threadUsages.get(rate);
+                if (threadUsage == null) {
+                    line.append(",,,,");
+                } else {
+                    line.append(String.format(Locale.ROOT, ",%.1f,%.0f,%.1f,%.0f", threadUsage.requestThreadsMean(),
+                            threadUsage.requestThreadsMax(), threadUsage.queryThreadsMean(),
+                            threadUsage.queryThreadsMax()));
+                }
+                writer.println(line);
+            }));
+        }
+        System.out.println("The report is saved to " + report);
+    }
+}
@@ -0,0 +1,118 @@
+package pl.byczazagroda.trackexpensesappbackend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A weighted mix of requests, read from a JSONL file with one request per line:
+ * <pre>
+ * {"name": "wallets.get", "weight": 15, "method": "GET", "path": "/api/wallets/${random:1:4}"}
+ * {"name": "wallets.rename", "weight": 2, "method": "PATCH", "path": "/api/wallets/${random:1:4}",
+ *  "body": {"name": "Wallet ${seq}"}}
+ * </pre>
+ * The path and the body may contain the placeholders ${random:min:max} for a number from the range, inclusive,
+ * ${seq} for a number unique within the run and ${now} for the current instant. Lines starting with # are comments.
+ */
+final class LoadTestScenario {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{(?:random:(\\d+):(\\d+)|(seq)|(now))}");
+
+    private static final DateTimeFormatter NOW_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final List<Request> requests;
+
+    private final int totalWeight;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LoadTestScenario(List<Request> requests) {
+        this.requests = requests;
+        this.totalWeight = requests.stream().mapToInt(Request::weight).sum();
+    }
+
+    static LoadTestScenario read(Path file, ObjectMapper objectMapper) throws IOException {
+        List<Request> requests = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            JsonNode body = node.get("body");
+            requests.add(new Request(
+                    node.get("name").asText(),
+                    node.path("weight").asInt(1),
+                    node.path("method").asText("GET"),
+                    node.get("path").asText(),
+                    body == null || body.isNull() ? null : objectMapper.writeValueAsString(body)));
+        }
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Scenario " + file + " has no requests");
+        }
+        return new LoadTestScenario(requests);
+    }
+
+    List<String> names() {
+        return requests.stream().map(Request::name).distinct().toList();
+    }
+
+    /**
+     * Picks a request by its weight and fills in its placeholders.
+     */
+    Request next() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Request request : requests) {
+            pick -= request.weight();
+            if (pick < 0) {
+                return new Request(request.name(), request.weight(), request.method(),
+                        expand(request.path()), request.body() == null ? null : expand(request.body()));
+            }
+        }
+        throw new IllegalStateException("The weights do not add up");
+    }
+
+    private String expand(String template) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder expanded = new StringBuilder();
+        while (matcher.find()) {
+            String value;
+            if (matcher.group(1) != null) {
+                value = String.valueOf(ThreadLocalRandom.current().nextLong(
+                        Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)) + 1));
+            } else if (matcher.group(3) != null) {
+                value = String.valueOf(sequence.incrementAndGet());
+            } else {
+                value = formatInstant(Instant.now());
+            }
+            matcher.appendReplacement(expanded, value);
+        }
+        matcher.appendTail(expanded);
+        return expanded.toString();
+    }
+
+    /**
+     * Formats an instant the way the transaction dates are read.
+     */
+    static String formatInstant(Instant instant) {
+        return NOW_FORMAT.format(instant);
+    }
+
+    /**
+     * @param body is the JSON body, null for none
+     */
+    record Request(String name, int weight, String method, String path, String body) {
+    }
+}
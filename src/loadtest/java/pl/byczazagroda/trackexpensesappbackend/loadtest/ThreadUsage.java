@@ -0,0 +1,82 @@
+package pl.byczazagroda.trackexpensesappbackend.loadtest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The busy request threads of Tomcat and the busy async query threads during one stage, sampled from the metrics
+ * of the application under test. In the synchronous model a slow query holds a request thread until it returns,
+ * in the async model it holds a query thread and the request threads stay free for the quick requests.
+ */
+final class ThreadUsage {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 50;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "thread-usage-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long samples;
+
+    private double requestThreadsSum;
+
+    private double requestThreadsMax;
+
+    private double queryThreadsSum;
+
+    private double queryThreadsMax;
+
+    private ThreadUsage(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    static ThreadUsage start(MeterRegistry meterRegistry) {
+        ThreadUsage threadUsage = new ThreadUsage(meterRegistry);
+        threadUsage.sampler.scheduleAtFixedRate(threadUsage::sample, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        return threadUsage;
+    }
+
+    void stop() throws InterruptedException {
+        sampler.shutdown();
+        sampler.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    private synchronized void sample() {
+        double requestThreads = gauge("tomcat.threads.busy");
+        double queryThreads = gauge("async.query.active");
+        samples++;
+        requestThreadsSum += requestThreads;
+        requestThreadsMax = Math.max(requestThreadsMax, requestThreads);
+        queryThreadsSum += queryThreads;
+        queryThreadsMax = Math.max(queryThreadsMax, queryThreads);
+    }
+
+    private double gauge(String name) {
+        Gauge gauge = meterRegistry.find(name).gauge();
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    synchronized double requestThreadsMean() {
+        return samples == 0 ? 0 : requestThreadsSum / samples;
+    }
+
+    synchronized double requestThreadsMax() {
+        return requestThreadsMax;
+    }
+
+    synchronized double queryThreadsMean() {
+        return samples == 0 ? 0 : queryThreadsSum / samples;
+    }
+
+    synchronized double queryThreadsMax() {
+        return queryThreadsMax;
+    }
+}
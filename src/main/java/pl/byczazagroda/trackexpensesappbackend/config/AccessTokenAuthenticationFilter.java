@@ -0,0 +1,67 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.service.AccessTokenClaims;
+import pl.byczazagroda.trackexpensesappbackend.service.AuthService;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Verifies the bearer access token of an API request and exposes the id of its user as the request attribute
+ * {@link #USER_ID_ATTRIBUTE}. A request with an invalid, expired or revoked token is answered with 401 through
+ * the exception handlers of the controllers. The auth endpoints read their tokens themselves.
+ */
+public class AccessTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String USER_ID_ATTRIBUTE = AccessTokenAuthenticationFilter.class.getName() + ".userId";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AuthService authService;
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public AccessTokenAuthenticationFilter(AuthService authService, HandlerExceptionResolver handlerExceptionResolver) {
+        this.authService = authService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    /**
+     * @return the token of a bearer Authorization header, null for none
+     */
+    public static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        return authorization.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/") || path.startsWith("/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String accessToken = bearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (accessToken != null) {
+            try {
+                AccessTokenClaims claims = authService.authenticate(accessToken);
+                request.setAttribute(USER_ID_ATTRIBUTE, claims.userId());
+            } catch (AppRuntimeException e) {
+                handlerExceptionResolver.resolveException(request, response, null, e);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,25 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import pl.byczazagroda.trackexpensesappbackend.service.AuthService;
+
+@Configuration
+public class AuthConfig {
+
+    static final int FILTER_ORDER = 0;
+
+    @Bean
+    public FilterRegistrationBean<AccessTokenAuthenticationFilter> accessTokenAuthenticationFilter(
+            AuthService authService,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        FilterRegistrationBean<AccessTokenAuthenticationFilter> registration = new FilterRegistrationBean<>(
+                new AccessTokenAuthenticationFilter(authService, handlerExceptionResolver));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,83 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times the calls of the services serving the API and of all repositories. The timers wrap the transaction,
+ * so they include its commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class MetricsAspect {
+
+    static final String SERVICE_TIMER = "service.method";
+
+    static final String REPOSITORY_TIMER = "repository.query";
+
+    private static final String REPOSITORY_PACKAGE = WalletRepository.class.getPackageName();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("within(pl.byczazagroda.trackexpensesappbackend.service.WalletServiceImpl)"
+            + " || within(pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionServiceImpl)"
+            + " || within(pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionCategoryServiceImpl)"
+            + " || within(pl.byczazagroda.trackexpensesappbackend.service.UserServiceImpl)"
+            + " || within(pl.byczazagroda.trackexpensesappbackend.service.AuthServiceImpl)")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_TIMER, "class",
+                joinPoint.getSignature().getDeclaringType().getSimpleName());
+    }
+
+    @Around("bean(*Repository)")
+    public Object timeRepositoryQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, REPOSITORY_TIMER, "repository",
+                repositoryNames.computeIfAbsent(joinPoint.getTarget().getClass(), MetricsAspect::repositoryName));
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String timerName, String typeTag, String type)
+            throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(timerName)
+                    .tag(typeTag, type)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Inherited methods such as save are declared by Spring Data, so the name is taken from the interface of
+     * the repository proxy.
+     */
+    private static String repositoryName(Class<?> proxyClass) {
+        return Arrays.stream(proxyClass.getInterfaces())
+                .filter(type -> type.getPackageName().equals(REPOSITORY_PACKAGE))
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElse(proxyClass.getSimpleName());
+    }
+}
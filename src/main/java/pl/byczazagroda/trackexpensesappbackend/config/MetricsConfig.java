@@ -0,0 +1,73 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.byczazagroda.trackexpensesappbackend.controller.AsyncQueryExecutor;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionCategoryCache;
+import pl.byczazagroda.trackexpensesappbackend.service.PasswordHashingExecutor;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletCache;
+
+/**
+ * Publishes the statistics of the in-memory caches, of the password hashing queue and of the async queries, which
+ * are read when the metrics are scraped.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder walletCacheMetrics(WalletCache walletCache) {
+        return registry -> {
+            Gauge.builder("wallet.cache.size", walletCache, cache -> cache.getStatistics().size())
+                    .register(registry);
+            FunctionCounter.builder("wallet.cache.hits", walletCache, cache -> cache.getStatistics().hits())
+                    .register(registry);
+            FunctionCounter.builder("wallet.cache.misses", walletCache, cache -> cache.getStatistics().misses())
+                    .register(registry);
+            FunctionCounter.builder("wallet.cache.evictions", walletCache, cache -> cache.getStatistics().evictions())
+                    .register(registry);
+            Gauge.builder("wallet.cache.load.average", walletCache, cache -> cache.getStatistics().averageLoadMillis())
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder financialTransactionCategoryCacheMetrics(FinancialTransactionCategoryCache categoryCache) {
+        return registry -> {
+            Gauge.builder("category.cache.size", categoryCache, cache -> cache.getStatistics().size())
+                    .register(registry);
+            FunctionCounter.builder("category.cache.hits", categoryCache, cache -> cache.getStatistics().hits())
+                    .register(registry);
+            FunctionCounter.builder("category.cache.misses", categoryCache, cache -> cache.getStatistics().misses())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordHashingExecutor passwordHashingExecutor) {
+        return registry -> {
+            Gauge.builder("password.hashing.queue.size", passwordHashingExecutor, PasswordHashingExecutor::getQueueSize)
+                    .register(registry);
+            FunctionCounter.builder("password.hashing.rejections", passwordHashingExecutor,
+                            PasswordHashingExecutor::getRejections)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder asyncQueryMetrics(AsyncQueryExecutor asyncQueryExecutor) {
+        return registry -> {
+            Gauge.builder("async.query.active", asyncQueryExecutor, AsyncQueryExecutor::getActiveCount)
+                    .register(registry);
+            Gauge.builder("async.query.queue.size", asyncQueryExecutor, AsyncQueryExecutor::getQueueSize)
+                    .register(registry);
+            FunctionCounter.builder("async.query.rejections", asyncQueryExecutor, AsyncQueryExecutor::getRejections)
+                    .register(registry);
+            FunctionCounter.builder("async.query.timeouts", asyncQueryExecutor, AsyncQueryExecutor::getTimeouts)
+                    .register(registry);
+        };
+    }
+}
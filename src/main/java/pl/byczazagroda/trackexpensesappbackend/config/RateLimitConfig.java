@@ -0,0 +1,74 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.util.Map;
+
+/**
+ * Token bucket limits per client and route group. The filter runs after the access token filter, so the buckets
+ * of authenticated requests are kept per user.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "application.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    static final int FILTER_ORDER = AuthConfig.FILTER_ORDER + 1;
+
+    private final Map<String, RateLimiter> rateLimitersByPathPrefix;
+
+    public RateLimitConfig(
+            @Value("${application.rate-limit.wallets.capacity:50}") int walletsCapacity,
+            @Value("${application.rate-limit.wallets.refill-per-second:20}") double walletsRefillPerSecond,
+            @Value("${application.rate-limit.transactions.capacity:100}") int transactionsCapacity,
+            @Value("${application.rate-limit.transactions.refill-per-second:20}") double transactionsRefillPerSecond,
+            @Value("${application.rate-limit.categories.capacity:50}") int categoriesCapacity,
+            @Value("${application.rate-limit.categories.refill-per-second:20}") double categoriesRefillPerSecond,
+            @Value("${application.rate-limit.auth.capacity:10}") int authCapacity,
+            @Value("${application.rate-limit.auth.refill-per-second:0.2}") double authRefillPerSecond) {
+        this.rateLimitersByPathPrefix = Map.of(
+                "/api/wallets", new RateLimiter(walletsCapacity, walletsRefillPerSecond),
+                "/api/transactions", new RateLimiter(transactionsCapacity, transactionsRefillPerSecond),
+                "/api/categories", new RateLimiter(categoriesCapacity, categoriesRefillPerSecond),
+                "/api/auth", new RateLimiter(authCapacity, authRefillPerSecond));
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(rateLimitersByPathPrefix, handlerExceptionResolver));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder rateLimitMetrics() {
+        return registry -> Gauge.builder("rate.limit.buckets", this, RateLimitConfig::bucketCount)
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.rate-limit.eviction-interval-ms:10000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int evicted = rateLimitersByPathPrefix.values().stream()
+                .mapToInt(rateLimiter -> rateLimiter.evictIdle(now))
+                .sum();
+        log.debug("Evicted {} idle rate limit buckets", evicted);
+    }
+
+    private int bucketCount() {
+        return rateLimitersByPathPrefix.values().stream().mapToInt(RateLimiter::size).sum();
+    }
+}
@@ -0,0 +1,62 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the requests of every client per route group. A client is the authenticated user, or the remote address
+ * of a request without an access token. A rejected request is answered with 429 and a Retry-After header through
+ * the exception handlers of the controllers.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final Map<String, RateLimiter> rateLimitersByPathPrefix;
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    /**
+     * @param rateLimitersByPathPrefix the limiter of every route group by the path prefix of the group
+     */
+    public RateLimitFilter(Map<String, RateLimiter> rateLimitersByPathPrefix,
+                           HandlerExceptionResolver handlerExceptionResolver) {
+        this.rateLimitersByPathPrefix = Map.copyOf(rateLimitersByPathPrefix);
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, RateLimiter> entry : rateLimitersByPathPrefix.entrySet()) {
+            if (!path.startsWith(entry.getKey())) {
+                continue;
+            }
+            long waitNanos = entry.getValue().tryAcquire(clientKey(request), System.nanoTime());
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                handlerExceptionResolver.resolveException(request, response, null, new AppRuntimeException(
+                        ErrorCode.TEA008, String.format("Too many requests, retry after %d s", retryAfterSeconds)));
+                return;
+            }
+            break;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Object userId = request.getAttribute(AccessTokenAuthenticationFilter.USER_ID_ATTRIBUTE);
+        return userId != null ? "user:" + userId : "ip:" + request.getRemoteAddr();
+    }
+}
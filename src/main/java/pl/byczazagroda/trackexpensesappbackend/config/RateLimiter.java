@@ -0,0 +1,90 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets of one route group, one per client key. A bucket holds up to capacity requests and refills at
+ * a steady rate.
+ * <p>
+ * A bucket is a single number, the time at which it will be full again (the generic cell rate algorithm), so
+ * a request takes a token with one compare-and-set and never locks. A bucket which is full again is the same as
+ * a missing one, so it is evicted without changing any limit, and only the clients active within the last
+ * capacity / rate seconds take memory. The keys are spread over stripes, so the eviction sweeps one small map at
+ * a time while the others keep serving.
+ */
+public class RateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final long emissionIntervalNanos;
+
+    private final long burstToleranceNanos;
+
+    private final Map<String, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(int capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("A rate limit needs a capacity of at least 1 and a positive refill rate");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @param nowNanos the current time of {@link System#nanoTime()}
+     * @return 0 when the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong fullAt = stripe(key).computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        while (true) {
+            long current = fullAt.get();
+            long start = current - nowNanos > 0 ? current : nowNanos;
+            long wait = start - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, start + emissionIntervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Removes the buckets which are full again.
+     *
+     * @return the number of removed buckets
+     */
+    public int evictIdle(long nowNanos) {
+        int evicted = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            int before = stripe.size();
+            // a bucket refilled concurrently after the check loses at most that one request of history
+            stripe.values().removeIf(fullAt -> fullAt.get() - nowNanos <= 0);
+            evicted += before - stripe.size();
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Map<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,89 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single data source with one routing read-only transactions to the replicas. The primary is
+ * configured by spring.datasource as before; the replicas share its pool settings and, unless overridden,
+ * its credentials.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.read-replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${application.read-replica.urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${application.read-replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${application.read-replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${application.read-replica.max-lag-seconds:5}")
+    private long maxLagSeconds;
+
+    @Value("${application.read-replica.read-your-writes-window-ms:5000}")
+    private long readYourWritesWindowMillis;
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(DataSourceProperties properties,
+                                                                     Environment environment,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, "primary", environment, meterRegistry);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(replicaUsername)
+                    .password(replicaPassword)
+                    .build();
+            configurePool(replica, "replica-" + replicas.size(), environment, meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReadReplicaRoutingDataSource(primary, replicas, maxLagSeconds, readYourWritesWindowMillis);
+    }
+
+    /**
+     * The data source of JPA, Liquibase and JdbcTemplate. The connection is taken from the routing data source
+     * on the first statement, once the transaction tells whether it is read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+
+    /**
+     * The pools are not beans, so their metrics are not bound by Spring Boot.
+     */
+    private static void configurePool(HikariDataSource dataSource, String poolName, Environment environment,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        meterRegistry.ifAvailable(registry ->
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+}
@@ -0,0 +1,225 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends the statements of read-only transactions to a replica, in turns, and everything else to the primary.
+ * A replica lagging behind the primary by more than the allowed lag, or failing to connect, is skipped until
+ * the next check finds it healthy again. When no replica is healthy the primary serves the reads as well.
+ * <p>
+ * A client that has just written reads from the primary for a short window, so that it sees its own writes.
+ * The end of the window is kept in a cookie, which every instance of the application understands.
+ * A query running off the request thread gets the end of the window read on the request thread, it never
+ * touches the request itself, which may already be recycled.
+ * <p>
+ * The transaction is only known once a statement runs, so this data source has to be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    static final String PRIMARY_READ_UNTIL_COOKIE = "primary-read-until";
+
+    private static final String PRIMARY_WRITTEN_ATTRIBUTE = ReadReplicaRoutingDataSource.class.getName() + ".written";
+
+    private static final ThreadLocal<Long> HANDED_PRIMARY_READ_UNTIL = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final long maxLagSeconds;
+
+    private final long readYourWritesWindowMillis;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                        long maxLagSeconds, long readYourWritesWindowMillis) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLagSeconds;
+        this.readYourWritesWindowMillis = readYourWritesWindowMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteAfterCommit();
+            return primary.getConnection();
+        }
+        if (readsOwnWrites()) {
+            return primary.getConnection();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                log.warn("Replica {} is down, reading from the primary until it recovers",
+                        replica.dataSource.getPoolName(), e);
+                replica.healthy = false;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("The pools of the primary and the replicas have their own credentials");
+    }
+
+    /**
+     * Marks the replicas that are down or lag too far behind the primary, and the recovered ones.
+     * A replica without replication status, such as a stand-in in tests, is considered in sync.
+     */
+    @Scheduled(fixedDelayString = "${application.read-replica.lag-check-interval-ms:1000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (status.next()) {
+                    long lag = status.getLong("Seconds_Behind_Source");
+                    // null while the replication threads are stopped
+                    healthy = !status.wasNull() && lag <= maxLagSeconds;
+                } else {
+                    healthy = true;
+                }
+            } catch (SQLException e) {
+                log.debug("Checking replica {} failed", replica.dataSource.getPoolName(), e);
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is {}", replica.dataSource.getPoolName(), healthy ? "back in sync" : "skipped");
+                replica.healthy = healthy;
+            }
+        }
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private void rememberWriteAfterCommit() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getAttribute(PRIMARY_WRITTEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        attributes.setAttribute(PRIMARY_WRITTEN_ATTRIBUTE, Boolean.FALSE, RequestAttributes.SCOPE_REQUEST);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                attributes.setAttribute(PRIMARY_WRITTEN_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+                HttpServletResponse response = attributes.getResponse();
+                if (response != null && !response.isCommitted()) {
+                    Cookie cookie = new Cookie(PRIMARY_READ_UNTIL_COOKIE,
+                            String.valueOf(System.currentTimeMillis() + readYourWritesWindowMillis));
+                    cookie.setPath("/");
+                    cookie.setHttpOnly(true);
+                    cookie.setMaxAge((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(readYourWritesWindowMillis)));
+                    response.addCookie(cookie);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    // a rolled back transaction wrote nothing, a later one in the request may still
+                    attributes.removeAttribute(PRIMARY_WRITTEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the end of the read-your-writes window of the current request. It has to run on the request thread,
+     * the result is handed to the thread running the request's query with {@link #withPrimaryReadUntil}.
+     *
+     * @return the time in epoch milliseconds until which the request reads from the primary, 0 when it does not
+     */
+    public static long primaryReadUntil() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return 0L;
+        }
+        if (Boolean.TRUE.equals(attributes.getAttribute(PRIMARY_WRITTEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            return Long.MAX_VALUE;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0L;
+        }
+        return Arrays.stream(cookies)
+                .filter(cookie -> PRIMARY_READ_UNTIL_COOKIE.equals(cookie.getName()))
+                .mapToLong(ReadReplicaRoutingDataSource::readUntil)
+                .max()
+                .orElse(0L);
+    }
+
+    /**
+     * Runs a query of a request off the request thread, reading from the primary until the given time.
+     *
+     * @param primaryReadUntil is the value {@link #primaryReadUntil()} returned on the request thread
+     */
+    public static <T> T withPrimaryReadUntil(long primaryReadUntil, Supplier<T> query) {
+        HANDED_PRIMARY_READ_UNTIL.set(primaryReadUntil);
+        try {
+            return query.get();
+        } finally {
+            HANDED_PRIMARY_READ_UNTIL.remove();
+        }
+    }
+
+    private boolean readsOwnWrites() {
+        Long handedPrimaryReadUntil = HANDED_PRIMARY_READ_UNTIL.get();
+        long readUntil = handedPrimaryReadUntil != null ? handedPrimaryReadUntil : primaryReadUntil();
+        return readUntil > System.currentTimeMillis();
+    }
+
+    private static long readUntil(Cookie cookie) {
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
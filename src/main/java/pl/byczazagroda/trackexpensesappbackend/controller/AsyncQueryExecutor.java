@@ -0,0 +1,124 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import pl.byczazagroda.trackexpensesappbackend.config.ReadReplicaRoutingDataSource;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the slow read queries of the controllers off the request threads, so a request waiting for a long query or
+ * for a free connection does not hold a servlet thread the quick requests need. There is one thread per pooled
+ * connection, more would only wait for a connection, and a bounded queue: a burst of slow requests is turned away
+ * once the queue is full, and a request which is not answered in time gets {@link ErrorCode#TEA009}.
+ * <p>
+ * With the async mode switched off the queries run on the request thread.
+ */
+@Component
+public class AsyncQueryExecutor {
+
+    @Value("${application.async-queries.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.async-queries.threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int threads;
+
+    @Value("${application.async-queries.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${application.async-queries.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private final LongAdder rejections = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        if (enabled) {
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("async-query-"));
+        }
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @throws AppRuntimeException with {@link ErrorCode#TEA005} when the queue is full
+     */
+    public <T> DeferredResult<T> submit(Supplier<T> query) {
+        if (executor == null) {
+            return completed(query.get());
+        }
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        result.onTimeout(() -> {
+            timeouts.increment();
+            result.setErrorResult(new AppRuntimeException(ErrorCode.TEA009,
+                    String.format("The request did not complete within %d ms", timeoutMillis)));
+        });
+        // the request may be recycled once the answer timed out, the query only gets what it needs from it
+        long primaryReadUntil = ReadReplicaRoutingDataSource.primaryReadUntil();
+        try {
+            executor.execute(() -> run(query, result, primaryReadUntil));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new AppRuntimeException(ErrorCode.TEA005, "Too many slow requests are in progress, try again later");
+        }
+        return result;
+    }
+
+    /**
+     * The answer of a request which did not need a query, such as a 304.
+     */
+    public static <T> DeferredResult<T> completed(T value) {
+        DeferredResult<T> result = new DeferredResult<>();
+        result.setResult(value);
+        return result;
+    }
+
+    private static <T> void run(Supplier<T> query, DeferredResult<T> result, long primaryReadUntil) {
+        if (result.isSetOrExpired()) {
+            // timed out in the queue, nobody waits for the answer any more
+            return;
+        }
+        try {
+            result.setResult(ReadReplicaRoutingDataSource.withPrimaryReadUntil(primaryReadUntil, query));
+        } catch (RuntimeException e) {
+            result.setErrorResult(e);
+        }
+    }
+
+    public int getActiveCount() {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+}
@@ -2,21 +2,31 @@ package pl.byczazagroda.trackexpensesappbackend.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import pl.byczazagroda.trackexpensesappbackend.config.AccessTokenAuthenticationFilter;
 import pl.byczazagroda.trackexpensesappbackend.dto.AuthAccessTokenDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.AuthLoginDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.AuthRegisterDTO;
+import pl.byczazagroda.trackexpensesappbackend.service.AuthService;
+import pl.byczazagroda.trackexpensesappbackend.service.AuthTokens;
 import pl.byczazagroda.trackexpensesappbackend.service.UserService;
 import pl.byczazagroda.trackexpensesappbackend.service.UserServiceImpl;
 
 import javax.validation.Valid;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("api/auth")
@@ -24,29 +34,64 @@ import javax.validation.Valid;
 @Validated
 public class AuthController {
 
+    private static final String REFRESH_TOKEN_COOKIE = "refresh_token";
+
+    private static final String REFRESH_TOKEN_COOKIE_PATH = "/api/auth";
+
 private final UserService userService;
 
+    private final AuthService authService;
+
+    @Value("${application.auth.secure-cookie:true}")
+    private boolean secureCookie;
+
     @PostMapping("/login")
-    public ResponseEntity<AuthAccessTokenDTO> authenticateUser(@Valid @RequestBody AuthLoginDTO authLoginDTO) {
-        //TODO
-        return new ResponseEntity<>(new AuthAccessTokenDTO("TODO-accessTOKEN"), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<AuthAccessTokenDTO>> authenticateUser(
+            @Valid @RequestBody AuthLoginDTO authLoginDTO) {
+        // the request thread is released while the password is compared
+        return authService.login(authLoginDTO).thenApply(this::toTokenResponse);
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<Void> logoutUser() {
-        //TODO
-        return new ResponseEntity<>(HttpStatus.OK);
+    public ResponseEntity<Void> logoutUser(
+            @CookieValue(name = REFRESH_TOKEN_COOKIE, required = false) String refreshToken,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authService.logout(refreshToken, AccessTokenAuthenticationFilter.bearerToken(authorization));
+        ResponseCookie expiredCookie = refreshTokenCookie("").maxAge(Duration.ZERO).build();
+        return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, expiredCookie.toString()).build();
     }
 
     @PostMapping("/register")
-    public ResponseEntity<Void> registerUser(@Valid @RequestBody AuthRegisterDTO authRegisterDTO) {
-        userService.registerUser(authRegisterDTO);
-        return new ResponseEntity<>(HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<Void>> registerUser(@Valid @RequestBody AuthRegisterDTO authRegisterDTO) {
+        // the request thread is released while the password is hashed
+        return userService.registerUser(authRegisterDTO)
+                .thenApply(registered -> new ResponseEntity<>(HttpStatus.OK));
     }
 
     @PostMapping("/refresh")
-    public ResponseEntity<AuthAccessTokenDTO> refreshToken(@CookieValue(name = "refresh_token") String refreshToken) {
-        //TODO
-        return new ResponseEntity<>(new AuthAccessTokenDTO("TODO-accessTOKEN"), HttpStatus.OK);
+    public ResponseEntity<AuthAccessTokenDTO> refreshToken(
+            @CookieValue(name = REFRESH_TOKEN_COOKIE, required = false) String refreshToken) {
+        return toTokenResponse(authService.refresh(refreshToken));
+    }
+
+    private ResponseEntity<AuthAccessTokenDTO> toTokenResponse(AuthTokens authTokens) {
+        ResponseCookie.ResponseCookieBuilder cookie = refreshTokenCookie(authTokens.refreshToken());
+        if (authTokens.rememberMe()) {
+            cookie.maxAge(Duration.between(Instant.now(), authTokens.refreshTokenExpiresAt()));
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, cookie.build().toString())
+                .body(new AuthAccessTokenDTO(authTokens.accessToken()));
+    }
+
+    /**
+     * The refresh token is only sent to the auth endpoints and is not readable by scripts.
+     */
+    private ResponseCookie.ResponseCookieBuilder refreshTokenCookie(String value) {
+        return ResponseCookie.from(REFRESH_TOKEN_COOKIE, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Strict")
+                .path(REFRESH_TOKEN_COOKIE_PATH);
     }
 }
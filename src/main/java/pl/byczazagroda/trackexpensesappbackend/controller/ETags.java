@@ -0,0 +1,84 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import java.util.Arrays;
+
+/**
+ * Entity tags derived from the versions of resources, so a conditional request is answered before the resource
+ * is loaded. A single resource gets a strong tag of its version column, a collection a weak tag of a version
+ * which changes with any of its elements.
+ * <p>
+ * The version looked up for the conditional request may come from another database than the body, so a response
+ * with a body takes its tag from the version the body was read at.
+ */
+final class ETags {
+
+    private static final String ANY = "*";
+
+    private ETags() {
+    }
+
+    static String strong(Object version) {
+        return "\"" + version + "\"";
+    }
+
+    static String weak(Object version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * Tells whether the If-None-Match header of the request matches the tag, comparing weakly. Unlike
+     * {@link WebRequest#checkNotModified(String)} it leaves the response alone when it does not match.
+     */
+    static boolean matchesIfNoneMatch(WebRequest request, String tag) {
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaque(tag);
+        return Arrays.stream(ifNoneMatch)
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .anyMatch(candidate -> ANY.equals(candidate) || opaque(candidate).equals(opaqueTag));
+    }
+
+    static <T> ResponseEntity<T> notModified(String tag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+    }
+
+    /**
+     * Spring answers NOT MODIFIED itself when the If-None-Match header matches the tag of the body.
+     */
+    static <T> ResponseEntity<T> ok(T body, String tag) {
+        return ResponseEntity.ok().eTag(tag).body(body);
+    }
+
+    /**
+     * @return the version in the strong entity tag of the If-Match header, null when there is no precondition
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // not a tag of this application, it matches no version
+            }
+        }
+        throw new AppRuntimeException(ErrorCode.TEA006,
+                String.format("If-Match: %s does not match the current entity tag", ifMatch));
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -1,6 +1,7 @@
 package pl.byczazagroda.trackexpensesappbackend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -10,12 +11,17 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDetailedDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionCategoryService;
 
 import javax.validation.Valid;
@@ -32,18 +38,38 @@ public class FinancialTransactionCategoryController {
     private final FinancialTransactionCategoryService financialTransactionCategoryService;
 
     @GetMapping("/{id}")
-    ResponseEntity<FinancialTransactionCategoryDetailedDTO> getFinancialTransactionCategoryById(@Min(1) @NotNull @PathVariable Long id) {
-        FinancialTransactionCategoryDetailedDTO financialTransactionCategoryDetailedDTO =
-                financialTransactionCategoryService.findById(id);
-        return new ResponseEntity<>(financialTransactionCategoryDetailedDTO, HttpStatus.OK);
+    ResponseEntity<FinancialTransactionCategoryDetailedDTO> getFinancialTransactionCategoryById(
+            @Min(1) @NotNull @PathVariable Long id, WebRequest request) {
+        String currentTag = ETags.strong(financialTransactionCategoryService.findFinancialTransactionCategoryVersion(id));
+        if (ETags.matchesIfNoneMatch(request, currentTag)) {
+            return ETags.notModified(currentTag);
+        }
+        VersionedDTO<FinancialTransactionCategoryDetailedDTO> financialTransactionCategoryDetailedDTO =
+                financialTransactionCategoryService.findByIdWithVersion(id);
+        return ETags.ok(financialTransactionCategoryDetailedDTO.body(),
+                ETags.strong(financialTransactionCategoryDetailedDTO.version()));
     }
 
     @GetMapping()
-    ResponseEntity<List<FinancialTransactionCategoryDTO>> getFinancialTransactionCategories(){
+    ResponseEntity<List<FinancialTransactionCategoryDTO>> getFinancialTransactionCategories(WebRequest request) {
+        // the version is read before the categories, so the tag is never newer than the body
+        if (request.checkNotModified(
+                ETags.weak(financialTransactionCategoryService.getFinancialTransactionCategoriesVersion()))) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
         List<FinancialTransactionCategoryDTO> financialTransactionCategoryDTOList = financialTransactionCategoryService.getFinancialTransactionCategories();
         return new ResponseEntity<>(financialTransactionCategoryDTOList, HttpStatus.OK);
     }
 
+    @GetMapping("/autocomplete")
+    ResponseEntity<List<NameSuggestionDTO>> getFinancialTransactionCategoryNameSuggestions(
+            @RequestParam String prefix,
+            @RequestParam(required = false) @Min(1) Integer limit) {
+        List<NameSuggestionDTO> nameSuggestionDTOs =
+                financialTransactionCategoryService.findFinancialTransactionCategoryNameSuggestions(prefix, limit);
+        return new ResponseEntity<>(nameSuggestionDTOs, HttpStatus.OK);
+    }
+
     @PostMapping()
     public ResponseEntity<FinancialTransactionCategoryDTO> createFinancialTransactionCategory(
             @RequestBody FinancialTransactionCategoryCreateDTO financialTransactionCategoryCreateDTO) {
@@ -55,9 +81,10 @@ public class FinancialTransactionCategoryController {
     @PatchMapping("/{id}")
     public ResponseEntity<FinancialTransactionCategoryDTO> updateFinancialTransactionCategory(
             @Min(1) @NotNull @PathVariable Long id,
-            @Valid @RequestBody FinancialTransactionCategoryUpdateDTO financialTransactionCategoryUpdateDTO) {
-        FinancialTransactionCategoryDTO financialTransactionCategoryDTO
-                = financialTransactionCategoryService.updateFinancialTransactionCategory(id, financialTransactionCategoryUpdateDTO);
+            @Valid @RequestBody FinancialTransactionCategoryUpdateDTO financialTransactionCategoryUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        FinancialTransactionCategoryDTO financialTransactionCategoryDTO = financialTransactionCategoryService
+                .updateFinancialTransactionCategory(id, financialTransactionCategoryUpdateDTO, ETags.parseIfMatch(ifMatch));
         return new ResponseEntity<>(financialTransactionCategoryDTO, HttpStatus.OK);
     }
 
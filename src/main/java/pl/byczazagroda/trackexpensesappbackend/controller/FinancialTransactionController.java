@@ -1,6 +1,7 @@
 package pl.byczazagroda.trackexpensesappbackend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -9,18 +10,30 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionBatchItemDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionPageDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchOrder;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
 import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionService;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 @Validated
@@ -32,11 +45,46 @@ public class FinancialTransactionController {
 
     private final FinancialTransactionService financialTransactionService;
 
+    private final AsyncQueryExecutor asyncQueryExecutor;
 
     @GetMapping()
-    ResponseEntity<List<FinancialTransactionDTO>> getFinancialTransactionsByWalletId(@RequestParam @Min(1) @NotNull Long walletId) {
-        List<FinancialTransactionDTO> financialTransactionDTOList = financialTransactionService.getFinancialTransactionsByWalletId(walletId);
-        return new ResponseEntity<>(financialTransactionDTOList, HttpStatus.OK);
+    DeferredResult<ResponseEntity<FinancialTransactionPageDTO>> getFinancialTransactionsByWalletId(
+            @RequestParam @Min(1) @NotNull Long walletId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) FinancialTransactionType type,
+            @RequestParam(required = false) @Min(1) Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Min(1) Integer size,
+            WebRequest request) {
+        String currentTag = ETags.weak(financialTransactionService.getFinancialTransactionsVersion(walletId));
+        if (ETags.matchesIfNoneMatch(request, currentTag)) {
+            return AsyncQueryExecutor.completed(ETags.notModified(currentTag));
+        }
+        FinancialTransactionFilterDTO filter =
+                new FinancialTransactionFilterDTO(from, to, minAmount, maxAmount, type, categoryId);
+        return asyncQueryExecutor.submit(() -> {
+            VersionedDTO<FinancialTransactionPageDTO> page = financialTransactionService
+                    .getFinancialTransactionsByWalletIdWithVersion(walletId, filter, cursor, size);
+            return ETags.ok(page.body(), ETags.weak(page.version()));
+        });
+    }
+
+    @GetMapping("/search")
+    public DeferredResult<ResponseEntity<FinancialTransactionPageDTO>> searchFinancialTransactions(
+            @RequestParam String query,
+            @RequestParam(required = false) @Min(1) Long walletId,
+            @RequestParam(required = false) @Min(1) Long userId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) FinancialTransactionSearchOrder order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Min(1) Integer size) {
+        FinancialTransactionSearchDTO search = new FinancialTransactionSearchDTO(query, walletId, userId, from, to, order);
+        return asyncQueryExecutor.submit(() -> new ResponseEntity<>(
+                financialTransactionService.searchFinancialTransactions(search, cursor, size), HttpStatus.OK));
     }
 
     @PostMapping()
@@ -46,11 +94,24 @@ public class FinancialTransactionController {
         return new ResponseEntity<>(financialTransactionDTO, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<FinancialTransactionBatchItemDTO>> createFinancialTransactions(
+            @RequestBody List<FinancialTransactionCreateDTO> financialTransactionCreateDTOs) {
+        List<FinancialTransactionBatchItemDTO> financialTransactionBatchItemDTOs =
+                financialTransactionService.createFinancialTransactions(financialTransactionCreateDTOs);
+        return new ResponseEntity<>(financialTransactionBatchItemDTOs, HttpStatus.OK);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<FinancialTransactionDTO> findTransactionById(@Min(1) @NotNull @PathVariable Long id) {
+    public ResponseEntity<FinancialTransactionDTO> findTransactionById(@Min(1) @NotNull @PathVariable Long id,
+                                                                       WebRequest request) {
+        String currentTag = ETags.strong(financialTransactionService.findFinancialTransactionVersion(id));
+        if (ETags.matchesIfNoneMatch(request, currentTag)) {
+            return ETags.notModified(currentTag);
+        }
 
-        FinancialTransactionDTO financialTransaction = financialTransactionService.findById(id);
-        return new ResponseEntity<>(financialTransaction, HttpStatus.OK);
+        VersionedDTO<FinancialTransactionDTO> financialTransaction = financialTransactionService.findByIdWithVersion(id);
+        return ETags.ok(financialTransaction.body(), ETags.strong(financialTransaction.version()));
 
     }
 
@@ -63,9 +124,11 @@ public class FinancialTransactionController {
     @PatchMapping("/{id}")
     public ResponseEntity<FinancialTransactionDTO> updateTransactionById(
             @Min(1) @NotNull @PathVariable Long id,
-            @Valid @RequestBody FinancialTransactionUpdateDTO financialTransactionUpdateDTO) {
+            @Valid @RequestBody FinancialTransactionUpdateDTO financialTransactionUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        FinancialTransactionDTO financialTransactionDTO = financialTransactionService.updateFinancialTransaction(id, financialTransactionUpdateDTO);
+        FinancialTransactionDTO financialTransactionDTO = financialTransactionService.updateFinancialTransaction(id,
+                financialTransactionUpdateDTO, ETags.parseIfMatch(ifMatch));
         return new ResponseEntity<>(financialTransactionDTO, HttpStatus.OK);
     }
 }
@@ -0,0 +1,44 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionExportFormat;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionExportService;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Validated
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/wallets")
+public class FinancialTransactionExportController {
+
+    private final FinancialTransactionExportService financialTransactionExportService;
+
+    @GetMapping("/{id}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportFinancialTransactionsByWalletId(
+            @Min(1) @NotNull @PathVariable Long id,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        FinancialTransactionExportFormat exportFormat = FinancialTransactionExportFormat.fromValue(format);
+        StreamingResponseBody body = financialTransactionExportService.exportFinancialTransactionsByWalletId(id, exportFormat);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exportFormat.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(String.format("wallet-%d-transactions.%s", id, exportFormat.getFileExtension()))
+                .build());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
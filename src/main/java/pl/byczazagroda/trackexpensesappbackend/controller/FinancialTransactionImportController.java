@@ -0,0 +1,46 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionImportJobDTO;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionImportService;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+@Validated
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/wallets")
+public class FinancialTransactionImportController {
+
+    private final FinancialTransactionImportService financialTransactionImportService;
+
+    @PostMapping(value = "/{id}/transactions/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<FinancialTransactionImportJobDTO> importFinancialTransactions(
+            @Min(1) @NotNull @PathVariable Long id,
+            @RequestParam("file") MultipartFile file) {
+        FinancialTransactionImportJobDTO importJobDTO =
+                financialTransactionImportService.importFinancialTransactions(id, file);
+        return new ResponseEntity<>(importJobDTO, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{id}/transactions/import/{jobId}")
+    public ResponseEntity<FinancialTransactionImportJobDTO> findImportJob(
+            @Min(1) @NotNull @PathVariable Long id,
+            @NotNull @PathVariable UUID jobId) {
+        FinancialTransactionImportJobDTO importJobDTO = financialTransactionImportService.findImportJob(id, jobId);
+        return new ResponseEntity<>(importJobDTO, HttpStatus.OK);
+    }
+}
@@ -1,13 +1,17 @@
 package pl.byczazagroda.trackexpensesappbackend.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.servlet.NoHandlerFoundException;
 import pl.byczazagroda.trackexpensesappbackend.dto.error.ErrorResponseDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.error.ErrorResponseDescriptionListDTO;
@@ -26,9 +30,17 @@ import java.util.List;
 @RestControllerAdvice
 class GlobalExceptionHandler {
 
+    static final String ERRORS_COUNTER = "api.errors";
+
     @Autowired
     private ErrorStrategy errorStrategy;
 
+    /**
+     * Not available in the web slice tests, which do not configure metrics.
+     */
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
     /**
      * This handler is not used, ConstraintViolationException is handle as Throwable exception.
      *
@@ -38,6 +50,7 @@ class GlobalExceptionHandler {
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponseDTO> handleConstraintViolationException(final ConstraintViolationException e) {
         log.error("ConstraintViolationException: {}", e.getMessage());
+        countError(ErrorCode.TEA003.getBusinessStatus());
 
         return new ResponseEntity<>(
                 new ErrorResponseDTO(
@@ -53,6 +66,7 @@ class GlobalExceptionHandler {
     @ExceptionHandler(Throwable.class)
     public ResponseEntity<ErrorResponseDTO> handleThrowableException(final Throwable ex) {
         log.error("handleThrowableException: {}", ex.getMessage());
+        countError(ErrorCode.TEA004.getBusinessStatus());
 
         return new ResponseEntity<>(
                 new ErrorResponseDTO(
@@ -68,6 +82,7 @@ class GlobalExceptionHandler {
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ErrorResponseDTO> handleHttpMessageNotReadableException(final HttpMessageNotReadableException ex) {
         log.error("handleHttpMessageNotReadableExceptionException: {}", ex.getMessage());
+        countError(ErrorCode.TEA003.getBusinessStatus());
 
         return new ResponseEntity<>(
                 new ErrorResponseDTO(ErrorCode.TEA003.getBusinessStatus(),
@@ -85,6 +100,7 @@ class GlobalExceptionHandler {
                 ex.getBusinessMessage(),
                 ex.getDescription()
         );
+        countError(ex.getBusinessStatus());
 
         return new ResponseEntity<>(
                 new ErrorResponseDTO(
@@ -95,6 +111,44 @@ class GlobalExceptionHandler {
                 HttpStatus.valueOf(ex.getBusinessStatusCode()));
     }
 
+    /**
+     * The entity was changed by another request after it was loaded, its @Version column did not match.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDTO> handleOptimisticLockingFailureException(
+            final OptimisticLockingFailureException ex) {
+        log.error("handleOptimisticLockingFailureException: {}", ex.getMessage());
+        countError(ErrorCode.TEA007.getBusinessStatus());
+
+        return new ResponseEntity<>(
+                new ErrorResponseDTO(
+                        ErrorCode.TEA007.getBusinessStatus(),
+                        errorStrategy.returnExceptionMessage(ErrorCode.TEA007.getBusinessMessage()),
+                        errorStrategy.returnExceptionDescription(String.format("Concurrent modification %s",
+                                ex.getMessage())),
+                        ErrorCode.TEA007.getBusinessStatusCode()),
+                HttpStatus.valueOf(ErrorCode.TEA007.getBusinessStatusCode())
+        );
+    }
+
+    /**
+     * An asynchronous request, such as a streamed export, took longer than spring.mvc.async.request-timeout.
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ErrorResponseDTO> handleAsyncRequestTimeoutException(final AsyncRequestTimeoutException ex) {
+        log.error("handleAsyncRequestTimeoutException: {}", ex.getMessage());
+        countError(ErrorCode.TEA009.getBusinessStatus());
+
+        return new ResponseEntity<>(
+                new ErrorResponseDTO(
+                        ErrorCode.TEA009.getBusinessStatus(),
+                        errorStrategy.returnExceptionMessage(ErrorCode.TEA009.getBusinessMessage()),
+                        errorStrategy.returnExceptionDescription("The request did not complete in time"),
+                        ErrorCode.TEA009.getBusinessStatusCode()),
+                HttpStatus.valueOf(ErrorCode.TEA009.getBusinessStatusCode())
+        );
+    }
+
     @ExceptionHandler(NoHandlerFoundException.class)
     protected ResponseEntity<ErrorResponseDTO> handleNoHandlerFoundException(final NoHandlerFoundException ex) {
         log.error("handleNoHandlerFoundException message: {}, headers: {},  httpMethod: {}, request Url{}",
@@ -103,6 +157,7 @@ class GlobalExceptionHandler {
                 ex.getHttpMethod(),
                 ex.getRequestURL()
         );
+        countError(ErrorCode.TEA002.getBusinessStatus());
 
         return new ResponseEntity<>(
                 new ErrorResponseDTO(
@@ -120,6 +175,7 @@ class GlobalExceptionHandler {
             final MethodArgumentNotValidException ex) {
 
         log.info("MethodArgumentNotValidException in: {}", ex.getObjectName());
+        countError(ErrorCode.TEA003.getBusinessStatus());
 
         return new ResponseEntity<>(
                 new ErrorResponseDescriptionListDTO(
@@ -147,4 +203,8 @@ class GlobalExceptionHandler {
         return businessDescription;
     }
 
+    private void countError(String businessStatus) {
+        meterRegistry.ifAvailable(registry -> registry.counter(ERRORS_COUNTER, "code", businessStatus).increment());
+    }
+
 }
@@ -6,13 +6,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.validator.constraints.Length;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletUpdateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.error.ErrorResponseDTO;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletService;
 
@@ -36,6 +41,8 @@ public class WalletController {
 
     private final WalletService walletService;
 
+    private final AsyncQueryExecutor asyncQueryExecutor;
+
     @PostMapping()
     public ResponseEntity<WalletDTO> createWallet(
             @Valid @RequestBody WalletCreateDTO walletCreateDTO) {
@@ -58,16 +65,23 @@ public class WalletController {
     @PatchMapping("/{id}")
     public ResponseEntity<WalletDTO> updateWallet(
             @Min(1) @NotNull @PathVariable Long id,
-            @Valid @RequestBody WalletUpdateDTO walletUpdateDto) {
+            @Valid @RequestBody WalletUpdateDTO walletUpdateDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        WalletDTO walletDTO = walletService.updateWallet(id, walletUpdateDto);
+        WalletDTO walletDTO = walletService.updateWallet(id, walletUpdateDto, ETags.parseIfMatch(ifMatch));
         return new ResponseEntity<>(walletDTO, HttpStatus.OK);
     }
 
     @GetMapping()
-    ResponseEntity<List<WalletDTO>> getWallets() {
-        List<WalletDTO> walletsDTO = walletService.getWallets();
-        return new ResponseEntity<>(walletsDTO, HttpStatus.OK);
+    DeferredResult<ResponseEntity<List<WalletDTO>>> getWallets(WebRequest request) {
+        String currentTag = ETags.weak(walletService.getWalletsVersion());
+        if (ETags.matchesIfNoneMatch(request, currentTag)) {
+            return AsyncQueryExecutor.completed(ETags.notModified(currentTag));
+        }
+        return asyncQueryExecutor.submit(() -> {
+            VersionedDTO<List<WalletDTO>> wallets = walletService.getWalletsWithVersion();
+            return ETags.ok(wallets.body(), ETags.weak(wallets.version()));
+        });
     }
 
     @DeleteMapping("/{id}")
@@ -78,18 +92,31 @@ public class WalletController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<WalletDTO> findWalletById(@Min(1) @NotNull @PathVariable Long id) {
-
-        WalletDTO walletDTO = walletService.findById(id);
-        return new ResponseEntity<>(walletDTO, HttpStatus.OK);
+    public ResponseEntity<WalletDTO> findWalletById(@Min(1) @NotNull @PathVariable Long id, WebRequest request) {
+        String currentTag = ETags.strong(walletService.findWalletVersion(id));
+        if (ETags.matchesIfNoneMatch(request, currentTag)) {
+            return ETags.notModified(currentTag);
+        }
+
+        VersionedDTO<WalletDTO> wallet = walletService.findByIdWithVersion(id);
+        return ETags.ok(wallet.body(), ETags.strong(wallet.version()));
     }
 
     @GetMapping("/wallets/{name}")
-    ResponseEntity<List<WalletDTO>> findAllByNameLikeIgnoreCase(
+    DeferredResult<ResponseEntity<List<WalletDTO>>> findAllByNameLikeIgnoreCase(
             @PathVariable @NotBlank @Pattern(regexp = "[\\w ]+") @Length(max = 20)
             String name) {
 
-        List<WalletDTO> walletsDTO = walletService.findAllByNameIgnoreCase(name);
-        return new ResponseEntity<>(walletsDTO, HttpStatus.OK);
+        return asyncQueryExecutor.submit(() ->
+                new ResponseEntity<>(walletService.findAllByNameIgnoreCase(name), HttpStatus.OK));
+    }
+
+    @GetMapping("/autocomplete")
+    ResponseEntity<List<NameSuggestionDTO>> getWalletNameSuggestions(
+            @RequestParam @Length(max = 20) String prefix,
+            @RequestParam(required = false) @Min(1) Integer limit) {
+
+        List<NameSuggestionDTO> nameSuggestionDTOs = walletService.findWalletNameSuggestions(prefix, limit);
+        return new ResponseEntity<>(nameSuggestionDTOs, HttpStatus.OK);
     }
 }
@@ -0,0 +1,37 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletDeletionJobDTO;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletDeletionService;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Validated
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/wallets")
+public class WalletDeletionController {
+
+    private final WalletDeletionService walletDeletionService;
+
+    @PostMapping("/{id}/deletion")
+    public ResponseEntity<WalletDeletionJobDTO> requestWalletDeletion(@Min(1) @NotNull @PathVariable Long id) {
+        WalletDeletionJobDTO deletionJobDTO = walletDeletionService.requestWalletDeletion(id);
+        return new ResponseEntity<>(deletionJobDTO, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<WalletDeletionJobDTO> findWalletDeletionJob(@Min(1) @NotNull @PathVariable Long id) {
+        WalletDeletionJobDTO deletionJobDTO = walletDeletionService.findWalletDeletionJob(id);
+        return new ResponseEntity<>(deletionJobDTO, HttpStatus.OK);
+    }
+}
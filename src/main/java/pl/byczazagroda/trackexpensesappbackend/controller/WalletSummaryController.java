@@ -0,0 +1,36 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletSummaryDTO;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletSummaryService;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.YearMonth;
+
+@Validated
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/wallets")
+public class WalletSummaryController {
+
+    private final WalletSummaryService walletSummaryService;
+
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<WalletSummaryDTO> getWalletSummary(
+            @Min(1) @NotNull @PathVariable Long id,
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to) {
+
+        WalletSummaryDTO walletSummaryDTO = walletSummaryService.getSummary(id, from, to);
+        return new ResponseEntity<>(walletSummaryDTO, HttpStatus.OK);
+    }
+}
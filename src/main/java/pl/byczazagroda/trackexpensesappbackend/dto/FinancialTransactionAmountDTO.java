@@ -0,0 +1,14 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Fields of a transaction that the wallet totals, monthly totals and category counters are derived from,
+ * with the version they were read at.
+ */
+public record FinancialTransactionAmountDTO(Long id, Long walletId, FinancialTransactionType type, BigDecimal amount,
+                                            Instant date, Long categoryId, Long version) {
+}
@@ -0,0 +1,13 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+/**
+ * Result of one item of a financial transaction batch.
+ *
+ * @param index is a position of the item in the request
+ * @param financialTransaction is the created transaction, null when the item was rejected
+ * @param errorStatus is a business status of the error which rejected the item, e.g. "W003"
+ * @param errorMessage is a business message of the error which rejected the item, e.g. "WALLET_NOT_FOUND"
+ */
+public record FinancialTransactionBatchItemDTO(Integer index, FinancialTransactionDTO financialTransaction,
+                                               String errorStatus, String errorMessage) {
+}
@@ -0,0 +1,22 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Optional criteria of a transaction listing, a null value does not restrict the result.
+ *
+ * @param from is the first instant of the range, inclusive
+ * @param to is the end of the range, exclusive, so that consecutive months do not overlap
+ * @param minAmount is the lowest amount, inclusive
+ * @param maxAmount is the highest amount, inclusive
+ */
+public record FinancialTransactionFilterDTO(Instant from, Instant to, BigDecimal minAmount, BigDecimal maxAmount,
+                                            FinancialTransactionType type, Long categoryId) {
+
+    public static FinancialTransactionFilterDTO none() {
+        return new FinancialTransactionFilterDTO(null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,22 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionImportStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of a financial transaction import.
+ *
+ * @param processedLines is a number of lines read so far, without the header
+ * @param skippedDuplicates is a number of lines already imported to the wallet before
+ * @param rejections are details of the first rejected lines, rejectedLines holds the total
+ * @param failureMessage says why the whole import failed, null unless the status is FAILED
+ */
+public record FinancialTransactionImportJobDTO(UUID id, Long walletId, FinancialTransactionImportStatus status,
+                                               Long processedLines, Long importedTransactions,
+                                               Long skippedDuplicates, Long rejectedLines,
+                                               List<FinancialTransactionImportRejectionDTO> rejections,
+                                               String failureMessage, Instant createdAt, Instant finishedAt) {
+}
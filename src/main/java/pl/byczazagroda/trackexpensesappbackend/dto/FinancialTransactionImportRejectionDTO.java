@@ -0,0 +1,11 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+/**
+ * Line of an imported CSV file which was not written.
+ *
+ * @param lineNumber is a number of the CSV record in the file, the header being 1
+ * @param errorStatus is a business status of the error which rejected the line, e.g. "FT002"
+ * @param description says what is wrong with the line
+ */
+public record FinancialTransactionImportRejectionDTO(Long lineNumber, String errorStatus, String description) {
+}
@@ -0,0 +1,15 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of a wallet's financial transactions, ordered from the newest one.
+ *
+ * @param financialTransactions transactions on the current page
+ * @param nextCursor is an opaque token of the next page, null when there are no more transactions
+ */
+public record FinancialTransactionPageDTO(@JsonInclude(JsonInclude.Include.ALWAYS) List<FinancialTransactionDTO> financialTransactions,
+                                          @JsonInclude(JsonInclude.Include.ALWAYS) String nextCursor) {
+}
@@ -0,0 +1,17 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import java.time.Instant;
+
+/**
+ * Criteria of a search over transaction descriptions. Exactly one of the wallet and the user is the scope.
+ *
+ * @param query are the words to look for, words shorter than three characters are not indexed and never match
+ * @param from is the first instant of the range, inclusive, null does not restrict it
+ * @param to is the end of the range, exclusive, null does not restrict it
+ * @param order of the results, null orders them by relevance
+ */
+public record FinancialTransactionSearchDTO(@NotBlank @Size(max = 255) String query, Long walletId, Long userId,
+                                            Instant from, Instant to, FinancialTransactionSearchOrder order) {
+}
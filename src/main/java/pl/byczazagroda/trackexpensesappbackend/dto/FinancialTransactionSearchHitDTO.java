@@ -0,0 +1,9 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+/**
+ * A transaction found by a search together with its score.
+ *
+ * @param score is the relevance of the description in millionths, an integer so the next page starts exactly after it
+ */
+public record FinancialTransactionSearchHitDTO(FinancialTransactionDTO financialTransaction, long score) {
+}
@@ -0,0 +1,14 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+public enum FinancialTransactionSearchOrder {
+
+    /**
+     * Best matching descriptions first, as scored by the MySQL full-text index.
+     */
+    RELEVANCE,
+
+    /**
+     * Newest matching transactions first.
+     */
+    DATE
+}
@@ -0,0 +1,11 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of the amounts of one type of transactions in a wallet.
+ */
+public record FinancialTransactionTotalDTO(Long walletId, FinancialTransactionType type, BigDecimal total) {
+}
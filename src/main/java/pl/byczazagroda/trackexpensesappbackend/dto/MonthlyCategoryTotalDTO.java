@@ -0,0 +1,15 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of a wallet's transactions of one type and category in a month.
+ *
+ * @param categoryId is the category of the transactions, null for transactions without a category
+ * @param transactionCount is the number of summed up transactions
+ */
+public record MonthlyCategoryTotalDTO(Long categoryId, FinancialTransactionType type, BigDecimal total,
+                                      Long transactionCount) {
+}
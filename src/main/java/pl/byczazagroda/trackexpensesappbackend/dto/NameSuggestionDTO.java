@@ -0,0 +1,7 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+/**
+ * A wallet or a category whose name starts with the typed prefix.
+ */
+public record NameSuggestionDTO(Long id, String name) {
+}
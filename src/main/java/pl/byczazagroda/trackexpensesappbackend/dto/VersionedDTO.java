@@ -0,0 +1,10 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+/**
+ * A resource together with the version it was read at, from the same read view.
+ *
+ * @param body is the resource
+ * @param version is the version of exactly this body, the entity tag of a response serving it is derived from it
+ */
+public record VersionedDTO<T>(T body, String version) {
+}
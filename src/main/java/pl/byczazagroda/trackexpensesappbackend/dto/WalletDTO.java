@@ -1,5 +1,6 @@
 package pl.byczazagroda.trackexpensesappbackend.dto;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 
 /**
@@ -8,6 +9,10 @@ import java.time.Instant;
  * @param id is a technical identity number
  * @param name is a Wallet's name
  * @param creationDate is a date and hour when wallet has been created
+ * @param incomeTotal is a sum of all incomes of the wallet
+ * @param expenseTotal is a sum of all expenses of the wallet
+ * @param balance is incomeTotal minus expenseTotal
  */
-public record WalletDTO(Long id, String name, Instant creationDate, Long userId) {
+public record WalletDTO(Long id, String name, Instant creationDate, Long userId,
+                        BigDecimal incomeTotal, BigDecimal expenseTotal, BigDecimal balance) {
 }
@@ -0,0 +1,15 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionStatus;
+
+import java.time.Instant;
+
+/**
+ * Progress of a wallet deletion.
+ *
+ * @param deletedTransactions is a number of transactions deleted by the finished batches
+ * @param failureMessage says why the deletion stopped, null unless the status is FAILED
+ */
+public record WalletDeletionJobDTO(Long walletId, WalletDeletionStatus status, Long deletedTransactions,
+                                   String failureMessage, Instant createdAt, Instant finishedAt) {
+}
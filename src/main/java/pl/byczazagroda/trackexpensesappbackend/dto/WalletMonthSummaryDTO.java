@@ -0,0 +1,14 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Income and expense totals of a wallet in a month, in UTC.
+ *
+ * @param categories are the totals per type and category, ordered by type and category id
+ */
+public record WalletMonthSummaryDTO(YearMonth month, BigDecimal incomeTotal, BigDecimal expenseTotal,
+                                    List<MonthlyCategoryTotalDTO> categories) {
+}
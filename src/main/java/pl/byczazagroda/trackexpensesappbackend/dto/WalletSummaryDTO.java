@@ -0,0 +1,14 @@
+package pl.byczazagroda.trackexpensesappbackend.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Monthly income and expense totals of a wallet in a range of months.
+ *
+ * @param from is the first month of the range
+ * @param to is the last month of the range, inclusive
+ * @param months are the months with transactions, from the oldest one
+ */
+public record WalletSummaryDTO(Long walletId, YearMonth from, YearMonth to, List<WalletMonthSummaryDTO> months) {
+}
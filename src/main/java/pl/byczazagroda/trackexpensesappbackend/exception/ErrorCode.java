@@ -5,9 +5,17 @@ public enum ErrorCode {
     W001("W001", "WALLET_RETRIEVING_ERROR", 200),
     W003("W003", "WALLET_NOT_FOUND", 404),
     W004("W004", "WALLETS_LIST_LIKE_NAME_NOT_FOUND_EXC_MSG", 404),
+    W005("W005", "WALLET_SUMMARY_RANGE_INVALID", 400),
+    W006("W006", "WALLET_DELETION_JOB_NOT_FOUND", 404),
 
     FT001("FT001", "FINANCIAL_TRANSACTION_NOT_FOUND", 404),
     FT002("FT002", "FINANCIAL_TRANSACTION_TYPE_DOES_NOT_MATCH_WITH_CATEGORY_TYPE", 400),
+    FT003("FT003", "FINANCIAL_TRANSACTION_INVALID_PAGE_CURSOR", 400),
+    FT004("FT004", "FINANCIAL_TRANSACTION_EXPORT_FORMAT_NOT_SUPPORTED", 400),
+    FT005("FT005", "FINANCIAL_TRANSACTION_BATCH_TOO_LARGE", 400),
+    FT006("FT006", "FINANCIAL_TRANSACTION_IMPORT_FILE_INVALID", 400),
+    FT007("FT007", "FINANCIAL_TRANSACTION_IMPORT_JOB_NOT_FOUND", 404),
+    FT008("FT008", "FINANCIAL_TRANSACTION_SEARCH_SCOPE_INVALID", 400),
 
     FTC001("FTC001", "FINANCIAL_TRANSACTION_CATEGORY_NOT_FOUND", 404),
 
@@ -15,11 +23,19 @@ public enum ErrorCode {
     TEA002("TEA002", "ENDPOINT_DOES_NOT_EXISTS", 400),
     TEA003("TEA003", "VALIDATION_FAILED", 400),
     TEA004("TEA004", "THROWABLE_EXCEPTION", 500),
+    TEA005("TEA005", "SERVICE_BUSY", 503),
+    TEA006("TEA006", "PRECONDITION_FAILED", 412),
+    TEA007("TEA007", "CONCURRENT_MODIFICATION", 409),
+    TEA008("TEA008", "TOO_MANY_REQUESTS", 429),
+    TEA009("TEA009", "REQUEST_TIMEOUT", 503),
 
     U001("U001", "USER_ALREADY_EXISTS", 400),
     U002("U002", "INVALID_EMAIL_FORMAT", 400),
     U003("U003", "PASSWORD_DOES_NOT_MEET_REQUIREMENTS", 400),
-    U004("U004", "PASSWORD_TOO_SHORT", 400);
+    U004("U004", "PASSWORD_TOO_SHORT", 400),
+    U005("U005", "INVALID_CREDENTIALS", 401),
+    U006("U006", "INVALID_ACCESS_TOKEN", 401),
+    U007("U007", "INVALID_REFRESH_TOKEN", 401);
 
     private final String businessStatus;
     private final String businessMessage;
@@ -2,11 +2,13 @@ package pl.byczazagroda.trackexpensesappbackend.mapper;
 
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
 
 @Mapper(componentModel = "spring")
 public interface WalletModelMapper {
+    @Mapping(source = "user.id", target = "userId")
     WalletDTO mapWalletEntityToWalletDTO(Wallet wallet);
 }
 
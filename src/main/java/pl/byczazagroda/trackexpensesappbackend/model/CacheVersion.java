@@ -0,0 +1,39 @@
+package pl.byczazagroda.trackexpensesappbackend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Version counter of data cached in memory by every application instance. Whoever changes the cached data
+ * increments the counter in the same transaction, so the other instances can tell that their copy is stale.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "cache_versions")
+public class CacheVersion implements Serializable {
+
+    /**
+     * Class version 0.1.0.  SerialVersionUID needs to be updated with any change.
+     */
+    @Serial
+    private static final long serialVersionUID = 100010L;
+
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "version")
+    private Long version;
+}
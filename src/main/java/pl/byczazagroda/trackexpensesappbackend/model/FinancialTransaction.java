@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import javax.persistence.Column;
@@ -18,6 +20,7 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Size;
 import java.io.Serial;
@@ -35,13 +38,25 @@ import java.time.Instant;
 public class FinancialTransaction implements Serializable {
 
     /**
-     * Class version 0.3.0.  SerialVersionUID needs to be updated with any change.
+     * Class version 0.4.0.  SerialVersionUID needs to be updated with any change.
      */
     @Serial
-    private static final long serialVersionUID = 100030L;
+    private static final long serialVersionUID = 100040L;
 
+    /**
+     * Ids are allocated in blocks from the financial_transactions_seq table (pooled-lo optimizer),
+     * which, unlike IDENTITY, lets Hibernate batch the inserts.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "financial_transactions_seq")
+    @GenericGenerator(
+            name = "financial_transactions_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "financial_transactions_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -64,6 +79,16 @@ public class FinancialTransaction implements Serializable {
     @ManyToOne(fetch = FetchType.LAZY)
     private FinancialTransactionCategory financialTransactionCategory;
 
+    /**
+     * SHA-256 of wallet, date, amount and description, set only for imported transactions to skip duplicates.
+     */
+    @Column(name = "import_hash", length = 64)
+    private String importHash;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -19,6 +19,7 @@ import javax.persistence.Id;
 import javax.persistence.OneToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
@@ -38,10 +39,10 @@ import java.util.List;
 public class FinancialTransactionCategory implements Serializable {
 
     /**
-     * Class version 0.5.0.  SerialVersionUID needs to be updated with any change.
+     * Class version 0.7.0.  SerialVersionUID needs to be updated with any change.
      */
     @Serial
-    private static final long serialVersionUID = 100050L;
+    private static final long serialVersionUID = 100070L;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -60,6 +61,21 @@ public class FinancialTransactionCategory implements Serializable {
     @DateTimeFormat(pattern = "yyyy-mm-dd hh:mm:ss")
     private Instant creationDate;
 
+    /**
+     * Number of transactions in the category. It is changed only by relative updates in
+     * FinancialTransactionCategoryRepository, together with the transactions it counts.
+     */
+    @Builder.Default
+    @Column(name = "transaction_count", insertable = false, updatable = false)
+    private Long transactionCount = 0L;
+
+    /**
+     * Incremented by every change of the category, including the change of its transaction counter.
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @OneToMany(mappedBy = "financialTransactionCategory", fetch = FetchType.LAZY)
     private List<FinancialTransaction> financialTransactions;
 
@@ -72,6 +88,7 @@ public class FinancialTransactionCategory implements Serializable {
         this.name = name;
         this.type = type;
         this.creationDate = Instant.now();
+        this.transactionCount = 0L;
     }
 
 }
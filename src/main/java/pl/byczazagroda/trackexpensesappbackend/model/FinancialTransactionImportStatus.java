@@ -0,0 +1,8 @@
+package pl.byczazagroda.trackexpensesappbackend.model;
+
+public enum FinancialTransactionImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+}
@@ -0,0 +1,42 @@
+package pl.byczazagroda.trackexpensesappbackend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Rollup of the financial transactions of a wallet per month, type and category. Rows are changed only by
+ * relative updates in MonthlyCategoryTotalRepository, together with the transactions they sum up.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "monthly_category_totals")
+public class MonthlyCategoryTotal implements Serializable {
+
+    /**
+     * Class version 0.1.0.  SerialVersionUID needs to be updated with any change.
+     */
+    @Serial
+    private static final long serialVersionUID = 100010L;
+
+    @EmbeddedId
+    private MonthlyCategoryTotalId id;
+
+    @Column(name = "total")
+    private BigDecimal total;
+
+    @Column(name = "transaction_count")
+    private Long transactionCount;
+}
@@ -0,0 +1,49 @@
+package pl.byczazagroda.trackexpensesappbackend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class MonthlyCategoryTotalId implements Serializable {
+
+    /**
+     * Class version 0.1.0.  SerialVersionUID needs to be updated with any change.
+     */
+    @Serial
+    private static final long serialVersionUID = 100010L;
+
+    /**
+     * Category id stored for transactions without a category.
+     */
+    public static final long NO_CATEGORY = 0L;
+
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    /**
+     * First day of the month, in UTC.
+     */
+    @Column(name = "month")
+    private LocalDate month;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", length = 16)
+    private FinancialTransactionType type;
+
+    @Column(name = "financial_transaction_category_id")
+    private Long categoryId;
+}
@@ -0,0 +1,58 @@
+package pl.byczazagroda.trackexpensesappbackend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A refresh token handed out in the refresh_token cookie. Only the SHA-256 hash of the token is stored, so the
+ * table does not hold usable tokens. Every refresh replaces the row, a token can be used once.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "refresh_tokens")
+public class RefreshToken implements Serializable {
+
+    /**
+     * Class version 0.1.0.  SerialVersionUID needs to be updated with any change.
+     */
+    @Serial
+    private static final long serialVersionUID = 100010L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "token_hash")
+    private String tokenHash;
+
+    @Column(name = "remember_me")
+    private boolean rememberMe;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    public RefreshToken(Long userId, String tokenHash, boolean rememberMe, Instant expiresAt) {
+        this.userId = userId;
+        this.tokenHash = tokenHash;
+        this.rememberMe = rememberMe;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,40 @@
+package pl.byczazagroda.trackexpensesappbackend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An access token revoked by a logout before it expired. The row is only needed until the token expires,
+ * every instance keeps the ids in memory and checks them without a query.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revoked_access_tokens")
+public class RevokedAccessToken implements Serializable {
+
+    /**
+     * Class version 0.1.0.  SerialVersionUID needs to be updated with any change.
+     */
+    @Serial
+    private static final long serialVersionUID = 100010L;
+
+    @Id
+    @Column(name = "token_id")
+    private String tokenId;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+}
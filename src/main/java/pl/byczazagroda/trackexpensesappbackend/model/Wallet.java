@@ -14,6 +14,7 @@ import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import java.io.Serial;
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,10 +35,10 @@ import java.util.List;
 public class Wallet implements Serializable {
 
     /**
-     * Class version 0.3.0.  SerialVersionUID needs to be updated with any change.
+     * Class version 0.7.0.  SerialVersionUID needs to be updated with any change.
      */
     @Serial
-    private static final long serialVersionUID = 100030L;
+    private static final long serialVersionUID = 100070L;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -56,14 +57,52 @@ public class Wallet implements Serializable {
     @DateTimeFormat(pattern = "yyyy-mm-dd hh:mm:ss")
     private Instant creationDate;
 
-    @OneToMany(mappedBy = "wallet",
-            cascade = CascadeType.ALL,
-            orphanRemoval = true)
+    /**
+     * Sum of the wallet's incomes. It is changed only by delta updates in WalletRepository,
+     * never written back from the entity, so a stale entity cannot overwrite a concurrent change.
+     */
+    @Builder.Default
+    @Column(name = "income_total", insertable = false, updatable = false)
+    private BigDecimal incomeTotal = BigDecimal.ZERO;
+
+    /**
+     * Sum of the wallet's expenses, maintained like {@link #incomeTotal}.
+     */
+    @Builder.Default
+    @Column(name = "expense_total", insertable = false, updatable = false)
+    private BigDecimal expenseTotal = BigDecimal.ZERO;
+
+    /**
+     * Incremented by every change of the wallet, including the change of its totals by its transactions,
+     * so it also tells whether the wallet's transactions changed.
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    /**
+     * Set when the wallet is queued for deletion, from then on it is hidden and its transactions are deleted
+     * in the background. Set only by WalletRepository, so saving a stale entity cannot bring the wallet back.
+     */
+    @Column(name = "deletion_requested_at", insertable = false, updatable = false)
+    private Instant deletionRequestedAt;
+
+    /**
+     * Not cascaded, the transactions of a deleted wallet are removed by the ON DELETE CASCADE of their foreign key
+     * in one statement instead of being loaded and deleted one by one.
+     */
+    @OneToMany(mappedBy = "wallet")
     private List<FinancialTransaction> financialTransactionList = new ArrayList<>();
 
     public Wallet(String name) {
         this.name = name;
         this.creationDate = Instant.now();
+        this.incomeTotal = BigDecimal.ZERO;
+        this.expenseTotal = BigDecimal.ZERO;
+    }
+
+    public BigDecimal getBalance() {
+        return incomeTotal.subtract(expenseTotal);
     }
 
     public void addFinancialTransaction(FinancialTransaction financialTransaction) {
@@ -0,0 +1,63 @@
+package pl.byczazagroda.trackexpensesappbackend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Progress of the background deletion of a wallet. It is kept in the database, not in memory like the imports,
+ * so a deletion interrupted by a restart is resumed, and it outlives the wallet, so its status can still be read
+ * once the wallet is gone.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "wallet_deletion_jobs")
+public class WalletDeletionJob implements Serializable {
+
+    /**
+     * Class version 0.1.0.  SerialVersionUID needs to be updated with any change.
+     */
+    @Serial
+    private static final long serialVersionUID = 100010L;
+
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private WalletDeletionStatus status;
+
+    @Column(name = "deleted_transactions")
+    private Long deletedTransactions;
+
+    @Column(name = "failure_message")
+    private String failureMessage;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    public WalletDeletionJob(Long walletId, Instant createdAt) {
+        this.walletId = walletId;
+        this.status = WalletDeletionStatus.QUEUED;
+        this.deletedTransactions = 0L;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,8 @@
+package pl.byczazagroda.trackexpensesappbackend.model;
+
+public enum WalletDeletionStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+}
@@ -0,0 +1,19 @@
+package pl.byczazagroda.trackexpensesappbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.byczazagroda.trackexpensesappbackend.model.CacheVersion;
+
+import java.util.Optional;
+
+public interface CacheVersionRepository extends JpaRepository<CacheVersion, String> {
+
+    @Query("SELECT v.version FROM CacheVersion v WHERE v.name = :name")
+    Optional<Long> findVersionByName(@Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE CacheVersion v SET v.version = v.version + 1 WHERE v.name = :name")
+    int incrementVersion(@Param("name") String name);
+}
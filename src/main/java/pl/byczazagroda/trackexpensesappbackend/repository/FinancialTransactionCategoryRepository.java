@@ -1,9 +1,99 @@
 package pl.byczazagroda.trackexpensesappbackend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface FinancialTransactionCategoryRepository extends JpaRepository<FinancialTransactionCategory, Long> {
+
+    /**
+     * Selects categories straight into DTOs, so no managed entities are created for a read-only list.
+     */
+    @Query("""
+            SELECT new pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO(c.id, c.name, c.type)
+            FROM FinancialTransactionCategory c""")
+    List<FinancialTransactionCategoryDTO> findAllFinancialTransactionCategoryDTOs();
+
+    /**
+     * Applies a change of the category's transaction counter in a single statement. Callers update the categories
+     * in id order, after the wallet row, so concurrent writes lock the rows in the same order.
+     * The counter is a part of the category's representation, so the version is incremented with it.
+     */
+    @Modifying
+    @Query("""
+            UPDATE FinancialTransactionCategory c
+            SET c.transactionCount = c.transactionCount + :delta, c.version = c.version + 1
+            WHERE c.id = :id""")
+    int addToTransactionCount(@Param("id") Long id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("""
+            UPDATE FinancialTransactionCategory c
+            SET c.transactionCount = :transactionCount, c.version = c.version + 1
+            WHERE c.id = :id""")
+    int setTransactionCount(@Param("id") Long id, @Param("transactionCount") long transactionCount);
+
+    /**
+     * Subtracts the transactions of a wallet from the counters of their categories, before the wallet is deleted
+     * together with its transactions.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE financial_transaction_categories c
+            JOIN (SELECT financial_transaction_category_id AS category_id, COUNT(*) AS transaction_count
+                  FROM financial_transactions
+                  WHERE wallet_id = :walletId AND financial_transaction_category_id IS NOT NULL
+                  GROUP BY financial_transaction_category_id) wallet_transactions
+                ON wallet_transactions.category_id = c.id
+            SET c.transaction_count = c.transaction_count - wallet_transactions.transaction_count,
+                c.version = c.version + 1""",
+            nativeQuery = true)
+    int subtractTransactionCountsOfWallet(@Param("walletId") Long walletId);
+
+    /**
+     * Subtracts the given transactions from the counters of their categories, before they are deleted.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE financial_transaction_categories c
+            JOIN (SELECT financial_transaction_category_id AS category_id, COUNT(*) AS transaction_count
+                  FROM financial_transactions
+                  WHERE id IN (:ids) AND financial_transaction_category_id IS NOT NULL
+                  GROUP BY financial_transaction_category_id) deleted_transactions
+                ON deleted_transactions.category_id = c.id
+            SET c.transaction_count = c.transaction_count - deleted_transactions.transaction_count,
+                c.version = c.version + 1""",
+            nativeQuery = true)
+    int subtractTransactionCountsOfTransactions(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM FinancialTransactionCategory c WHERE c.id = :id")
+    Optional<FinancialTransactionCategory> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT c.version FROM FinancialTransactionCategory c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT c.id FROM FinancialTransactionCategory c ORDER BY c.id")
+    List<Long> findAllIds();
+
+    /**
+     * Deletes the row in a single statement. The transactions of the category are left without a category
+     * by the ON DELETE SET NULL of their foreign key.
+     *
+     * @return 0 when the category does not exist
+     */
+    @Modifying
+    @Query("DELETE FROM FinancialTransactionCategory c WHERE c.id = :id")
+    int deleteFinancialTransactionCategoryById(@Param("id") Long id);
 }
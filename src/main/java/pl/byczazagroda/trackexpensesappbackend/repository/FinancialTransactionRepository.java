@@ -1,15 +1,98 @@
 package pl.byczazagroda.trackexpensesappbackend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionAmountDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionTotalDTO;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
 
+import javax.persistence.QueryHint;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface FinancialTransactionRepository extends JpaRepository<FinancialTransaction, Long> {
-    List<FinancialTransaction> findAllByWalletIdOrderByDateDesc(Long id);
+public interface FinancialTransactionRepository extends JpaRepository<FinancialTransaction, Long>,
+        FinancialTransactionRepositoryCustom {
+
+    /**
+     * Streams all transactions of a wallet. Fetch size Integer.MIN_VALUE makes MySQL Connector/J
+     * use a forward-only streaming result set, so rows are read one by one instead of being
+     * buffered in memory. The stream has to be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT ft FROM FinancialTransaction ft WHERE ft.wallet.id = :walletId ORDER BY ft.date DESC, ft.id DESC")
+    Stream<FinancialTransaction> streamAllByWalletId(@Param("walletId") Long walletId);
+
+    @Query("SELECT ft.importHash FROM FinancialTransaction ft WHERE ft.wallet.id = :walletId AND ft.importHash IN :importHashes")
+    List<String> findImportHashesByWalletId(@Param("walletId") Long walletId,
+                                            @Param("importHashes") Collection<String> importHashes);
+
+    /**
+     * Streams all transactions of a wallet as DTOs, like {@link #streamAllByWalletId(Long)} but without managed entities.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            SELECT new pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO(ft.id, ft.amount,
+                ft.description, ft.type, ft.date, ft.financialTransactionCategory.id)
+            FROM FinancialTransaction ft
+            WHERE ft.wallet.id = :walletId""")
+    Stream<FinancialTransactionDTO> streamAllFinancialTransactionDTOsByWalletId(@Param("walletId") Long walletId);
+
+    @Query("""
+            SELECT new pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionTotalDTO(ft.wallet.id, ft.type, SUM(ft.amount))
+            FROM FinancialTransaction ft
+            WHERE ft.wallet.id IN :walletIds
+            GROUP BY ft.wallet.id, ft.type""")
+    List<FinancialTransactionTotalDTO> sumAmountsByWalletIds(@Param("walletIds") Collection<Long> walletIds);
 
     BigInteger countFinancialTransactionsByFinancialTransactionCategoryId(Long financialTransactionCategoryId);
-}
\ No newline at end of file
+
+    @Query("""
+            SELECT new pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionAmountDTO(ft.id, ft.wallet.id,
+                ft.type, ft.amount, ft.date, ft.financialTransactionCategory.id, ft.version)
+            FROM FinancialTransaction ft
+            WHERE ft.id = :id""")
+    Optional<FinancialTransactionAmountDTO> findFinancialTransactionAmountDTOById(@Param("id") Long id);
+
+    @Query("SELECT ft.version FROM FinancialTransaction ft WHERE ft.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Deletes the row in a single statement, without loading the entity first, as long as it still has the version.
+     *
+     * @return 0 when the transaction does not exist or was changed since the version was read
+     */
+    @Modifying
+    @Query("DELETE FROM FinancialTransaction ft WHERE ft.id = :id AND ft.version = :version")
+    int deleteFinancialTransactionByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    /**
+     * Selects up to the limit of the wallet's transaction ids, in no particular order, so the wallet_id index
+     * is read no further than the limit.
+     */
+    @Query(value = "SELECT id FROM financial_transactions WHERE wallet_id = :walletId LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByWalletId(@Param("walletId") Long walletId, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM FinancialTransaction ft WHERE ft.id IN :ids")
+    int deleteFinancialTransactionsByIds(@Param("ids") Collection<Long> ids);
+}
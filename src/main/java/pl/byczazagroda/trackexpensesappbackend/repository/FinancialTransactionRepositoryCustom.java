@@ -0,0 +1,36 @@
+package pl.byczazagroda.trackexpensesappbackend.repository;
+
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchHitDTO;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface FinancialTransactionRepositoryCustom {
+
+    /**
+     * Returns transactions of a wallet matching the filter, newest first. Only the criteria present
+     * in the filter are added to the query, so each combination can use the matching index.
+     * Rows are selected straight into DTOs, without managed entities.
+     *
+     * @param afterDate date of the last transaction of the previous page, null for the first page
+     * @param afterId id of the last transaction of the previous page, null for the first page
+     */
+    List<FinancialTransactionDTO> findAllByWalletIdAndFilter(Long walletId, FinancialTransactionFilterDTO filter,
+                                                             Instant afterDate, Long afterId, int limit);
+
+    /**
+     * Searches descriptions with the full-text index in natural language mode, within the wallet or within
+     * the active wallets of the user, whichever the search is scoped by. Results are ordered by score or by date,
+     * the id breaks the ties in both orders.
+     *
+     * @param afterScore score of the last transaction of the previous page, used by the relevance order only
+     * @param afterDate date of the last transaction of the previous page, used by the date order only
+     * @param afterId id of the last transaction of the previous page, null for the first page
+     */
+    List<FinancialTransactionSearchHitDTO> searchByDescription(FinancialTransactionSearchDTO search,
+                                                               Long afterScore, Instant afterDate, Long afterId,
+                                                               int limit);
+}
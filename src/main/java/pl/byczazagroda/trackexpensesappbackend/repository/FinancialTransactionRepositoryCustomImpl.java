@@ -0,0 +1,158 @@
+package pl.byczazagroda.trackexpensesappbackend.repository;
+
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchHitDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchOrder;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FinancialTransactionRepositoryCustomImpl implements FinancialTransactionRepositoryCustom {
+
+    private static final String MATCH_DESCRIPTION = "MATCH(ft.description) AGAINST (:query IN NATURAL LANGUAGE MODE)";
+
+    /**
+     * The score is rounded to an integer, a floating point value sent back in a cursor might not compare equal
+     * to the one the server computes again.
+     */
+    private static final String SCORE = "CAST(ROUND(" + MATCH_DESCRIPTION + " * 1000000) AS SIGNED)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FinancialTransactionDTO> findAllByWalletIdAndFilter(Long walletId, FinancialTransactionFilterDTO filter,
+                                                                    Instant afterDate, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FinancialTransactionDTO> query = cb.createQuery(FinancialTransactionDTO.class);
+        Root<FinancialTransaction> ft = query.from(FinancialTransaction.class);
+        Path<Instant> date = ft.get("date");
+        Path<BigDecimal> amount = ft.get("amount");
+        Path<Long> id = ft.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(ft.get("wallet").get("id"), walletId));
+        if (filter.categoryId() != null) {
+            predicates.add(cb.equal(ft.get("financialTransactionCategory").get("id"), filter.categoryId()));
+        }
+        if (filter.type() != null) {
+            predicates.add(cb.equal(ft.get("type"), filter.type()));
+        }
+        if (filter.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(cb.lessThan(date, filter.to()));
+        }
+        if (filter.minAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(amount, filter.minAmount()));
+        }
+        if (filter.maxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(amount, filter.maxAmount()));
+        }
+        if (afterDate != null && afterId != null) {
+            predicates.add(cb.or(cb.lessThan(date, afterDate),
+                    cb.and(cb.equal(date, afterDate), cb.lessThan(id, afterId))));
+        }
+
+        // the category id is read from the foreign key column, without joining the categories
+        query.select(cb.construct(FinancialTransactionDTO.class, id, amount, ft.get("description"), ft.get("type"),
+                        date, ft.get("financialTransactionCategory").get("id")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(date), cb.desc(id));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<FinancialTransactionSearchHitDTO> searchByDescription(FinancialTransactionSearchDTO search,
+                                                                      Long afterScore, Instant afterDate, Long afterId,
+                                                                      int limit) {
+        boolean byDate = search.order() == FinancialTransactionSearchOrder.DATE;
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT ft.id, ft.amount, ft.description, ft.transaction_type, ft.transaction_date, ")
+                .append("ft.financial_transaction_category_id, ").append(SCORE).append(" AS score ")
+                .append("FROM financial_transactions ft ");
+        if (search.walletId() == null) {
+            sql.append("JOIN wallets w ON w.id = ft.wallet_id ");
+        }
+        // a bare MATCH condition is what makes MySQL read the full-text index instead of scanning the rows
+        sql.append("WHERE ").append(MATCH_DESCRIPTION);
+        if (search.walletId() != null) {
+            sql.append(" AND ft.wallet_id = :walletId");
+        } else {
+            sql.append(" AND w.user_id = :userId AND w.deletion_requested_at IS NULL");
+        }
+        if (search.from() != null) {
+            sql.append(" AND ft.transaction_date >= :from");
+        }
+        if (search.to() != null) {
+            sql.append(" AND ft.transaction_date < :to");
+        }
+        boolean afterPosition = afterId != null && (byDate ? afterDate != null : afterScore != null);
+        if (afterPosition) {
+            String position = byDate ? "ft.transaction_date" : SCORE;
+            String after = byDate ? ":afterDate" : ":afterScore";
+            sql.append(" AND (").append(position).append(" < ").append(after)
+                    .append(" OR (").append(position).append(" = ").append(after).append(" AND ft.id < :afterId))");
+        }
+        sql.append(byDate ? " ORDER BY ft.transaction_date DESC, ft.id DESC" : " ORDER BY score DESC, ft.id DESC")
+                .append(" LIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("query", search.query())
+                .setParameter("limit", limit);
+        if (search.walletId() != null) {
+            query.setParameter("walletId", search.walletId());
+        } else {
+            query.setParameter("userId", search.userId());
+        }
+        if (search.from() != null) {
+            query.setParameter("from", Timestamp.from(search.from()));
+        }
+        if (search.to() != null) {
+            query.setParameter("to", Timestamp.from(search.to()));
+        }
+        if (afterPosition) {
+            query.setParameter("afterId", afterId);
+            if (byDate) {
+                query.setParameter("afterDate", Timestamp.from(afterDate));
+            } else {
+                query.setParameter("afterScore", afterScore);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(FinancialTransactionRepositoryCustomImpl::toSearchHit)
+                .toList();
+    }
+
+    private static FinancialTransactionSearchHitDTO toSearchHit(Object[] row) {
+        FinancialTransactionDTO financialTransaction = new FinancialTransactionDTO(
+                ((Number) row[0]).longValue(),
+                (BigDecimal) row[1],
+                (String) row[2],
+                FinancialTransactionType.valueOf((String) row[3]),
+                ((Timestamp) row[4]).toInstant(),
+                row[5] == null ? null : ((Number) row[5]).longValue());
+        return new FinancialTransactionSearchHitDTO(financialTransaction, ((Number) row[6]).longValue());
+    }
+}
@@ -0,0 +1,70 @@
+package pl.byczazagroda.trackexpensesappbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.byczazagroda.trackexpensesappbackend.model.MonthlyCategoryTotal;
+import pl.byczazagroda.trackexpensesappbackend.model.MonthlyCategoryTotalId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MonthlyCategoryTotalRepository extends JpaRepository<MonthlyCategoryTotal, MonthlyCategoryTotalId> {
+
+    /**
+     * Adds to the rollup row, creating it on first use. Callers update the wallet row first,
+     * so writes to the rollups of one wallet are serialized by the wallet row lock.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO monthly_category_totals
+                (wallet_id, month, transaction_type, financial_transaction_category_id, total, transaction_count)
+            VALUES (:walletId, :month, :type, :categoryId, :amount, :count) AS delta
+            ON DUPLICATE KEY UPDATE
+                total = monthly_category_totals.total + delta.total,
+                transaction_count = monthly_category_totals.transaction_count + delta.transaction_count""",
+            nativeQuery = true)
+    void addToTotal(@Param("walletId") Long walletId,
+                    @Param("month") LocalDate month,
+                    @Param("type") String type,
+                    @Param("categoryId") Long categoryId,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") long count);
+
+    @Query("""
+            SELECT t FROM MonthlyCategoryTotal t
+            WHERE t.id.walletId = :walletId AND t.id.month >= :from AND t.id.month <= :to AND t.transactionCount > 0
+            ORDER BY t.id.month, t.id.type, t.id.categoryId""")
+    List<MonthlyCategoryTotal> findAllByWalletIdAndMonthBetween(@Param("walletId") Long walletId,
+                                                                @Param("from") LocalDate from,
+                                                                @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM MonthlyCategoryTotal t WHERE t.id.walletId = :walletId")
+    int deleteAllByWalletId(@Param("walletId") Long walletId);
+
+    /**
+     * Moves the totals of a category to the uncategorised rows, as the database does with the transactions
+     * of a deleted category (ON DELETE SET NULL).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO monthly_category_totals
+                (wallet_id, month, transaction_type, financial_transaction_category_id, total, transaction_count)
+            SELECT * FROM (
+                SELECT wallet_id, month, transaction_type, 0, total, transaction_count
+                FROM monthly_category_totals
+                WHERE financial_transaction_category_id = :categoryId) AS moved
+                (wallet_id, month, transaction_type, financial_transaction_category_id, total, transaction_count)
+            ON DUPLICATE KEY UPDATE
+                total = monthly_category_totals.total + moved.total,
+                transaction_count = monthly_category_totals.transaction_count + moved.transaction_count""",
+            nativeQuery = true)
+    void addCategoryTotalsToNoCategory(@Param("categoryId") Long categoryId);
+
+    @Modifying
+    @Query("DELETE FROM MonthlyCategoryTotal t WHERE t.id.categoryId = :categoryId")
+    int deleteAllByCategoryId(@Param("categoryId") Long categoryId);
+}
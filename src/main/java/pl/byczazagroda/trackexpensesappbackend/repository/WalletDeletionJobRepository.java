@@ -0,0 +1,16 @@
+package pl.byczazagroda.trackexpensesappbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionJob;
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WalletDeletionJobRepository extends JpaRepository<WalletDeletionJob, Long> {
+
+    @Query("SELECT j.walletId FROM WalletDeletionJob j WHERE j.status IN :statuses ORDER BY j.createdAt")
+    List<Long> findWalletIdsByStatusIn(@Param("statuses") Collection<WalletDeletionStatus> statuses);
+}
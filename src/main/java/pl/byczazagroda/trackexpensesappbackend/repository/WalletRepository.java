@@ -1,13 +1,135 @@
 package pl.byczazagroda.trackexpensesappbackend.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
 
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
-    List<Wallet> findAllByNameLikeIgnoreCase(String name);
-    List<Wallet> findAllByOrderByNameAsc();
+    List<Wallet> findAllByNameLikeIgnoreCaseAndDeletionRequestedAtIsNull(String name);
+
+    /**
+     * Finds the wallet unless it is queued for deletion.
+     */
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id AND w.deletionRequestedAt IS NULL")
+    Optional<Wallet> findActiveById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(w) > 0 FROM Wallet w WHERE w.id = :id AND w.deletionRequestedAt IS NULL")
+    boolean existsActiveById(@Param("id") Long id);
+
+    @Query("SELECT w.version FROM Wallet w WHERE w.id = :id AND w.deletionRequestedAt IS NULL")
+    Optional<Long> findActiveVersionById(@Param("id") Long id);
+
+    /**
+     * Version of the whole wallet list, read from the primary key index and the version column only.
+     * Versions only grow and ids are never reused, so any insert, update or delete changes at least one part of it.
+     */
+    @Query(value = """
+            SELECT CONCAT(COUNT(*), '-', COALESCE(MAX(id), 0), '-', COALESCE(SUM(version), 0))
+            FROM wallets
+            WHERE deletion_requested_at IS NULL""",
+            nativeQuery = true)
+    String findActiveWalletsVersion();
+
+    /**
+     * Selects wallets straight into DTOs, so no managed entities are created for a read-only list.
+     */
+    @Query("""
+            SELECT new pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO(w.id, w.name, w.creationDate, w.user.id,
+                w.incomeTotal, w.expenseTotal, w.incomeTotal - w.expenseTotal)
+            FROM Wallet w
+            WHERE w.deletionRequestedAt IS NULL
+            ORDER BY w.name ASC""")
+    List<WalletDTO> findAllWalletDTOsOrderByNameAsc();
+
+    @Query("""
+            SELECT new pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO(w.id, w.name)
+            FROM Wallet w
+            WHERE w.deletionRequestedAt IS NULL""")
+    List<NameSuggestionDTO> findAllActiveWalletNames();
+
+    /**
+     * Applies a change of the wallet's totals in a single statement, so concurrent writes do not lose updates.
+     * It locks the wallet row, so it should run before the transaction rows are written,
+     * which keeps the lock order the same in all writing transactions.
+     * Every transaction write goes through it, so the incremented version also marks a change of the wallet's
+     * transactions.
+     *
+     * No transactions can be added to a wallet queued for deletion, so its background deletion comes to an end.
+     *
+     * @return 0 when the wallet does not exist or is queued for deletion
+     */
+    @Modifying
+    @Query("""
+            UPDATE Wallet w
+            SET w.incomeTotal = w.incomeTotal + :incomeDelta, w.expenseTotal = w.expenseTotal + :expenseDelta,
+                w.version = w.version + 1
+            WHERE w.id = :walletId AND w.deletionRequestedAt IS NULL""")
+    int addToBalance(@Param("walletId") Long walletId,
+                     @Param("incomeDelta") BigDecimal incomeDelta,
+                     @Param("expenseDelta") BigDecimal expenseDelta);
+
+    @Modifying
+    @Query("""
+            UPDATE Wallet w
+            SET w.incomeTotal = :incomeTotal, w.expenseTotal = :expenseTotal, w.version = w.version + 1
+            WHERE w.id = :walletId""")
+    int setBalance(@Param("walletId") Long walletId,
+                   @Param("incomeTotal") BigDecimal incomeTotal,
+                   @Param("expenseTotal") BigDecimal expenseTotal);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id > :afterId ORDER BY w.id")
+    List<Wallet> findAllByIdGreaterThanForUpdate(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT w.id FROM Wallet w ORDER BY w.id")
+    List<Long> findAllIds();
+
+    /**
+     * Locks the wallet row without loading the entity.
+     *
+     * @return empty when the wallet does not exist
+     */
+    @Query(value = "SELECT id FROM wallets WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    /**
+     * Locks the wallet row like {@link #lockById(Long)}, unless the wallet is queued for deletion.
+     *
+     * @return empty when the wallet does not exist or is queued for deletion
+     */
+    @Query(value = "SELECT id FROM wallets WHERE id = :id AND deletion_requested_at IS NULL FOR UPDATE",
+            nativeQuery = true)
+    Optional<Long> lockActiveById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.deletionRequestedAt = :requestedAt WHERE w.id = :id")
+    int markDeletionRequested(@Param("id") Long id, @Param("requestedAt") Instant requestedAt);
+
+    /**
+     * Deletes the row in a single statement. The transactions and monthly totals of the wallet are deleted by
+     * the ON DELETE CASCADE of their foreign keys, not one by one by Hibernate.
+     *
+     * @return 0 when the wallet does not exist
+     */
+    @Modifying
+    @Query("DELETE FROM Wallet w WHERE w.id = :id")
+    int deleteWalletById(@Param("id") Long id);
 }
@@ -0,0 +1,16 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+/**
+ * The payload of an access token, with the registered JWT claim names.
+ *
+ * @param sub the id of the user
+ * @param jti the id of the token, by which it is revoked
+ * @param iat the issue time in epoch seconds
+ * @param exp the expiry time in epoch seconds
+ */
+public record AccessTokenClaims(String sub, String jti, long iat, long exp) {
+
+    public Long userId() {
+        return Long.valueOf(sub);
+    }
+}
@@ -0,0 +1,143 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Signs and verifies access tokens, JWTs signed with HMAC-SHA256. Every instance shares the secret, so a token
+ * issued by one is verified by any other from the token alone, without a database lookup.
+ */
+@Component
+public class AccessTokenCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private static final String HEADER = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // a plain mapper, the application one leaves out null and empty values and may change with its settings
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final ObjectReader CLAIMS_READER = OBJECT_MAPPER.readerFor(AccessTokenClaims.class);
+
+    private static final ObjectWriter CLAIMS_WRITER = OBJECT_MAPPER.writerFor(AccessTokenClaims.class);
+
+    @Value("${application.auth.access-token-secret}")
+    private String secret;
+
+    @Value("${application.auth.access-token-ttl-seconds:900}")
+    private long ttlSeconds;
+
+    private Clock clock = Clock.systemUTC();
+
+    private SecretKeySpec key;
+
+    // a Mac is not thread safe, and creating one for every request costs more than the signature itself
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::createMac);
+
+    @PostConstruct
+    void initKey() {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException(
+                    "application.auth.access-token-secret must be at least " + MIN_SECRET_LENGTH + " bytes long");
+        }
+        key = new SecretKeySpec(secretBytes, ALGORITHM);
+    }
+
+    public String issue(Long userId) {
+        long now = clock.instant().getEpochSecond();
+        AccessTokenClaims claims = new AccessTokenClaims(userId.toString(), UUID.randomUUID().toString(), now,
+                now + ttlSeconds);
+        try {
+            String signedPart = HEADER + '.' + ENCODER.encodeToString(CLAIMS_WRITER.writeValueAsBytes(claims));
+            return signedPart + '.' + ENCODER.encodeToString(sign(signedPart));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Access token claims could not be written", e);
+        }
+    }
+
+    /**
+     * Checks the signature and the expiry. Revocation is checked separately.
+     *
+     * @throws AppRuntimeException with {@link ErrorCode#U006} when the token is malformed, forged or expired
+     */
+    public AccessTokenClaims verify(String token) {
+        int payloadStart = token.indexOf('.');
+        int signatureStart = token.lastIndexOf('.');
+        if (payloadStart != HEADER.length() || payloadStart == signatureStart || !token.startsWith(HEADER)) {
+            throw invalidToken("Access token is malformed");
+        }
+        AccessTokenClaims claims;
+        try {
+            byte[] signature = DECODER.decode(token.substring(signatureStart + 1));
+            // constant time, so the signature cannot be guessed byte by byte from the response times
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, signatureStart)))) {
+                throw invalidToken("Access token signature is invalid");
+            }
+            claims = CLAIMS_READER.readValue(DECODER.decode(token.substring(payloadStart + 1, signatureStart)));
+        } catch (IllegalArgumentException | IOException e) {
+            throw invalidToken("Access token is malformed");
+        }
+        if (claims.sub() == null || claims.jti() == null || claims.exp() <= clock.instant().getEpochSecond()) {
+            throw invalidToken("Access token has expired");
+        }
+        return claims;
+    }
+
+    public Instant expiresAt(AccessTokenClaims claims) {
+        return Instant.ofEpochSecond(claims.exp());
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private byte[] sign(String signedPart) {
+        return macs.get().doFinal(signedPart.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static AppRuntimeException invalidToken(String description) {
+        return new AppRuntimeException(ErrorCode.U006, description);
+    }
+}
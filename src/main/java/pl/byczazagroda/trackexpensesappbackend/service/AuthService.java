@@ -0,0 +1,17 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.dto.AuthLoginDTO;
+
+import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+
+public interface AuthService {
+
+    CompletableFuture<AuthTokens> login(@Valid AuthLoginDTO authLoginDTO);
+
+    AuthTokens refresh(String refreshToken);
+
+    void logout(String refreshToken, String accessToken);
+
+    AccessTokenClaims authenticate(String accessToken);
+}
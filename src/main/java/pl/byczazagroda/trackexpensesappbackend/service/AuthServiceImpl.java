@@ -0,0 +1,167 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.dto.AuthLoginDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.RefreshToken;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.repository.RefreshTokenRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+
+import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+@RequiredArgsConstructor
+@Validated
+public class AuthServiceImpl implements AuthService {
+
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private final UserRepository userRepository;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    private final AccessTokenCodec accessTokenCodec;
+
+    private final RevokedAccessTokenCache revokedAccessTokenCache;
+
+    @Value("${application.auth.refresh-token-ttl-days:30}")
+    private long rememberMeTtlDays;
+
+    @Value("${application.auth.session-refresh-token-ttl-hours:12}")
+    private long sessionTtlHours;
+
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Compared against when the email is unknown, so an unknown email takes as long as a wrong password.
+     */
+    private volatile String unknownUserPasswordHash;
+
+    /**
+     * The password is compared on the password hashing executor, like the hashing of a registration.
+     */
+    @Override
+    public CompletableFuture<AuthTokens> login(@Valid AuthLoginDTO authLoginDTO) {
+        Optional<User> user = userRepository.findByEmail(authLoginDTO.email());
+        String passwordHash = user.map(User::getPassword).orElseGet(this::unknownUserPasswordHash);
+
+        return passwordHashingExecutor
+                .supplyAsync(() -> passwordEncoder.matches(authLoginDTO.password(), passwordHash))
+                .thenApply(matches -> {
+                    if (!matches || user.isEmpty() || user.get().getUserStatus() != UserStatus.VERIFIED) {
+                        throw new AppRuntimeException(ErrorCode.U005, "Invalid email or password");
+                    }
+                    return issueTokens(user.get().getId(), Boolean.TRUE.equals(authLoginDTO.isRememberMe()));
+                });
+    }
+
+    /**
+     * Rotates the refresh token: the presented one is deleted and a new one issued, so it cannot be used again.
+     */
+    @Override
+    @Transactional
+    public AuthTokens refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new AppRuntimeException(ErrorCode.U007, "Refresh token is missing");
+        }
+        RefreshToken storedToken = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new AppRuntimeException(ErrorCode.U007, "Refresh token is not valid"));
+        if (!storedToken.getExpiresAt().isAfter(clock.instant())) {
+            throw new AppRuntimeException(ErrorCode.U007, "Refresh token has expired");
+        }
+        // of two concurrent refreshes with the same token only one deletes it
+        if (refreshTokenRepository.deleteAndCountById(storedToken.getId()) == 0) {
+            throw new AppRuntimeException(ErrorCode.U007, "Refresh token was already used");
+        }
+        return issueTokens(storedToken.getUserId(), storedToken.isRememberMe());
+    }
+
+    @Override
+    @Transactional
+    public void logout(String refreshToken, String accessToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                    .ifPresent(storedToken -> refreshTokenRepository.deleteAndCountById(storedToken.getId()));
+        }
+        if (accessToken != null) {
+            try {
+                revokedAccessTokenCache.revoke(accessTokenCodec.verify(accessToken));
+            } catch (AppRuntimeException e) {
+                // an invalid or expired access token cannot be used anyway
+            }
+        }
+    }
+
+    /**
+     * Verified from the token and the in-memory revocations, without a query.
+     */
+    @Override
+    public AccessTokenClaims authenticate(String accessToken) {
+        AccessTokenClaims claims = accessTokenCodec.verify(accessToken);
+        if (revokedAccessTokenCache.isRevoked(claims)) {
+            throw new AppRuntimeException(ErrorCode.U006, "Access token has been revoked");
+        }
+        return claims;
+    }
+
+    private AuthTokens issueTokens(Long userId, boolean rememberMe) {
+        byte[] refreshTokenBytes = new byte[REFRESH_TOKEN_BYTES];
+        SECURE_RANDOM.nextBytes(refreshTokenBytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(refreshTokenBytes);
+        Instant expiresAt = clock.instant()
+                .plus(rememberMe ? Duration.ofDays(rememberMeTtlDays) : Duration.ofHours(sessionTtlHours));
+
+        refreshTokenRepository.save(new RefreshToken(userId, hash(refreshToken), rememberMe, expiresAt));
+        return new AuthTokens(accessTokenCodec.issue(userId), refreshToken, expiresAt, rememberMe);
+    }
+
+    private String unknownUserPasswordHash() {
+        String passwordHash = unknownUserPasswordHash;
+        if (passwordHash == null) {
+            passwordHash = passwordEncoder.encode("unknown-user-password");
+            unknownUserPasswordHash = passwordHash;
+        }
+        return passwordHash;
+    }
+
+    /**
+     * The refresh token is random, so a fast unsalted hash is enough to keep the stored value unusable.
+     */
+    private static String hash(String refreshToken) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
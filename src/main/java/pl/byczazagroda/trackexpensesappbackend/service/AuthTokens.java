@@ -0,0 +1,12 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import java.time.Instant;
+
+/**
+ * The tokens of a login or a refresh. The refresh token is only sent in the refresh_token cookie.
+ *
+ * @param rememberMe whether the refresh cookie outlives the browser session
+ */
+public record AuthTokens(String accessToken, String refreshToken, Instant refreshTokenExpiresAt,
+                         boolean rememberMe) {
+}
@@ -0,0 +1,11 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+public interface CategoryTransactionCountReconciliationService {
+
+    /**
+     * Recounts the transactions of every category and corrects the stored counters.
+     *
+     * @return number of categories whose stored counter had drifted
+     */
+    int reconcileTransactionCounts();
+}
@@ -0,0 +1,57 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+
+/**
+ * Repair routine for the maintained category counters. Each category is recounted in its own transaction holding
+ * the category row locked, so writes to the category wait instead of racing the count.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryTransactionCountReconciliationServiceImpl implements CategoryTransactionCountReconciliationService {
+
+    private final FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    private final FinancialTransactionRepository financialTransactionRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    @Scheduled(cron = "${application.category-count-reconciliation.cron:0 45 3 * * *}")
+    public int reconcileTransactionCounts() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int drifted = 0;
+        for (Long categoryId : financialTransactionCategoryRepository.findAllIds()) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcileCategory(categoryId)))) {
+                drifted++;
+            }
+        }
+        log.info("Category transaction count reconciliation finished, {} categories had drifted", drifted);
+        return drifted;
+    }
+
+    private boolean reconcileCategory(Long categoryId) {
+        // the row lock is taken before counting, so the count sees every write committed before it
+        return financialTransactionCategoryRepository.findByIdForUpdate(categoryId)
+                .map(category -> {
+                    long transactionCount = financialTransactionRepository
+                            .countFinancialTransactionsByFinancialTransactionCategoryId(categoryId).longValueExact();
+                    if (category.getTransactionCount() == transactionCount) {
+                        return false;
+                    }
+                    log.warn("Transaction count of category {} had drifted: stored {}, recounted {}",
+                            categoryId, category.getTransactionCount(), transactionCount);
+                    financialTransactionCategoryRepository.setTransactionCount(categoryId, transactionCount);
+                    return true;
+                })
+                .orElse(false);
+    }
+}
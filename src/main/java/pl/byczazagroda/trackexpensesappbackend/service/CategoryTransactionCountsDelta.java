@@ -0,0 +1,51 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Changes of the categories' transaction counters caused by writing financial transactions, applied once per
+ * category and in id order, so concurrent writers lock the category rows in the same order.
+ */
+final class CategoryTransactionCountsDelta {
+
+    private final Map<Long, Long> changes = new TreeMap<>();
+
+    void add(Long categoryId) {
+        merge(categoryId, 1);
+    }
+
+    void subtract(Long categoryId) {
+        merge(categoryId, -1);
+    }
+
+    /**
+     * The updates double as existence checks of the categories transactions are added to, and their row locks keep
+     * those categories from being deleted before the inserts. A category deleted in the meantime has already
+     * detached its transactions, so nothing is subtracted from it.
+     *
+     * @throws AppRuntimeException FTC001 when a category transactions are added to does not exist
+     */
+    void applyTo(FinancialTransactionCategoryRepository financialTransactionCategoryRepository) {
+        changes.forEach((categoryId, change) -> {
+            if (change == 0) {
+                return;
+            }
+            int updatedRows = financialTransactionCategoryRepository.addToTransactionCount(categoryId, change);
+            if (updatedRows == 0 && change > 0) {
+                throw new AppRuntimeException(ErrorCode.FTC001,
+                        String.format("Financial transaction category with id: %d does not exist", categoryId));
+            }
+        });
+    }
+
+    private void merge(Long categoryId, long change) {
+        if (categoryId != null) {
+            changes.merge(categoryId, change, Long::sum);
+        }
+    }
+}
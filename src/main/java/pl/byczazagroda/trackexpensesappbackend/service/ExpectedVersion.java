@@ -0,0 +1,26 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+/**
+ * Optimistic locking of updates against the version a client read, sent back in the If-Match header.
+ * The check covers changes committed before the entity was loaded, the @Version column of the entity
+ * covers those committed between the load and the flush.
+ */
+final class ExpectedVersion {
+
+    private ExpectedVersion() {
+    }
+
+    /**
+     * @param expectedVersion is the version the client read, null when the client sent no precondition
+     */
+    static void check(Long expectedVersion, Long version, String resource, Long id) {
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            throw new AppRuntimeException(ErrorCode.TEA006,
+                    String.format("%s with id: %d has version: %d, not the expected version: %d",
+                            resource, id, version, expectedVersion));
+        }
+    }
+}
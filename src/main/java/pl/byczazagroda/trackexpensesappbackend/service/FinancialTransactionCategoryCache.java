@@ -0,0 +1,164 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionCategoryModelMapper;
+import pl.byczazagroda.trackexpensesappbackend.repository.CacheVersionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of all financial transaction categories. Readers get an immutable snapshot from a single volatile
+ * read, writers build a new snapshot and swap it in, so lookups never lock.
+ * <p>
+ * Every change of the categories increments the version in cache_versions in the same transaction. This instance
+ * reloads right after its own commits, other instances notice the new version on their periodic check.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FinancialTransactionCategoryCache {
+
+    static final String CACHE_NAME = "financial_transaction_categories";
+
+    private static final Snapshot NOT_LOADED = new Snapshot(-1L, Map.of(), List.of(), NamePrefixIndex.EMPTY);
+
+    private final FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    private final CacheVersionRepository cacheVersionRepository;
+
+    private final FinancialTransactionCategoryModelMapper financialTransactionCategoryModelMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(NOT_LOADED);
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public Optional<FinancialTransactionCategoryDTO> findById(Long id) {
+        FinancialTransactionCategoryDTO category = loadedSnapshot().byId().get(id);
+        if (category != null) {
+            hits.increment();
+            return Optional.of(category);
+        }
+        misses.increment();
+        // the category may have been created by another instance since the last check; a single row lookup
+        // answers that without reloading all categories for every unknown id
+        Optional<FinancialTransactionCategoryDTO> found = financialTransactionCategoryRepository.findById(id)
+                .map(financialTransactionCategoryModelMapper
+                        ::mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO);
+        if (found.isPresent()) {
+            refresh();
+        }
+        return found;
+    }
+
+    public List<FinancialTransactionCategoryDTO> findAll() {
+        Snapshot current = snapshot.get();
+        if (current == NOT_LOADED) {
+            misses.increment();
+            return refresh().all();
+        }
+        hits.increment();
+        return current.all();
+    }
+
+    /**
+     * Returns up to the limit of categories whose name starts with the prefix, ignoring case, from the snapshot.
+     */
+    public List<NameSuggestionDTO> findByNamePrefix(String prefix, int limit) {
+        return loadedSnapshot().byName().findByPrefix(prefix, limit);
+    }
+
+    /**
+     * Marks the categories as changed by the caller's transaction, which has to be active. The new snapshot
+     * is loaded after the commit, so it contains the change.
+     */
+    public void categoriesChanged() {
+        cacheVersionRepository.incrementVersion(CACHE_NAME);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.category-cache.version-check-interval-ms:5000}")
+    public void checkVersion() {
+        Snapshot current = snapshot.get();
+        if (current == NOT_LOADED) {
+            // loaded on first use
+            return;
+        }
+        long version = cacheVersionRepository.findVersionByName(CACHE_NAME).orElse(0L);
+        if (version != current.version()) {
+            log.debug("Category cache version {} is stale, the database has version {}", current.version(), version);
+            refresh();
+        }
+    }
+
+    /**
+     * Version of the categories returned by {@link #findAll()}. Read before them, it is never newer than they are.
+     */
+    public long getVersion() {
+        return loadedSnapshot().version();
+    }
+
+    public FinancialTransactionCategoryCacheStatistics getStatistics() {
+        Snapshot current = snapshot.get();
+        return new FinancialTransactionCategoryCacheStatistics(current.version(), current.all().size(),
+                hits.sum(), misses.sum());
+    }
+
+    private Snapshot loadedSnapshot() {
+        Snapshot current = snapshot.get();
+        return current == NOT_LOADED ? refresh() : current;
+    }
+
+    private Snapshot refresh() {
+        // a new transaction, refresh also runs after the caller's commit while its resources are still bound
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        // the version and the categories are read from one consistent read view
+        Snapshot loaded = transactionTemplate.execute(status -> Snapshot.of(
+                cacheVersionRepository.findVersionByName(CACHE_NAME).orElse(0L),
+                financialTransactionCategoryRepository.findAllFinancialTransactionCategoryDTOs()));
+        // a slower concurrent refresh must not replace a snapshot of a newer version
+        return snapshot.accumulateAndGet(loaded,
+                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+
+    private record Snapshot(long version, Map<Long, FinancialTransactionCategoryDTO> byId,
+                            List<FinancialTransactionCategoryDTO> all, NamePrefixIndex byName) {
+
+        static Snapshot of(long version, List<FinancialTransactionCategoryDTO> categories) {
+            return new Snapshot(version,
+                    categories.stream().collect(Collectors.toUnmodifiableMap(FinancialTransactionCategoryDTO::id,
+                            Function.identity())),
+                    List.copyOf(categories),
+                    NamePrefixIndex.of(categories.stream()
+                            .map(category -> new NameSuggestionDTO(category.id(), category.name()))
+                            .toList()));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+/**
+ * State of the in-memory category snapshot of this application instance. Hits and misses are counted
+ * since the instance started.
+ */
+public record FinancialTransactionCategoryCacheStatistics(long version, int size, long hits, long misses) {
+}
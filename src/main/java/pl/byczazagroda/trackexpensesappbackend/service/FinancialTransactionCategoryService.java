@@ -6,25 +6,57 @@ import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryC
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDetailedDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.util.List;
 
 @Validated
 public interface FinancialTransactionCategoryService {
 
+    /**
+     * @param expectedVersion is the version the caller read, the update fails when the category changed since;
+     *                        null updates any version
+     */
     FinancialTransactionCategoryDTO updateFinancialTransactionCategory(
-            @Min(1) @NotNull Long id, @Valid FinancialTransactionCategoryUpdateDTO financialTransactionCategoryUpdateDTO);
+            @Min(1) @NotNull Long id, @Valid FinancialTransactionCategoryUpdateDTO financialTransactionCategoryUpdateDTO,
+            Long expectedVersion);
 
     FinancialTransactionCategoryDTO createFinancialTransactionCategory(
             @Valid @RequestBody FinancialTransactionCategoryCreateDTO financialTransactionCategoryCreateDTO);
 
     FinancialTransactionCategoryDetailedDTO findById(@Min(1) @NotNull Long id);
 
+    /**
+     * Returns {@link #findById} with the version of the category it was read at.
+     */
+    VersionedDTO<FinancialTransactionCategoryDetailedDTO> findByIdWithVersion(@Min(1) @NotNull Long id);
+
     List<FinancialTransactionCategoryDTO> getFinancialTransactionCategories();
 
+    /**
+     * Current version of the category, read from the primary, it changes with every change of the category and of
+     * its transaction counter. It only tells whether a conditional request can be answered without the category,
+     * the body comes with its own version.
+     */
+    long findFinancialTransactionCategoryVersion(@Min(1) @NotNull Long id);
+
+    /**
+     * Version of the list returned by {@link #getFinancialTransactionCategories()}.
+     */
+    long getFinancialTransactionCategoriesVersion();
+
+    /**
+     * Returns the categories whose name starts with the prefix, ignoring case, ordered by name.
+     * They are served from memory, without a database query.
+     */
+    List<NameSuggestionDTO> findFinancialTransactionCategoryNameSuggestions(@NotNull @Size(max = 30) String prefix,
+                                                                           @Min(1) Integer limit);
+
     void deleteFinancialTransactionCategory(@Min(1) @NotNull Long id);
 
 }
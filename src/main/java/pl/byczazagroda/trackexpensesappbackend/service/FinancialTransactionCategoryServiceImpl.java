@@ -1,23 +1,27 @@
 package pl.byczazagroda.trackexpensesappbackend.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDetailedDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionCategoryModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
 import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
-import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 
-import javax.transaction.Transactional;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.math.BigInteger;
 import java.util.List;
 
@@ -30,60 +34,102 @@ public class FinancialTransactionCategoryServiceImpl implements FinancialTransac
 
     private final FinancialTransactionCategoryModelMapper financialTransactionCategoryModelMapper;
 
-    private final FinancialTransactionRepository financialTransactionRepository;
+    private final MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    private final FinancialTransactionCategoryCache financialTransactionCategoryCache;
+
+    @Value("${application.autocomplete.default-limit:10}")
+    private int defaultSuggestionLimit;
+
+    @Value("${application.autocomplete.max-limit:50}")
+    private int maxSuggestionLimit;
 
     @Override
+    @Transactional
     public FinancialTransactionCategoryDTO createFinancialTransactionCategory(@Valid
             FinancialTransactionCategoryCreateDTO dto) {
 
         FinancialTransactionCategory entityToSave = new FinancialTransactionCategory(dto.name(), dto.type());
         FinancialTransactionCategory savedEntity = financialTransactionCategoryRepository.save(entityToSave);
+        financialTransactionCategoryCache.categoriesChanged();
 
         return financialTransactionCategoryModelMapper
                 .mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(savedEntity);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public FinancialTransactionCategoryDetailedDTO findById(@Min(1) @NotNull Long id) {
+        return findByIdWithVersion(id).body();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDTO<FinancialTransactionCategoryDetailedDTO> findByIdWithVersion(@Min(1) @NotNull Long id) {
         FinancialTransactionCategory financialTransactionCategory = financialTransactionCategoryRepository.findById(id)
                 .orElseThrow(() -> new AppRuntimeException(ErrorCode.FTC001,
                         String.format("Financial transaction category with id: %d not found", id)));
-        BigInteger numberOfFinancialTransactions =
-                financialTransactionRepository.countFinancialTransactionsByFinancialTransactionCategoryId(id);
+        BigInteger numberOfFinancialTransactions = BigInteger.valueOf(financialTransactionCategory.getTransactionCount());
         FinancialTransactionCategoryDTO financialTransactionCategoryDTO = financialTransactionCategoryModelMapper
                 .mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(financialTransactionCategory);
 
-        return new FinancialTransactionCategoryDetailedDTO(financialTransactionCategoryDTO, numberOfFinancialTransactions);
+        return new VersionedDTO<>(
+                new FinancialTransactionCategoryDetailedDTO(financialTransactionCategoryDTO, numberOfFinancialTransactions),
+                String.valueOf(financialTransactionCategory.getVersion()));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<FinancialTransactionCategoryDTO> getFinancialTransactionCategories() {
-        return financialTransactionCategoryRepository.findAll().stream()
-                .map(financialTransactionCategoryModelMapper::mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO)
-                .toList();
+        return financialTransactionCategoryCache.findAll();
+    }
+
+    @Override
+    public long findFinancialTransactionCategoryVersion(@Min(1) @NotNull Long id) {
+        return financialTransactionCategoryRepository.findVersionById(id)
+                .orElseThrow(() -> new AppRuntimeException(ErrorCode.FTC001,
+                        String.format("Financial transaction category with id: %d not found", id)));
     }
 
     @Override
+    public long getFinancialTransactionCategoriesVersion() {
+        return financialTransactionCategoryCache.getVersion();
+    }
 
+    @Override
+    public List<NameSuggestionDTO> findFinancialTransactionCategoryNameSuggestions(
+            @NotNull @Size(max = 30) String prefix, @Min(1) Integer limit) {
+        int size = limit == null ? defaultSuggestionLimit : Math.min(limit, maxSuggestionLimit);
+        return financialTransactionCategoryCache.findByNamePrefix(prefix, size);
+    }
+
+    @Override
+    @Transactional
     public void deleteFinancialTransactionCategory(@Min(1) @NotNull Long id) {
-        if (financialTransactionCategoryRepository.existsById(id)) {
-            financialTransactionCategoryRepository.deleteById(id);
-        } else {
+        // the transactions of the category become uncategorised, so do their monthly totals; for an unknown id
+        // nothing is moved and the failed delete below rolls the transaction back
+        monthlyCategoryTotalRepository.addCategoryTotalsToNoCategory(id);
+        monthlyCategoryTotalRepository.deleteAllByCategoryId(id);
+        if (financialTransactionCategoryRepository.deleteFinancialTransactionCategoryById(id) == 0) {
             throw new AppRuntimeException(
                     ErrorCode.FTC001,
                     String.format("Financial transaction category with given id: %d does not exist", id));
         }
+        financialTransactionCategoryCache.categoriesChanged();
     }
 
     @Transactional
     public FinancialTransactionCategoryDTO updateFinancialTransactionCategory(
-            Long id, FinancialTransactionCategoryUpdateDTO financialTransactionCategoryUpdateDTO) {
+            Long id, FinancialTransactionCategoryUpdateDTO financialTransactionCategoryUpdateDTO, Long expectedVersion) {
         FinancialTransactionCategory financialTransactionCategory
                 = financialTransactionCategoryRepository.findById(id)
                 .orElseThrow(() -> new AppRuntimeException(ErrorCode.FTC001,
                         String.format("Financial transaction category with id: %d not found", id)));
+        ExpectedVersion.check(expectedVersion, financialTransactionCategory.getVersion(),
+                "Financial transaction category", id);
         financialTransactionCategory.setName(financialTransactionCategoryUpdateDTO.name());
         financialTransactionCategory.setType(financialTransactionCategoryUpdateDTO.type());
+        financialTransactionCategoryCache.categoriesChanged();
         return financialTransactionCategoryModelMapper
                 .mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(financialTransactionCategory);
     }
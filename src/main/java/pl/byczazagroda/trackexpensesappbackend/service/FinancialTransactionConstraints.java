@@ -0,0 +1,28 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
+
+import javax.validation.Validator;
+
+/**
+ * Validation of financial transactions written in bulk, where a single invalid item has to be rejected
+ * before it reaches the database instead of failing the flush of the whole chunk.
+ */
+final class FinancialTransactionConstraints {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private FinancialTransactionConstraints() {
+    }
+
+    /**
+     * Checks the bean validation rules of {@link FinancialTransactionCreateDTO} together with the
+     * constraints of the financial_transactions table (positive amount, date, description length).
+     */
+    static boolean isValid(Validator validator, FinancialTransactionCreateDTO ftCreateDTO) {
+        return validator.validate(ftCreateDTO).isEmpty()
+                && ftCreateDTO.amount() != null && ftCreateDTO.amount().signum() > 0
+                && ftCreateDTO.date() != null
+                && (ftCreateDTO.description() == null || ftCreateDTO.description().length() <= MAX_DESCRIPTION_LENGTH);
+    }
+}
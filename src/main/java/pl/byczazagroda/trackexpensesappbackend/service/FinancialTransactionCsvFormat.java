@@ -0,0 +1,108 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV layout of financial transactions, based on db/changelog/data/financial_transactions.csv.
+ */
+final class FinancialTransactionCsvFormat {
+
+    static final String ID = "id";
+    static final String TYPE = "transaction_type";
+    static final String AMOUNT = "amount";
+    static final String DATE = "transaction_date";
+    static final String DESCRIPTION = "description";
+    static final String CATEGORY_ID = "financial_transaction_category_id";
+
+    static final List<String> HEADER = List.of(ID, TYPE, AMOUNT, DATE, DESCRIPTION, CATEGORY_ID);
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final int MAX_RECORD_LENGTH = 10_000;
+
+    private FinancialTransactionCsvFormat() {
+    }
+
+    static String formatHeader() {
+        return String.join(String.valueOf(SEPARATOR), HEADER);
+    }
+
+    static String formatLine(FinancialTransactionDTO financialTransactionDTO) {
+        return new StringBuilder()
+                .append(financialTransactionDTO.id()).append(SEPARATOR)
+                .append(financialTransactionDTO.type()).append(SEPARATOR)
+                .append(financialTransactionDTO.amount().toPlainString()).append(SEPARATOR)
+                .append(financialTransactionDTO.date()).append(SEPARATOR)
+                .append(escape(financialTransactionDTO.description())).append(SEPARATOR)
+                .append(financialTransactionDTO.categoryId() == null ? "" : financialTransactionDTO.categoryId())
+                .toString();
+    }
+
+    /**
+     * Reads the next record, joining physical lines while a quoted value is still open.
+     *
+     * @return values of the record or null at the end of the input
+     */
+    static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != QUOTE) {
+                        value.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                        value.append(QUOTE);
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == QUOTE) {
+                    quoted = true;
+                } else if (c == SEPARATOR) {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            // an unclosed quote would otherwise swallow the rest of the file into one value
+            if (value.length() > MAX_RECORD_LENGTH) {
+                throw new IOException(String.format("CSV record is longer than %d characters", MAX_RECORD_LENGTH));
+            }
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            value.append('\n');
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quotingRequired = value.indexOf(SEPARATOR) >= 0 || value.indexOf(QUOTE) >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quotingRequired) {
+            return value;
+        }
+        return QUOTE + value.replace(String.valueOf(QUOTE), String.valueOf(QUOTE) + QUOTE) + QUOTE;
+    }
+}
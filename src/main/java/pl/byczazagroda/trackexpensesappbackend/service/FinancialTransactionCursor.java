@@ -0,0 +1,41 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last financial transaction returned on a page. Pages are ordered by
+ * (date, id) descending, so the pair identifies where the next page starts.
+ *
+ * @param date is a date of the last transaction on the page
+ * @param id is an id of the last transaction on the page
+ */
+record FinancialTransactionCursor(Instant date, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    String encode() {
+        String value = date.getEpochSecond() + SEPARATOR + date.getNano() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static FinancialTransactionCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = value.split(SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected number of cursor parts: " + parts.length);
+            }
+            Instant date = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new FinancialTransactionCursor(date, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new AppRuntimeException(ErrorCode.FT003,
+                    String.format("Financial transaction page cursor: '%s' is invalid", cursor));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.springframework.http.MediaType;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+public enum FinancialTransactionExportFormat {
+
+    CSV(new MediaType("text", "csv"), "csv"),
+    NDJSON(new MediaType("application", "x-ndjson"), "ndjson");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    FinancialTransactionExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    public String getFileExtension() {
+        return this.fileExtension;
+    }
+
+    public static FinancialTransactionExportFormat fromValue(String value) {
+        for (FinancialTransactionExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new AppRuntimeException(ErrorCode.FT004,
+                String.format("Financial transaction export format: '%s' is not supported", value));
+    }
+}
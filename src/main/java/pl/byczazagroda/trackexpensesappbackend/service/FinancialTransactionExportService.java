@@ -0,0 +1,18 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Validated
+public interface FinancialTransactionExportService {
+
+    /**
+     * Checks that the wallet exists and returns a body which streams all of its transactions
+     * straight from the database to the response, so memory usage does not depend on the wallet size.
+     */
+    StreamingResponseBody exportFinancialTransactionsByWalletId(@Min(1) @NotNull Long walletId,
+                                                                @NotNull FinancialTransactionExportFormat format);
+}
@@ -0,0 +1,123 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionModelMapper;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.persistence.EntityManager;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Validated
+public class FinancialTransactionExportServiceImpl implements FinancialTransactionExportService {
+
+    private final FinancialTransactionRepository financialTransactionRepository;
+
+    private final FinancialTransactionModelMapper financialTransactionModelMapper;
+
+    private final WalletRepository walletRepository;
+
+    private final EntityManager entityManager;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public StreamingResponseBody exportFinancialTransactionsByWalletId(@Min(1) @NotNull Long walletId,
+                                                                       @NotNull FinancialTransactionExportFormat format) {
+        if (!walletRepository.existsActiveById(walletId)) {
+            throw new AppRuntimeException(ErrorCode.W003, String.format("Wallet with id: %d does not exist", walletId));
+        }
+
+        return outputStream -> {
+            // the body is written after the controller returns, so the transaction which keeps
+            // the streaming result set open has to be started here
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.executeWithoutResult(status -> export(walletId, format, outputStream));
+        };
+    }
+
+    private void export(Long walletId, FinancialTransactionExportFormat format, OutputStream outputStream) {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            switch (format) {
+                case CSV -> writeCsv(walletId, writer);
+                case NDJSON -> writeNdjson(walletId, writer);
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsv(Long walletId, Writer writer) throws IOException {
+        writer.write(FinancialTransactionCsvFormat.formatHeader());
+        writer.write('\n');
+        forEachFinancialTransaction(walletId, financialTransactionDTO -> {
+            try {
+                writer.write(FinancialTransactionCsvFormat.formatLine(financialTransactionDTO));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(Long walletId, Writer writer) throws IOException {
+        ObjectWriter objectWriter = objectMapper.writerFor(FinancialTransactionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // every value ends with its own line break instead of the default space separator
+            generator.setRootValueSeparator(null);
+            forEachFinancialTransaction(walletId, financialTransactionDTO -> {
+                try {
+                    objectWriter.writeValue(generator, financialTransactionDTO);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void forEachFinancialTransaction(Long walletId, Consumer<FinancialTransactionDTO> consumer) {
+        try (Stream<FinancialTransaction> financialTransactions =
+                     financialTransactionRepository.streamAllByWalletId(walletId)) {
+            financialTransactions.forEach(financialTransaction -> {
+                FinancialTransactionDTO financialTransactionDTO =
+                        financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(financialTransaction);
+                // keep the persistence context empty, otherwise it would grow with every exported row
+                entityManager.detach(financialTransaction);
+                consumer.accept(financialTransactionDTO);
+            });
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionImportJobDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionImportRejectionDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionImportStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of a running import, updated by the import thread and read by status requests.
+ */
+final class FinancialTransactionImportJob {
+
+    private final UUID id;
+    private final Long walletId;
+    private final Instant createdAt;
+    private final int maxReportedRejections;
+
+    private final AtomicLong processedLines = new AtomicLong();
+    private final AtomicLong importedTransactions = new AtomicLong();
+    private final AtomicLong skippedDuplicates = new AtomicLong();
+    private final AtomicLong rejectedLines = new AtomicLong();
+    private final List<FinancialTransactionImportRejectionDTO> rejections = new ArrayList<>();
+
+    private volatile FinancialTransactionImportStatus status = FinancialTransactionImportStatus.QUEUED;
+    private volatile String failureMessage;
+    private volatile Instant finishedAt;
+
+    FinancialTransactionImportJob(Long walletId, int maxReportedRejections) {
+        this.id = UUID.randomUUID();
+        this.walletId = walletId;
+        this.createdAt = Instant.now();
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    Long getWalletId() {
+        return walletId;
+    }
+
+    Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    void start() {
+        status = FinancialTransactionImportStatus.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        status = FinancialTransactionImportStatus.COMPLETED;
+    }
+
+    void fail(String message) {
+        failureMessage = message;
+        finishedAt = Instant.now();
+        status = FinancialTransactionImportStatus.FAILED;
+    }
+
+    void lineProcessed() {
+        processedLines.incrementAndGet();
+    }
+
+    void chunkWritten(long imported, long duplicates) {
+        importedTransactions.addAndGet(imported);
+        skippedDuplicates.addAndGet(duplicates);
+    }
+
+    void reject(long lineNumber, ErrorCode errorCode, String description) {
+        rejectedLines.incrementAndGet();
+        synchronized (rejections) {
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new FinancialTransactionImportRejectionDTO(lineNumber,
+                        errorCode.getBusinessStatus(), description));
+            }
+        }
+    }
+
+    FinancialTransactionImportJobDTO toDTO() {
+        List<FinancialTransactionImportRejectionDTO> reportedRejections;
+        synchronized (rejections) {
+            reportedRejections = List.copyOf(rejections);
+        }
+        return new FinancialTransactionImportJobDTO(id, walletId, status, processedLines.get(),
+                importedTransactions.get(), skippedDuplicates.get(), rejectedLines.get(), reportedRejections,
+                failureMessage, createdAt, finishedAt);
+    }
+}
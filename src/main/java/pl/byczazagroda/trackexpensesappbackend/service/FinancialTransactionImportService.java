@@ -0,0 +1,22 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.multipart.MultipartFile;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionImportJobDTO;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+@Validated
+public interface FinancialTransactionImportService {
+
+    /**
+     * Stores the uploaded CSV file and queues its import to the wallet. The file is read line by line
+     * and written in chunks, each in its own transaction, so a failure rolls back a single chunk only.
+     */
+    FinancialTransactionImportJobDTO importFinancialTransactions(@Min(1) @NotNull Long walletId,
+                                                                 @NotNull MultipartFile file);
+
+    FinancialTransactionImportJobDTO findImportJob(@Min(1) @NotNull Long walletId, @NotNull UUID jobId);
+}
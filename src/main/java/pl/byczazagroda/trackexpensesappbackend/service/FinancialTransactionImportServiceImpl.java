@@ -0,0 +1,405 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.multipart.MultipartFile;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionImportJobDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class FinancialTransactionImportServiceImpl implements FinancialTransactionImportService {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(FinancialTransactionCsvFormat.TYPE,
+            FinancialTransactionCsvFormat.AMOUNT, FinancialTransactionCsvFormat.DATE);
+
+    /**
+     * Marks a missing value, as in the Liquibase data files the import format is based on.
+     */
+    private static final String NULL_VALUE = "null";
+
+    private static final int ISO_DATE_LENGTH = 10;
+
+    private final FinancialTransactionRepository financialTransactionRepository;
+
+    private final WalletRepository walletRepository;
+
+    private final FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    private final MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    private final FinancialTransactionCategoryCache financialTransactionCategoryCache;
+
+    private final WalletCache walletCache;
+
+    private final EntityManager entityManager;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final Validator validator;
+
+    private final Map<UUID, FinancialTransactionImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${application.import.threads:2}")
+    private int threads;
+
+    @Value("${application.import.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Value("${application.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${application.import.max-reported-rejections:100}")
+    private int maxReportedRejections;
+
+    @Value("${application.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        // imports hold a database connection for minutes, so only a few may run while the rest wait in a bounded queue
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("transactions-import-"));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public FinancialTransactionImportJobDTO importFinancialTransactions(@Min(1) @NotNull Long walletId,
+                                                                        @NotNull MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new AppRuntimeException(ErrorCode.FT006, "Import file is empty");
+        }
+        if (!walletRepository.existsActiveById(walletId)) {
+            throw new AppRuntimeException(ErrorCode.W003, String.format("Wallet with id: %d does not exist", walletId));
+        }
+        removeExpiredJobs();
+
+        // the multipart file is deleted when the request completes, the import outlives it
+        Path importFile = storeImportFile(file);
+        FinancialTransactionImportJob job = new FinancialTransactionImportJob(walletId, maxReportedRejections);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> runImport(job, importFile));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteImportFile(importFile);
+            throw new AppRuntimeException(ErrorCode.TEA005, "Too many imports are in progress, try again later");
+        }
+        return job.toDTO();
+    }
+
+    @Override
+    public FinancialTransactionImportJobDTO findImportJob(@Min(1) @NotNull Long walletId, @NotNull UUID jobId) {
+        FinancialTransactionImportJob job = jobs.get(jobId);
+        if (job == null || !job.getWalletId().equals(walletId)) {
+            throw new AppRuntimeException(ErrorCode.FT007,
+                    String.format("Import job with id: %s does not exist for wallet with id: %d", jobId, walletId));
+        }
+        return job.toDTO();
+    }
+
+    void runImport(FinancialTransactionImportJob job, Path importFile) {
+        job.start();
+        try (BufferedReader reader = Files.newBufferedReader(importFile, StandardCharsets.UTF_8)) {
+            importLines(job, reader);
+            job.complete();
+        } catch (AppRuntimeException e) {
+            job.fail(e.getDescription());
+        } catch (IOException | RuntimeException e) {
+            log.error("Import {} to wallet {} failed", job.getId(), job.getWalletId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteImportFile(importFile);
+        }
+    }
+
+    private void importLines(FinancialTransactionImportJob job, BufferedReader reader) throws IOException {
+        List<String> header = FinancialTransactionCsvFormat.readRecord(reader);
+        if (header == null) {
+            throw new AppRuntimeException(ErrorCode.FT006, "Import file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missingColumns = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missingColumns.isEmpty()) {
+            throw new AppRuntimeException(ErrorCode.FT006,
+                    String.format("Import file header misses columns: %s", String.join(", ", missingColumns)));
+        }
+
+        Map<Long, Optional<FinancialTransactionCategoryDTO>> ftCategories = new HashMap<>();
+        List<ImportedLine> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 1;
+        List<String> values;
+        while ((values = FinancialTransactionCsvFormat.readRecord(reader)) != null) {
+            lineNumber++;
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            job.lineProcessed();
+            ImportedLine importedLine = parseLine(job, lineNumber, values, columns, ftCategories);
+            if (importedLine != null) {
+                chunk.add(importedLine);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(job, chunk);
+                }
+            }
+        }
+        writeChunk(job, chunk);
+    }
+
+    /**
+     * Validates a line with the rules of {@link FinancialTransactionServiceImpl#createFinancialTransaction}.
+     *
+     * @return the line ready to be written or null when it was rejected
+     */
+    private ImportedLine parseLine(FinancialTransactionImportJob job, long lineNumber, List<String> values,
+                                   Map<String, Integer> columns,
+                                   Map<Long, Optional<FinancialTransactionCategoryDTO>> ftCategories) {
+        FinancialTransactionCreateDTO ftCreateDTO;
+        try {
+            ftCreateDTO = new FinancialTransactionCreateDTO(job.getWalletId(),
+                    parseValue(values, columns, FinancialTransactionCsvFormat.AMOUNT, BigDecimal::new),
+                    parseValue(values, columns, FinancialTransactionCsvFormat.DESCRIPTION, Function.identity()),
+                    parseValue(values, columns, FinancialTransactionCsvFormat.DATE,
+                            FinancialTransactionImportServiceImpl::parseDate),
+                    parseValue(values, columns, FinancialTransactionCsvFormat.TYPE,
+                            value -> FinancialTransactionType.valueOf(value.toUpperCase(Locale.ROOT))),
+                    parseValue(values, columns, FinancialTransactionCsvFormat.CATEGORY_ID, Long::valueOf));
+        } catch (IllegalArgumentException e) {
+            job.reject(lineNumber, ErrorCode.TEA003, e.getMessage());
+            return null;
+        }
+        if (!FinancialTransactionConstraints.isValid(validator, ftCreateDTO)) {
+            job.reject(lineNumber, ErrorCode.TEA003, "Line violates validation rules of a financial transaction");
+            return null;
+        }
+
+        Long categoryId = ftCreateDTO.categoryId();
+        if (categoryId != null) {
+            // remembered per job, so unknown ids are looked up once and not on every line
+            FinancialTransactionCategoryDTO ftCategory = ftCategories
+                    .computeIfAbsent(categoryId, financialTransactionCategoryCache::findById)
+                    .orElse(null);
+            if (ftCategory == null) {
+                job.reject(lineNumber, ErrorCode.FTC001,
+                        String.format("Financial transaction category with id: %d does not exist", categoryId));
+                return null;
+            }
+            if (ftCreateDTO.type() != ftCategory.type()) {
+                job.reject(lineNumber, ErrorCode.FT002,
+                        String.format("Financial transaction type: '%s' and financial transaction category type '%s' does not match",
+                                ftCreateDTO.type().name(), ftCategory.type()));
+                return null;
+            }
+        }
+        return new ImportedLine(lineNumber, ftCreateDTO, importHash(ftCreateDTO));
+    }
+
+    private void writeChunk(FinancialTransactionImportJob job, List<ImportedLine> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            Integer imported = new TransactionTemplate(transactionManager)
+                    .execute(status -> persistChunk(job.getWalletId(), chunk));
+            job.chunkWritten(imported, chunk.size() - imported);
+        } catch (RuntimeException e) {
+            log.warn("Chunk of import {} to wallet {} was rolled back", job.getId(), job.getWalletId(), e);
+            String description = String.format("Lines %d-%d were rolled back: %s",
+                    chunk.get(0).lineNumber(), chunk.get(chunk.size() - 1).lineNumber(), e.getMessage());
+            chunk.forEach(line -> job.reject(line.lineNumber(), ErrorCode.TEA001, description));
+        }
+        chunk.clear();
+    }
+
+    private int persistChunk(Long walletId, List<ImportedLine> chunk) {
+        // the wallet row is locked before the duplicates are looked up, so concurrent imports of the same file
+        // to one wallet read the hashes one after another and the second one skips the lines of the first
+        if (walletRepository.lockActiveById(walletId).isEmpty()) {
+            throw new AppRuntimeException(ErrorCode.W003, String.format("Wallet with id: %d does not exist", walletId));
+        }
+        Set<String> importHashes = new HashSet<>(financialTransactionRepository.findImportHashesByWalletId(walletId,
+                chunk.stream().map(ImportedLine::importHash).toList()));
+        // skips lines imported to the wallet before as well as repeated lines of this chunk
+        List<ImportedLine> newLines = chunk.stream()
+                .filter(line -> importHashes.add(line.importHash()))
+                .toList();
+        WalletBalanceDelta delta = newLines.stream()
+                .map(line -> WalletBalanceDelta.of(line.ftCreateDTO().type(), line.ftCreateDTO().amount()))
+                .reduce(WalletBalanceDelta.ZERO, WalletBalanceDelta::add);
+        // the wallet row is updated before the inserts, see WalletRepository#addToBalance
+        delta.applyTo(walletRepository, walletCache, walletId);
+        MonthlyCategoryTotalsDelta monthlyTotals = new MonthlyCategoryTotalsDelta();
+        newLines.forEach(line -> monthlyTotals.add(walletId, line.ftCreateDTO().date(), line.ftCreateDTO().type(),
+                line.ftCreateDTO().categoryId(), line.ftCreateDTO().amount()));
+        monthlyTotals.applyTo(monthlyCategoryTotalRepository);
+        CategoryTransactionCountsDelta categoryCounts = new CategoryTransactionCountsDelta();
+        newLines.forEach(line -> categoryCounts.add(line.ftCreateDTO().categoryId()));
+        categoryCounts.applyTo(financialTransactionCategoryRepository);
+        int imported = 0;
+        for (ImportedLine line : newLines) {
+            FinancialTransactionCreateDTO ftCreateDTO = line.ftCreateDTO();
+            entityManager.persist(FinancialTransaction.builder()
+                    .type(ftCreateDTO.type())
+                    .date(ftCreateDTO.date())
+                    .description(ftCreateDTO.description())
+                    .wallet(entityManager.getReference(Wallet.class, walletId))
+                    .amount(ftCreateDTO.amount())
+                    .financialTransactionCategory(ftCreateDTO.categoryId() == null ? null
+                            : entityManager.getReference(FinancialTransactionCategory.class, ftCreateDTO.categoryId()))
+                    .importHash(line.importHash())
+                    .build());
+            if (++imported % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return imported;
+    }
+
+    private static <T> T parseValue(List<String> values, Map<String, Integer> columns, String column,
+                                    Function<String, T> parser) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        if (value.isEmpty() || NULL_VALUE.equalsIgnoreCase(value)) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException(String.format("Column %s has invalid value: '%s'", column, value), e);
+        }
+    }
+
+    /**
+     * Accepts ISO dates and date-times with or without an offset, values without one are taken as UTC.
+     */
+    private static Instant parseDate(String value) {
+        if (value.length() == ISO_DATE_LENGTH) {
+            return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        TemporalAccessor dateTime = DateTimeFormatter.ISO_DATE_TIME.parseBest(value,
+                ZonedDateTime::from, LocalDateTime::from);
+        return dateTime instanceof ZonedDateTime zonedDateTime
+                ? zonedDateTime.toInstant()
+                : ((LocalDateTime) dateTime).toInstant(ZoneOffset.UTC);
+    }
+
+    private static String importHash(FinancialTransactionCreateDTO ftCreateDTO) {
+        String key = ftCreateDTO.walletId() + "|" + ftCreateDTO.date() + "|"
+                + ftCreateDTO.amount().stripTrailingZeros().toPlainString() + "|"
+                + Objects.toString(ftCreateDTO.description(), "");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Path storeImportFile(MultipartFile file) {
+        Path importFile = null;
+        try {
+            importFile = Files.createTempFile("transactions-import-", ".csv");
+            file.transferTo(importFile);
+            return importFile;
+        } catch (IOException e) {
+            if (importFile != null) {
+                deleteImportFile(importFile);
+            }
+            throw new AppRuntimeException(ErrorCode.TEA001, "Import file could not be stored");
+        }
+    }
+
+    private void deleteImportFile(Path importFile) {
+        try {
+            Files.deleteIfExists(importFile);
+        } catch (IOException e) {
+            log.warn("Import file {} could not be deleted", importFile, e);
+        }
+    }
+
+    private void removeExpiredJobs() {
+        Instant expiredBefore = Instant.now().minus(jobRetentionMinutes, ChronoUnit.MINUTES);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiredBefore));
+    }
+
+    private record ImportedLine(long lineNumber, FinancialTransactionCreateDTO ftCreateDTO, String importHash) {
+    }
+}
@@ -0,0 +1,38 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last financial transaction returned on a page of search results ordered by relevance.
+ * Such pages are ordered by (score, id) descending, so the pair identifies where the next page starts.
+ *
+ * @param score is a score of the last transaction on the page
+ * @param id is an id of the last transaction on the page
+ */
+record FinancialTransactionRelevanceCursor(long score, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    String encode() {
+        String value = score + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static FinancialTransactionRelevanceCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = value.split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Unexpected number of cursor parts: " + parts.length);
+            }
+            return new FinancialTransactionRelevanceCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new AppRuntimeException(ErrorCode.FT003,
+                    String.format("Financial transaction page cursor: '%s' is invalid", cursor));
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package pl.byczazagroda.trackexpensesappbackend.service;
 
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionBatchItemDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionPageDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
@@ -12,11 +17,65 @@ import java.util.List;
 public interface FinancialTransactionService {
     FinancialTransactionDTO createFinancialTransaction(@Valid FinancialTransactionCreateDTO financialTransactionCreateDTO);
 
-    List<FinancialTransactionDTO> getFinancialTransactionsByWalletId(@Min(1) @NotNull Long walletId);
+    /**
+     * Creates many transactions in one database transaction using JDBC batch inserts.
+     * Items are validated one by one, an invalid item is reported in its result and does not stop the others.
+     */
+    List<FinancialTransactionBatchItemDTO> createFinancialTransactions(
+            @NotNull List<FinancialTransactionCreateDTO> financialTransactionCreateDTOs);
+
+    /**
+     * Returns one page of the wallet's transactions matching the filter, newest first.
+     * The cursor of the next page is only valid together with the same filter.
+     */
+    FinancialTransactionPageDTO getFinancialTransactionsByWalletId(@Min(1) @NotNull Long walletId,
+                                                                   @NotNull FinancialTransactionFilterDTO filter,
+                                                                   String cursor,
+                                                                   @Min(1) Integer pageSize);
+
+    /**
+     * Returns {@link #getFinancialTransactionsByWalletId} with the version of the wallet's transactions, read
+     * together with the page.
+     */
+    VersionedDTO<FinancialTransactionPageDTO> getFinancialTransactionsByWalletIdWithVersion(
+            @Min(1) @NotNull Long walletId, @NotNull FinancialTransactionFilterDTO filter, String cursor,
+            @Min(1) Integer pageSize);
+
+    /**
+     * Returns one page of the transactions whose description matches the query, in the wallet or in all wallets
+     * of the user. The cursor of the next page is only valid together with the same search.
+     */
+    FinancialTransactionPageDTO searchFinancialTransactions(@Valid FinancialTransactionSearchDTO search,
+                                                            String cursor,
+                                                            @Min(1) Integer pageSize);
 
     FinancialTransactionDTO findById(@Min(1) @NotNull Long id);
 
-    FinancialTransactionDTO updateFinancialTransaction(@Min(1) @NotNull Long id, @Valid FinancialTransactionUpdateDTO financialTransactionUpdateDTO);
+    /**
+     * Returns {@link #findById} with the version of the transaction it was read at.
+     */
+    VersionedDTO<FinancialTransactionDTO> findByIdWithVersion(@Min(1) @NotNull Long id);
+
+    /**
+     * Current version of the transaction, read from the primary. It only tells whether a conditional request
+     * can be answered without the transaction, the body comes with its own version.
+     */
+    long findFinancialTransactionVersion(@Min(1) @NotNull Long id);
+
+    /**
+     * Current version of the wallet's transactions, it changes whenever any of them is written
+     * and whenever a category, which the transactions may refer to, is deleted. Like
+     * {@link #findFinancialTransactionVersion} it is only read for conditional requests.
+     */
+    String getFinancialTransactionsVersion(@Min(1) @NotNull Long walletId);
+
+    /**
+     * @param expectedVersion is the version the caller read, the update fails when the transaction changed since;
+     *                        null updates any version
+     */
+    FinancialTransactionDTO updateFinancialTransaction(@Min(1) @NotNull Long id,
+                                                       @Valid FinancialTransactionUpdateDTO financialTransactionUpdateDTO,
+                                                       Long expectedVersion);
 
     void deleteTransactionById(@Min(1) @NotNull Long id);
 }
@@ -2,26 +2,48 @@ package pl.byczazagroda.trackexpensesappbackend.service;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionAmountDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionBatchItemDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionPageDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchHitDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchOrder;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.CacheVersionRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
 
-import javax.transaction.Transactional;
+import javax.persistence.EntityManager;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -36,55 +58,280 @@ public class FinancialTransactionServiceImpl implements FinancialTransactionServ
 
     private final FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
 
+    private final MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    private final FinancialTransactionCategoryCache financialTransactionCategoryCache;
+
+    private final WalletCache walletCache;
+
+    private final CacheVersionRepository cacheVersionRepository;
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    @Value("${application.batch.max-items:5000}")
+    private int maxBatchItems;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    @Value("${application.pagination.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${application.pagination.max-page-size:100}")
+    private int maxPageSize;
+
     @Override
+    @Transactional
     public FinancialTransactionDTO createFinancialTransaction(@Valid FinancialTransactionCreateDTO ftCreateDTO) {
         Long walletId = ftCreateDTO.walletId();
-        Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> {
-            throw new AppRuntimeException(ErrorCode.W003, String.format("Wallet with id: %d does not exist", walletId));
-        });
-        FinancialTransactionCategory ftCategory =
+        FinancialTransactionCategoryDTO ftCategory =
                 findFinancialTransactionCategory(ftCreateDTO.categoryId());
 
-        if (ftCreateDTO.categoryId() != null && ftCreateDTO.type() != ftCategory.getType()) {
+        if (ftCreateDTO.categoryId() != null && ftCreateDTO.type() != ftCategory.type()) {
             throw new AppRuntimeException(ErrorCode.FT002,
                     String.format("Financial transaction type: '%s' and financial transaction category type '%s' does not match",
-                            ftCreateDTO.type().name(), ftCategory.getType()));
+                            ftCreateDTO.type().name(), ftCategory.type()));
         }
 
-        FinancialTransaction financialTransaction =
-                buildFinancialTransaction(ftCreateDTO, wallet, ftCategory);
+        // the relative updates of the wallet and category rows double as existence checks, and the row locks they
+        // take keep both rows from being deleted before the insert, so the insert cannot violate a foreign key
+        WalletBalanceDelta walletDelta = WalletBalanceDelta.of(ftCreateDTO.type(), ftCreateDTO.amount());
+        if (!walletDelta.applyTo(walletRepository, walletCache, walletId)) {
+            throw new AppRuntimeException(ErrorCode.W003, String.format("Wallet with id: %d does not exist", walletId));
+        }
+        MonthlyCategoryTotalsDelta monthlyTotals = new MonthlyCategoryTotalsDelta();
+        monthlyTotals.add(walletId, ftCreateDTO.date(), ftCreateDTO.type(), ftCreateDTO.categoryId(), ftCreateDTO.amount());
+        monthlyTotals.applyTo(monthlyCategoryTotalRepository);
+        // a category deleted after the cached snapshot was taken fails here with FTC001
+        CategoryTransactionCountsDelta categoryCounts = new CategoryTransactionCountsDelta();
+        categoryCounts.add(ftCreateDTO.categoryId());
+        categoryCounts.applyTo(financialTransactionCategoryRepository);
+        FinancialTransaction financialTransaction = buildFinancialTransaction(ftCreateDTO,
+                walletRepository.getReferenceById(walletId), ftCreateDTO.categoryId());
         FinancialTransaction savedFinancialTransaction = financialTransactionRepository.save(financialTransaction);
 
         return financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(savedFinancialTransaction);
     }
 
     @Override
-    public List<FinancialTransactionDTO> getFinancialTransactionsByWalletId(@Min(1) @NotNull Long walletId) {
-        if (!walletRepository.existsById(walletId)) {
+    @Transactional
+    public List<FinancialTransactionBatchItemDTO> createFinancialTransactions(
+            @NotNull List<FinancialTransactionCreateDTO> ftCreateDTOs) {
+        if (ftCreateDTOs.size() > maxBatchItems) {
+            throw new AppRuntimeException(ErrorCode.FT005,
+                    String.format("Financial transaction batch has %d items, the limit is %d",
+                            ftCreateDTOs.size(), maxBatchItems));
+        }
+        // wallets are resolved once for the whole batch instead of once per item, categories come from the cache.
+        // The wallet rows are locked in id order before the items are validated, so a wallet queued for deletion
+        // meanwhile gets no transactions, and concurrent batches lock the wallet rows in the same order
+        Map<Long, Wallet> wallets = new HashMap<>();
+        for (Long walletId : new TreeSet<>(collectIds(ftCreateDTOs, FinancialTransactionCreateDTO::walletId))) {
+            walletRepository.lockActiveById(walletId)
+                    .ifPresent(id -> wallets.put(id, walletRepository.getReferenceById(id)));
+        }
+        Map<Long, FinancialTransactionCategoryDTO> ftCategories = new HashMap<>();
+        for (Long categoryId : collectIds(ftCreateDTOs, FinancialTransactionCreateDTO::categoryId)) {
+            financialTransactionCategoryCache.findById(categoryId)
+                    .ifPresent(ftCategory -> ftCategories.put(categoryId, ftCategory));
+        }
+
+        FinancialTransactionBatchItemDTO[] results = new FinancialTransactionBatchItemDTO[ftCreateDTOs.size()];
+        List<Integer> validIndexes = new ArrayList<>(ftCreateDTOs.size());
+        Map<Long, WalletBalanceDelta> walletDeltas = new TreeMap<>();
+        MonthlyCategoryTotalsDelta monthlyTotals = new MonthlyCategoryTotalsDelta();
+        CategoryTransactionCountsDelta categoryCounts = new CategoryTransactionCountsDelta();
+        for (int index = 0; index < ftCreateDTOs.size(); index++) {
+            FinancialTransactionCreateDTO ftCreateDTO = ftCreateDTOs.get(index);
+            ErrorCode error = findBatchItemError(ftCreateDTO, wallets, ftCategories);
+            if (error != null) {
+                results[index] = new FinancialTransactionBatchItemDTO(index, null,
+                        error.getBusinessStatus(), error.getBusinessMessage());
+                continue;
+            }
+            validIndexes.add(index);
+            walletDeltas.merge(ftCreateDTO.walletId(),
+                    WalletBalanceDelta.of(ftCreateDTO.type(), ftCreateDTO.amount()), WalletBalanceDelta::add);
+            monthlyTotals.add(ftCreateDTO.walletId(), ftCreateDTO.date(), ftCreateDTO.type(), ftCreateDTO.categoryId(),
+                    ftCreateDTO.amount());
+            categoryCounts.add(ftCreateDTO.categoryId());
+        }
+        // one update per wallet, the wallets are locked already
+        walletDeltas.forEach((walletId, delta) -> delta.applyTo(walletRepository, walletCache, walletId));
+        monthlyTotals.applyTo(monthlyCategoryTotalRepository);
+        categoryCounts.applyTo(financialTransactionCategoryRepository);
+
+        List<FinancialTransaction> chunk = new ArrayList<>(jdbcBatchSize);
+        List<Integer> chunkIndexes = new ArrayList<>(jdbcBatchSize);
+        for (int index : validIndexes) {
+            FinancialTransactionCreateDTO ftCreateDTO = ftCreateDTOs.get(index);
+            FinancialTransaction financialTransaction = buildFinancialTransaction(ftCreateDTO,
+                    wallets.get(ftCreateDTO.walletId()), ftCreateDTO.categoryId());
+            entityManager.persist(financialTransaction);
+            chunk.add(financialTransaction);
+            chunkIndexes.add(index);
+            if (chunk.size() == jdbcBatchSize) {
+                flushBatchChunk(chunk, chunkIndexes, results);
+            }
+        }
+        flushBatchChunk(chunk, chunkIndexes, results);
+
+        return List.of(results);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FinancialTransactionPageDTO getFinancialTransactionsByWalletId(@Min(1) @NotNull Long walletId,
+                                                                          @NotNull FinancialTransactionFilterDTO filter,
+                                                                          String cursor,
+                                                                          @Min(1) Integer pageSize) {
+        if (!walletCache.exists(walletId, () -> walletRepository.existsActiveById(walletId))) {
             throw new AppRuntimeException(ErrorCode.W003, String.format("Wallet with id: %d does not exist", walletId));
         }
-        return financialTransactionRepository.findAllByWalletIdOrderByDateDesc(walletId).stream()
-                .map(financialTransactionModelMapper::mapFinancialTransactionEntityToFinancialTransactionDTO)
-                .toList();
+        int size = pageSize == null ? defaultPageSize : Math.min(pageSize, maxPageSize);
+        FinancialTransactionCursor position = cursor == null ? null : FinancialTransactionCursor.decode(cursor);
+
+        // one extra row tells whether there is a next page without running a count query
+        List<FinancialTransactionDTO> financialTransactions = financialTransactionRepository.findAllByWalletIdAndFilter(
+                walletId, filter,
+                position == null ? null : position.date(),
+                position == null ? null : position.id(),
+                size + 1);
+
+        String nextCursor = null;
+        if (financialTransactions.size() > size) {
+            financialTransactions = financialTransactions.subList(0, size);
+            FinancialTransactionDTO last = financialTransactions.get(size - 1);
+            nextCursor = new FinancialTransactionCursor(last.date(), last.id()).encode();
+        }
+
+        return new FinancialTransactionPageDTO(financialTransactions, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDTO<FinancialTransactionPageDTO> getFinancialTransactionsByWalletIdWithVersion(
+            @Min(1) @NotNull Long walletId,
+            @NotNull FinancialTransactionFilterDTO filter,
+            String cursor,
+            @Min(1) Integer pageSize) {
+        // the first read of the transaction fixes its read view, the page is read from the same one
+        String version = readFinancialTransactionsVersion(walletId);
+        return new VersionedDTO<>(getFinancialTransactionsByWalletId(walletId, filter, cursor, pageSize), version);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FinancialTransactionPageDTO searchFinancialTransactions(@Valid FinancialTransactionSearchDTO search,
+                                                                   String cursor,
+                                                                   @Min(1) Integer pageSize) {
+        if ((search.walletId() == null) == (search.userId() == null)) {
+            throw new AppRuntimeException(ErrorCode.FT008, "Search has to be scoped by either a wallet or a user");
+        }
+        if (search.walletId() != null
+                && !walletCache.exists(search.walletId(), () -> walletRepository.existsActiveById(search.walletId()))) {
+            throw new AppRuntimeException(ErrorCode.W003,
+                    String.format("Wallet with id: %d does not exist", search.walletId()));
+        }
+        int size = pageSize == null ? defaultPageSize : Math.min(pageSize, maxPageSize);
+        boolean byDate = search.order() == FinancialTransactionSearchOrder.DATE;
+        Long afterScore = null;
+        Instant afterDate = null;
+        Long afterId = null;
+        if (cursor != null && byDate) {
+            FinancialTransactionCursor position = FinancialTransactionCursor.decode(cursor);
+            afterDate = position.date();
+            afterId = position.id();
+        } else if (cursor != null) {
+            FinancialTransactionRelevanceCursor position = FinancialTransactionRelevanceCursor.decode(cursor);
+            afterScore = position.score();
+            afterId = position.id();
+        }
+
+        // the relevance of a row depends on the whole index, so a page may repeat or miss a row written meanwhile
+        List<FinancialTransactionSearchHitDTO> hits = financialTransactionRepository.searchByDescription(search,
+                afterScore, afterDate, afterId,
+                size + 1);
+
+        String nextCursor = null;
+        if (hits.size() > size) {
+            hits = hits.subList(0, size);
+            FinancialTransactionSearchHitDTO last = hits.get(size - 1);
+            nextCursor = byDate
+                    ? new FinancialTransactionCursor(last.financialTransaction().date(), last.financialTransaction().id()).encode()
+                    : new FinancialTransactionRelevanceCursor(last.score(), last.financialTransaction().id()).encode();
+        }
+
+        return new FinancialTransactionPageDTO(hits.stream()
+                .map(FinancialTransactionSearchHitDTO::financialTransaction)
+                .toList(), nextCursor);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public FinancialTransactionDTO findById(@Min(1) @NotNull Long id) {
+        return findByIdWithVersion(id).body();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDTO<FinancialTransactionDTO> findByIdWithVersion(@Min(1) @NotNull Long id) {
         FinancialTransaction financialTransaction = financialTransactionRepository.findById(id)
                 .orElseThrow(() -> new AppRuntimeException(ErrorCode.FT001,
                         String.format("Financial transaction with id: %d not found", id)));
 
-        return financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(financialTransaction);
+        return new VersionedDTO<>(
+                financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(financialTransaction),
+                String.valueOf(financialTransaction.getVersion()));
+    }
+
+    @Override
+    public long findFinancialTransactionVersion(@Min(1) @NotNull Long id) {
+        return financialTransactionRepository.findVersionById(id)
+                .orElseThrow(() -> new AppRuntimeException(ErrorCode.FT001,
+                        String.format("Financial transaction with id: %d not found", id)));
+    }
+
+    @Override
+    public String getFinancialTransactionsVersion(@Min(1) @NotNull Long walletId) {
+        return readFinancialTransactionsVersion(walletId);
+    }
+
+    private String readFinancialTransactionsVersion(Long walletId) {
+        long walletVersion = walletRepository.findActiveVersionById(walletId)
+                .orElseThrow(() -> new AppRuntimeException(ErrorCode.W003,
+                        String.format("Wallet with id: %d does not exist", walletId)));
+        // a deleted category is removed from the transactions by its foreign key, without a wallet update
+        long categoriesVersion = cacheVersionRepository.findVersionByName(FinancialTransactionCategoryCache.CACHE_NAME)
+                .orElse(0L);
+        return walletVersion + "-" + categoriesVersion;
     }
 
     @Override
+    @Transactional
     public void deleteTransactionById(@Min(1) @NotNull Long id) {
-        if (financialTransactionRepository.existsById(id)) {
-            financialTransactionRepository.deleteById(id);
-        } else {
-            throw new AppRuntimeException(
-                    ErrorCode.FT001,
-                    String.format("FinancialTransaction with given id: %d does not exist", id));
+        // only the fields the totals depend on are read, the entity is never loaded
+        FinancialTransactionAmountDTO financialTransaction = financialTransactionRepository
+                .findFinancialTransactionAmountDTOById(id)
+                .orElseThrow(() -> financialTransactionNotFound(id));
+        Long walletId = financialTransaction.walletId();
+        WalletBalanceDelta.of(financialTransaction.type(), financialTransaction.amount()).negate()
+                .applyTo(walletRepository, walletCache, walletId);
+        MonthlyCategoryTotalsDelta monthlyTotals = new MonthlyCategoryTotalsDelta();
+        monthlyTotals.subtract(walletId, financialTransaction.date(), financialTransaction.type(),
+                financialTransaction.categoryId(), financialTransaction.amount());
+        monthlyTotals.applyTo(monthlyCategoryTotalRepository);
+        CategoryTransactionCountsDelta categoryCounts = new CategoryTransactionCountsDelta();
+        categoryCounts.subtract(financialTransaction.categoryId());
+        categoryCounts.applyTo(financialTransactionCategoryRepository);
+        // changed or deleted by a concurrent request after it was read, the subtraction above used stale fields
+        // and the rollback undoes it
+        if (financialTransactionRepository.deleteFinancialTransactionByIdAndVersion(id,
+                financialTransaction.version()) == 0) {
+            throw new AppRuntimeException(ErrorCode.TEA007,
+                    String.format("Financial transaction with id: %d was changed by another request", id));
         }
     }
 
@@ -92,27 +339,42 @@ public class FinancialTransactionServiceImpl implements FinancialTransactionServ
     @Transactional
     public FinancialTransactionDTO updateFinancialTransaction(
             @Min(1) @NotNull Long id,
-            @Valid FinancialTransactionUpdateDTO uDTO) {
+            @Valid FinancialTransactionUpdateDTO uDTO,
+            Long expectedVersion) {
 
         FinancialTransaction entity = financialTransactionRepository.findById(id)
                 .orElseThrow(() -> new AppRuntimeException(ErrorCode.FT001,
                         String.format("Financial transaction with id: %d not found", id)));
+        ExpectedVersion.check(expectedVersion, entity.getVersion(), "Financial transaction", id);
 
-        FinancialTransactionCategory financialTransactionCategory = null;
         Long categoryId = uDTO.categoryId();
 
         if (categoryId != null) {
-            financialTransactionCategory = financialTransactionCategoryRepository.findById(categoryId)
+            FinancialTransactionCategoryDTO financialTransactionCategory = financialTransactionCategoryCache
+                    .findById(categoryId)
                     .orElseThrow(() -> new AppRuntimeException(ErrorCode.FTC001,
                             String.format("Financial transaction category with id: %d does not exist", categoryId)));
 
-            if (uDTO.type() != financialTransactionCategory.getType()) {
+            if (uDTO.type() != financialTransactionCategory.type()) {
                 throw new AppRuntimeException(ErrorCode.FT002,
                         String.format("Financial transaction type: '%s' does not match with category type: '%s'",
-                                uDTO.type(), financialTransactionCategory.getType()));
+                                uDTO.type(), financialTransactionCategory.type()));
             }
         }
-        entity.setFinancialTransactionCategory(financialTransactionCategory);
+        Long walletId = entity.getWallet().getId();
+        WalletBalanceDelta.of(uDTO.type(), uDTO.amount())
+                .add(WalletBalanceDelta.of(entity.getType(), entity.getAmount()).negate())
+                .applyTo(walletRepository, walletCache, walletId);
+        // a change of month, type or category moves the amount between rollup rows
+        MonthlyCategoryTotalsDelta monthlyTotals = new MonthlyCategoryTotalsDelta();
+        monthlyTotals.subtract(walletId, entity.getDate(), entity.getType(), categoryIdOf(entity), entity.getAmount());
+        monthlyTotals.add(walletId, uDTO.date(), uDTO.type(), categoryId, uDTO.amount());
+        monthlyTotals.applyTo(monthlyCategoryTotalRepository);
+        CategoryTransactionCountsDelta categoryCounts = new CategoryTransactionCountsDelta();
+        categoryCounts.subtract(categoryIdOf(entity));
+        categoryCounts.add(categoryId);
+        categoryCounts.applyTo(financialTransactionCategoryRepository);
+        entity.setFinancialTransactionCategory(categoryReference(categoryId));
         entity.setType(uDTO.type());
         entity.setAmount(uDTO.amount());
         entity.setDescription(uDTO.description());
@@ -121,11 +383,68 @@ public class FinancialTransactionServiceImpl implements FinancialTransactionServ
         return financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(entity);
     }
 
-    private FinancialTransactionCategory findFinancialTransactionCategory(Long categoryId) {
-        FinancialTransactionCategory financialTransactionCategory = null;
+    private static AppRuntimeException financialTransactionNotFound(Long id) {
+        return new AppRuntimeException(ErrorCode.FT001,
+                String.format("FinancialTransaction with given id: %d does not exist", id));
+    }
+
+    private static Long categoryIdOf(FinancialTransaction financialTransaction) {
+        return financialTransaction.getFinancialTransactionCategory() == null ? null
+                : financialTransaction.getFinancialTransactionCategory().getId();
+    }
+
+    private static List<Long> collectIds(List<FinancialTransactionCreateDTO> ftCreateDTOs,
+                                         Function<FinancialTransactionCreateDTO, Long> idExtractor) {
+        return ftCreateDTOs.stream()
+                .map(idExtractor)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    private ErrorCode findBatchItemError(FinancialTransactionCreateDTO ftCreateDTO,
+                                         Map<Long, Wallet> wallets,
+                                         Map<Long, FinancialTransactionCategoryDTO> ftCategories) {
+        if (!FinancialTransactionConstraints.isValid(validator, ftCreateDTO)) {
+            return ErrorCode.TEA003;
+        }
+        if (!wallets.containsKey(ftCreateDTO.walletId())) {
+            return ErrorCode.W003;
+        }
+        if (ftCreateDTO.categoryId() != null) {
+            FinancialTransactionCategoryDTO ftCategory = ftCategories.get(ftCreateDTO.categoryId());
+            if (ftCategory == null) {
+                return ErrorCode.FTC001;
+            }
+            if (ftCreateDTO.type() != ftCategory.type()) {
+                return ErrorCode.FT002;
+            }
+        }
+        return null;
+    }
+
+    private void flushBatchChunk(List<FinancialTransaction> chunk, List<Integer> chunkIndexes,
+                                 FinancialTransactionBatchItemDTO[] results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // one flush sends the chunk as a single JDBC batch, clear keeps the persistence context small
+        entityManager.flush();
+        entityManager.clear();
+        for (int i = 0; i < chunk.size(); i++) {
+            results[chunkIndexes.get(i)] = new FinancialTransactionBatchItemDTO(chunkIndexes.get(i),
+                    financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(chunk.get(i)),
+                    null, null);
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private FinancialTransactionCategoryDTO findFinancialTransactionCategory(Long categoryId) {
+        FinancialTransactionCategoryDTO financialTransactionCategory = null;
 
         if (categoryId != null) {
-            financialTransactionCategory = financialTransactionCategoryRepository.findById(categoryId)
+            financialTransactionCategory = financialTransactionCategoryCache.findById(categoryId)
                     .orElseThrow(() -> {
                         throw new AppRuntimeException(ErrorCode.FTC001,
                                 String.format("Financial transaction category with id: %d does not exist", categoryId));
@@ -134,15 +453,22 @@ public class FinancialTransactionServiceImpl implements FinancialTransactionServ
         return financialTransactionCategory;
     }
 
+    /**
+     * The category was already checked against the cache, a reference sets the foreign key without loading the row.
+     */
+    private FinancialTransactionCategory categoryReference(Long categoryId) {
+        return categoryId == null ? null : entityManager.getReference(FinancialTransactionCategory.class, categoryId);
+    }
+
     private FinancialTransaction buildFinancialTransaction(FinancialTransactionCreateDTO financialTransactionCreateDTO,
-                                                           Wallet wallet, FinancialTransactionCategory financialTransactionCategory) {
+                                                           Wallet wallet, Long categoryId) {
         return FinancialTransaction.builder()
                 .type(financialTransactionCreateDTO.type())
                 .date(financialTransactionCreateDTO.date())
                 .description(financialTransactionCreateDTO.description())
                 .wallet(wallet)
                 .amount(financialTransactionCreateDTO.amount())
-                .financialTransactionCategory(financialTransactionCategory)
+                .financialTransactionCategory(categoryReference(categoryId))
                 .build();
     }
 
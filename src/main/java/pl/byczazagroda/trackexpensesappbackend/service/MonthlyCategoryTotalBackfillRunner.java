@@ -0,0 +1,24 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfill of the monthly_category_totals rollup for data written before it existed, or to repair it.
+ * It runs on startup when enabled, e.g. {@code java -jar app.jar --application.summary.backfill-on-startup=true}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "application.summary.backfill-on-startup", havingValue = "true")
+public class MonthlyCategoryTotalBackfillRunner implements ApplicationRunner {
+
+    private final WalletSummaryService walletSummaryService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        walletSummaryService.rebuildMonthlyTotals();
+    }
+}
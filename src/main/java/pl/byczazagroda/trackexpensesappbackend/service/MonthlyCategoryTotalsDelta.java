@@ -0,0 +1,62 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.MonthlyCategoryTotalId;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Changes of the monthly rollups caused by writing financial transactions, collected so that every rollup row
+ * is updated once per database transaction and always in the same order.
+ */
+final class MonthlyCategoryTotalsDelta {
+
+    private static final Comparator<MonthlyCategoryTotalId> ROW_ORDER = Comparator
+            .comparing(MonthlyCategoryTotalId::getWalletId)
+            .thenComparing(MonthlyCategoryTotalId::getMonth)
+            .thenComparing(MonthlyCategoryTotalId::getType)
+            .thenComparing(MonthlyCategoryTotalId::getCategoryId);
+
+    private final Map<MonthlyCategoryTotalId, Change> changes = new TreeMap<>(ROW_ORDER);
+
+    static LocalDate monthOf(Instant date) {
+        return LocalDate.ofInstant(date, ZoneOffset.UTC).withDayOfMonth(1);
+    }
+
+    void add(Long walletId, Instant date, FinancialTransactionType type, Long categoryId, BigDecimal amount) {
+        merge(walletId, date, type, categoryId, new Change(amount, 1));
+    }
+
+    void subtract(Long walletId, Instant date, FinancialTransactionType type, Long categoryId, BigDecimal amount) {
+        merge(walletId, date, type, categoryId, new Change(amount.negate(), -1));
+    }
+
+    void applyTo(MonthlyCategoryTotalRepository monthlyCategoryTotalRepository) {
+        changes.forEach((id, change) -> {
+            if (change.amount().signum() != 0 || change.count() != 0) {
+                monthlyCategoryTotalRepository.addToTotal(id.getWalletId(), id.getMonth(), id.getType().name(),
+                        id.getCategoryId(), change.amount(), change.count());
+            }
+        });
+    }
+
+    private void merge(Long walletId, Instant date, FinancialTransactionType type, Long categoryId, Change change) {
+        MonthlyCategoryTotalId id = new MonthlyCategoryTotalId(walletId, monthOf(date), type,
+                categoryId == null ? MonthlyCategoryTotalId.NO_CATEGORY : categoryId);
+        changes.merge(id, change, Change::add);
+    }
+
+    private record Change(BigDecimal amount, long count) {
+
+        Change add(Change other) {
+            return new Change(amount.add(other.amount), count + other.count);
+        }
+    }
+}
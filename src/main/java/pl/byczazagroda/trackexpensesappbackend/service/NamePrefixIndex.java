@@ -0,0 +1,107 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable index of names for prefix lookups. The names are case-folded and kept in a sorted array, so the
+ * matches of a prefix are a contiguous run found with a binary search, in O(log n) plus the number returned.
+ * <p>
+ * Changes return a new index and leave this one untouched, readers can share an index without locking.
+ */
+final class NamePrefixIndex {
+
+    static final NamePrefixIndex EMPTY = new NamePrefixIndex(new String[0], new NameSuggestionDTO[0]);
+
+    private static final Comparator<NameSuggestionDTO> ORDER = Comparator
+            .comparing((NameSuggestionDTO entry) -> fold(entry.name()))
+            .thenComparing(NameSuggestionDTO::name)
+            .thenComparing(NameSuggestionDTO::id);
+
+    /**
+     * Folded names, sorted, parallel to the entries.
+     */
+    private final String[] keys;
+
+    private final NameSuggestionDTO[] entries;
+
+    private NamePrefixIndex(String[] keys, NameSuggestionDTO[] entries) {
+        this.keys = keys;
+        this.entries = entries;
+    }
+
+    static NamePrefixIndex of(Collection<NameSuggestionDTO> entries) {
+        NameSuggestionDTO[] sorted = entries.toArray(new NameSuggestionDTO[0]);
+        Arrays.sort(sorted, ORDER);
+        String[] keys = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = fold(sorted[i].name());
+        }
+        return new NamePrefixIndex(keys, sorted);
+    }
+
+    /**
+     * Returns up to the limit of entries whose name starts with the prefix, ignoring case, in the order of the names.
+     */
+    List<NameSuggestionDTO> findByPrefix(String prefix, int limit) {
+        String key = fold(prefix);
+        List<NameSuggestionDTO> found = new ArrayList<>(Math.min(limit, entries.length));
+        for (int i = firstAtLeast(key); i < keys.length && found.size() < limit && keys[i].startsWith(key); i++) {
+            found.add(entries[i]);
+        }
+        return found;
+    }
+
+    /**
+     * Returns an index with the entry added, or with its name replaced when the id is already indexed.
+     */
+    NamePrefixIndex with(NameSuggestionDTO entry) {
+        List<NameSuggestionDTO> changed = new ArrayList<>(entries.length + 1);
+        for (NameSuggestionDTO existing : entries) {
+            if (!existing.id().equals(entry.id())) {
+                changed.add(existing);
+            }
+        }
+        changed.add(entry);
+        return of(changed);
+    }
+
+    NamePrefixIndex without(Long id) {
+        List<NameSuggestionDTO> changed = new ArrayList<>(entries.length);
+        for (NameSuggestionDTO existing : entries) {
+            if (!existing.id().equals(id)) {
+                changed.add(existing);
+            }
+        }
+        return changed.size() == entries.length ? this : of(changed);
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    private int firstAtLeast(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String fold(String name) {
+        // upper then lower case folds the characters whose lower case alone does not match, like the Greek sigma
+        return name.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,67 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the password hashing off the request threads. A hash takes tens of milliseconds of CPU, so a burst of
+ * registrations or logins is limited to a few threads and a bounded queue, and is turned away once the queue is
+ * full instead of taking the request threads of every other endpoint.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    @Value("${application.password-hashing.threads:2}")
+    private int threads;
+
+    @Value("${application.password-hashing.queue-capacity:50}")
+    private int queueCapacity;
+
+    private final LongAdder rejections = new LongAdder();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @throws AppRuntimeException with {@link ErrorCode#TEA005} when the queue is full
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new AppRuntimeException(ErrorCode.TEA005, "Too many password checks are in progress, try again later");
+        }
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+}
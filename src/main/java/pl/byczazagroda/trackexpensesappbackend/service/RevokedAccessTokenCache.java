@@ -0,0 +1,89 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.byczazagroda.trackexpensesappbackend.model.RevokedAccessToken;
+import pl.byczazagroda.trackexpensesappbackend.repository.RefreshTokenRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.RevokedAccessTokenRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of the ids of revoked access tokens, checked on every authenticated request without a query.
+ * <p>
+ * A token is only kept until it expires, so the set holds no more than the logouts of one access token lifetime.
+ * A revocation on this instance is visible here at once, other instances see it on their periodic refresh, so
+ * a revoked token may be accepted elsewhere for up to the refresh interval.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevokedAccessTokenCache {
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Token id to expiry in epoch seconds.
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private Clock clock = Clock.systemUTC();
+
+    public boolean isRevoked(AccessTokenClaims claims) {
+        return revokedTokens.containsKey(claims.jti());
+    }
+
+    public void revoke(AccessTokenClaims claims) {
+        Instant expiresAt = Instant.ofEpochSecond(claims.exp());
+        if (!expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        revokedAccessTokenRepository.save(new RevokedAccessToken(claims.jti(), expiresAt));
+        revokedTokens.put(claims.jti(), claims.exp());
+    }
+
+    /**
+     * Adds the revocations of the other instances and forgets the expired ones. The entries are merged rather
+     * than replaced, so a revocation made here while the query runs is not lost.
+     */
+    @Scheduled(fixedDelayString = "${application.auth.revocation-refresh-interval-ms:5000}")
+    public void refresh() {
+        Instant now = clock.instant();
+        for (RevokedAccessToken revokedToken : revokedAccessTokenRepository.findAllByExpiresAtAfter(now)) {
+            revokedTokens.put(revokedToken.getTokenId(), revokedToken.getExpiresAt().getEpochSecond());
+        }
+        long nowSeconds = now.getEpochSecond();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= nowSeconds);
+    }
+
+    /**
+     * The expired rows of revoked and refresh tokens are of no use to any instance.
+     */
+    @Scheduled(cron = "${application.auth.cleanup-cron:0 15 * * * *}")
+    public void deleteExpiredTokens() {
+        Instant now = clock.instant();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer revoked = transactionTemplate.execute(status -> revokedAccessTokenRepository.deleteExpired(now));
+        Integer refresh = transactionTemplate.execute(status -> refreshTokenRepository.deleteExpired(now));
+        log.info("Deleted {} expired revoked access tokens and {} expired refresh tokens", revoked, refresh);
+    }
+
+    int size() {
+        return revokedTokens.size();
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
@@ -4,10 +4,11 @@ package pl.byczazagroda.trackexpensesappbackend.service;
 import pl.byczazagroda.trackexpensesappbackend.dto.AuthRegisterDTO;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
 
-    void registerUser(@Valid AuthRegisterDTO authRegisterDTO);
+    CompletableFuture<Void> registerUser(@Valid AuthRegisterDTO authRegisterDTO);
 
     String hashPassword(String password);
 }
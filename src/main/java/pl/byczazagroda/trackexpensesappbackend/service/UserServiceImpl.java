@@ -1,7 +1,8 @@
 package pl.byczazagroda.trackexpensesappbackend.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import pl.byczazagroda.trackexpensesappbackend.dto.AuthRegisterDTO;
@@ -12,16 +13,31 @@ import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 @RequiredArgsConstructor
 @Service
 @Validated
 public class UserServiceImpl implements UserService {
 
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
+    private static final Pattern PASSWORD_PATTERN =
+            Pattern.compile("(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,100}");
+
     private final UserRepository userRepository;
 
+    private final PasswordEncoder passwordEncoder;
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    /**
+     * The checks run on the calling thread, the hashing and the insert on the password hashing executor.
+     * The unique index on the email rejects a user registered concurrently after the check.
+     */
     @Override
-    public void registerUser(@Valid AuthRegisterDTO authRegisterDTO) {
+    public CompletableFuture<Void> registerUser(@Valid AuthRegisterDTO authRegisterDTO) {
         if (!validateEmail(authRegisterDTO.email())) {
             throw new AppRuntimeException(
                     ErrorCode.U002,
@@ -43,8 +59,12 @@ public class UserServiceImpl implements UserService {
             );
         }
 
+        return passwordHashingExecutor.supplyAsync(() -> hashPassword(authRegisterDTO.password()))
+                .thenAccept(hashedPassword -> saveUser(authRegisterDTO, hashedPassword));
+    }
+
+    private void saveUser(AuthRegisterDTO authRegisterDTO, String hashedPassword) {
         UserStatus status = UserStatus.VERIFIED;
-        String hashedPassword = hashPassword(authRegisterDTO.password());
 
         User user = new User();
         user.setEmail(authRegisterDTO.email());
@@ -52,19 +72,22 @@ public class UserServiceImpl implements UserService {
         user.setUserName(authRegisterDTO.username());
         user.setUserStatus(status);
 
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new AppRuntimeException(
+                    ErrorCode.U001,
+                    "A user with the email " + authRegisterDTO.email() + " already exists."
+            );
+        }
     }
 
     private boolean validateEmail(String email) {
-        String pattern = "^[A-Za-z0-9+_.-]+@(.+)$";
-
-        return email.matches(pattern);
+        return EMAIL_PATTERN.matcher(email).matches();
     }
 
     private boolean validatePassword(String password) {
-        String pattern = "(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,100}";
-
-        return password.matches(pattern);
+        return PASSWORD_PATTERN.matcher(password).matches();
     }
 
     @Override
@@ -75,8 +98,6 @@ public class UserServiceImpl implements UserService {
                     "Password must be at least 8 characters."
             );
         }
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-
         return passwordEncoder.encode(password);
     }
 
@@ -0,0 +1,39 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.math.BigDecimal;
+
+/**
+ * Change of a wallet's income and expense totals caused by writing financial transactions.
+ */
+record WalletBalanceDelta(BigDecimal income, BigDecimal expense) {
+
+    static final WalletBalanceDelta ZERO = new WalletBalanceDelta(BigDecimal.ZERO, BigDecimal.ZERO);
+
+    static WalletBalanceDelta of(FinancialTransactionType type, BigDecimal amount) {
+        return type == FinancialTransactionType.INCOME
+                ? new WalletBalanceDelta(amount, BigDecimal.ZERO)
+                : new WalletBalanceDelta(BigDecimal.ZERO, amount);
+    }
+
+    WalletBalanceDelta add(WalletBalanceDelta other) {
+        return new WalletBalanceDelta(income.add(other.income), expense.add(other.expense));
+    }
+
+    WalletBalanceDelta negate() {
+        return new WalletBalanceDelta(income.negate(), expense.negate());
+    }
+
+    /**
+     * Applied even when it is zero, the update also increments the wallet's version.
+     * The cached totals of the wallet are dropped.
+     *
+     * @return false when the wallet does not exist
+     */
+    boolean applyTo(WalletRepository walletRepository, WalletCache walletCache, Long walletId) {
+        walletCache.balanceChanged(walletId);
+        return walletRepository.addToBalance(walletId, income, expense) > 0;
+    }
+}
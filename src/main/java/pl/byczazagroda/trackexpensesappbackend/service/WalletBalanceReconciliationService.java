@@ -0,0 +1,11 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+public interface WalletBalanceReconciliationService {
+
+    /**
+     * Recomputes the totals of every wallet from its financial transactions and corrects the stored ones.
+     *
+     * @return number of wallets whose stored totals had drifted
+     */
+    int reconcileBalances();
+}
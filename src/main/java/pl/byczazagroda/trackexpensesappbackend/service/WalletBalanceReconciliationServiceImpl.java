@@ -0,0 +1,87 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionTotalDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Safety net for the incrementally maintained wallet totals. Wallets are checked in chunks, each chunk in its own
+ * transaction holding the wallet rows locked, so writes to the checked wallets wait instead of racing the recount.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalletBalanceReconciliationServiceImpl implements WalletBalanceReconciliationService {
+
+    private final WalletRepository walletRepository;
+
+    private final FinancialTransactionRepository financialTransactionRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final WalletCache walletCache;
+
+    @Value("${application.balance-reconciliation.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    @Scheduled(cron = "${application.balance-reconciliation.cron:0 30 3 * * *}")
+    public int reconcileBalances() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int drifted = 0;
+        long afterId = 0;
+        while (true) {
+            long chunkAfterId = afterId;
+            ReconciledChunk chunk = transactionTemplate.execute(status -> reconcileChunk(chunkAfterId));
+            if (chunk == null || chunk.lastWalletId() == null) {
+                break;
+            }
+            drifted += chunk.drifted();
+            afterId = chunk.lastWalletId();
+        }
+        log.info("Wallet balance reconciliation finished, {} wallets had drifted", drifted);
+        return drifted;
+    }
+
+    private ReconciledChunk reconcileChunk(long afterId) {
+        List<Wallet> wallets = walletRepository.findAllByIdGreaterThanForUpdate(afterId, PageRequest.ofSize(chunkSize));
+        if (wallets.isEmpty()) {
+            return new ReconciledChunk(null, 0);
+        }
+        Map<Long, WalletBalanceDelta> totals = new HashMap<>();
+        for (FinancialTransactionTotalDTO total : financialTransactionRepository.sumAmountsByWalletIds(
+                wallets.stream().map(Wallet::getId).toList())) {
+            totals.merge(total.walletId(), WalletBalanceDelta.of(total.type(), total.total()), WalletBalanceDelta::add);
+        }
+        int drifted = 0;
+        for (Wallet wallet : wallets) {
+            WalletBalanceDelta expected = totals.getOrDefault(wallet.getId(), WalletBalanceDelta.ZERO);
+            if (expected.income().compareTo(wallet.getIncomeTotal()) != 0
+                    || expected.expense().compareTo(wallet.getExpenseTotal()) != 0) {
+                log.warn("Balance of wallet {} had drifted: stored income {} expense {}, recomputed income {} expense {}",
+                        wallet.getId(), wallet.getIncomeTotal(), wallet.getExpenseTotal(),
+                        expected.income(), expected.expense());
+                walletRepository.setBalance(wallet.getId(), expected.income(), expected.expense());
+                walletCache.balanceChanged(wallet.getId());
+                drifted++;
+            }
+        }
+        return new ReconciledChunk(wallets.get(wallets.size() - 1).getId(), drifted);
+    }
+
+    private record ReconciledChunk(Long lastWalletId, int drifted) {
+    }
+}
@@ -0,0 +1,198 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of active wallets and of their existence, keyed by id. A wallet is cached together with
+ * the version it was read at, so its tag always describes the cached body. The least recently used entry
+ * is evicted when the cache is full, and an entry expires after the time to live.
+ * <p>
+ * Writers invalidate the entry at once and again after their commit, so a reader cannot cache the state from
+ * before the commit for longer than that. A load racing with an invalidation is not stored. Other instances are
+ * not notified, they serve an entry for at most the time to live.
+ */
+@Component
+public class WalletCache {
+
+    @Value("${application.wallet-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.wallet-cache.maximum-size:10000}")
+    private int maximumSize;
+
+    @Value("${application.wallet-cache.ttl-ms:30000}")
+    private long ttlMillis;
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maximumSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Incremented by every invalidation, a load started before one is not stored.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * Returns the wallet with the version it was read at from the cache, or from the loader when it is not cached,
+     * or the balance of the cached wallet changed since.
+     */
+    public Optional<VersionedDTO<WalletDTO>> get(Long id, Supplier<Optional<VersionedDTO<WalletDTO>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry entry = find(id);
+        if (entry != null && (!entry.exists() || entry.wallet() != null)) {
+            hits.increment();
+            return Optional.ofNullable(entry.wallet());
+        }
+        misses.increment();
+        long seenInvalidations = invalidations.get();
+        long startedAt = System.nanoTime();
+        Optional<VersionedDTO<WalletDTO>> wallet = loader.get();
+        recordLoad(startedAt);
+        store(id, new Entry(wallet.isPresent(), wallet.orElse(null), System.nanoTime()), seenInvalidations);
+        return wallet;
+    }
+
+    /**
+     * Tells whether the wallet exists from the cache, or from the loader when it is not cached.
+     */
+    public boolean exists(Long id, BooleanSupplier loader) {
+        if (!enabled) {
+            return loader.getAsBoolean();
+        }
+        Entry entry = find(id);
+        if (entry != null) {
+            hits.increment();
+            return entry.exists();
+        }
+        misses.increment();
+        long seenInvalidations = invalidations.get();
+        long startedAt = System.nanoTime();
+        boolean exists = loader.getAsBoolean();
+        recordLoad(startedAt);
+        store(id, new Entry(exists, null, System.nanoTime()), seenInvalidations);
+        return exists;
+    }
+
+    /**
+     * Drops the wallet, which the caller's transaction creates, changes or deletes.
+     */
+    public void invalidate(Long id) {
+        invalidateNowAndAfterCommit(() -> remove(id));
+    }
+
+    /**
+     * Drops the cached totals of the wallet, whose balance the caller's transaction changes. Its existence stays cached.
+     */
+    public void balanceChanged(Long id) {
+        invalidateNowAndAfterCommit(() -> forgetWallet(id));
+    }
+
+    public WalletCacheStatistics getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long loadCount = loads.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new WalletCacheStatistics(enabled, size, hitCount, missCount,
+                hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount),
+                evictions.sum(), loadCount,
+                loadCount == 0 ? 0.0 : (double) loadNanos.sum() / loadCount / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private Entry find(Long id) {
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && System.nanoTime() - entry.loadedAt() > TimeUnit.MILLISECONDS.toNanos(ttlMillis)) {
+                entries.remove(id);
+                evictions.increment();
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void store(Long id, Entry entry, long seenInvalidations) {
+        synchronized (entries) {
+            // the check is under the lock, so an invalidation either happens before it or removes the entry after it
+            if (invalidations.get() == seenInvalidations) {
+                entries.put(id, entry);
+            }
+        }
+    }
+
+    private void remove(Long id) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(id);
+        }
+    }
+
+    private void forgetWallet(Long id) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.computeIfPresent(id, (key, entry) -> entry.exists()
+                    ? new Entry(true, null, entry.loadedAt()) : null);
+        }
+    }
+
+    private void invalidateNowAndAfterCommit(Runnable invalidation) {
+        if (!enabled) {
+            return;
+        }
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private void recordLoad(long startedAt) {
+        loads.increment();
+        loadNanos.add(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * @param wallet is null when only the existence is known
+     */
+    private record Entry(boolean exists, VersionedDTO<WalletDTO> wallet, long loadedAt) {
+    }
+}
@@ -0,0 +1,12 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+/**
+ * State of the in-memory wallet cache of this application instance. Counters are counted since the instance started.
+ *
+ * @param hitRate is hits divided by all lookups, 0 before the first lookup
+ * @param evictions counts entries dropped because the cache was full or their time to live passed
+ * @param averageLoadMillis is the average time of loading a missing entry from the database
+ */
+public record WalletCacheStatistics(boolean enabled, int size, long hits, long misses, double hitRate,
+                                    long evictions, long loads, double averageLoadMillis) {
+}
@@ -0,0 +1,20 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletDeletionJobDTO;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Validated
+public interface WalletDeletionService {
+
+    /**
+     * Hides the wallet at once and queues the deletion of its transactions, which runs in the background
+     * in batches, each in its own transaction, so no single transaction holds locks on all of the wallet's rows.
+     * Requesting the deletion of a wallet whose deletion failed restarts it.
+     */
+    WalletDeletionJobDTO requestWalletDeletion(@Min(1) @NotNull Long walletId);
+
+    WalletDeletionJobDTO findWalletDeletionJob(@Min(1) @NotNull Long walletId);
+}
@@ -0,0 +1,212 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletDeletionJobDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionJob;
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionStatus;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletDeletionJobRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@Validated
+@RequiredArgsConstructor
+public class WalletDeletionServiceImpl implements WalletDeletionService {
+
+    private static final List<WalletDeletionStatus> UNFINISHED_STATUSES =
+            List.of(WalletDeletionStatus.QUEUED, WalletDeletionStatus.RUNNING);
+
+    /**
+     * Length of the failure_message column.
+     */
+    private static final int MAX_FAILURE_MESSAGE_LENGTH = 255;
+
+    private final WalletRepository walletRepository;
+
+    private final FinancialTransactionRepository financialTransactionRepository;
+
+    private final FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    private final MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    private final WalletDeletionJobRepository walletDeletionJobRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final WalletNameIndex walletNameIndex;
+
+    private final WalletCache walletCache;
+
+    @Value("${application.wallet-deletion.threads:1}")
+    private int threads;
+
+    @Value("${application.wallet-deletion.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${application.wallet-deletion.batch-pause-ms:100}")
+    private long batchPauseMillis;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        // the queue holds wallet ids only, the jobs themselves are stored in the database
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("wallet-deletion-"));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Resumes the deletions interrupted by a shutdown. A batch is a transaction of its own,
+     * so the deletion continues from the last committed batch.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeWalletDeletions() {
+        List<Long> walletIds = walletDeletionJobRepository.findWalletIdsByStatusIn(UNFINISHED_STATUSES);
+        if (!walletIds.isEmpty()) {
+            log.info("Resuming deletion of {} wallets", walletIds.size());
+        }
+        walletIds.forEach(this::submit);
+    }
+
+    @Override
+    @Transactional
+    public WalletDeletionJobDTO requestWalletDeletion(@Min(1) @NotNull Long walletId) {
+        WalletDeletionJob job;
+        if (walletRepository.lockActiveById(walletId).isPresent()) {
+            walletRepository.markDeletionRequested(walletId, Instant.now());
+            walletNameIndex.walletRemoved(walletId);
+            walletCache.invalidate(walletId);
+            // the wallet is hidden, so its summary goes at once, the rollup rows are not subtracted per batch
+            monthlyCategoryTotalRepository.deleteAllByWalletId(walletId);
+            job = walletDeletionJobRepository.save(new WalletDeletionJob(walletId, Instant.now()));
+        } else {
+            job = walletDeletionJobRepository.findById(walletId)
+                    .filter(failedJob -> failedJob.getStatus() == WalletDeletionStatus.FAILED)
+                    .orElseThrow(() -> new AppRuntimeException(ErrorCode.W003,
+                            String.format("Wallet with id: %d does not exist", walletId)));
+            job.setStatus(WalletDeletionStatus.QUEUED);
+            job.setFailureMessage(null);
+            job.setFinishedAt(null);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(walletId);
+            }
+        });
+        return toDTO(job);
+    }
+
+    @Override
+    public WalletDeletionJobDTO findWalletDeletionJob(@Min(1) @NotNull Long walletId) {
+        return walletDeletionJobRepository.findById(walletId)
+                .map(WalletDeletionServiceImpl::toDTO)
+                .orElseThrow(() -> new AppRuntimeException(ErrorCode.W006,
+                        String.format("Deletion job of wallet with id: %d does not exist", walletId)));
+    }
+
+    void purgeWallet(Long walletId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteBatch(walletId)))) {
+                // gives the other writers of the database a chance to get their locks
+                if (batchPauseMillis > 0) {
+                    TimeUnit.MILLISECONDS.sleep(batchPauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            // shutting down, the job stays unfinished and is resumed on the next start
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Deletion of wallet {} failed", walletId, e);
+            transactionTemplate.executeWithoutResult(status -> walletDeletionJobRepository.findById(walletId)
+                    .ifPresent(job -> {
+                        job.setStatus(WalletDeletionStatus.FAILED);
+                        job.setFailureMessage(failureMessageOf(e));
+                        job.setFinishedAt(Instant.now());
+                    }));
+        }
+    }
+
+    /**
+     * Deletes one batch of the wallet's transactions, or the wallet itself when none are left.
+     *
+     * @return true when there may be more transactions to delete
+     */
+    private boolean deleteBatch(Long walletId) {
+        // the wallet row is locked first, as in the transaction writers, and serializes deletions of the same wallet
+        boolean walletExists = walletRepository.lockById(walletId).isPresent();
+        WalletDeletionJob job = walletDeletionJobRepository.findById(walletId).orElse(null);
+        if (job == null || !UNFINISHED_STATUSES.contains(job.getStatus())) {
+            return false;
+        }
+        job.setStatus(WalletDeletionStatus.RUNNING);
+        if (!walletExists) {
+            complete(job);
+            return false;
+        }
+        List<Long> ids = financialTransactionRepository.findIdsByWalletId(walletId, batchSize);
+        if (ids.isEmpty()) {
+            // also covers transactions written while the deletion was being requested
+            financialTransactionCategoryRepository.subtractTransactionCountsOfWallet(walletId);
+            walletRepository.deleteWalletById(walletId);
+            complete(job);
+            return false;
+        }
+        financialTransactionCategoryRepository.subtractTransactionCountsOfTransactions(ids);
+        int deleted = financialTransactionRepository.deleteFinancialTransactionsByIds(ids);
+        job.setDeletedTransactions(job.getDeletedTransactions() + deleted);
+        return true;
+    }
+
+    private void submit(Long walletId) {
+        executor.execute(() -> purgeWallet(walletId));
+    }
+
+    private static void complete(WalletDeletionJob job) {
+        job.setStatus(WalletDeletionStatus.COMPLETED);
+        job.setFinishedAt(Instant.now());
+    }
+
+    private static String failureMessageOf(RuntimeException e) {
+        String message = String.valueOf(e.getMessage());
+        return message.length() > MAX_FAILURE_MESSAGE_LENGTH ? message.substring(0, MAX_FAILURE_MESSAGE_LENGTH) : message;
+    }
+
+    private static WalletDeletionJobDTO toDTO(WalletDeletionJob job) {
+        return new WalletDeletionJobDTO(job.getWalletId(), job.getStatus(), job.getDeletedTransactions(),
+                job.getFailureMessage(), job.getCreatedAt(), job.getFinishedAt());
+    }
+}
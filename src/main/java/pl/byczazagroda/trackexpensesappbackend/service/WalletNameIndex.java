@@ -0,0 +1,171 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+import pl.byczazagroda.trackexpensesappbackend.repository.CacheVersionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory prefix index of the names of active wallets, for autocomplete. Readers get an immutable snapshot
+ * from a single volatile read, so lookups never lock and never query the database.
+ * <p>
+ * Every change of a wallet name increments the version in cache_versions after the change commits, in a short
+ * transaction of its own, so the single version row is never locked while a wallet write is in progress. This
+ * instance then applies its own change to the snapshot when the snapshot is exactly one version behind, and reloads
+ * all names otherwise. Other instances notice the new version on their periodic check; one that reloads between the
+ * commit of a change and its increment reloads again on the next check. An increment that fails is retried by the
+ * periodic check, and until then this instance reloads its names on the next lookup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WalletNameIndex {
+
+    static final String CACHE_NAME = "wallet_names";
+
+    private static final Snapshot NOT_LOADED = new Snapshot(-1L, NamePrefixIndex.EMPTY);
+
+    private final WalletRepository walletRepository;
+
+    private final CacheVersionRepository cacheVersionRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private volatile Snapshot snapshot = NOT_LOADED;
+
+    private final AtomicBoolean incrementPending = new AtomicBoolean();
+
+    /**
+     * Returns up to the limit of active wallets whose name starts with the prefix, ignoring case, ordered by name.
+     */
+    public List<NameSuggestionDTO> findByPrefix(String prefix, int limit) {
+        Snapshot current = snapshot;
+        if (current == NOT_LOADED) {
+            current = refresh();
+        }
+        return current.index().findByPrefix(prefix, limit);
+    }
+
+    /**
+     * Records that the caller's transaction, which has to be active, created or renamed the wallet.
+     */
+    public void walletNameChanged(Long id, String name) {
+        changed(index -> index.with(new NameSuggestionDTO(id, name)));
+    }
+
+    /**
+     * Records that the caller's transaction, which has to be active, deleted the wallet or hid it for deletion.
+     */
+    public void walletRemoved(Long id) {
+        changed(index -> index.without(id));
+    }
+
+    @Scheduled(fixedDelayString = "${application.autocomplete.version-check-interval-ms:5000}")
+    public void checkVersion() {
+        if (incrementPending.getAndSet(false)) {
+            retryIncrement();
+        }
+        Snapshot current = snapshot;
+        if (current == NOT_LOADED) {
+            // loaded on first use
+            return;
+        }
+        long version = cacheVersionRepository.findVersionByName(CACHE_NAME).orElse(0L);
+        if (version != current.version()) {
+            log.debug("Wallet name index version {} is stale, the database has version {}", current.version(), version);
+            refresh();
+        }
+    }
+
+    int size() {
+        return snapshot.index().size();
+    }
+
+    private void changed(UnaryOperator<NamePrefixIndex> change) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long version;
+                try {
+                    version = incrementVersion();
+                } catch (RuntimeException e) {
+                    // the change is committed, the periodic check makes the other instances pick it up
+                    log.warn("Could not increment the wallet name index version, retrying on the next check", e);
+                    incrementPending.set(true);
+                    markStale();
+                    return;
+                }
+                apply(version, change);
+            }
+        });
+    }
+
+    private void retryIncrement() {
+        try {
+            incrementVersion();
+        } catch (RuntimeException e) {
+            log.warn("Could not increment the wallet name index version, retrying on the next check", e);
+            incrementPending.set(true);
+        }
+    }
+
+    private long incrementVersion() {
+        // a new transaction, the caller's resources are still bound after its commit
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate.execute(status -> {
+            cacheVersionRepository.incrementVersion(CACHE_NAME);
+            // the row stays locked by the increment until the commit, so this is the version of exactly this change
+            return cacheVersionRepository.findVersionByName(CACHE_NAME).orElse(0L);
+        });
+    }
+
+    private synchronized void apply(long version, UnaryOperator<NamePrefixIndex> change) {
+        Snapshot current = snapshot;
+        if (current == NOT_LOADED || current.version() >= version) {
+            // not used yet, or a reload already contains the change
+            return;
+        }
+        if (current.version() == version - 1) {
+            snapshot = new Snapshot(version, change.apply(current.index()));
+        } else {
+            // a change of another instance or a concurrent commit is missing in between
+            refresh();
+        }
+    }
+
+    private synchronized void markStale() {
+        // loaded again on the next lookup
+        snapshot = NOT_LOADED;
+    }
+
+    private synchronized Snapshot refresh() {
+        // a new transaction, refresh also runs after the caller's commit while its resources are still bound
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        // the version and the names are read from one consistent read view
+        Snapshot loaded = transactionTemplate.execute(status -> new Snapshot(
+                cacheVersionRepository.findVersionByName(CACHE_NAME).orElse(0L),
+                NamePrefixIndex.of(walletRepository.findAllActiveWalletNames())));
+        if (loaded.version() >= snapshot.version()) {
+            snapshot = loaded;
+        }
+        return snapshot;
+    }
+
+    private record Snapshot(long version, NamePrefixIndex index) {
+    }
+}
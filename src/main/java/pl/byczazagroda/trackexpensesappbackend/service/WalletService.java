@@ -3,9 +3,11 @@ package pl.byczazagroda.trackexpensesappbackend.service;
 
 import org.hibernate.validator.constraints.Length;
 import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletUpdateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 
 import javax.validation.Valid;
 import javax.validation.constraints.*;
@@ -16,13 +18,45 @@ public interface WalletService {
 
     WalletDTO createWallet(@Valid WalletCreateDTO walletCreateDTO);
 
-    WalletDTO updateWallet(@Min(1) @NotNull Long id, @Valid WalletUpdateDTO walletToUpdate);
+    /**
+     * @param expectedVersion is the version the caller read, the update fails when the wallet changed since;
+     *                        null updates any version
+     */
+    WalletDTO updateWallet(@Min(1) @NotNull Long id, @Valid WalletUpdateDTO walletToUpdate, Long expectedVersion);
 
     List<WalletDTO> getWallets();
 
+    /**
+     * Returns {@link #getWallets()} with the version of the list, read together with the list.
+     */
+    VersionedDTO<List<WalletDTO>> getWalletsWithVersion();
+
     void deleteWalletById(@Min(1) @NotNull Long id);
 
     WalletDTO findById(@Min(1) @NotNull Long id);
 
+    /**
+     * Returns {@link #findById(Long)} with the version the wallet was read at, which may be older than
+     * {@link #findWalletVersion(Long)} when the wallet comes from the cache or from a lagging replica.
+     */
+    VersionedDTO<WalletDTO> findByIdWithVersion(@Min(1) @NotNull Long id);
+
+    /**
+     * Version of the wallet, it changes with every change of the wallet and of its transactions.
+     */
+    long findWalletVersion(@Min(1) @NotNull Long id);
+
+    /**
+     * Current version of the list returned by {@link #getWallets()}, read from the primary. It only tells whether
+     * a conditional request can be answered without the list, the list comes with its own version.
+     */
+    String getWalletsVersion();
+
     List<WalletDTO> findAllByNameIgnoreCase(@NotBlank @Length(max = 20) @Pattern(regexp = "[\\w ]+") String name);
+
+    /**
+     * Returns the active wallets whose name starts with the prefix, ignoring case, ordered by name.
+     * They are served from memory, without a database query.
+     */
+    List<NameSuggestionDTO> findWalletNameSuggestions(@NotNull @Size(max = 20) String prefix, @Min(1) Integer limit);
 }
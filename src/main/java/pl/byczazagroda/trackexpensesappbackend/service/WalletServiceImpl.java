@@ -3,22 +3,26 @@ package pl.byczazagroda.trackexpensesappbackend.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.Length;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletUpdateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.mapper.WalletModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
 
-import javax.transaction.Transactional;
 import javax.validation.Valid;
 import javax.validation.constraints.*;
 import java.util.List;
-import java.util.Optional;
 
 
 @Slf4j
@@ -30,61 +34,111 @@ public class WalletServiceImpl implements WalletService {
 
     private final WalletRepository walletRepository;
     private final WalletModelMapper walletModelMapper;
+    private final FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+    private final MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+    private final WalletNameIndex walletNameIndex;
+    private final WalletCache walletCache;
+
+    @Value("${application.autocomplete.default-limit:10}")
+    private int defaultSuggestionLimit;
+
+    @Value("${application.autocomplete.max-limit:50}")
+    private int maxSuggestionLimit;
 
     @Override
+    @Transactional
     public WalletDTO createWallet(@Valid WalletCreateDTO walletCreateDTO) {
 
         String walletName = walletCreateDTO.name();
         Wallet wallet = new Wallet(walletName);
         Wallet savedWallet = walletRepository.save(wallet);
+        walletNameIndex.walletNameChanged(savedWallet.getId(), savedWallet.getName());
+        // a lookup of the id before it existed may be cached
+        walletCache.invalidate(savedWallet.getId());
         return walletModelMapper.mapWalletEntityToWalletDTO(savedWallet);
     }
 
     @Override
     @Transactional
-    public WalletDTO updateWallet(@Min(1) @NotNull Long id, @Valid WalletUpdateDTO dto) {
-        Wallet wallet = walletRepository.findById(id)
+    public WalletDTO updateWallet(@Min(1) @NotNull Long id, @Valid WalletUpdateDTO dto, Long expectedVersion) {
+        Wallet wallet = walletRepository.findActiveById(id)
                 .orElseThrow(() -> {
                     throw new AppRuntimeException(
                             ErrorCode.W003,
                             String.format("Wallet with id: %d does not exist", id));
                 });
+        ExpectedVersion.check(expectedVersion, wallet.getVersion(), "Wallet", id);
         wallet.setName(dto.name());
+        walletNameIndex.walletNameChanged(id, dto.name());
+        walletCache.invalidate(id);
 
         return walletModelMapper.mapWalletEntityToWalletDTO(wallet);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<WalletDTO> getWallets() {
-        return walletRepository.findAllByOrderByNameAsc().stream()
-                .map(walletModelMapper::mapWalletEntityToWalletDTO)
-                .toList();
+        return walletRepository.findAllWalletDTOsOrderByNameAsc();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDTO<List<WalletDTO>> getWalletsWithVersion() {
+        // the first read of the transaction fixes its read view, the wallets are read from the same one
+        String version = walletRepository.findActiveWalletsVersion();
+        return new VersionedDTO<>(walletRepository.findAllWalletDTOsOrderByNameAsc(), version);
     }
 
     @Override
+    @Transactional
     public void deleteWalletById(@Min(1) @NotNull Long id) {
-        if (walletRepository.existsById(id)) {
-            walletRepository.deleteById(id);
-        } else {
-            throw new AppRuntimeException(
-                    ErrorCode.W003,
-                    String.format("Wallet with given id: %d does not exist", id));
+        // rows are locked in the order of the transaction writers: wallet, monthly totals, categories
+        if (walletRepository.lockActiveById(id).isEmpty()) {
+            throw walletNotFound(id);
+        }
+        monthlyCategoryTotalRepository.deleteAllByWalletId(id);
+        // the transactions go together with the wallet, so they are subtracted from their categories first
+        financialTransactionCategoryRepository.subtractTransactionCountsOfWallet(id);
+        if (walletRepository.deleteWalletById(id) == 0) {
+            throw walletNotFound(id);
         }
+        walletNameIndex.walletRemoved(id);
+        walletCache.invalidate(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public WalletDTO findById(@Min(1) @NotNull Long id) {
-        Optional<Wallet> wallet = walletRepository.findById(id);
-        return wallet.map(walletModelMapper::mapWalletEntityToWalletDTO)
+        return findByIdWithVersion(id).body();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDTO<WalletDTO> findByIdWithVersion(@Min(1) @NotNull Long id) {
+        return walletCache.get(id, () -> walletRepository.findActiveById(id)
+                        .map(wallet -> new VersionedDTO<>(walletModelMapper.mapWalletEntityToWalletDTO(wallet),
+                                String.valueOf(wallet.getVersion()))))
                 .orElseThrow(() -> new AppRuntimeException(ErrorCode.W003,
                         String.format("Wallet with id: %s not found", id)));
     }
 
     @Override
+    public long findWalletVersion(@Min(1) @NotNull Long id) {
+        return walletRepository.findActiveVersionById(id)
+                .orElseThrow(() -> walletNotFound(id));
+    }
+
+    @Override
+    public String getWalletsVersion() {
+        return walletRepository.findActiveWalletsVersion();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<WalletDTO> findAllByNameIgnoreCase(@NotBlank() @Length(max = 20) @Pattern(regexp = "[\\w ]+") String name) {
         List<WalletDTO> listOfWalletDTO;
         try {
-            listOfWalletDTO = walletRepository.findAllByNameLikeIgnoreCase(name)
+            listOfWalletDTO = walletRepository.findAllByNameLikeIgnoreCaseAndDeletionRequestedAtIsNull(name)
                     .stream()
                     .map(walletModelMapper::mapWalletEntityToWalletDTO)
                     .toList();
@@ -95,4 +149,17 @@ public class WalletServiceImpl implements WalletService {
         }
         return listOfWalletDTO;
     }
+
+    @Override
+    public List<NameSuggestionDTO> findWalletNameSuggestions(@NotNull @Size(max = 20) String prefix,
+                                                             @Min(1) Integer limit) {
+        int size = limit == null ? defaultSuggestionLimit : Math.min(limit, maxSuggestionLimit);
+        return walletNameIndex.findByPrefix(prefix, size);
+    }
+
+    private static AppRuntimeException walletNotFound(Long id) {
+        return new AppRuntimeException(
+                ErrorCode.W003,
+                String.format("Wallet with given id: %d does not exist", id));
+    }
 }
@@ -0,0 +1,27 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletSummaryDTO;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.YearMonth;
+
+@Validated
+public interface WalletSummaryService {
+
+    /**
+     * Reads the monthly totals of a wallet from the monthly_category_totals rollup.
+     *
+     * @param from is the first month of the range
+     * @param to is the last month of the range, inclusive
+     */
+    WalletSummaryDTO getSummary(@Min(1) @NotNull Long walletId, @NotNull YearMonth from, @NotNull YearMonth to);
+
+    /**
+     * Rebuilds the monthly_category_totals rollup of every wallet from its transactions, wallets in parallel.
+     *
+     * @return number of rebuilt wallets
+     */
+    int rebuildMonthlyTotals();
+}
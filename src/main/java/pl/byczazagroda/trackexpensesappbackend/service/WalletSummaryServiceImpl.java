@@ -0,0 +1,145 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.MonthlyCategoryTotalDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletMonthSummaryDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletSummaryDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.MonthlyCategoryTotal;
+import pl.byczazagroda.trackexpensesappbackend.model.MonthlyCategoryTotalId;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class WalletSummaryServiceImpl implements WalletSummaryService {
+
+    private final WalletRepository walletRepository;
+
+    private final MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    private final FinancialTransactionRepository financialTransactionRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${application.summary.backfill-threads:4}")
+    private int backfillThreads;
+
+    @Override
+    public WalletSummaryDTO getSummary(@Min(1) @NotNull Long walletId, @NotNull YearMonth from, @NotNull YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new AppRuntimeException(ErrorCode.W005,
+                    String.format("Summary range from %s to %s is invalid, the first month is after the last one", from, to));
+        }
+        if (!walletRepository.existsActiveById(walletId)) {
+            throw new AppRuntimeException(ErrorCode.W003, String.format("Wallet with id: %d does not exist", walletId));
+        }
+        List<MonthlyCategoryTotal> monthlyTotals = monthlyCategoryTotalRepository.findAllByWalletIdAndMonthBetween(
+                walletId, from.atDay(1), to.atDay(1));
+
+        // rows come ordered by month, so grouping keeps the months in order
+        Map<YearMonth, List<MonthlyCategoryTotal>> totalsByMonth = new LinkedHashMap<>();
+        for (MonthlyCategoryTotal monthlyTotal : monthlyTotals) {
+            totalsByMonth.computeIfAbsent(YearMonth.from(monthlyTotal.getId().getMonth()), month -> new ArrayList<>())
+                    .add(monthlyTotal);
+        }
+        List<WalletMonthSummaryDTO> months = totalsByMonth.entrySet().stream()
+                .map(entry -> toMonthSummary(entry.getKey(), entry.getValue()))
+                .toList();
+
+        return new WalletSummaryDTO(walletId, from, to, months);
+    }
+
+    @Override
+    public int rebuildMonthlyTotals() {
+        List<Long> walletIds = walletRepository.findAllIds();
+        log.info("Rebuilding monthly totals of {} wallets with {} threads", walletIds.size(), backfillThreads);
+        ExecutorService executor = Executors.newFixedThreadPool(backfillThreads,
+                new CustomizableThreadFactory("monthly-totals-backfill-"));
+        try {
+            Map<Long, Future<?>> rebuilds = new LinkedHashMap<>();
+            walletIds.forEach(walletId -> rebuilds.put(walletId, executor.submit(() -> rebuildWallet(walletId))));
+            int rebuilt = 0;
+            for (Map.Entry<Long, Future<?>> rebuild : rebuilds.entrySet()) {
+                try {
+                    rebuild.getValue().get();
+                    rebuilt++;
+                } catch (ExecutionException e) {
+                    log.error("Rebuilding monthly totals of wallet {} failed", rebuild.getKey(), e.getCause());
+                }
+            }
+            log.info("Rebuilt monthly totals of {} of {} wallets", rebuilt, walletIds.size());
+            return rebuilt;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppRuntimeException(ErrorCode.TEA001, "Rebuilding monthly totals was interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Recounts the rollup of one wallet. The wallet row is locked first, like every transaction write does,
+     * so no write to the wallet can slip in between reading its transactions and storing the new totals.
+     */
+    void rebuildWallet(Long walletId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (walletRepository.findByIdForUpdate(walletId).isEmpty()) {
+                return;
+            }
+            monthlyCategoryTotalRepository.deleteAllByWalletId(walletId);
+            MonthlyCategoryTotalsDelta monthlyTotals = new MonthlyCategoryTotalsDelta();
+            try (Stream<FinancialTransactionDTO> financialTransactions =
+                         financialTransactionRepository.streamAllFinancialTransactionDTOsByWalletId(walletId)) {
+                financialTransactions.forEach(ft ->
+                        monthlyTotals.add(walletId, ft.date(), ft.type(), ft.categoryId(), ft.amount()));
+            }
+            monthlyTotals.applyTo(monthlyCategoryTotalRepository);
+        });
+    }
+
+    private static WalletMonthSummaryDTO toMonthSummary(YearMonth month, List<MonthlyCategoryTotal> monthlyTotals) {
+        BigDecimal incomeTotal = BigDecimal.ZERO;
+        BigDecimal expenseTotal = BigDecimal.ZERO;
+        List<MonthlyCategoryTotalDTO> categories = new ArrayList<>(monthlyTotals.size());
+        for (MonthlyCategoryTotal monthlyTotal : monthlyTotals) {
+            MonthlyCategoryTotalId id = monthlyTotal.getId();
+            if (id.getType() == FinancialTransactionType.INCOME) {
+                incomeTotal = incomeTotal.add(monthlyTotal.getTotal());
+            } else {
+                expenseTotal = expenseTotal.add(monthlyTotal.getTotal());
+            }
+            categories.add(new MonthlyCategoryTotalDTO(
+                    id.getCategoryId() == MonthlyCategoryTotalId.NO_CATEGORY ? null : id.getCategoryId(),
+                    id.getType(), monthlyTotal.getTotal(), monthlyTotal.getTransactionCount()));
+        }
+        return new WalletMonthSummaryDTO(month, incomeTotal, expenseTotal, categories);
+    }
+}
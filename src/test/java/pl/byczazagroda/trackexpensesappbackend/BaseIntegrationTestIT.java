@@ -9,11 +9,16 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
 @SpringBootTest
 @AutoConfigureMockMvc
 @Testcontainers
@@ -33,6 +38,7 @@ public abstract class BaseIntegrationTestIT {
             .withUsername("root")
             .withPassword("root")
             .withUrlParam("serverTimezone", "UTC")
+            .withUrlParam("rewriteBatchedStatements", "true")
             .withReuse(true);
 
     @DynamicPropertySource
@@ -43,4 +49,14 @@ public abstract class BaseIntegrationTestIT {
         registry.add("spring.datasource.driver-class-name", mySQLContainer::getDriverClassName);
         registry.add("spring.profiles.active",() -> "test");
     }
+
+    /**
+     * Performs a request to an endpoint which answers asynchronously, and the dispatch which writes the answer.
+     * A request rejected before the controller is answered at once.
+     */
+    protected ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : resultActions;
+    }
 }
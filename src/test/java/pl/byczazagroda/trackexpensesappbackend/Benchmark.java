@@ -0,0 +1,71 @@
+package pl.byczazagroda.trackexpensesappbackend;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the benchmarks among the integration tests. The ones which seed large tables or compare timings
+ * only run with -Dbenchmarks.enabled=true, the default suite keeps their correctness checks on small data.
+ */
+public final class Benchmark {
+
+    public static final String ENABLED_PROPERTY = "benchmarks.enabled";
+
+    private Benchmark() {
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Runs the task a number of times to warm up, then times every measured run on its own and counts the bytes
+     * the current thread allocated over all of them.
+     */
+    public static Measurement measure(Runnable task, int warmupRuns, int measuredRuns) {
+        for (int i = 0; i < warmupRuns; i++) {
+            task.run();
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long[] nanos = new long[measuredRuns];
+        for (int i = 0; i < measuredRuns; i++) {
+            long startedAt = System.nanoTime();
+            task.run();
+            nanos[i] = System.nanoTime() - startedAt;
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        Arrays.sort(nanos);
+        return new Measurement(nanos, allocated);
+    }
+
+    /**
+     * Returns the value below which the given percent of the sorted values fall.
+     */
+    public static long percentile(long[] sortedValues, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedValues.length) - 1;
+        return sortedValues[Math.max(index, 0)];
+    }
+
+    public record Measurement(long[] sortedNanos, long allocatedBytes) {
+
+        public long totalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(Arrays.stream(sortedNanos).sum());
+        }
+
+        public long averageMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(Arrays.stream(sortedNanos).sum() / sortedNanos.length);
+        }
+
+        public long averageAllocatedBytes() {
+            return allocatedBytes / sortedNanos.length;
+        }
+
+        public long percentileMillis(double percentile) {
+            return TimeUnit.NANOSECONDS.toMillis(Benchmark.percentile(sortedNanos, percentile));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package pl.byczazagroda.trackexpensesappbackend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    @DisplayName("when a burst exceeds the capacity should allow the capacity and reject the rest")
+    void shouldRejectRequestsBeyondCapacity_WhenBurstExceedsCapacity() {
+        //given
+        RateLimiter rateLimiter = new RateLimiter(3, 1);
+
+        //when
+        long first = rateLimiter.tryAcquire("ip:1", START);
+        long second = rateLimiter.tryAcquire("ip:1", START);
+        long third = rateLimiter.tryAcquire("ip:1", START);
+        long fourth = rateLimiter.tryAcquire("ip:1", START);
+
+        //then
+        assertEquals(0L, first);
+        assertEquals(0L, second);
+        assertEquals(0L, third);
+        assertEquals(SECOND, fourth);
+    }
+
+    @Test
+    @DisplayName("when the bucket has refilled should allow requests again")
+    void shouldAllowRequest_WhenBucketHasRefilled() {
+        //given
+        RateLimiter rateLimiter = new RateLimiter(1, 2);
+        rateLimiter.tryAcquire("ip:1", START);
+
+        //when
+        long tooEarly = rateLimiter.tryAcquire("ip:1", START + SECOND / 4);
+        long refilled = rateLimiter.tryAcquire("ip:1", START + SECOND / 2);
+
+        //then
+        assertEquals(SECOND / 4, tooEarly);
+        assertEquals(0L, refilled);
+    }
+
+    @Test
+    @DisplayName("when two clients send requests should keep a bucket for each")
+    void shouldKeepSeparateBuckets_WhenTwoClientsSendRequests() {
+        //given
+        RateLimiter rateLimiter = new RateLimiter(1, 1);
+        rateLimiter.tryAcquire("user:1", START);
+
+        //when
+        long otherClient = rateLimiter.tryAcquire("user:2", START);
+
+        //then
+        assertEquals(0L, otherClient);
+        assertTrue(rateLimiter.tryAcquire("user:1", START) > 0);
+    }
+
+    @Test
+    @DisplayName("when buckets are full again should evict them and keep the others")
+    void shouldEvictOnlyFullBuckets_WhenBucketsAreIdle() {
+        //given
+        RateLimiter rateLimiter = new RateLimiter(10, 1);
+        for (int i = 0; i < 1_000; i++) {
+            rateLimiter.tryAcquire("ip:" + i, START);
+        }
+        rateLimiter.tryAcquire("ip:active", START + 5 * SECOND);
+
+        //when
+        int evicted = rateLimiter.evictIdle(START + 5 * SECOND);
+
+        //then
+        assertEquals(1_000, evicted);
+        assertEquals(1, rateLimiter.size());
+    }
+
+    @Test
+    @DisplayName("when many threads share a bucket should allow exactly the capacity")
+    void shouldAllowExactlyCapacity_WhenThreadsShareBucket() throws InterruptedException {
+        //given
+        RateLimiter rateLimiter = new RateLimiter(100, 0.001);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        for (int i = 0; i < 1_000; i++) {
+            executor.execute(() -> {
+                if (rateLimiter.tryAcquire("user:1", START) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        //then
+        assertEquals(100, allowed.get());
+    }
+
+    @Test
+    @DisplayName("when the capacity is 0 should refuse the limit")
+    void shouldThrowIllegalArgumentException_WhenCapacityIsZero() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1));
+    }
+}
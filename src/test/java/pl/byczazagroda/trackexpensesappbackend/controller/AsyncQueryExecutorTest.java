@@ -0,0 +1,161 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncQueryExecutorTest {
+
+    private AsyncQueryExecutor asyncQueryExecutor;
+
+    @AfterEach
+    void tearDown() {
+        asyncQueryExecutor.stopExecutor();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("when the async mode is off should run the query on the calling thread")
+    void shouldRunQueryOnCallingThread_WhenAsyncModeIsOff() {
+        //given
+        asyncQueryExecutor = executor(false, 1);
+
+        //when
+        DeferredResult<String> result = asyncQueryExecutor.submit(() -> Thread.currentThread().getName());
+
+        //then
+        assertEquals(Thread.currentThread().getName(), result.getResult());
+    }
+
+    @Test
+    @DisplayName("when the async mode is on should run the query on an executor thread")
+    void shouldRunQueryOnExecutorThread_WhenAsyncModeIsOn() throws InterruptedException {
+        //given
+        asyncQueryExecutor = executor(true, 1);
+        CountDownLatch answered = new CountDownLatch(1);
+
+        //when
+        DeferredResult<String> result = asyncQueryExecutor.submit(() -> Thread.currentThread().getName());
+        result.setResultHandler(value -> answered.countDown());
+
+        //then
+        assertTrue(answered.await(5, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread().getName(), result.getResult());
+    }
+
+    @Test
+    @DisplayName("when the async mode is on should not hand the request to the executor thread")
+    void shouldNotExposeRequest_WhenQueryRunsOnExecutorThread() throws InterruptedException {
+        //given
+        asyncQueryExecutor = executor(true, 1);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        CountDownLatch answered = new CountDownLatch(1);
+
+        //when
+        DeferredResult<Object> result = asyncQueryExecutor.submit(RequestContextHolder::getRequestAttributes);
+        result.setResultHandler(value -> answered.countDown());
+
+        //then
+        assertTrue(answered.await(5, TimeUnit.SECONDS));
+        assertNull(result.getResult());
+    }
+
+    @Test
+    @DisplayName("when the query throws should answer with the exception")
+    void shouldAnswerWithException_WhenQueryThrows() throws InterruptedException {
+        //given
+        asyncQueryExecutor = executor(true, 1);
+        AppRuntimeException exception = new AppRuntimeException(ErrorCode.W003, "Wallet with id: 1 does not exist");
+        CountDownLatch answered = new CountDownLatch(1);
+
+        //when
+        DeferredResult<String> result = asyncQueryExecutor.submit(() -> {
+            throw exception;
+        });
+        result.setResultHandler(value -> answered.countDown());
+
+        //then
+        assertTrue(answered.await(5, TimeUnit.SECONDS));
+        assertEquals(exception, result.getResult());
+    }
+
+    @Test
+    @DisplayName("when the queue is full should reject the query with SERVICE_BUSY")
+    void shouldThrowTEA005_WhenQueueIsFull() {
+        //given
+        asyncQueryExecutor = executor(true, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        asyncQueryExecutor.submit(() -> await(release));
+        asyncQueryExecutor.submit(() -> await(release));
+
+        //when
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> asyncQueryExecutor.submit(() -> await(release)));
+
+        //then
+        assertEquals(ErrorCode.TEA005.getBusinessStatus(), exception.getBusinessStatus());
+        assertEquals(1L, asyncQueryExecutor.getRejections());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("when a queued request was answered meanwhile should skip its query")
+    void shouldSkipQuery_WhenQueuedRequestWasAnswered() throws InterruptedException {
+        //given
+        asyncQueryExecutor = executor(true, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        asyncQueryExecutor.submit(() -> await(release));
+        AtomicBoolean queryRan = new AtomicBoolean();
+        DeferredResult<Boolean> queued = asyncQueryExecutor.submit(() -> queryRan.getAndSet(true));
+        CountDownLatch nextQueryRan = new CountDownLatch(1);
+        asyncQueryExecutor.submit(() -> {
+            nextQueryRan.countDown();
+            return true;
+        });
+
+        //when
+        queued.setErrorResult(new AppRuntimeException(ErrorCode.TEA009, "The request did not complete in time"));
+        release.countDown();
+
+        //then
+        assertTrue(nextQueryRan.await(5, TimeUnit.SECONDS));
+        assertFalse(queryRan.get());
+    }
+
+    private static AsyncQueryExecutor executor(boolean enabled, int queueCapacity) {
+        AsyncQueryExecutor asyncQueryExecutor = new AsyncQueryExecutor();
+        ReflectionTestUtils.setField(asyncQueryExecutor, "enabled", enabled);
+        ReflectionTestUtils.setField(asyncQueryExecutor, "threads", 1);
+        ReflectionTestUtils.setField(asyncQueryExecutor, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(asyncQueryExecutor, "timeoutMillis", 5000L);
+        asyncQueryExecutor.startExecutor();
+        return asyncQueryExecutor;
+    }
+
+    private static Boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package pl.byczazagroda.trackexpensesappbackend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,22 +8,37 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDetailedDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorStrategy;
 import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionCategoryModelMapper;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
 import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionCategoryService;
 import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionCategoryServiceImpl;
 
+import java.math.BigInteger;
 import java.util.List;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = FinancialTransactionCategoryController.class,
@@ -32,8 +48,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 class FinancialTransactionCategoryControllerTest {
         
+    private static final Long CATEGORY_ID_1L = 1L;
+
     @Autowired
     private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
         
     @MockBean
     private FinancialTransactionCategoryService financialTransactionCategoryService;
@@ -59,6 +80,98 @@ class FinancialTransactionCategoryControllerTest {
 
     }
 
+    @Test
+    @DisplayName("when category did not change since the client read it should return status NOT MODIFIED without the category")
+    void shouldResponseStatusNotModified_WhenIfNoneMatchIsCurrentVersion() throws Exception {
+        // given
+        given(financialTransactionCategoryService.findFinancialTransactionCategoryVersion(CATEGORY_ID_1L))
+                .willReturn(4L);
+
+        // when & then
+        mockMvc.perform(get("/api/categories/{id}", CATEGORY_ID_1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"4\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(content().string(""));
+        verify(financialTransactionCategoryService, never()).findByIdWithVersion(CATEGORY_ID_1L);
+    }
+
+    @Test
+    @DisplayName("when the category is served at an older version than the one looked up should tag it with the served version")
+    void shouldTagBodyWithServedVersion_WhenBodyLagsBehindVersionLookup() throws Exception {
+        // given
+        given(financialTransactionCategoryService.findFinancialTransactionCategoryVersion(CATEGORY_ID_1L))
+                .willReturn(4L);
+        given(financialTransactionCategoryService.findByIdWithVersion(CATEGORY_ID_1L)).willReturn(new VersionedDTO<>(
+                new FinancialTransactionCategoryDetailedDTO(
+                        new FinancialTransactionCategoryDTO(CATEGORY_ID_1L, "First", FinancialTransactionType.INCOME),
+                        BigInteger.TWO), "3"));
+
+        // when & then
+        mockMvc.perform(get("/api/categories/{id}", CATEGORY_ID_1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.financialTransactionsCounter").value(2));
+    }
+
+    @Test
+    @DisplayName("when category list changed since the client read it should return the list with a new weak ETag")
+    void shouldResponseStatusOKWithWeakETag_WhenIfNoneMatchIsOutdated() throws Exception {
+        // given
+        given(financialTransactionCategoryService.getFinancialTransactionCategoriesVersion()).willReturn(12L);
+        given(financialTransactionCategoryService.getFinancialTransactionCategories())
+                .willReturn(createFinancialTransactionCategoryDTOList());
+
+        // when & then
+        mockMvc.perform(get("/api/categories")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"11\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"12\""))
+                .andExpect(jsonPath("$.size()").value(3));
+    }
+
+    @Test
+    @DisplayName("when If-Match holds an outdated version should return status PRECONDITION FAILED")
+    void shouldResponseStatusPreconditionFailed_WhenIfMatchIsOutdated() throws Exception {
+        // given
+        FinancialTransactionCategoryUpdateDTO updateDTO =
+                new FinancialTransactionCategoryUpdateDTO("Rent", FinancialTransactionType.EXPENSE);
+        given(financialTransactionCategoryService.updateFinancialTransactionCategory(CATEGORY_ID_1L, updateDTO, 3L))
+                .willThrow(new AppRuntimeException(ErrorCode.TEA006,
+                        "Financial transaction category with id: 1 has version: 4, not the expected version: 3"));
+
+        // when & then
+        mockMvc.perform(patch("/api/categories/{id}", CATEGORY_ID_1L)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(ErrorCode.TEA006.getBusinessStatus()));
+    }
+
+    @Test
+    @DisplayName("when the category was changed by another request during the update should return status CONFLICT")
+    void shouldResponseStatusConflict_WhenCategoryWasChangedConcurrently() throws Exception {
+        // given
+        FinancialTransactionCategoryUpdateDTO updateDTO =
+                new FinancialTransactionCategoryUpdateDTO("Rent", FinancialTransactionType.EXPENSE);
+        given(financialTransactionCategoryService.updateFinancialTransactionCategory(CATEGORY_ID_1L, updateDTO, 4L))
+                .willThrow(new ObjectOptimisticLockingFailureException(FinancialTransactionCategory.class,
+                        CATEGORY_ID_1L));
+
+        // when & then
+        mockMvc.perform(patch("/api/categories/{id}", CATEGORY_ID_1L)
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(ErrorCode.TEA007.getBusinessStatus()));
+    }
+
     private static List<FinancialTransactionCategoryDTO> createFinancialTransactionCategoryDTOList() {
         FinancialTransactionCategoryDTO categoryFirstDTO = new FinancialTransactionCategoryDTO(1L, "First", FinancialTransactionType.INCOME);
         FinancialTransactionCategoryDTO categorySecondDTO = new FinancialTransactionCategoryDTO(2L, "Second", FinancialTransactionType.INCOME);
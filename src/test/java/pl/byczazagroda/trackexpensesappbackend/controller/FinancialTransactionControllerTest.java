@@ -0,0 +1,232 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionPageDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorStrategy;
+import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionModelMapper;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionService;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionServiceImpl;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = FinancialTransactionController.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = FinancialTransactionServiceImpl.class),
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {FinancialTransactionModelMapper.class, ErrorStrategy.class, AsyncQueryExecutor.class}))
+@ActiveProfiles("test")
+class FinancialTransactionControllerTest {
+
+    private static final Long TRANSACTION_ID_1L = 1L;
+
+    private static final Long WALLET_ID_1L = 1L;
+
+    private static final Instant DATE = Instant.parse("2022-09-24T19:09:35.573036Z");
+
+    private static final FinancialTransactionUpdateDTO UPDATE_DTO = new FinancialTransactionUpdateDTO(
+            new BigDecimal("12.50"), DATE, "rent", FinancialTransactionType.EXPENSE, null);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private FinancialTransactionService financialTransactionService;
+
+    @Test
+    @DisplayName("when transaction did not change since the client read it should return status NOT MODIFIED without the transaction")
+    void shouldResponseStatusNotModified_WhenIfNoneMatchIsCurrentVersion() throws Exception {
+        // given
+        given(financialTransactionService.findFinancialTransactionVersion(TRANSACTION_ID_1L)).willReturn(2L);
+
+        // when & then
+        mockMvc.perform(get("/api/transactions/{id}", TRANSACTION_ID_1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+        verify(financialTransactionService, never()).findByIdWithVersion(TRANSACTION_ID_1L);
+    }
+
+    @Test
+    @DisplayName("when transaction changed since the client read it should return the transaction with its new ETag")
+    void shouldResponseStatusOKWithETag_WhenIfNoneMatchIsOutdated() throws Exception {
+        // given
+        given(financialTransactionService.findFinancialTransactionVersion(TRANSACTION_ID_1L)).willReturn(3L);
+        given(financialTransactionService.findByIdWithVersion(TRANSACTION_ID_1L)).willReturn(new VersionedDTO<>(
+                new FinancialTransactionDTO(TRANSACTION_ID_1L, new BigDecimal("12.50"), "rent",
+                        FinancialTransactionType.EXPENSE, DATE, null), "3"));
+
+        // when & then
+        mockMvc.perform(get("/api/transactions/{id}", TRANSACTION_ID_1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.id").value(TRANSACTION_ID_1L));
+    }
+
+    @Test
+    @DisplayName("when the transactions of a wallet did not change should return status NOT MODIFIED without the page")
+    void shouldResponseStatusNotModified_WhenIfNoneMatchIsCurrentListVersion() throws Exception {
+        // given
+        given(financialTransactionService.getFinancialTransactionsVersion(WALLET_ID_1L)).willReturn("1-8");
+
+        // when & then
+        MvcResult asyncResult = mockMvc.perform(get("/api/transactions")
+                        .param("walletId", WALLET_ID_1L.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-8\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-8\""));
+        verify(financialTransactionService, never())
+                .getFinancialTransactionsByWalletIdWithVersion(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("when the transactions of a wallet changed should return the page with a new weak ETag")
+    void shouldResponseStatusOKWithWeakETag_WhenIfNoneMatchIsOutdatedListVersion() throws Exception {
+        // given
+        given(financialTransactionService.getFinancialTransactionsVersion(WALLET_ID_1L)).willReturn("1-9");
+        given(financialTransactionService.getFinancialTransactionsByWalletIdWithVersion(WALLET_ID_1L,
+                FinancialTransactionFilterDTO.none(), null, null))
+                .willReturn(new VersionedDTO<>(new FinancialTransactionPageDTO(List.of(), null), "1-9"));
+
+        // when & then
+        MvcResult asyncResult = mockMvc.perform(get("/api/transactions")
+                        .param("walletId", WALLET_ID_1L.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-8\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-9\""));
+    }
+
+    @Test
+    @DisplayName("when the transaction is served at an older version than the one looked up should tag it with the served version")
+    void shouldTagBodyWithServedVersion_WhenBodyLagsBehindVersionLookup() throws Exception {
+        // given
+        given(financialTransactionService.findFinancialTransactionVersion(TRANSACTION_ID_1L)).willReturn(3L);
+        given(financialTransactionService.findByIdWithVersion(TRANSACTION_ID_1L)).willReturn(new VersionedDTO<>(
+                new FinancialTransactionDTO(TRANSACTION_ID_1L, new BigDecimal("12.50"), "rent",
+                        FinancialTransactionType.EXPENSE, DATE, null), "2"));
+
+        // when & then
+        mockMvc.perform(get("/api/transactions/{id}", TRANSACTION_ID_1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.id").value(TRANSACTION_ID_1L));
+    }
+
+    @Test
+    @DisplayName("when the page is served at an older version than the one looked up should tag it with the served version")
+    void shouldTagPageWithServedVersion_WhenPageLagsBehindVersionLookup() throws Exception {
+        // given
+        given(financialTransactionService.getFinancialTransactionsVersion(WALLET_ID_1L)).willReturn("1-9");
+        given(financialTransactionService.getFinancialTransactionsByWalletIdWithVersion(WALLET_ID_1L,
+                FinancialTransactionFilterDTO.none(), null, null))
+                .willReturn(new VersionedDTO<>(new FinancialTransactionPageDTO(List.of(), null), "1-8"));
+
+        // when & then
+        MvcResult asyncResult = mockMvc.perform(get("/api/transactions")
+                        .param("walletId", WALLET_ID_1L.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-7\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-8\""));
+    }
+
+    @Test
+    @DisplayName("when If-Match holds an outdated version should return status PRECONDITION FAILED")
+    void shouldResponseStatusPreconditionFailed_WhenIfMatchIsOutdated() throws Exception {
+        // given
+        given(financialTransactionService.updateFinancialTransaction(TRANSACTION_ID_1L, UPDATE_DTO, 2L))
+                .willThrow(new AppRuntimeException(ErrorCode.TEA006,
+                        "Financial transaction with id: 1 has version: 3, not the expected version: 2"));
+
+        // when & then
+        mockMvc.perform(patch("/api/transactions/{id}", TRANSACTION_ID_1L)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UPDATE_DTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(ErrorCode.TEA006.getBusinessStatus()));
+    }
+
+    @Test
+    @DisplayName("when If-Match is not a tag of this application should return status PRECONDITION FAILED without updating")
+    void shouldResponseStatusPreconditionFailed_WhenIfMatchIsNotVersionTag() throws Exception {
+        // when & then
+        mockMvc.perform(patch("/api/transactions/{id}", TRANSACTION_ID_1L)
+                        .header(HttpHeaders.IF_MATCH, "\"v2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UPDATE_DTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(ErrorCode.TEA006.getBusinessStatus()));
+        verify(financialTransactionService, never()).updateFinancialTransaction(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("when the transaction was changed by another request during the update should return status CONFLICT")
+    void shouldResponseStatusConflict_WhenTransactionWasChangedConcurrently() throws Exception {
+        // given
+        given(financialTransactionService.updateFinancialTransaction(TRANSACTION_ID_1L, UPDATE_DTO, 3L))
+                .willThrow(new ObjectOptimisticLockingFailureException(FinancialTransaction.class, TRANSACTION_ID_1L));
+
+        // when & then
+        mockMvc.perform(patch("/api/transactions/{id}", TRANSACTION_ID_1L)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UPDATE_DTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(ErrorCode.TEA007.getBusinessStatus()));
+    }
+}
@@ -21,6 +21,7 @@ import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletService;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletServiceImpl;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Objects;
 
@@ -30,7 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = WalletController.class,
         excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WalletServiceImpl.class),
-        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class}))
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class, AsyncQueryExecutor.class}))
 @ActiveProfiles("test")
 class WalletCreateControllerTest {
 
@@ -59,7 +60,7 @@ class WalletCreateControllerTest {
         // given
         WalletCreateDTO dto = new WalletCreateDTO(INVALID_NAME, createTestUserDTO());
         given(walletService.createWallet(dto))
-                .willReturn(new WalletDTO(WALLET_ID_1L, INVALID_NAME, DATE_NOW, USER_ID_1L));
+                .willReturn(new WalletDTO(WALLET_ID_1L, INVALID_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(post("/api/wallets")
@@ -76,7 +77,7 @@ class WalletCreateControllerTest {
         // given
         WalletCreateDTO dto = new WalletCreateDTO("", createTestUserDTO());
         given(walletService.createWallet(dto))
-                .willReturn(new WalletDTO(WALLET_ID_1L, "", DATE_NOW, USER_ID_1L));
+                .willReturn(new WalletDTO(WALLET_ID_1L, "", DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(post("/api/wallets")
@@ -93,7 +94,7 @@ class WalletCreateControllerTest {
         // given
         WalletCreateDTO dto = new WalletCreateDTO(null, createTestUserDTO());
         given(walletService.createWallet(dto))
-                .willReturn(new WalletDTO(WALLET_ID_1L, null, DATE_NOW, USER_ID_1L));
+                .willReturn(new WalletDTO(WALLET_ID_1L, null, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(post("/api/wallets")
@@ -110,7 +111,7 @@ class WalletCreateControllerTest {
         // given
         WalletCreateDTO dto = new WalletCreateDTO(TOO_LONG_NAME_MORE_THAN_20_LETTERS, createTestUserDTO());
         given(walletService.createWallet(dto))
-                .willReturn(new WalletDTO(WALLET_ID_1L, TOO_LONG_NAME_MORE_THAN_20_LETTERS, DATE_NOW, USER_ID_1L));
+                .willReturn(new WalletDTO(WALLET_ID_1L, TOO_LONG_NAME_MORE_THAN_20_LETTERS, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(post("/api/wallets")
@@ -19,6 +19,7 @@ import pl.byczazagroda.trackexpensesappbackend.mapper.WalletModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletService;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletServiceImpl;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Objects;
 
@@ -28,7 +29,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = WalletController.class,
         excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WalletServiceImpl.class),
-        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class}))
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class, AsyncQueryExecutor.class}))
 @ActiveProfiles("test")
 class WalletDeleteControllerTest {
 
@@ -55,7 +56,7 @@ class WalletDeleteControllerTest {
     @DisplayName("when delete wallet correctly should return response status OK")
     void shouldReturnResponseStatusOK_WhenDeleteWalletCorrectly() throws Exception {
         //given
-        WalletDTO walletDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L);
+        WalletDTO walletDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
 
         //when
         ResultActions result = mockMvc.perform(delete("/api/wallets/{id}", WALLET_ID_1L)
@@ -71,7 +72,7 @@ class WalletDeleteControllerTest {
     @DisplayName("when wallet id is zero should return response status no content")
     void shouldReturnResponseStatusNoContent_WhenWalletIdIsZero() throws Exception {
         //given
-        WalletDTO walletDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L);
+        WalletDTO walletDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
         doThrow(ConstraintViolationException.class).when(walletService).deleteWalletById(ID_0L);
 
         //when
@@ -9,13 +9,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorStrategy;
 import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
@@ -24,23 +28,35 @@ import pl.byczazagroda.trackexpensesappbackend.mapper.WalletModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletService;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletServiceImpl;
 
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = WalletController.class,
         excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
                 classes = WalletServiceImpl.class),
-        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class}))
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class, AsyncQueryExecutor.class}))
 @ActiveProfiles("test")
 class WalletGetControllerTest {
 
@@ -87,9 +103,15 @@ class WalletGetControllerTest {
     @DisplayName("when finding wallet list return empty list and response status OK")
         //fixme The name of the test is not fully specified. It should describe the context of usage
     void shouldResponseStatusOKAndReturnEmptyList() throws Exception {
+        // given
+        given(walletService.getWalletsWithVersion()).willReturn(new VersionedDTO<>(List.of(), "0-0-0"));
+
         // when
-        MockHttpServletResponse result = mockMvc.perform(get("/api/wallets")
+        MvcResult asyncResult = mockMvc.perform(get("/api/wallets")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse result = mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().is2xxSuccessful())
                 .andReturn()
                 .getResponse();
@@ -104,14 +126,17 @@ class WalletGetControllerTest {
     void shouldResponseStatusOKAndAllWalletsList() throws Exception {
         // given
         List<WalletDTO> listDTO = createListOfWalletsDTO();
-        given(walletService.getWallets())
-                .willReturn(listDTO);
+        given(walletService.getWalletsWithVersion())
+                .willReturn(new VersionedDTO<>(listDTO, "3-5-12"));
 
         // when
 
         // then
-        mockMvc.perform(get("/api/wallets")
+        MvcResult asyncResult = mockMvc.perform(get("/api/wallets")
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(3));
@@ -131,10 +156,10 @@ class WalletGetControllerTest {
     @DisplayName("when finding wallet by id should return wallet and response status OK")
     void shouldReturnResponseStatusOKAndWallet_WhenFindWalletById() throws Exception {
         // given
-        WalletDTO wallet = new WalletDTO(WALLET_ID_1L, WALLET_NAME, DATE_NOW, USER_ID_1L);
+        WalletDTO wallet = new WalletDTO(WALLET_ID_1L, WALLET_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
 
         // when
-        when(walletService.findById(WALLET_ID_1L)).thenReturn(wallet);
+        when(walletService.findByIdWithVersion(WALLET_ID_1L)).thenReturn(new VersionedDTO<>(wallet, "1"));
         ResultActions resultActions = mockMvc.perform(get("/api/wallets/{id}", WALLET_ID_1L)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(Objects.requireNonNull(objectMapper.writeValueAsString(wallet))));
@@ -148,9 +173,9 @@ class WalletGetControllerTest {
     @DisplayName("when finding wallet by does not exist id should return response status not found")
     void shouldReturnResponseStatusNotFound_WhenWalletByIdDoesNotExist() throws Exception {
         // given
-        WalletDTO wallet = new WalletDTO(WALLET_ID_1L, "", DATE_NOW, USER_ID_1L);
+        WalletDTO wallet = new WalletDTO(WALLET_ID_1L, "", DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
         doThrow(new AppRuntimeException(ErrorCode.W003, ""))
-                .when(walletService).findById(ID_100L);
+                .when(walletService).findByIdWithVersion(ID_100L);
 
         // when
         ResultActions resultActions = mockMvc.perform(get("/api/wallets/{id}", ID_100L)
@@ -165,9 +190,9 @@ class WalletGetControllerTest {
     @DisplayName("when finding wallet by id zero should return response status no content")
     void shouldReturnResponseStatusNoContent_WhenFindWalletByIdZero() throws Exception {
         //given
-        WalletDTO walletDTO = new WalletDTO(WALLET_ID_1L, WALLET_NAME, DATE_NOW, USER_ID_1L);
+        WalletDTO walletDTO = new WalletDTO(WALLET_ID_1L, WALLET_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
         doThrow(ConstraintViolationException.class)
-                .when(walletService).findById(WALLET_ID_0L);
+                .when(walletService).findByIdWithVersion(WALLET_ID_0L);
 
         //when
         ResultActions result = mockMvc.perform(get("/api/wallets/{id}", WALLET_ID_0L)
@@ -184,15 +209,18 @@ class WalletGetControllerTest {
         // given
         String walletNameSearched = WALLET_NAME;
         List<WalletDTO> listOfWalletsDTO = createListOfWalletsDTO();
-        List<WalletDTO> foundedWalletsDTO = List.of(new WalletDTO(WALLET_ID_2L, WALLET_NAME, DATE_2, USER_ID_2L));
+        List<WalletDTO> foundedWalletsDTO = List.of(new WalletDTO(WALLET_ID_2L, WALLET_NAME, DATE_2, USER_ID_2L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
         given(walletService.getWallets()).willReturn(listOfWalletsDTO);
         given(walletService.findAllByNameIgnoreCase(walletNameSearched)).willReturn(foundedWalletsDTO);
 
         // when
 
         // then
-        mockMvc.perform(get("/api/wallets/wallets/{name}", walletNameSearched)
+        MvcResult asyncResult = mockMvc.perform(get("/api/wallets/wallets/{name}", walletNameSearched)
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andDo(print()).andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(foundedWalletsDTO.size()));
 // Value of returned items should be greater than 0 when testing Controller for unit(!) test
@@ -202,10 +230,106 @@ class WalletGetControllerTest {
     }
 
     private List<WalletDTO> createListOfWalletsDTO() {
-        WalletDTO walletDTO1 = new WalletDTO(WALLET_ID_1L, WALLET_NAME, DATE_1, USER_ID_1L);
-        WalletDTO walletDTO2 = new WalletDTO(WALLET_ID_2L, WALLET_NAME, DATE_2, USER_ID_2L);
-        WalletDTO walletDTO3 = new WalletDTO(WALLET_ID_3L, WALLET_NAME, DATE_3, USER_ID_3L);
+        WalletDTO walletDTO1 = new WalletDTO(WALLET_ID_1L, WALLET_NAME, DATE_1, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        WalletDTO walletDTO2 = new WalletDTO(WALLET_ID_2L, WALLET_NAME, DATE_2, USER_ID_2L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        WalletDTO walletDTO3 = new WalletDTO(WALLET_ID_3L, WALLET_NAME, DATE_3, USER_ID_3L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
 
         return List.of(walletDTO1, walletDTO2, walletDTO3);
     }
+
+    @Test
+    @DisplayName("when wallet did not change since the client read it should return status NOT MODIFIED without the wallet")
+    void shouldResponseStatusNotModified_WhenIfNoneMatchIsCurrentVersion() throws Exception {
+        // given
+        given(walletService.findWalletVersion(WALLET_ID_1L)).willReturn(7L);
+
+        // when & then
+        mockMvc.perform(get("/api/wallets/{id}", WALLET_ID_1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(content().string(""));
+        verify(walletService, never()).findByIdWithVersion(WALLET_ID_1L);
+    }
+
+    @Test
+    @DisplayName("when the wallet is served from an entry older than the version looked up should tag it with the served version")
+    void shouldTagWalletWithServedVersion_WhenCachedWalletLagsBehindVersionLookup() throws Exception {
+        // given
+        WalletDTO wallet = new WalletDTO(WALLET_ID_1L, WALLET_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        given(walletService.findWalletVersion(WALLET_ID_1L)).willReturn(8L);
+        given(walletService.findByIdWithVersion(WALLET_ID_1L)).willReturn(new VersionedDTO<>(wallet, "7"));
+
+        // when & then
+        mockMvc.perform(get("/api/wallets/{id}", WALLET_ID_1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"6\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(WALLET_ID_1L.intValue()));
+    }
+
+    @Test
+    @DisplayName("when wallet list changed since the client read it should return the list with a new weak ETag")
+    void shouldResponseStatusOKWithWeakETag_WhenIfNoneMatchIsOutdated() throws Exception {
+        // given
+        given(walletService.getWalletsVersion()).willReturn("3-5-12");
+        given(walletService.getWalletsWithVersion()).willReturn(new VersionedDTO<>(createListOfWalletsDTO(), "3-5-12"));
+
+        // when & then
+        MvcResult asyncResult = mockMvc.perform(get("/api/wallets")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-5-11\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-5-12\""));
+    }
+
+    @Test
+    @DisplayName("when the wallet list is served at an older version than the one looked up should tag it with the served version")
+    void shouldTagListWithServedVersion_WhenListLagsBehindVersionLookup() throws Exception {
+        // given
+        given(walletService.getWalletsVersion()).willReturn("3-5-12");
+        given(walletService.getWalletsWithVersion()).willReturn(new VersionedDTO<>(createListOfWalletsDTO(), "3-5-11"));
+
+        // when & then
+        MvcResult asyncResult = mockMvc.perform(get("/api/wallets")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-5-10\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-5-11\""));
+    }
+
+    @Test
+    @DisplayName("when the wallet list query does not complete in time should return status SERVICE UNAVAILABLE")
+    void shouldResponseStatusServiceUnavailable_WhenWalletListQueryTimesOut() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        given(walletService.getWalletsWithVersion()).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new VersionedDTO<>(createListOfWalletsDTO(), "3-5-12");
+        });
+        MvcResult asyncResult = mockMvc.perform(get("/api/wallets")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // when
+        MockAsyncContext asyncContext = (MockAsyncContext) asyncResult.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        release.countDown();
+
+        // then
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(ErrorCode.TEA009.getBusinessStatus()));
+    }
 }
@@ -0,0 +1,83 @@
+package pl.byczazagroda.trackexpensesappbackend.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.byczazagroda.trackexpensesappbackend.config.RateLimitConfig;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorStrategy;
+import pl.byczazagroda.trackexpensesappbackend.mapper.WalletModelMapper;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletService;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletServiceImpl;
+
+import java.util.Collections;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = WalletController.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = WalletServiceImpl.class),
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class, AsyncQueryExecutor.class}))
+@Import(RateLimitConfig.class)
+@TestPropertySource(properties = {
+        "application.rate-limit.enabled=true",
+        "application.rate-limit.wallets.capacity=2",
+        "application.rate-limit.wallets.refill-per-second=0.1"})
+@ActiveProfiles("test")
+class WalletRateLimitControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private WalletService walletService;
+
+    @Test
+    @DisplayName("when a client exceeds the wallets limit should return 429 with Retry-After")
+    void shouldReturnTooManyRequests_WhenClientExceedsWalletsLimit() throws Exception {
+        //given
+        given(walletService.getWallets()).willReturn(Collections.emptyList());
+        mockMvc.perform(get("/api/wallets")).andExpect(request().asyncStarted());
+        mockMvc.perform(get("/api/wallets")).andExpect(request().asyncStarted());
+
+        //when & then
+        mockMvc.perform(get("/api/wallets"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"))
+                .andExpect(jsonPath("$.status").value(ErrorCode.TEA008.getBusinessStatus()));
+    }
+
+    @Test
+    @DisplayName("when another client sends a request should not count it against the first one")
+    void shouldPassRequest_WhenAnotherClientSendsRequest() throws Exception {
+        //given
+        given(walletService.getWallets()).willReturn(Collections.emptyList());
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/wallets").with(request -> {
+                request.setRemoteAddr("10.0.0.1");
+                return request;
+            }));
+        }
+
+        //when & then
+        mockMvc.perform(get("/api/wallets").with(request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                }))
+                .andExpect(request().asyncStarted());
+    }
+}
@@ -10,30 +10,39 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import pl.byczazagroda.trackexpensesappbackend.dto.UserDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletUpdateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorStrategy;
 import pl.byczazagroda.trackexpensesappbackend.mapper.WalletModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletService;
 import pl.byczazagroda.trackexpensesappbackend.service.WalletServiceImpl;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Objects;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = WalletController.class,
         excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WalletServiceImpl.class),
-        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class}))
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {WalletModelMapper.class, ErrorStrategy.class, AsyncQueryExecutor.class}))
 @ActiveProfiles("test")
 class WalletUpdateControllerTest {
 
@@ -69,8 +78,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusOK_WhenUpdateWalletDataAreCorrect() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(NAME_1);
-        given(walletService.updateWallet(WALLET_ID_1L, updDTO))
-                .willReturn(new WalletDTO(WALLET_ID_1L, updDTO.name(), DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
+                .willReturn(new WalletDTO(WALLET_ID_1L, updDTO.name(), DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(patch("/api/wallets/1")
@@ -88,8 +97,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusBadRequest_WhenWalletNameIsEmpty() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(EMPTY_NAME);
-        given(walletService.updateWallet(WALLET_ID_1L, updDTO))
-                .willReturn(new WalletDTO(WALLET_ID_1L, EMPTY_NAME, DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
+                .willReturn(new WalletDTO(WALLET_ID_1L, EMPTY_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         //when
         ResultActions result = mockMvc.perform(patch("/api/wallets/1")
@@ -105,8 +114,8 @@ class WalletUpdateControllerTest {
     void shouldReturnStatusOKAndCorrectResponseBody_WhenWalletNameIsChanged() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(NAME_1);
-        given(walletService.updateWallet(WALLET_ID_1L, updDTO))
-                .willReturn(new WalletDTO(WALLET_ID_1L, updDTO.name(), DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
+                .willReturn(new WalletDTO(WALLET_ID_1L, updDTO.name(), DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(patch("/api/wallets/1")
@@ -124,8 +133,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusBadRequest_WhenWalletNameIsTooLong() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(TOO_LONG_NAME_MORE_THAN_20_LETTERS);
-        given(walletService.updateWallet(WALLET_ID_1L, updDTO))
-                .willReturn(new WalletDTO(WALLET_ID_1L, EMPTY_NAME, DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
+                .willReturn(new WalletDTO(WALLET_ID_1L, EMPTY_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(patch("/api/wallets/1")
@@ -141,8 +150,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusBadRequest_WhenWalletNameContainsIllegalLetters() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(INVALID_NAME);
-        given(walletService.updateWallet(WALLET_ID_1L, updDTO))
-                .willReturn(new WalletDTO(WALLET_ID_1L, EMPTY_NAME, DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
+                .willReturn(new WalletDTO(WALLET_ID_1L, EMPTY_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(patch("/api/wallets/1")
@@ -158,8 +167,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusServerError_WhenWalletIdIsNull() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(INVALID_NAME);
-        given(walletService.updateWallet(null, updDTO))
-                .willReturn(new WalletDTO(null, EMPTY_NAME, DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(null, updDTO, null))
+                .willReturn(new WalletDTO(null, EMPTY_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(patch("/api/wallets/" + null)
@@ -175,8 +184,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusBadRequest_WhenWalletIdIsZero() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(INVALID_NAME);
-        given(walletService.updateWallet(WALLET_ID_0L, updDTO))
-                .willReturn(new WalletDTO(WALLET_ID_0L, EMPTY_NAME, DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(WALLET_ID_0L, updDTO, null))
+                .willReturn(new WalletDTO(WALLET_ID_0L, EMPTY_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(patch("/api/wallets/0")
@@ -192,8 +201,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusBadRequestWhenWalletIdIsNegative() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(INVALID_NAME);
-        given(walletService.updateWallet(-WALLET_ID_1L, updDTO))
-                .willReturn(new WalletDTO(-WALLET_ID_1L, EMPTY_NAME, DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(-WALLET_ID_1L, updDTO, null))
+                .willReturn(new WalletDTO(-WALLET_ID_1L, EMPTY_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions resultActions = mockMvc.perform(patch("/api/wallets/-1")
@@ -209,8 +218,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusBadRequestWhenWalletNameIsEmpty() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(EMPTY_NAME);
-        given(walletService.updateWallet(WALLET_ID_1L, updDTO))
-                .willReturn(new WalletDTO(1L, EMPTY_NAME, DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
+                .willReturn(new WalletDTO(1L, EMPTY_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         //when
         ResultActions result = mockMvc.perform(patch("/api/wallets/1")
@@ -226,8 +235,8 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusBadRequestWhenWalletNameIsTooLong() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(TOO_LONG_NAME_MORE_THAN_20_LETTERS);
-        given(walletService.updateWallet(WALLET_ID_1L, updDTO))
-                .willReturn(new WalletDTO(1L, EMPTY_NAME, DATE_NOW, USER_ID_1L));
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
+                .willReturn(new WalletDTO(1L, EMPTY_NAME, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
 
         // when
         ResultActions result = mockMvc.perform(patch("/api/wallets/1")
@@ -243,7 +252,7 @@ class WalletUpdateControllerTest {
     void shouldReturnResponseStatusBadRequestWhenWalletNameContainsIllegalLetters() throws Exception {
         // given
         WalletUpdateDTO updDTO = new WalletUpdateDTO(INVALID_NAME);
-        given(walletService.updateWallet(WALLET_ID_1L, updDTO))
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
                 .willThrow(new RuntimeException("Wallet name contains illegal letters"));
 
         // when
@@ -255,4 +264,77 @@ class WalletUpdateControllerTest {
         result.andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("when If-Match holds the current version should pass it to the update and return response status OK")
+    void shouldPassExpectedVersionToUpdate_WhenIfMatchIsSent() throws Exception {
+        // given
+        WalletUpdateDTO updDTO = new WalletUpdateDTO(NAME_1);
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, 7L))
+                .willReturn(new WalletDTO(WALLET_ID_1L, updDTO.name(), DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+
+        // when
+        ResultActions result = mockMvc.perform(patch("/api/wallets/1")
+                .header(HttpHeaders.IF_MATCH, "\"7\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(Objects.requireNonNull(objectMapper.writeValueAsString(updDTO))));
+
+        // then
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", Matchers.equalTo(updDTO.name())));
+    }
+
+    @Test
+    @DisplayName("when If-Match holds an outdated version should return response status PRECONDITION FAILED")
+    void shouldReturnResponseStatusPreconditionFailed_WhenIfMatchIsOutdated() throws Exception {
+        // given
+        WalletUpdateDTO updDTO = new WalletUpdateDTO(NAME_1);
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, 6L))
+                .willThrow(new AppRuntimeException(ErrorCode.TEA006, "Wallet with id: 1 has version: 7, not the expected version: 6"));
+
+        // when
+        ResultActions result = mockMvc.perform(patch("/api/wallets/1")
+                .header(HttpHeaders.IF_MATCH, "\"6\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(Objects.requireNonNull(objectMapper.writeValueAsString(updDTO))));
+
+        // then
+        result.andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status", Matchers.equalTo(ErrorCode.TEA006.getBusinessStatus())));
+    }
+
+    @Test
+    @DisplayName("when If-Match is not a tag of this application should return response status PRECONDITION FAILED without updating")
+    void shouldReturnResponseStatusPreconditionFailed_WhenIfMatchIsNotVersionTag() throws Exception {
+        // given
+        WalletUpdateDTO updDTO = new WalletUpdateDTO(NAME_1);
+
+        // when
+        ResultActions result = mockMvc.perform(patch("/api/wallets/1")
+                .header(HttpHeaders.IF_MATCH, "W/\"3-5-12\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(Objects.requireNonNull(objectMapper.writeValueAsString(updDTO))));
+
+        // then
+        result.andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status", Matchers.equalTo(ErrorCode.TEA006.getBusinessStatus())));
+        verify(walletService, never()).updateWallet(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("when the wallet was changed by another request during the update should return response status CONFLICT")
+    void shouldReturnResponseStatusConflict_WhenWalletWasChangedConcurrently() throws Exception {
+        // given
+        WalletUpdateDTO updDTO = new WalletUpdateDTO(NAME_1);
+        given(walletService.updateWallet(WALLET_ID_1L, updDTO, null))
+                .willThrow(new ObjectOptimisticLockingFailureException(Wallet.class, WALLET_ID_1L));
+
+        // when
+        ResultActions result = mockMvc.perform(patch("/api/wallets/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(Objects.requireNonNull(objectMapper.writeValueAsString(updDTO))));
+
+        // then
+        result.andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", Matchers.equalTo(ErrorCode.TEA007.getBusinessStatus())));
+    }
 }
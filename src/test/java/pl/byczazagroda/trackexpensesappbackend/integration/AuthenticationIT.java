@@ -0,0 +1,152 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.dto.AuthAccessTokenDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.AuthLoginDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.AuthRegisterDTO;
+import pl.byczazagroda.trackexpensesappbackend.repository.RefreshTokenRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.RevokedAccessTokenRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AuthenticationIT extends BaseIntegrationTestIT {
+
+    private static final String REGISTER_URL = "/api/auth/register";
+
+    private static final String LOGIN_URL = "/api/auth/login";
+
+    private static final String REFRESH_URL = "/api/auth/refresh";
+
+    private static final String LOGOUT_URL = "/api/auth/logout";
+
+    private static final String WALLETS_URL = "/api/wallets";
+
+    private static final AuthRegisterDTO REGISTER_DTO =
+            new AuthRegisterDTO("user@server.com", "User123@", "User_Bolek");
+
+    private static final AuthLoginDTO LOGIN_DTO = new AuthLoginDTO("user@server.com", "User123@", true);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RevokedAccessTokenRepository revokedAccessTokenRepository;
+
+    @BeforeEach
+    void setUp() {
+        revokedAccessTokenRepository.deleteAll();
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        restTemplate.postForEntity(REGISTER_URL, REGISTER_DTO, Void.class);
+    }
+
+    @DisplayName("When a registered user logs in, it should return an access token accepted by the API")
+    @Test
+    void testLogin_whenCredentialsAreValid_thenReturnAccessTokenAndRefreshCookie() {
+        ResponseEntity<AuthAccessTokenDTO> response =
+                restTemplate.postForEntity(LOGIN_URL, LOGIN_DTO, AuthAccessTokenDTO.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(refreshCookie(response).startsWith("refresh_token="));
+        assertEquals(1, refreshTokenRepository.count());
+        assertEquals(HttpStatus.OK, getWallets(response.getBody().accessToken()).getStatusCode());
+    }
+
+    @DisplayName("When the password is wrong, it should return UNAUTHORIZED")
+    @Test
+    void testLogin_whenPasswordIsWrong_thenReturnUnauthorized() {
+        ResponseEntity<String> response = restTemplate.postForEntity(LOGIN_URL,
+                new AuthLoginDTO("user@server.com", "User124@", false), String.class);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertEquals(0, refreshTokenRepository.count());
+    }
+
+    @DisplayName("When a refresh token is used, it should be rotated and the old one rejected")
+    @Test
+    void testRefresh_whenRefreshTokenIsReused_thenReturnUnauthorized() {
+        String firstCookie = refreshCookie(restTemplate.postForEntity(LOGIN_URL, LOGIN_DTO, AuthAccessTokenDTO.class));
+
+        ResponseEntity<AuthAccessTokenDTO> refreshed = refresh(firstCookie);
+        ResponseEntity<AuthAccessTokenDTO> reused = refresh(firstCookie);
+
+        assertEquals(HttpStatus.OK, refreshed.getStatusCode());
+        assertNotEquals(firstCookie, refreshCookie(refreshed));
+        assertEquals(HttpStatus.UNAUTHORIZED, reused.getStatusCode());
+        assertEquals(1, refreshTokenRepository.count());
+    }
+
+    @DisplayName("When a user logs out, it should reject the access token and the refresh token")
+    @Test
+    void testLogout_whenUserLogsOut_thenRejectTokens() {
+        ResponseEntity<AuthAccessTokenDTO> login =
+                restTemplate.postForEntity(LOGIN_URL, LOGIN_DTO, AuthAccessTokenDTO.class);
+        String accessToken = login.getBody().accessToken();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        headers.add(HttpHeaders.COOKIE, refreshCookie(login));
+
+        ResponseEntity<Void> logout = restTemplate.exchange(LOGOUT_URL, HttpMethod.POST,
+                new HttpEntity<>(headers), Void.class);
+
+        assertEquals(HttpStatus.OK, logout.getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, getWallets(accessToken).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, refresh(refreshCookie(login)).getStatusCode());
+        assertEquals(1, revokedAccessTokenRepository.count());
+    }
+
+    @DisplayName("When the access token is forged, it should return UNAUTHORIZED")
+    @Test
+    void testApi_whenAccessTokenIsForged_thenReturnUnauthorized() {
+        String accessToken = restTemplate.postForEntity(LOGIN_URL, LOGIN_DTO, AuthAccessTokenDTO.class)
+                .getBody().accessToken();
+        String forged = accessToken.substring(0, accessToken.length() - 2) + "AA";
+
+        assertEquals(HttpStatus.UNAUTHORIZED, getWallets(forged).getStatusCode());
+    }
+
+    private ResponseEntity<String> getWallets(String accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        return restTemplate.exchange(WALLETS_URL, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<AuthAccessTokenDTO> refresh(String cookie) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, cookie);
+        return restTemplate.exchange(REFRESH_URL, HttpMethod.POST, new HttpEntity<>(headers),
+                AuthAccessTokenDTO.class);
+    }
+
+    /**
+     * @return the refresh_token=value pair of the Set-Cookie header
+     */
+    private static String refreshCookie(ResponseEntity<?> response) {
+        String setCookie = response.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        assertNotNull(setCookie);
+        return setCookie.substring(0, setCookie.indexOf(';'));
+    }
+}
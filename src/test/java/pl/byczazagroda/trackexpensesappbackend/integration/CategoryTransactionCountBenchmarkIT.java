@@ -0,0 +1,149 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.Benchmark;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDetailedDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+import pl.byczazagroda.trackexpensesappbackend.service.CategoryTransactionCountReconciliationService;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionCategoryService;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * Compares reading the number of a category's transactions with COUNT over financial_transactions
+ * and with the maintained counter. Rows are seeded with INSERT ... SELECT, half of them in the category.
+ * The default suite only checks the counter on a small table; the timing runs on ten million rows with
+ * -Dbenchmarks.enabled=true, and the size can be changed with -Dbenchmark.category-count.rows.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CategoryTransactionCountBenchmarkIT extends BaseIntegrationTestIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.category-count.rows",
+            Benchmark.isEnabled() ? 10_000_000 : 1_000);
+
+    private static final int ROWS_PER_INSERT = 1_000_000;
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final int MEASURED_ITERATIONS = 10;
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FinancialTransactionCategoryService financialTransactionCategoryService;
+
+    @Autowired
+    private CategoryTransactionCountReconciliationService categoryTransactionCountReconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private FinancialTransactionCategory category;
+
+    @BeforeAll
+    void seedLargeCategory() {
+        clearTestDB();
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        Wallet wallet = walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name("large_wallet")
+                .build());
+        category = financialTransactionCategoryRepository.save(
+                new FinancialTransactionCategory("shopping", FinancialTransactionType.EXPENSE));
+
+        for (int offset = 0; offset < ROWS; offset += ROWS_PER_INSERT) {
+            jdbcTemplate.update("""
+                            INSERT INTO financial_transactions (wallet_id, transaction_type, amount, transaction_date,
+                                description, financial_transaction_category_id)
+                            WITH digits AS (SELECT 0 AS d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3
+                                UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7
+                                UNION ALL SELECT 8 UNION ALL SELECT 9)
+                            SELECT ?, 'EXPENSE', 1 + n % 500, TIMESTAMP('2020-01-01') + INTERVAL n % 1000000 MINUTE,
+                                NULL, IF(n % 2 = 0, ?, NULL)
+                            FROM (SELECT ? + d0.d + 10 * d1.d + 100 * d2.d + 1000 * d3.d + 10000 * d4.d
+                                      + 100000 * d5.d AS n
+                                  FROM digits d0, digits d1, digits d2, digits d3, digits d4, digits d5) numbers
+                            WHERE n < ?""",
+                    wallet.getId(), category.getId(), offset, ROWS);
+        }
+        jdbcTemplate.execute("ANALYZE TABLE financial_transactions");
+        // the rows bypass the application, the repair routine brings the counter up to date
+        Assertions.assertEquals(1, categoryTransactionCountReconciliationService.reconcileTransactionCounts());
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        jdbcTemplate.execute("TRUNCATE TABLE financial_transactions");
+        financialTransactionCategoryRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when the category has transactions the maintained counter equals their count")
+    void givenCategoryWithTransactions_whenReadingTransactionCount_thenCounterEqualsCount() {
+        BigInteger count = count();
+
+        Assertions.assertEquals(BigInteger.valueOf((ROWS + 1) / 2), count);
+        Assertions.assertEquals(count, counter());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = Benchmark.ENABLED_PROPERTY, matches = "true")
+    @DisplayName("when the category is large reading the maintained counter is faster than counting its transactions")
+    void givenLargeCategory_whenReadingTransactionCount_thenCounterIsFasterThanCount() {
+        long countMicros = Benchmark.measure(this::count, WARMUP_ITERATIONS, MEASURED_ITERATIONS).averageMicros();
+        long counterMicros = Benchmark.measure(this::counter, WARMUP_ITERATIONS, MEASURED_ITERATIONS).averageMicros();
+
+        log.info("Reading the transaction count of a category with {} of {} transactions: COUNT {} us, counter {} us",
+                (ROWS + 1) / 2, ROWS, countMicros, counterMicros);
+        Assertions.assertTrue(counterMicros < countMicros);
+    }
+
+    private BigInteger count() {
+        return financialTransactionRepository
+                .countFinancialTransactionsByFinancialTransactionCategoryId(category.getId());
+    }
+
+    private BigInteger counter() {
+        FinancialTransactionCategoryDetailedDTO detailedDTO =
+                financialTransactionCategoryService.findById(category.getId());
+        return detailedDTO.financialTransactionsCounter();
+    }
+}
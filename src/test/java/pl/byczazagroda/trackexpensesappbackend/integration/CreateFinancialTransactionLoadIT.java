@@ -0,0 +1,178 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.Benchmark;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates transactions through the API at a fixed rate and reports the latency percentiles. Latency is measured
+ * from the moment a request was due, so a stalled server is not hidden by requests that are sent late.
+ * The duration can be changed with -Dload.create-transaction.seconds. Runs only with -Dbenchmarks.enabled=true,
+ * creating a transaction is covered by CreateFinancialTransactionIT.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = Benchmark.ENABLED_PROPERTY, matches = "true")
+class CreateFinancialTransactionLoadIT extends BaseIntegrationTestIT {
+
+    private static final int REQUESTS_PER_SECOND = 500;
+
+    private static final int SECONDS = Integer.getInteger("load.create-transaction.seconds", 30);
+
+    private static final int WARMUP_REQUESTS = 2_000;
+
+    private static final int CLIENT_THREADS = 32;
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Autowired
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Wallet wallet;
+
+    private FinancialTransactionCategory category;
+
+    @BeforeAll
+    void seedWallet() {
+        clearTestDB();
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        wallet = walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name("busy_wallet")
+                .build());
+        category = financialTransactionCategoryRepository.save(
+                new FinancialTransactionCategory("groceries", FinancialTransactionType.EXPENSE));
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        financialTransactionRepository.deleteAllInBatch();
+        monthlyCategoryTotalRepository.deleteAllInBatch();
+        financialTransactionCategoryRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when transactions are created at a sustained rate the wallet and category are never loaded")
+    void givenSustainedRate_whenCreatingTransactions_thenAllCreatedWithoutLoadingWalletOrCategory() throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            Assertions.assertEquals(HttpStatus.CREATED.value(), createTransaction(i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        int requests = REQUESTS_PER_SECOND * SECONDS;
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / REQUESTS_PER_SECOND;
+        long startedAt = System.nanoTime();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger sent = new AtomicInteger();
+        scheduler.scheduleAtFixedRate(() -> {
+            int index = sent.getAndIncrement();
+            if (index >= requests) {
+                return;
+            }
+            long dueAt = startedAt + index * intervalNanos;
+            clients.execute(() -> {
+                try {
+                    if (createTransaction(index) != HttpStatus.CREATED.value()) {
+                        failures.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+                latencies[index] = System.nanoTime() - dueAt;
+            });
+        }, 0, intervalNanos, TimeUnit.NANOSECONDS);
+        while (sent.get() < requests) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        scheduler.shutdown();
+        clients.shutdown();
+        Assertions.assertTrue(clients.awaitTermination(1, TimeUnit.MINUTES));
+        statistics.setStatisticsEnabled(false);
+
+        Arrays.sort(latencies);
+        log.info("Created {} transactions at {}/s: p50 {} us, p99 {} us, max {} us, {} statements per insert",
+                requests, REQUESTS_PER_SECOND, percentileMicros(latencies, 50), percentileMicros(latencies, 99),
+                TimeUnit.NANOSECONDS.toMicros(latencies[requests - 1]),
+                (double) statistics.getPrepareStatementCount() / requests);
+        Assertions.assertEquals(0, failures.get());
+        Assertions.assertEquals(0, statistics.getEntityLoadCount());
+        Assertions.assertEquals(WARMUP_REQUESTS + requests, walletRepository.findById(wallet.getId())
+                .map(Wallet::getExpenseTotal).orElseThrow().intValueExact());
+    }
+
+    private int createTransaction(int index) throws Exception {
+        FinancialTransactionCreateDTO ftCreateDTO = new FinancialTransactionCreateDTO(wallet.getId(), BigDecimal.ONE,
+                "load " + index, Instant.parse("2022-01-01T00:00:00Z").plus(index % 1000, ChronoUnit.HOURS),
+                FinancialTransactionType.EXPENSE, category.getId());
+        return mockMvc.perform(MockMvcRequestBuilders.post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ftCreateDTO))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+    }
+
+    private static long percentileMicros(long[] sortedLatencies, int percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(Benchmark.percentile(sortedLatencies, percentile));
+    }
+}
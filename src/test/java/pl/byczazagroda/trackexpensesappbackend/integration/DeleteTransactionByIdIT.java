@@ -6,36 +6,57 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
 import pl.byczazagroda.trackexpensesappbackend.model.User;
 import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
 import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionService;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 class DeleteTransactionByIdIT extends BaseIntegrationTestIT {
 
+    private static final int RACES = 50;
 
     @Autowired
     private FinancialTransactionRepository financialTransactionRepository;
 
+    @Autowired
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
     @Autowired
     private WalletRepository walletRepository;
 
+    @Autowired
+    private FinancialTransactionService financialTransactionService;
+
     @Autowired
     private UserRepository userRepository;
 
     @BeforeEach
     void clearDatabase() {
         financialTransactionRepository.deleteAll();
+        monthlyCategoryTotalRepository.deleteAllInBatch();
         walletRepository.deleteAll();
         userRepository.deleteAll();
     }
@@ -66,6 +87,53 @@ class DeleteTransactionByIdIT extends BaseIntegrationTestIT {
         Assertions.assertEquals(1, financialTransactionRepository.count());
     }
 
+    @DisplayName("Should keep the wallet totals equal to its transactions when transactions are updated and deleted at the same time")
+    @Test
+    void testDeleteFinancialTransactionById_whenTransactionIsUpdatedConcurrently_thenWalletTotalsStayConsistent()
+            throws Exception {
+        Wallet wallet = createTestWallet();
+        List<Long> ids = new ArrayList<>(RACES);
+        for (int i = 0; i < RACES; i++) {
+            ids.add(financialTransactionService.createFinancialTransaction(new FinancialTransactionCreateDTO(
+                    wallet.getId(), BigDecimal.TEN, "race " + i, Instant.ofEpochSecond(1L),
+                    FinancialTransactionType.EXPENSE, null)).id());
+        }
+        FinancialTransactionUpdateDTO update = new FinancialTransactionUpdateDTO(new BigDecimal("50"),
+                Instant.ofEpochSecond(1L), "updated", FinancialTransactionType.EXPENSE, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (Long id : ids) {
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<?> updated = executor.submit(() -> race(start,
+                        () -> financialTransactionService.updateFinancialTransaction(id, update, null)));
+                Future<?> deleted = executor.submit(() -> race(start,
+                        () -> financialTransactionService.deleteTransactionById(id)));
+                updated.get(30, TimeUnit.SECONDS);
+                deleted.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal remaining = financialTransactionRepository.findAll().stream()
+                .map(FinancialTransaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Assertions.assertEquals(0, remaining.compareTo(
+                walletRepository.findById(wallet.getId()).map(Wallet::getExpenseTotal).orElseThrow()));
+    }
+
+    private static void race(CyclicBarrier start, Runnable write) {
+        try {
+            start.await(30, TimeUnit.SECONDS);
+            write.run();
+        } catch (AppRuntimeException | ObjectOptimisticLockingFailureException e) {
+            // the loser of the race is turned away, the totals must match either way
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private FinancialTransaction createTestFinancialTransaction(Wallet wallet, String description) {
         return financialTransactionRepository
                 .save(FinancialTransaction.builder()
@@ -0,0 +1,182 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FilterFinancialTransactionsIT extends BaseIntegrationTestIT {
+
+    private static final int WALLET_SIZE = 10_000;
+
+    private static final Instant FIRST_DATE = Instant.parse("2022-01-01T00:00:00Z");
+
+    private static final String WALLET_DATE_INDEX = "idx_financial_transactions_wallet_id_transaction_date_id";
+
+    private static final String WALLET_CATEGORY_DATE_INDEX = "idx_financial_transactions_wallet_id_category_id_transaction_date";
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Wallet wallet;
+
+    private FinancialTransactionCategory category;
+
+    @BeforeAll
+    void seedLargeWallet() {
+        clearTestDB();
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        wallet = walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name("large_wallet")
+                .build());
+        category = financialTransactionCategoryRepository.save(
+                new FinancialTransactionCategory("food", FinancialTransactionType.EXPENSE));
+
+        // one transaction per hour, every tenth one in the category, amounts from 1 to 500
+        List<FinancialTransaction> financialTransactions = new ArrayList<>(WALLET_SIZE);
+        for (int i = 0; i < WALLET_SIZE; i++) {
+            financialTransactions.add(FinancialTransaction.builder()
+                    .wallet(wallet)
+                    .amount(BigDecimal.valueOf(i % 500 + 1))
+                    .date(FIRST_DATE.plus(i, ChronoUnit.HOURS))
+                    .type(i % 2 == 0 ? FinancialTransactionType.EXPENSE : FinancialTransactionType.INCOME)
+                    .financialTransactionCategory(i % 10 == 0 ? category : null)
+                    .description("transaction " + i)
+                    .build());
+        }
+        financialTransactionRepository.saveAll(financialTransactions);
+        jdbcTemplate.execute("ANALYZE TABLE financial_transactions");
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        financialTransactionRepository.deleteAllInBatch();
+        financialTransactionCategoryRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when date range is given returns only transactions from that range, newest first")
+    void givenDateRange_whenGetFinancialTransactionsByWalletId_thenTransactionsFromRange() throws Exception {
+        Instant from = FIRST_DATE.plus(100, ChronoUnit.HOURS);
+        Instant to = FIRST_DATE.plus(110, ChronoUnit.HOURS);
+
+        performAsync(get("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .queryParam("walletId", String.valueOf(wallet.getId()))
+                        .queryParam("from", from.toString())
+                        .queryParam("to", to.toString())
+                        .queryParam("size", "100"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.financialTransactions", hasSize(10)))
+                .andExpect(jsonPath("$.financialTransactions[0].date").value(to.minus(1, ChronoUnit.HOURS).toString()))
+                .andExpect(jsonPath("$.financialTransactions[9].date").value(from.toString()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("when amount, type and category are given returns only matching transactions")
+    void givenAmountTypeAndCategory_whenGetFinancialTransactionsByWalletId_thenMatchingTransactions() throws Exception {
+        performAsync(get("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .queryParam("walletId", String.valueOf(wallet.getId()))
+                        .queryParam("minAmount", "400")
+                        .queryParam("type", FinancialTransactionType.EXPENSE.name())
+                        .queryParam("categoryId", String.valueOf(category.getId()))
+                        .queryParam("size", "100"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.financialTransactions", hasSize(100)))
+                .andExpect(jsonPath("$.financialTransactions[*].amount", everyItem(greaterThanOrEqualTo(400.0))))
+                .andExpect(jsonPath("$.financialTransactions[*].type", everyItem(is(FinancialTransactionType.EXPENSE.name()))))
+                .andExpect(jsonPath("$.financialTransactions[*].categoryId", everyItem(is(category.getId().intValue()))))
+                .andExpect(jsonPath("$.nextCursor").exists());
+    }
+
+    @Test
+    @DisplayName("when date range is given the query uses the wallet and date index")
+    void givenDateRange_whenExplainQuery_thenWalletDateIndexIsUsed() {
+        Map<String, Object> plan = explain("""
+                        SELECT * FROM financial_transactions
+                        WHERE wallet_id = ? AND transaction_date >= ? AND transaction_date < ?
+                        ORDER BY transaction_date DESC, id DESC LIMIT 21""",
+                wallet.getId(),
+                Timestamp.from(FIRST_DATE.plus(100, ChronoUnit.HOURS)),
+                Timestamp.from(FIRST_DATE.plus(800, ChronoUnit.HOURS)));
+
+        Assertions.assertEquals(WALLET_DATE_INDEX, plan.get("key"));
+    }
+
+    @Test
+    @DisplayName("when category and date range are given the query uses the wallet, category and date index")
+    void givenCategoryAndDateRange_whenExplainQuery_thenWalletCategoryDateIndexIsUsed() {
+        Map<String, Object> plan = explain("""
+                        SELECT * FROM financial_transactions
+                        WHERE wallet_id = ? AND financial_transaction_category_id = ?
+                          AND transaction_date >= ? AND transaction_date < ?
+                        ORDER BY transaction_date DESC, id DESC LIMIT 21""",
+                wallet.getId(), category.getId(),
+                Timestamp.from(FIRST_DATE.plus(100, ChronoUnit.HOURS)),
+                Timestamp.from(FIRST_DATE.plus(8000, ChronoUnit.HOURS)));
+
+        Assertions.assertEquals(WALLET_CATEGORY_DATE_INDEX, plan.get("key"));
+    }
+
+    private Map<String, Object> explain(String sql, Object... args) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        Assertions.assertEquals(1, plan.size());
+        return plan.get(0);
+    }
+}
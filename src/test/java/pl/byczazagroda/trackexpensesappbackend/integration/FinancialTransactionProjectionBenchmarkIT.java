@@ -0,0 +1,162 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.Benchmark;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionModelMapper;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares loading a large page of transactions through managed entities and the MapStruct mapper
+ * with the DTO projection used by the listing. Allocation is measured per thread, so it is stable
+ * enough to assert, latency is only logged. The default suite only checks that both return the same page
+ * of a small wallet; the measurement runs with -Dbenchmarks.enabled=true.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FinancialTransactionProjectionBenchmarkIT extends BaseIntegrationTestIT {
+
+    private static final int WALLET_SIZE = Benchmark.isEnabled() ? 5_000 : 100;
+
+    private static final int WARMUP_ITERATIONS = 5;
+
+    private static final int MEASURED_ITERATIONS = 20;
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FinancialTransactionModelMapper financialTransactionModelMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Wallet wallet;
+
+    @BeforeAll
+    void seedLargeWallet() {
+        clearTestDB();
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        wallet = walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name("large_wallet")
+                .build());
+        List<FinancialTransaction> financialTransactions = new ArrayList<>(WALLET_SIZE);
+        for (int i = 0; i < WALLET_SIZE; i++) {
+            financialTransactions.add(FinancialTransaction.builder()
+                    .wallet(wallet)
+                    .amount(BigDecimal.valueOf(i % 500 + 1))
+                    .date(Instant.parse("2022-01-01T00:00:00Z").plus(i, ChronoUnit.HOURS))
+                    .type(FinancialTransactionType.EXPENSE)
+                    .description("transaction " + i)
+                    .build());
+        }
+        financialTransactionRepository.saveAll(financialTransactions);
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        financialTransactionRepository.deleteAllInBatch();
+        financialTransactionCategoryRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when listing a page the DTO projection returns what mapping the entities returns")
+    void givenWallet_whenListingWithProjection_thenSameAsWithEntities() {
+        Assertions.assertEquals(withEntities().get(), withProjection().get());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = Benchmark.ENABLED_PROPERTY, matches = "true")
+    @DisplayName("when listing a large page the DTO projection allocates less than hydrating entities")
+    void givenLargeWallet_whenListingWithProjection_thenLessAllocatedThanWithEntities() {
+        Supplier<List<FinancialTransactionDTO>> entities = withEntities();
+        Supplier<List<FinancialTransactionDTO>> projection = withProjection();
+
+        Benchmark.Measurement entityMeasurement = Benchmark.measure(entities::get, WARMUP_ITERATIONS,
+                MEASURED_ITERATIONS);
+        Benchmark.Measurement projectionMeasurement = Benchmark.measure(projection::get, WARMUP_ITERATIONS,
+                MEASURED_ITERATIONS);
+
+        log.info("Listing {} transactions with entities: {} bytes, {} us; with projection: {} bytes, {} us",
+                WALLET_SIZE, entityMeasurement.averageAllocatedBytes(), entityMeasurement.averageMicros(),
+                projectionMeasurement.averageAllocatedBytes(), projectionMeasurement.averageMicros());
+        Assertions.assertTrue(
+                projectionMeasurement.averageAllocatedBytes() < entityMeasurement.averageAllocatedBytes());
+    }
+
+    private Supplier<List<FinancialTransactionDTO>> withEntities() {
+        TransactionTemplate transactionTemplate = readOnlyTransactionTemplate();
+        return () -> transactionTemplate.execute(status ->
+                entityManager.createQuery("""
+                                SELECT ft FROM FinancialTransaction ft
+                                WHERE ft.wallet.id = :walletId
+                                ORDER BY ft.date DESC, ft.id DESC""", FinancialTransaction.class)
+                        .setParameter("walletId", wallet.getId())
+                        .setMaxResults(WALLET_SIZE)
+                        .getResultList().stream()
+                        .map(financialTransactionModelMapper::mapFinancialTransactionEntityToFinancialTransactionDTO)
+                        .toList());
+    }
+
+    private Supplier<List<FinancialTransactionDTO>> withProjection() {
+        TransactionTemplate transactionTemplate = readOnlyTransactionTemplate();
+        return () -> transactionTemplate.execute(status ->
+                financialTransactionRepository.findAllByWalletIdAndFilter(wallet.getId(),
+                        FinancialTransactionFilterDTO.none(), null, null, WALLET_SIZE));
+    }
+
+    private TransactionTemplate readOnlyTransactionTemplate() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+}
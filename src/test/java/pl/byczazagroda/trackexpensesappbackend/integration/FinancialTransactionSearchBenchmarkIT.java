@@ -0,0 +1,151 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.Benchmark;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchOrder;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionService;
+
+import java.time.Instant;
+
+/**
+ * Measures searching descriptions with the full-text index against the LIKE '%x%' scan it replaces, on a table
+ * of a few million rows spread over the wallets of one user. One description in a thousand contains the
+ * searched word. The 95th percentiles of a first page of 20 results are reported next to their targets; the size
+ * can be changed with -Dbenchmark.search.rows. Runs only with -Dbenchmarks.enabled=true, the search itself is
+ * covered by SearchFinancialTransactionsIT.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = Benchmark.ENABLED_PROPERTY, matches = "true")
+class FinancialTransactionSearchBenchmarkIT extends BaseIntegrationTestIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.search.rows", 2_000_000);
+
+    private static final int WALLETS = 20;
+
+    private static final int WARM_UP_RUNS = 5;
+
+    private static final int MEASURED_RUNS = 50;
+
+    private static final long WALLET_SCOPE_P95_TARGET_MILLIS = 50;
+
+    private static final long USER_SCOPE_P95_TARGET_MILLIS = 200;
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FinancialTransactionService financialTransactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    private Long walletId;
+
+    @BeforeAll
+    void seedLargeTable() {
+        clearTestDB();
+        user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        for (int i = 0; i < WALLETS; i++) {
+            walletId = walletRepository.save(Wallet.builder()
+                    .user(user)
+                    .creationDate(Instant.now())
+                    .name("wallet_" + i)
+                    .build()).getId();
+            seedTransactions(walletId, ROWS / WALLETS);
+        }
+        jdbcTemplate.execute("ANALYZE TABLE financial_transactions");
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        financialTransactionRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when searching one wallet the full-text search latency is reported against its target")
+    void givenWalletScope_whenSearching_thenFullTextSearchLatencyIsReported() {
+        FinancialTransactionSearchDTO search = new FinancialTransactionSearchDTO("netflix", walletId, null,
+                null, null, FinancialTransactionSearchOrder.RELEVANCE);
+
+        long fullTextP95 = p95(() -> financialTransactionService.searchFinancialTransactions(search, null, 20));
+        long likeP95 = p95(() -> jdbcTemplate.queryForList("""
+                SELECT id FROM financial_transactions
+                WHERE wallet_id = ? AND description LIKE '%netflix%'
+                ORDER BY transaction_date DESC, id DESC LIMIT 21""", walletId));
+
+        log.info("Searching a wallet of {} transactions, p95: full-text {} ms (target {} ms), LIKE {} ms",
+                ROWS / WALLETS, fullTextP95, WALLET_SCOPE_P95_TARGET_MILLIS, likeP95);
+    }
+
+    @Test
+    @DisplayName("when searching all wallets of a user the full-text search is faster than the LIKE scan")
+    void givenUserScope_whenSearching_thenFullTextSearchIsFasterThanLike() {
+        FinancialTransactionSearchDTO search = new FinancialTransactionSearchDTO("netflix", null, user.getId(),
+                null, null, FinancialTransactionSearchOrder.RELEVANCE);
+
+        long fullTextP95 = p95(() -> financialTransactionService.searchFinancialTransactions(search, null, 20));
+        long likeP95 = p95(() -> jdbcTemplate.queryForList("""
+                SELECT ft.id FROM financial_transactions ft JOIN wallets w ON w.id = ft.wallet_id
+                WHERE w.user_id = ? AND ft.description LIKE '%netflix%'
+                ORDER BY ft.transaction_date DESC, ft.id DESC LIMIT 21""", user.getId()));
+
+        log.info("Searching {} transactions of a user, p95: full-text {} ms (target {} ms), LIKE {} ms",
+                ROWS, fullTextP95, USER_SCOPE_P95_TARGET_MILLIS, likeP95);
+        Assertions.assertTrue(fullTextP95 < likeP95);
+    }
+
+    private void seedTransactions(Long walletId, int rows) {
+        jdbcTemplate.update("""
+                        INSERT INTO financial_transactions (wallet_id, transaction_type, amount, transaction_date,
+                            description, financial_transaction_category_id)
+                        WITH digits AS (SELECT 0 AS d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3
+                            UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7
+                            UNION ALL SELECT 8 UNION ALL SELECT 9)
+                        SELECT ?, 'EXPENSE', 1 + n % 500, TIMESTAMP('2020-01-01') + INTERVAL n MINUTE,
+                            CASE WHEN n % 1000 = 0 THEN CONCAT('Netflix subscription ', n)
+                                 ELSE CONCAT(ELT(1 + n % 5, 'Grocery store', 'Fuel station', 'Restaurant dinner',
+                                     'Electricity bill', 'Train ticket'), ' ', n) END,
+                            NULL
+                        FROM (SELECT d0.d + 10 * d1.d + 100 * d2.d + 1000 * d3.d + 10000 * d4.d + 100000 * d5.d AS n
+                              FROM digits d0, digits d1, digits d2, digits d3, digits d4, digits d5) numbers
+                        WHERE n < ?""",
+                walletId, rows);
+    }
+
+    private static long p95(Runnable search) {
+        return Benchmark.measure(search, WARM_UP_RUNS, MEASURED_RUNS).percentileMillis(95);
+    }
+}
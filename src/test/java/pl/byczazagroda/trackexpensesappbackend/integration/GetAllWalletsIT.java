@@ -45,7 +45,7 @@ class GetAllWalletsIT extends BaseIntegrationTestIT {
         List<Wallet> savedWallets = createListTestWallets();
 
         // when
-        ResultActions response = mockMvc.perform(get("/api/wallets"));
+        ResultActions response = performAsync(get("/api/wallets"));
 
         // then
         response.andExpect(status().isOk())
@@ -66,7 +66,7 @@ class GetAllWalletsIT extends BaseIntegrationTestIT {
         //given
 
         // when
-        ResultActions response = mockMvc.perform(get("/api/wallets"));
+        ResultActions response = performAsync(get("/api/wallets"));
 
         // then
         response.andExpect(status().isOk())
@@ -47,15 +47,16 @@ class GetFinancialTransactionByWalletIdIT extends BaseIntegrationTestIT {
     void givenValidWalletId_whenGetFinancialTransactionsByWalletId_thenCorrectResponse() throws Exception {
         Wallet wallet = createTestWallet();
         FinancialTransaction financialTransaction = createTestFinancialTransaction(wallet);
-        mockMvc.perform(get("/api/transactions")
+        performAsync(get("/api/transactions")
                 .contentType(MediaType.APPLICATION_JSON)
                 .queryParam("walletId", String.valueOf(wallet.getId())))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(jsonPath("$.[0].id").value(financialTransaction.getId()))
-                .andExpect(jsonPath("$.[0].amount").value(financialTransaction.getAmount()))
-                .andExpect(jsonPath("$.[0].description").value(financialTransaction.getDescription()))
-                .andExpect(jsonPath("$.[0].type").value(financialTransaction.getType().name()))
-                .andExpect(jsonPath("$.[0].date").value(financialTransaction.getDate().toString()));
+                .andExpect(jsonPath("$.financialTransactions[0].id").value(financialTransaction.getId()))
+                .andExpect(jsonPath("$.financialTransactions[0].amount").value(financialTransaction.getAmount()))
+                .andExpect(jsonPath("$.financialTransactions[0].description").value(financialTransaction.getDescription()))
+                .andExpect(jsonPath("$.financialTransactions[0].type").value(financialTransaction.getType().name()))
+                .andExpect(jsonPath("$.financialTransactions[0].date").value(financialTransaction.getDate().toString()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
 
         Assertions.assertEquals(1, financialTransactionRepository.count());
         Assertions.assertEquals(1, walletRepository.count());
@@ -64,7 +65,7 @@ class GetFinancialTransactionByWalletIdIT extends BaseIntegrationTestIT {
     @Test
     @DisplayName("when wallet id is incorrect returns error response dto and has 404 status code")
     void givenInvalidWalletId_whenGetFinancialTransactionsByWalletId_thenNotFoundStatusCode() throws Exception {
-        mockMvc.perform(get("/api/transactions")
+        performAsync(get("/api/transactions")
                         .contentType(MediaType.APPLICATION_JSON)
                         .queryParam("walletId", "1"))
                 .andExpect(MockMvcResultMatchers.status().isNotFound())
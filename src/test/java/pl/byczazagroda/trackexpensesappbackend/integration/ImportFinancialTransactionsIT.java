@@ -0,0 +1,120 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionImportJobDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionImportStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionImportService;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+class ImportFinancialTransactionsIT extends BaseIntegrationTestIT {
+
+    private static final int LINES = 500;
+
+    @Autowired
+    private FinancialTransactionImportService financialTransactionImportService;
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void clearDatabase() {
+        financialTransactionRepository.deleteAllInBatch();
+        monthlyCategoryTotalRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("Should import the lines once when the same file is imported twice at the same time")
+    @Test
+    void testImportFinancialTransactionsAPI_whenSameFileIsImportedConcurrently_thenShouldImportLinesOnce()
+            throws Exception {
+        Wallet wallet = createTestWallet();
+        StringBuilder csv = new StringBuilder("transaction_type,amount,transaction_date,description\n");
+        for (int i = 0; i < LINES; i++) {
+            csv.append("EXPENSE,1,2022-02-19T09:47:52Z,shop ").append(i).append('\n');
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "transactions.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        // both imports are queued before either finishes, the import pool runs them side by side
+        UUID firstJobId = startImport(wallet.getId(), file);
+        UUID secondJobId = startImport(wallet.getId(), file);
+        FinancialTransactionImportJobDTO firstJob = awaitFinishedJob(wallet.getId(), firstJobId);
+        FinancialTransactionImportJobDTO secondJob = awaitFinishedJob(wallet.getId(), secondJobId);
+
+        Assertions.assertEquals(FinancialTransactionImportStatus.COMPLETED, firstJob.status());
+        Assertions.assertEquals(FinancialTransactionImportStatus.COMPLETED, secondJob.status());
+        Assertions.assertEquals(LINES, firstJob.importedTransactions() + secondJob.importedTransactions());
+        Assertions.assertEquals(LINES, firstJob.skippedDuplicates() + secondJob.skippedDuplicates());
+        Assertions.assertEquals(LINES, financialTransactionRepository.count());
+        Assertions.assertEquals(0, BigDecimal.valueOf(LINES).compareTo(
+                walletRepository.findById(wallet.getId()).map(Wallet::getExpenseTotal).orElseThrow()));
+    }
+
+    private UUID startImport(Long walletId, MockMultipartFile file) throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders
+                        .multipart("/api/wallets/{id}/transactions/import", walletId)
+                        .file(file)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, FinancialTransactionImportJobDTO.class).id();
+    }
+
+    private FinancialTransactionImportJobDTO awaitFinishedJob(Long walletId, UUID jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            FinancialTransactionImportJobDTO job = financialTransactionImportService.findImportJob(walletId, jobId);
+            if (job.status() == FinancialTransactionImportStatus.COMPLETED
+                    || job.status() == FinancialTransactionImportStatus.FAILED) {
+                return job;
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        return Assertions.fail("Import " + jobId + " did not finish in time");
+    }
+
+    private Wallet createTestWallet() {
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        return walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name("TestWallet")
+                .build());
+    }
+}
@@ -0,0 +1,33 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@AutoConfigureMetrics
+class PrometheusMetricsIT extends BaseIntegrationTestIT {
+
+    @Test
+    @DisplayName("when a wallet is not found the Prometheus endpoint shows the request, the service and repository calls and the error")
+    void givenMissingWallet_whenScrapingPrometheus_thenRequestServiceRepositoryAndErrorAreMeasured() throws Exception {
+        mockMvc.perform(get("/api/wallets/{id}", Long.MAX_VALUE).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(allOf(
+                        containsString("http_server_requests_seconds_count{"),
+                        containsString("service_method_seconds_count{class=\"WalletServiceImpl\""),
+                        containsString("repository=\"WalletRepository\""),
+                        containsString("api_errors_total{code=\"W003\""),
+                        containsString("hikaricp_connections_pending"),
+                        containsString("wallet_cache_hits_total"))));
+    }
+}
@@ -0,0 +1,154 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.config.ReadReplicaRoutingDataSource;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.servlet.http.Cookie;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+/**
+ * Uses a second database instance as the stand-in of a replica. It has the same schema but does not replicate,
+ * so the name of a wallet tells which of the two instances served a read.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingIT extends BaseIntegrationTestIT {
+
+    private static final MySQLContainer<?> REPLICA = new MySQLContainer<>(DockerImageName.parse("mysql:8.0"))
+            .withDatabaseName("trackexpensesapptest")
+            .withUsername("root")
+            .withPassword("root")
+            .withUrlParam("serverTimezone", "UTC");
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReadReplicaRoutingDataSource readReplicaRoutingDataSource;
+
+    private Wallet wallet;
+
+    @DynamicPropertySource
+    private static void replicaConfig(DynamicPropertyRegistry registry) {
+        REPLICA.start();
+        registry.add("application.read-replica.enabled", () -> "true");
+        registry.add("application.read-replica.urls", REPLICA::getJdbcUrl);
+        registry.add("application.read-replica.username", REPLICA::getUsername);
+        registry.add("application.read-replica.password", REPLICA::getPassword);
+        registry.add("application.read-replica.read-your-writes-window-ms", () -> "60000");
+    }
+
+    @BeforeAll
+    void seedPrimaryAndReplica() throws Exception {
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        wallet = walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name("primary")
+                .build());
+
+        DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(REPLICA.getJdbcUrl(),
+                REPLICA.getUsername(), REPLICA.getPassword());
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(replicaDataSource);
+        liquibase.setChangeLog("classpath:db/dbchangelog-test.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        JdbcTemplate replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        replicaJdbcTemplate.update("""
+                        INSERT INTO users (id, user_name, email, password, user_status)
+                        VALUES (?, 'userone', 'email@wp.pl', 'password1@', 'VERIFIED')""",
+                user.getId());
+        replicaJdbcTemplate.update("INSERT INTO wallets (id, name, creation_date, user_id) VALUES (?, 'replica', ?, ?)",
+                wallet.getId(), Timestamp.from(wallet.getCreationDate()), user.getId());
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+        REPLICA.stop();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("when a wallet is read in a read-only transaction it is served by the replica")
+    void givenReadOnlyTransaction_whenGetWallet_thenReadFromReplica() throws Exception {
+        mockMvc.perform(get("/api/wallets/{id}", wallet.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.name").value("replica"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("when a client has just written it reads from the primary, other clients still read from the replica")
+    void givenRecentWrite_whenGetWallet_thenWriterReadsFromPrimary() throws Exception {
+        MvcResult update = mockMvc.perform(patch("/api/wallets/{id}", wallet.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new WalletUpdateDTO("renamed"))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.cookie().exists("primary-read-until"))
+                .andReturn();
+        Cookie readUntil = update.getResponse().getCookie("primary-read-until");
+
+        mockMvc.perform(get("/api/wallets/{id}", wallet.getId()).cookie(readUntil).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.name").value("renamed"));
+        mockMvc.perform(get("/api/wallets/{id}", wallet.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.name").value("replica"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("when the replica is down reads fall back to the primary")
+    void givenReplicaDown_whenGetWallet_thenReadFromPrimary() throws Exception {
+        REPLICA.stop();
+        readReplicaRoutingDataSource.checkReplicas();
+
+        mockMvc.perform(get("/api/wallets/{id}", wallet.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.name").value("renamed"));
+    }
+}
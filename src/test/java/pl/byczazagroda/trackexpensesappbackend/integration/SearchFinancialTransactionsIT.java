@@ -0,0 +1,208 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionPageDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchOrder;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchFinancialTransactionsIT extends BaseIntegrationTestIT {
+
+    private static final Instant FIRST_DATE = Instant.parse("2022-01-01T00:00:00Z");
+
+    private static final String FULLTEXT_INDEX = "idx_financial_transactions_description_fulltext";
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    private Wallet firstWallet;
+
+    private Wallet secondWallet;
+
+    @BeforeAll
+    void seedWallets() {
+        clearTestDB();
+        user = saveUser("userone", "email@wp.pl");
+        User otherUser = saveUser("usertwo", "other@wp.pl");
+        firstWallet = saveWallet(user, "first_wallet");
+        secondWallet = saveWallet(user, "second_wallet");
+        Wallet otherUsersWallet = saveWallet(otherUser, "other_wallet");
+
+        List<FinancialTransaction> financialTransactions = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            financialTransactions.add(buildTransaction(firstWallet, "Netflix subscription " + i, i));
+            financialTransactions.add(buildTransaction(secondWallet, "Groceries " + i, i));
+        }
+        financialTransactions.add(buildTransaction(secondWallet, "Netflix Netflix Netflix family plan", 40));
+        financialTransactions.add(buildTransaction(otherUsersWallet, "Netflix subscription", 0));
+        financialTransactionRepository.saveAll(financialTransactions);
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        financialTransactionRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when search is scoped by user returns matches from all of their wallets, the best matching first")
+    void givenUserScope_whenSearchFinancialTransactions_thenMatchesFromAllWalletsOfUser() throws Exception {
+        performAsync(get("/api/transactions/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .queryParam("query", "netflix")
+                        .queryParam("userId", String.valueOf(user.getId()))
+                        .queryParam("size", "100"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.financialTransactions", hasSize(31)))
+                .andExpect(jsonPath("$.financialTransactions[0].description").value("Netflix Netflix Netflix family plan"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("when search is scoped by wallet and date range returns only its matches from that range, newest first")
+    void givenWalletScopeAndDateRange_whenSearchFinancialTransactions_thenMatchesFromRange() throws Exception {
+        Instant from = FIRST_DATE.plus(10, ChronoUnit.DAYS);
+        Instant to = FIRST_DATE.plus(20, ChronoUnit.DAYS);
+
+        performAsync(get("/api/transactions/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .queryParam("query", "netflix")
+                        .queryParam("walletId", String.valueOf(firstWallet.getId()))
+                        .queryParam("from", from.toString())
+                        .queryParam("to", to.toString())
+                        .queryParam("order", FinancialTransactionSearchOrder.DATE.name()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.financialTransactions", hasSize(10)))
+                .andExpect(jsonPath("$.financialTransactions[0].date").value(to.minus(1, ChronoUnit.DAYS).toString()))
+                .andExpect(jsonPath("$.financialTransactions[9].date").value(from.toString()));
+    }
+
+    @Test
+    @DisplayName("when results span several pages following the cursors returns every match exactly once")
+    void givenSeveralPages_whenFollowingCursors_thenEveryMatchIsReturnedOnce() throws Exception {
+        for (FinancialTransactionSearchOrder order : FinancialTransactionSearchOrder.values()) {
+            List<Long> ids = new ArrayList<>();
+            String cursor = null;
+            do {
+                FinancialTransactionPageDTO page = searchPage(order, cursor);
+                page.financialTransactions().stream().map(FinancialTransactionDTO::id).forEach(ids::add);
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            Assertions.assertEquals(31, ids.size());
+            Assertions.assertEquals(31, ids.stream().distinct().count());
+        }
+    }
+
+    @Test
+    @DisplayName("when search has no scope returns is Bad Request error")
+    void givenNoScope_whenSearchFinancialTransactions_thenBadRequest() throws Exception {
+        performAsync(get("/api/transactions/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .queryParam("query", "netflix"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(ErrorCode.FT008.getBusinessStatus()));
+    }
+
+    @Test
+    @DisplayName("when searching a description the query uses the full-text index")
+    void givenQuery_whenExplainSearch_thenFullTextIndexIsUsed() {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("""
+                        EXPLAIN SELECT id FROM financial_transactions
+                        WHERE MATCH(description) AGAINST (? IN NATURAL LANGUAGE MODE) AND wallet_id = ?""",
+                "netflix", firstWallet.getId());
+
+        Assertions.assertEquals(FULLTEXT_INDEX, plan.get(0).get("key"));
+    }
+
+    private FinancialTransactionPageDTO searchPage(FinancialTransactionSearchOrder order, String cursor)
+            throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/transactions/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .queryParam("query", "netflix")
+                .queryParam("userId", String.valueOf(user.getId()))
+                .queryParam("order", order.name())
+                .queryParam("size", "7");
+        if (cursor != null) {
+            request.queryParam("cursor", cursor);
+        }
+        String content = performAsync(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(content, FinancialTransactionPageDTO.class);
+    }
+
+    private User saveUser(String userName, String email) {
+        return userRepository.save(User.builder()
+                .userName(userName)
+                .email(email)
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+    }
+
+    private Wallet saveWallet(User owner, String name) {
+        return walletRepository.save(Wallet.builder()
+                .user(owner)
+                .creationDate(Instant.now())
+                .name(name)
+                .build());
+    }
+
+    private static FinancialTransaction buildTransaction(Wallet wallet, String description, int day) {
+        return FinancialTransaction.builder()
+                .wallet(wallet)
+                .amount(BigDecimal.TEN)
+                .date(FIRST_DATE.plus(day, ChronoUnit.DAYS))
+                .type(FinancialTransactionType.EXPENSE)
+                .description(description)
+                .build();
+    }
+}
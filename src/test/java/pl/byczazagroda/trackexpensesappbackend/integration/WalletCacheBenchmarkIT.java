@@ -0,0 +1,147 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.Benchmark;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+import pl.byczazagroda.trackexpensesappbackend.service.FinancialTransactionService;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletCache;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletService;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the SELECT statements the database executes for a read-heavy mix of wallet reads and transaction
+ * listings, with a few renames in between, with and without the wallet cache. The cache is disabled in the test
+ * profile, the benchmark enables it for its own run only. Runs only with -Dbenchmarks.enabled=true, the cache
+ * itself is covered by WalletCacheTest.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = Benchmark.ENABLED_PROPERTY, matches = "true")
+class WalletCacheBenchmarkIT extends BaseIntegrationTestIT {
+
+    private static final int WALLETS = 50;
+
+    private static final int REQUESTS = 20_000;
+
+    private static final int WRITE_EVERY = 100;
+
+    private static final double MAX_SELECT_RATIO = 0.75;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private FinancialTransactionService financialTransactionService;
+
+    @Autowired
+    private WalletCache walletCache;
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> walletIds = new ArrayList<>();
+
+    @BeforeAll
+    void seedWallets() {
+        clearTestDB();
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds.add(walletRepository.save(Wallet.builder()
+                    .user(user)
+                    .creationDate(Instant.now())
+                    .name("wallet_" + i)
+                    .build()).getId());
+        }
+    }
+
+    @AfterEach
+    void disableCache() {
+        ReflectionTestUtils.setField(walletCache, "enabled", false);
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        financialTransactionRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when wallets are read far more often than changed the cache saves at least a quarter of the SELECT statements")
+    void givenReadHeavyMix_whenCacheEnabled_thenFewerSelects() {
+        ReflectionTestUtils.setField(walletCache, "enabled", false);
+        long uncachedSelects = countSelects(this::runMix);
+        long uncachedMillis = Benchmark.measure(this::runMix, 0, 1).totalMillis();
+
+        ReflectionTestUtils.setField(walletCache, "enabled", true);
+        long cachedSelects = countSelects(this::runMix);
+        long cachedMillis = Benchmark.measure(this::runMix, 0, 1).totalMillis();
+
+        log.info("{} requests: {} SELECTs in {} ms without the cache, {} SELECTs in {} ms with it, {}",
+                REQUESTS, uncachedSelects, uncachedMillis, cachedSelects, cachedMillis, walletCache.getStatistics());
+        Assertions.assertTrue(cachedSelects <= uncachedSelects * MAX_SELECT_RATIO);
+    }
+
+    private void runMix() {
+        Random random = new Random(42);
+        for (int i = 0; i < REQUESTS; i++) {
+            Long walletId = walletIds.get(random.nextInt(WALLETS));
+            if (i % WRITE_EVERY == 0) {
+                walletService.updateWallet(walletId, new WalletUpdateDTO("wallet " + i % 1000), null);
+            } else if (i % 2 == 0) {
+                walletService.findById(walletId);
+            } else {
+                financialTransactionService.getFinancialTransactionsByWalletId(walletId,
+                        FinancialTransactionFilterDTO.none(), null, 20);
+            }
+        }
+    }
+
+    private long countSelects(Runnable mix) {
+        long before = selects();
+        mix.run();
+        return selects() - before;
+    }
+
+    private long selects() {
+        return Long.parseLong(jdbcTemplate.queryForObject(
+                "SHOW GLOBAL STATUS LIKE 'Com_select'", (rs, rowNum) -> rs.getString("Value")));
+    }
+}
@@ -0,0 +1,127 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.Benchmark;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletService;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+
+/**
+ * Compares deleting a large wallet the way the orphanRemoval cascade did it, loading every transaction and
+ * deleting it on its own, with the single DELETE that leaves the transactions to the foreign key cascade.
+ * Each approach deletes its own freshly seeded wallet; the size can be changed with -Dbenchmark.wallet-delete.rows.
+ * Runs only with -Dbenchmarks.enabled=true, the deletion itself is covered by DeleteWalletByIdIT.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = Benchmark.ENABLED_PROPERTY, matches = "true")
+class WalletDeletionBenchmarkIT extends BaseIntegrationTestIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.wallet-delete.rows", 100_000);
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeAll
+    void seedUser() {
+        clearTestDB();
+        user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+    }
+
+    @AfterAll
+    void clearTestDB() {
+        financialTransactionRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when the wallet is large a single delete is faster than deleting its transactions one by one")
+    void givenLargeWallet_whenDeleting_thenSingleDeleteIsFasterThanCascadeByEntity() {
+        Long entityWalletId = seedLargeWallet("entity_cascade");
+        Long setBasedWalletId = seedLargeWallet("set_based");
+
+        long entityMillis = Benchmark.measure(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Wallet wallet = entityManager.find(Wallet.class, entityWalletId);
+            entityManager.createQuery("SELECT ft FROM FinancialTransaction ft WHERE ft.wallet = :wallet",
+                            FinancialTransaction.class)
+                    .setParameter("wallet", wallet)
+                    .getResultList()
+                    .forEach(entityManager::remove);
+            entityManager.remove(wallet);
+        }), 0, 1).totalMillis();
+        long setBasedMillis = Benchmark.measure(() -> walletService.deleteWalletById(setBasedWalletId), 0, 1)
+                .totalMillis();
+
+        log.info("Deleting a wallet with {} transactions: entity by entity {} ms, single delete {} ms",
+                ROWS, entityMillis, setBasedMillis);
+        Assertions.assertEquals(0, financialTransactionRepository.count());
+        Assertions.assertEquals(0, walletRepository.count());
+        Assertions.assertTrue(setBasedMillis < entityMillis);
+    }
+
+    private Long seedLargeWallet(String name) {
+        Long walletId = walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name(name)
+                .build()).getId();
+        jdbcTemplate.update("""
+                        INSERT INTO financial_transactions (wallet_id, transaction_type, amount, transaction_date,
+                            description, financial_transaction_category_id)
+                        WITH digits AS (SELECT 0 AS d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3
+                            UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7
+                            UNION ALL SELECT 8 UNION ALL SELECT 9)
+                        SELECT ?, 'EXPENSE', 1 + n % 500, TIMESTAMP('2020-01-01') + INTERVAL n MINUTE, NULL, NULL
+                        FROM (SELECT d0.d + 10 * d1.d + 100 * d2.d + 1000 * d3.d + 10000 * d4.d + 100000 * d5.d AS n
+                              FROM digits d0, digits d1, digits d2, digits d3, digits d4, digits d5) numbers
+                        WHERE n < ?""",
+                walletId, ROWS);
+        return walletId;
+    }
+}
@@ -0,0 +1,125 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionJob;
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionStatus;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletDeletionJobRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+class WalletDeletionIT extends BaseIntegrationTestIT {
+
+    private static final int TRANSACTIONS = 12;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private WalletDeletionJobRepository walletDeletionJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void clearDatabase() {
+        financialTransactionRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        walletDeletionJobRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("Should hide the wallet at once and delete it with its transactions in the background")
+    @Test
+    void testRequestWalletDeletionAPI_whenWalletIdIsCorrect_thenShouldHideWalletAndDeleteItInBackground()
+            throws Exception {
+        Wallet wallet = createTestWallet();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            createTestFinancialTransaction(wallet);
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/wallets/{id}/deletion", wallet.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.walletId").value(wallet.getId()));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/wallets/{id}", wallet.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        WalletDeletionJob job = awaitFinishedJob(wallet.getId());
+        Assertions.assertEquals(WalletDeletionStatus.COMPLETED, job.getStatus());
+        Assertions.assertEquals(TRANSACTIONS, job.getDeletedTransactions());
+        Assertions.assertEquals(0, walletRepository.count());
+        Assertions.assertEquals(0, financialTransactionRepository.count());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/wallets/{id}/deletion", wallet.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(WalletDeletionStatus.COMPLETED.name()));
+    }
+
+    @DisplayName("Should return is Not Found error when the wallet has no deletion job")
+    @Test
+    void testFindWalletDeletionJobAPI_whenWalletHasNoDeletionJob_thenShouldReturnNotFoundError() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/wallets/{id}/deletion", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(ErrorCode.W006.getBusinessStatus()));
+    }
+
+    private WalletDeletionJob awaitFinishedJob(Long walletId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            WalletDeletionJob job = walletDeletionJobRepository.findById(walletId).orElseThrow();
+            if (job.getStatus() == WalletDeletionStatus.COMPLETED || job.getStatus() == WalletDeletionStatus.FAILED) {
+                return job;
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        return Assertions.fail("Deletion of wallet " + walletId + " did not finish in time");
+    }
+
+    private void createTestFinancialTransaction(Wallet wallet) {
+        financialTransactionRepository.save(FinancialTransaction.builder()
+                .wallet(wallet)
+                .amount(new BigDecimal("2.0"))
+                .date(Instant.ofEpochSecond(1L))
+                .type(FinancialTransactionType.INCOME)
+                .description("Test transaction")
+                .build());
+    }
+
+    private Wallet createTestWallet() {
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        return walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name("TestWallet")
+                .build());
+    }
+}
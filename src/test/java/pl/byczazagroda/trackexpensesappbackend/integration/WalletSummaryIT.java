@@ -0,0 +1,152 @@
+package pl.byczazagroda.trackexpensesappbackend.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import pl.byczazagroda.trackexpensesappbackend.BaseIntegrationTestIT;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+import pl.byczazagroda.trackexpensesappbackend.service.WalletSummaryService;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+class WalletSummaryIT extends BaseIntegrationTestIT {
+
+    private static final Instant JANUARY = Instant.parse("2024-01-15T10:00:00Z");
+
+    private static final Instant FEBRUARY = Instant.parse("2024-02-10T10:00:00Z");
+
+    @Autowired
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Autowired
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Autowired
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletSummaryService walletSummaryService;
+
+    private Wallet wallet;
+
+    private FinancialTransactionCategory food;
+
+    @BeforeEach
+    void setUp() {
+        clearTestDB();
+        User user = userRepository.save(User.builder()
+                .userName("userone")
+                .email("email@wp.pl")
+                .password("password1@")
+                .userStatus(UserStatus.VERIFIED)
+                .build());
+        wallet = walletRepository.save(Wallet.builder()
+                .user(user)
+                .creationDate(Instant.now())
+                .name("summary_wallet")
+                .build());
+        food = financialTransactionCategoryRepository.save(
+                new FinancialTransactionCategory("food", FinancialTransactionType.EXPENSE));
+    }
+
+    @AfterEach
+    void clearTestDB() {
+        financialTransactionRepository.deleteAllInBatch();
+        monthlyCategoryTotalRepository.deleteAllInBatch();
+        financialTransactionCategoryRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("when transactions are created, moved between months and categories and deleted the summary follows")
+    void givenWrittenTransactions_whenGetSummary_thenMonthlyTotalsMatchTransactions() throws Exception {
+        createFinancialTransaction(new BigDecimal("1000.00"), JANUARY, FinancialTransactionType.INCOME, null);
+        createFinancialTransaction(new BigDecimal("20.00"), JANUARY, FinancialTransactionType.EXPENSE, food.getId());
+        FinancialTransactionDTO moved =
+                createFinancialTransaction(new BigDecimal("30.00"), JANUARY, FinancialTransactionType.EXPENSE, food.getId());
+        FinancialTransactionDTO deleted =
+                createFinancialTransaction(new BigDecimal("5.00"), FEBRUARY, FinancialTransactionType.EXPENSE, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/transactions/{id}", moved.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new FinancialTransactionUpdateDTO(
+                                new BigDecimal("40.00"), FEBRUARY, "moved", FinancialTransactionType.EXPENSE, null))))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/transactions/{id}", deleted.id()))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+
+        String summary = mockMvc.perform(MockMvcRequestBuilders.get("/api/wallets/{id}/summary", wallet.getId())
+                        .queryParam("from", "2024-01")
+                        .queryParam("to", "2024-12"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.months", hasSize(2)))
+                .andExpect(jsonPath("$.months[0].month").value("2024-01"))
+                .andExpect(jsonPath("$.months[0].incomeTotal").value(1000.0))
+                .andExpect(jsonPath("$.months[0].expenseTotal").value(20.0))
+                .andExpect(jsonPath("$.months[0].categories", hasSize(2)))
+                .andExpect(jsonPath("$.months[1].month").value("2024-02"))
+                .andExpect(jsonPath("$.months[1].expenseTotal").value(40.0))
+                .andExpect(jsonPath("$.months[1].categories", hasSize(1)))
+                .andExpect(jsonPath("$.months[1].categories[0].transactionCount").value(1))
+                .andReturn().getResponse().getContentAsString();
+
+        // a rebuild from the transactions gives the same totals as the incremental updates
+        Assertions.assertEquals(1, walletSummaryService.rebuildMonthlyTotals());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/wallets/{id}/summary", wallet.getId())
+                        .queryParam("from", "2024-01")
+                        .queryParam("to", "2024-12"))
+                .andExpect(MockMvcResultMatchers.content().json(summary, true));
+    }
+
+    @Test
+    @DisplayName("when the first month is after the last one returns bad request")
+    void givenReversedRange_whenGetSummary_thenBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/wallets/{id}/summary", wallet.getId())
+                        .queryParam("from", "2024-12")
+                        .queryParam("to", "2024-01"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(ErrorCode.W005.getBusinessStatus()));
+    }
+
+    private FinancialTransactionDTO createFinancialTransaction(BigDecimal amount, Instant date,
+                                                               FinancialTransactionType type, Long categoryId)
+            throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new FinancialTransactionCreateDTO(
+                                wallet.getId(), amount, "transaction", date, type, categoryId))))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, FinancialTransactionDTO.class);
+    }
+}
@@ -0,0 +1,131 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccessTokenCodecTest {
+
+    private static final String SECRET = "test-access-token-secret-not-for-production";
+
+    private static final Instant NOW = Instant.parse("2023-01-01T12:00:00Z");
+
+    private AccessTokenCodec accessTokenCodec;
+
+    @BeforeEach
+    void setUp() {
+        accessTokenCodec = codec(SECRET);
+    }
+
+    @Test
+    @DisplayName("when an issued token is verified should return its claims")
+    void shouldReturnClaims_WhenIssuedTokenIsVerified() {
+        //given
+        String token = accessTokenCodec.issue(42L);
+
+        //when
+        AccessTokenClaims claims = accessTokenCodec.verify(token);
+
+        //then
+        assertEquals(42L, claims.userId());
+        assertEquals(NOW.getEpochSecond(), claims.iat());
+        assertEquals(NOW.plusSeconds(900).getEpochSecond(), claims.exp());
+    }
+
+    @Test
+    @DisplayName("when two tokens are issued for the same user should give them different ids")
+    void shouldGiveDifferentIds_WhenTwoTokensAreIssued() {
+        //when
+        AccessTokenClaims first = accessTokenCodec.verify(accessTokenCodec.issue(42L));
+        AccessTokenClaims second = accessTokenCodec.verify(accessTokenCodec.issue(42L));
+
+        //then
+        assertNotEquals(first.jti(), second.jti());
+    }
+
+    @Test
+    @DisplayName("when the payload of a token is changed should reject the signature")
+    void shouldThrowU006_WhenPayloadIsChanged() {
+        //given
+        String token = accessTokenCodec.issue(42L);
+        String otherPayload = accessTokenCodec.issue(1L).split("\\.")[1];
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + '.' + otherPayload + '.' + parts[2];
+
+        //when
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> accessTokenCodec.verify(forged));
+
+        //then
+        assertEquals(ErrorCode.U006.getBusinessStatus(), exception.getBusinessStatus());
+    }
+
+    @Test
+    @DisplayName("when a token is signed with another secret should reject it")
+    void shouldThrowU006_WhenTokenIsSignedWithAnotherSecret() {
+        //given
+        String token = codec("another-access-token-secret-not-for-production").issue(42L);
+
+        //when
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> accessTokenCodec.verify(token));
+
+        //then
+        assertEquals(ErrorCode.U006.getBusinessStatus(), exception.getBusinessStatus());
+    }
+
+    @Test
+    @DisplayName("when a token has expired should reject it")
+    void shouldThrowU006_WhenTokenHasExpired() {
+        //given
+        String token = accessTokenCodec.issue(42L);
+        accessTokenCodec.setClock(Clock.fixed(NOW.plusSeconds(900), ZoneOffset.UTC));
+
+        //when
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> accessTokenCodec.verify(token));
+
+        //then
+        assertEquals(ErrorCode.U006.getBusinessStatus(), exception.getBusinessStatus());
+    }
+
+    @Test
+    @DisplayName("when a token is malformed should reject it")
+    void shouldThrowU006_WhenTokenIsMalformed() {
+        //when
+        AppRuntimeException withoutSignature = assertThrows(AppRuntimeException.class,
+                () -> accessTokenCodec.verify("eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.e30"));
+        AppRuntimeException notBase64 = assertThrows(AppRuntimeException.class,
+                () -> accessTokenCodec.verify("eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.@@@.@@@"));
+
+        //then
+        assertEquals(ErrorCode.U006.getBusinessStatus(), withoutSignature.getBusinessStatus());
+        assertEquals(ErrorCode.U006.getBusinessStatus(), notBase64.getBusinessStatus());
+    }
+
+    @Test
+    @DisplayName("when the secret is shorter than 32 bytes should refuse to start")
+    void shouldThrowIllegalStateException_WhenSecretIsTooShort() {
+        assertThrows(IllegalStateException.class, () -> codec("too-short"));
+    }
+
+    private static AccessTokenCodec codec(String secret) {
+        AccessTokenCodec codec = new AccessTokenCodec();
+        ReflectionTestUtils.setField(codec, "secret", secret);
+        ReflectionTestUtils.setField(codec, "ttlSeconds", 900L);
+        codec.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        codec.initKey();
+        return codec;
+    }
+}
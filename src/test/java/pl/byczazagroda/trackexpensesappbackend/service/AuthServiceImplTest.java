@@ -0,0 +1,240 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.AuthLoginDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.RefreshToken;
+import pl.byczazagroda.trackexpensesappbackend.model.RevokedAccessToken;
+import pl.byczazagroda.trackexpensesappbackend.model.User;
+import pl.byczazagroda.trackexpensesappbackend.model.UserStatus;
+import pl.byczazagroda.trackexpensesappbackend.repository.RefreshTokenRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.RevokedAccessTokenRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceImplTest {
+
+    private static final PasswordEncoder PASSWORD_ENCODER = new BCryptPasswordEncoder(4);
+
+    private static final String PASSWORD = "Password1@";
+
+    private static final User USER = User.builder()
+            .id(1L)
+            .email("user@server.com")
+            .userName("User_Bolek")
+            .password(PASSWORD_ENCODER.encode(PASSWORD))
+            .userStatus(UserStatus.VERIFIED)
+            .build();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private RevokedAccessTokenRepository revokedAccessTokenRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    private RevokedAccessTokenCache revokedAccessTokenCache;
+
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashingExecutor = new PasswordHashingExecutor();
+        ReflectionTestUtils.setField(passwordHashingExecutor, "threads", 1);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "queueCapacity", 10);
+        passwordHashingExecutor.startExecutor();
+
+        AccessTokenCodec accessTokenCodec = new AccessTokenCodec();
+        ReflectionTestUtils.setField(accessTokenCodec, "secret", "test-access-token-secret-not-for-production");
+        ReflectionTestUtils.setField(accessTokenCodec, "ttlSeconds", 900L);
+        accessTokenCodec.initKey();
+
+        revokedAccessTokenCache = new RevokedAccessTokenCache(revokedAccessTokenRepository, refreshTokenRepository,
+                transactionManager);
+        authService = new AuthServiceImpl(userRepository, refreshTokenRepository, PASSWORD_ENCODER,
+                passwordHashingExecutor, accessTokenCodec, revokedAccessTokenCache);
+        ReflectionTestUtils.setField(authService, "rememberMeTtlDays", 30L);
+        ReflectionTestUtils.setField(authService, "sessionTtlHours", 12L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.stopExecutor();
+    }
+
+    @Test
+    @DisplayName("when the password matches should issue an access token and store the hash of a refresh token")
+    void shouldIssueTokens_WhenPasswordMatches() {
+        //given
+        when(userRepository.findByEmail(USER.getEmail())).thenReturn(Optional.of(USER));
+
+        //when
+        AuthTokens authTokens = authService.login(new AuthLoginDTO(USER.getEmail(), PASSWORD, true)).join();
+
+        //then
+        assertEquals(USER.getId(), authService.authenticate(authTokens.accessToken()).userId());
+        ArgumentCaptor<RefreshToken> refreshTokenCaptor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(refreshTokenCaptor.capture());
+        RefreshToken storedToken = refreshTokenCaptor.getValue();
+        assertEquals(USER.getId(), storedToken.getUserId());
+        assertNotEquals(authTokens.refreshToken(), storedToken.getTokenHash());
+        assertEquals(authTokens.refreshTokenExpiresAt(), storedToken.getExpiresAt());
+        assertEquals(true, storedToken.isRememberMe());
+    }
+
+    @Test
+    @DisplayName("when the password does not match should throw U005 and issue no tokens")
+    void shouldThrowU005_WhenPasswordDoesNotMatch() {
+        //given
+        when(userRepository.findByEmail(USER.getEmail())).thenReturn(Optional.of(USER));
+
+        //when
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authService.login(new AuthLoginDTO(USER.getEmail(), "Password2@", false)).join());
+
+        //then
+        AppRuntimeException cause = assertInstanceOf(AppRuntimeException.class, exception.getCause());
+        assertEquals(ErrorCode.U005.getBusinessStatus(), cause.getBusinessStatus());
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    @DisplayName("when the email is unknown should throw U005 like for a wrong password")
+    void shouldThrowU005_WhenEmailIsUnknown() {
+        //given
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+
+        //when
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authService.login(new AuthLoginDTO("nobody@server.com", PASSWORD, false)).join());
+
+        //then
+        AppRuntimeException cause = assertInstanceOf(AppRuntimeException.class, exception.getCause());
+        assertEquals(ErrorCode.U005.getBusinessStatus(), cause.getBusinessStatus());
+    }
+
+    @Test
+    @DisplayName("when a refresh token is used should replace it with a new one")
+    void shouldRotateRefreshToken_WhenRefreshTokenIsUsed() {
+        //given
+        RefreshToken storedToken = new RefreshToken(7L, USER.getId(), "hash", false,
+                Instant.now().plus(1, ChronoUnit.HOURS));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(storedToken));
+        when(refreshTokenRepository.deleteAndCountById(7L)).thenReturn(1);
+
+        //when
+        AuthTokens authTokens = authService.refresh("refresh-token");
+
+        //then
+        assertEquals(USER.getId(), authService.authenticate(authTokens.accessToken()).userId());
+        assertNotEquals("refresh-token", authTokens.refreshToken());
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+    }
+
+    @Test
+    @DisplayName("when a refresh token was already used by a concurrent refresh should throw U007")
+    void shouldThrowU007_WhenRefreshTokenWasAlreadyUsed() {
+        //given
+        RefreshToken storedToken = new RefreshToken(7L, USER.getId(), "hash", false,
+                Instant.now().plus(1, ChronoUnit.HOURS));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(storedToken));
+        when(refreshTokenRepository.deleteAndCountById(7L)).thenReturn(0);
+
+        //when
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> authService.refresh("refresh-token"));
+
+        //then
+        assertEquals(ErrorCode.U007.getBusinessStatus(), exception.getBusinessStatus());
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    @DisplayName("when a refresh token has expired should throw U007")
+    void shouldThrowU007_WhenRefreshTokenHasExpired() {
+        //given
+        RefreshToken storedToken = new RefreshToken(7L, USER.getId(), "hash", false,
+                Instant.now().minus(1, ChronoUnit.MINUTES));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(storedToken));
+
+        //when
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> authService.refresh("refresh-token"));
+
+        //then
+        assertEquals(ErrorCode.U007.getBusinessStatus(), exception.getBusinessStatus());
+        verify(refreshTokenRepository, never()).deleteAndCountById(anyLong());
+    }
+
+    @Test
+    @DisplayName("when a user logs out should reject the access token at once")
+    void shouldThrowU006_WhenAccessTokenWasRevokedByLogout() {
+        //given
+        when(userRepository.findByEmail(USER.getEmail())).thenReturn(Optional.of(USER));
+        AuthTokens authTokens = authService.login(new AuthLoginDTO(USER.getEmail(), PASSWORD, false)).join();
+
+        //when
+        authService.logout(null, authTokens.accessToken());
+
+        //then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> authService.authenticate(authTokens.accessToken()));
+        assertEquals(ErrorCode.U006.getBusinessStatus(), exception.getBusinessStatus());
+        verify(revokedAccessTokenRepository).save(any(RevokedAccessToken.class));
+    }
+
+    @Test
+    @DisplayName("when another instance revoked an access token should reject it after the refresh")
+    void shouldThrowU006_WhenAccessTokenWasRevokedByAnotherInstance() {
+        //given
+        when(userRepository.findByEmail(USER.getEmail())).thenReturn(Optional.of(USER));
+        AuthTokens authTokens = authService.login(new AuthLoginDTO(USER.getEmail(), PASSWORD, false)).join();
+        AccessTokenClaims claims = authService.authenticate(authTokens.accessToken());
+        when(revokedAccessTokenRepository.findAllByExpiresAtAfter(any(Instant.class)))
+                .thenReturn(List.of(new RevokedAccessToken(claims.jti(), Instant.ofEpochSecond(claims.exp()))));
+
+        //when
+        revokedAccessTokenCache.refresh();
+
+        //then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> authService.authenticate(authTokens.accessToken()));
+        assertEquals(ErrorCode.U006.getBusinessStatus(), exception.getBusinessStatus());
+    }
+}
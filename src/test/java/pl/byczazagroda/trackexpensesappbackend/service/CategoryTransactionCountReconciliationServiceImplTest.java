@@ -0,0 +1,75 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryTransactionCountReconciliationServiceImplTest {
+
+    @Mock
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Mock
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CategoryTransactionCountReconciliationServiceImpl categoryTransactionCountReconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        categoryTransactionCountReconciliationService = new CategoryTransactionCountReconciliationServiceImpl(
+                financialTransactionCategoryRepository, financialTransactionRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("when stored counters differ from the transactions should correct only the drifted categories")
+    void shouldCorrectDriftedCategories_WhenStoredCountersDifferFromTransactions() {
+        //given
+        when(financialTransactionCategoryRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(financialTransactionCategoryRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(createCategory(1L, 4L)));
+        when(financialTransactionCategoryRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(createCategory(2L, 9L)));
+        // deleted after the ids were read
+        when(financialTransactionCategoryRepository.findByIdForUpdate(3L)).thenReturn(Optional.empty());
+        when(financialTransactionRepository.countFinancialTransactionsByFinancialTransactionCategoryId(1L))
+                .thenReturn(BigInteger.valueOf(4));
+        when(financialTransactionRepository.countFinancialTransactionsByFinancialTransactionCategoryId(2L))
+                .thenReturn(BigInteger.valueOf(7));
+
+        //when
+        int driftedCategories = categoryTransactionCountReconciliationService.reconcileTransactionCounts();
+
+        //then
+        assertEquals(1, driftedCategories);
+        verify(financialTransactionCategoryRepository).setTransactionCount(2L, 7L);
+        verify(financialTransactionCategoryRepository, never()).setTransactionCount(eq(1L), anyLong());
+        verify(financialTransactionRepository, never()).countFinancialTransactionsByFinancialTransactionCategoryId(3L);
+    }
+
+    private static FinancialTransactionCategory createCategory(Long id, Long transactionCount) {
+        return FinancialTransactionCategory.builder()
+                .id(id)
+                .transactionCount(transactionCount)
+                .build();
+    }
+}
@@ -57,6 +57,9 @@ public class FTCategoryUpdateServiceImplTest {
     @Mock
     private FinancialTransactionCategoryModelMapper mapper;
 
+    @Mock
+    private FinancialTransactionCategoryCache financialTransactionCategoryCache;
+
     @InjectMocks
     private FinancialTransactionCategoryServiceImpl service;
 
@@ -66,7 +69,7 @@ public class FTCategoryUpdateServiceImplTest {
         when(repository.findById(VALID_ID)).thenReturn(Optional.of(VALID_CATEGORY));
         when(mapper.mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(any())).thenReturn(VALID_CATEGORY_DTO);
         FinancialTransactionCategoryDTO dto
-                = service.updateFinancialTransactionCategory(VALID_ID, VALID_UPDATE_CATEGORY_DTO);
+                = service.updateFinancialTransactionCategory(VALID_ID, VALID_UPDATE_CATEGORY_DTO, null);
         assertEquals(dto, VALID_CATEGORY_DTO);
     }
 
@@ -76,7 +79,7 @@ public class FTCategoryUpdateServiceImplTest {
         when(repository.findById(INVALID_ID)).thenReturn(empty());
         AppRuntimeException exception = assertThrows(
                 AppRuntimeException.class,
-                () -> service.updateFinancialTransactionCategory(INVALID_ID, VALID_UPDATE_CATEGORY_DTO)
+                () -> service.updateFinancialTransactionCategory(INVALID_ID, VALID_UPDATE_CATEGORY_DTO, null)
         );
         assertEquals(ErrorCode.FTC001.getBusinessStatusCode(), exception.getBusinessStatusCode());
         verify(repository, never()).save(any());
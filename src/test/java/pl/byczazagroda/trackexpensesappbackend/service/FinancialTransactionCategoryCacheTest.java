@@ -0,0 +1,203 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionCategoryModelMapper;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.repository.CacheVersionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.EXPENSE;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.INCOME;
+
+@ExtendWith(MockitoExtension.class)
+class FinancialTransactionCategoryCacheTest {
+
+    private static final FinancialTransactionCategoryDTO FOOD = new FinancialTransactionCategoryDTO(1L, "food", EXPENSE);
+
+    private static final FinancialTransactionCategoryDTO SALARY = new FinancialTransactionCategoryDTO(2L, "salary", INCOME);
+
+    @Mock
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Mock
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Mock
+    private FinancialTransactionCategoryModelMapper financialTransactionCategoryModelMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FinancialTransactionCategoryCache financialTransactionCategoryCache;
+
+    @BeforeEach
+    void setUp() {
+        financialTransactionCategoryCache = new FinancialTransactionCategoryCache(financialTransactionCategoryRepository,
+                cacheVersionRepository, financialTransactionCategoryModelMapper, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("when categories are looked up repeatedly should load them once and count the hits")
+    void shouldLoadCategoriesOnce_WhenLookedUpRepeatedly() {
+        //given
+        when(cacheVersionRepository.findVersionByName(FinancialTransactionCategoryCache.CACHE_NAME))
+                .thenReturn(Optional.of(3L));
+        when(financialTransactionCategoryRepository.findAllFinancialTransactionCategoryDTOs())
+                .thenReturn(List.of(FOOD, SALARY));
+
+        //when
+        Optional<FinancialTransactionCategoryDTO> food = financialTransactionCategoryCache.findById(1L);
+        Optional<FinancialTransactionCategoryDTO> salary = financialTransactionCategoryCache.findById(2L);
+        List<FinancialTransactionCategoryDTO> all = financialTransactionCategoryCache.findAll();
+
+        //then
+        assertEquals(Optional.of(FOOD), food);
+        assertEquals(Optional.of(SALARY), salary);
+        assertEquals(List.of(FOOD, SALARY), all);
+        assertEquals(new FinancialTransactionCategoryCacheStatistics(3L, 2, 3, 0),
+                financialTransactionCategoryCache.getStatistics());
+        verify(financialTransactionCategoryRepository, times(1)).findAllFinancialTransactionCategoryDTOs();
+    }
+
+    @Test
+    @DisplayName("when an unknown id is looked up should check the row and reload only if it exists")
+    void shouldReloadOnlyForExistingCategory_WhenIdIsNotInSnapshot() {
+        //given
+        FinancialTransactionCategory created = new FinancialTransactionCategory("salary", INCOME);
+        when(cacheVersionRepository.findVersionByName(FinancialTransactionCategoryCache.CACHE_NAME))
+                .thenReturn(Optional.of(1L), Optional.of(2L));
+        when(financialTransactionCategoryRepository.findAllFinancialTransactionCategoryDTOs())
+                .thenReturn(List.of(FOOD), List.of(FOOD, SALARY));
+        when(financialTransactionCategoryRepository.findById(9L)).thenReturn(Optional.empty());
+        when(financialTransactionCategoryRepository.findById(2L)).thenReturn(Optional.of(created));
+        when(financialTransactionCategoryModelMapper
+                .mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(created)).thenReturn(SALARY);
+
+        //when
+        Optional<FinancialTransactionCategoryDTO> unknown = financialTransactionCategoryCache.findById(9L);
+        Optional<FinancialTransactionCategoryDTO> createdElsewhere = financialTransactionCategoryCache.findById(2L);
+        Optional<FinancialTransactionCategoryDTO> cached = financialTransactionCategoryCache.findById(2L);
+
+        //then
+        assertTrue(unknown.isEmpty());
+        assertEquals(Optional.of(SALARY), createdElsewhere);
+        assertEquals(Optional.of(SALARY), cached);
+        assertEquals(new FinancialTransactionCategoryCacheStatistics(2L, 2, 1, 2),
+                financialTransactionCategoryCache.getStatistics());
+        verify(financialTransactionCategoryRepository, times(2)).findAllFinancialTransactionCategoryDTOs();
+    }
+
+    @Test
+    @DisplayName("when names are looked up by a prefix should match it ignoring case from the snapshot")
+    void shouldMatchPrefixIgnoringCase_WhenNamesAreLookedUpByPrefix() {
+        //given
+        FinancialTransactionCategoryDTO fuel = new FinancialTransactionCategoryDTO(3L, "Fuel", EXPENSE);
+        when(cacheVersionRepository.findVersionByName(FinancialTransactionCategoryCache.CACHE_NAME))
+                .thenReturn(Optional.of(1L));
+        when(financialTransactionCategoryRepository.findAllFinancialTransactionCategoryDTOs())
+                .thenReturn(List.of(SALARY, fuel, FOOD));
+
+        //when
+        List<NameSuggestionDTO> suggestions = financialTransactionCategoryCache.findByNamePrefix("FU", 10);
+        List<NameSuggestionDTO> limited = financialTransactionCategoryCache.findByNamePrefix("f", 1);
+
+        //then
+        assertEquals(List.of(new NameSuggestionDTO(3L, "Fuel")), suggestions);
+        assertEquals(List.of(new NameSuggestionDTO(1L, "food")), limited);
+        verify(financialTransactionCategoryRepository, times(1)).findAllFinancialTransactionCategoryDTOs();
+    }
+
+    @Test
+    @DisplayName("when the version in the database did not change should keep the snapshot")
+    void shouldKeepSnapshot_WhenVersionDidNotChange() {
+        //given
+        when(cacheVersionRepository.findVersionByName(FinancialTransactionCategoryCache.CACHE_NAME))
+                .thenReturn(Optional.of(5L));
+        when(financialTransactionCategoryRepository.findAllFinancialTransactionCategoryDTOs())
+                .thenReturn(List.of(FOOD));
+        financialTransactionCategoryCache.findAll();
+
+        //when
+        financialTransactionCategoryCache.checkVersion();
+
+        //then
+        verify(financialTransactionCategoryRepository, times(1)).findAllFinancialTransactionCategoryDTOs();
+    }
+
+    @Test
+    @DisplayName("when another instance changed the categories should reload on the version check")
+    void shouldReloadSnapshot_WhenVersionChanged() {
+        //given
+        when(cacheVersionRepository.findVersionByName(FinancialTransactionCategoryCache.CACHE_NAME))
+                .thenReturn(Optional.of(5L), Optional.of(6L));
+        when(financialTransactionCategoryRepository.findAllFinancialTransactionCategoryDTOs())
+                .thenReturn(List.of(FOOD), List.of(SALARY));
+        financialTransactionCategoryCache.findAll();
+
+        //when
+        financialTransactionCategoryCache.checkVersion();
+
+        //then
+        assertEquals(List.of(SALARY), financialTransactionCategoryCache.findAll());
+        assertEquals(6L, financialTransactionCategoryCache.getStatistics().version());
+    }
+
+    @Test
+    @DisplayName("when the snapshot was never loaded the version check should not load it")
+    void shouldNotLoadSnapshot_WhenCheckingVersionBeforeFirstUse() {
+        //when
+        financialTransactionCategoryCache.checkVersion();
+
+        //then
+        verify(cacheVersionRepository, never()).findVersionByName(FinancialTransactionCategoryCache.CACHE_NAME);
+        verify(financialTransactionCategoryRepository, never()).findAllFinancialTransactionCategoryDTOs();
+    }
+
+    @Test
+    @DisplayName("when categories are changed should increment the version and reload after the commit")
+    void shouldIncrementVersionAndReloadAfterCommit_WhenCategoriesChanged() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        when(cacheVersionRepository.findVersionByName(FinancialTransactionCategoryCache.CACHE_NAME))
+                .thenReturn(Optional.of(8L));
+        when(financialTransactionCategoryRepository.findAllFinancialTransactionCategoryDTOs())
+                .thenReturn(List.of(FOOD));
+
+        //when
+        financialTransactionCategoryCache.categoriesChanged();
+
+        //then
+        verify(cacheVersionRepository).incrementVersion(FinancialTransactionCategoryCache.CACHE_NAME);
+        verify(financialTransactionCategoryRepository, never()).findAllFinancialTransactionCategoryDTOs();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(new FinancialTransactionCategoryCacheStatistics(8L, 1, 0, 0),
+                financialTransactionCategoryCache.getStatistics());
+    }
+}
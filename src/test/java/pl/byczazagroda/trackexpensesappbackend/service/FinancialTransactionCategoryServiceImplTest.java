@@ -15,16 +15,16 @@ import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionCatego
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
 import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
 import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
-import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,7 +50,10 @@ public class FinancialTransactionCategoryServiceImplTest {
     private FinancialTransactionCategoryModelMapper financialTransactionCategoryModelMapper;
 
     @Mock
-    private FinancialTransactionRepository financialTransactionRepository;
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @Mock
+    private FinancialTransactionCategoryCache financialTransactionCategoryCache;
 
     @DisplayName("create financial transaction category when valid parameters are provided")
     @Test
@@ -82,25 +85,13 @@ public class FinancialTransactionCategoryServiceImplTest {
     @DisplayName("when finding financial transaction categories should successfully return categoryDTOs list")
     void testReadTransactionCategories_whenExecutingFindAll_thenReturnTransactionCategoriesDTOList() {
         //given
-        FinancialTransactionCategory categoryFirst = new FinancialTransactionCategory("First", FinancialTransactionType.INCOME);
-        FinancialTransactionCategory categorySecond = new FinancialTransactionCategory("Second", FinancialTransactionType.INCOME);
-        FinancialTransactionCategory categoryThird = new FinancialTransactionCategory("Third", FinancialTransactionType.INCOME);
         FinancialTransactionCategoryDTO categoryFirstDTO = new FinancialTransactionCategoryDTO(1L, "First", FinancialTransactionType.INCOME);
         FinancialTransactionCategoryDTO categorySecondDTO = new FinancialTransactionCategoryDTO(2L, "Second", FinancialTransactionType.INCOME);
         FinancialTransactionCategoryDTO categoryThirdDTO = new FinancialTransactionCategoryDTO(3L, "Third", FinancialTransactionType.INCOME);
-        List<FinancialTransactionCategory> categoryList = new ArrayList<>();
-        categoryList.add(categoryFirst);
-        categoryList.add(categorySecond);
-        categoryList.add(categoryThird);
 
         //when
-        when(financialTransactionCategoryRepository.findAll()).thenReturn(categoryList);
-        when(financialTransactionCategoryModelMapper.mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(categoryFirst))
-                .thenReturn(categoryFirstDTO);
-        when(financialTransactionCategoryModelMapper.mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(categorySecond))
-                .thenReturn(categorySecondDTO);
-        when(financialTransactionCategoryModelMapper.mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(categoryThird))
-                .thenReturn(categoryThirdDTO);
+        when(financialTransactionCategoryCache.findAll())
+                .thenReturn(List.of(categoryFirstDTO, categorySecondDTO, categoryThirdDTO));
 
         List<FinancialTransactionCategoryDTO> returnedFinancialTransactionCategoryDTOsList =
                 financialTransactionCategoryService.getFinancialTransactionCategories();
@@ -115,22 +106,27 @@ public class FinancialTransactionCategoryServiceImplTest {
     @DisplayName("when financial transaction category exists should delete it successfully")
     void shouldSuccessfullyDeleteFinancialTransactionCategory_WhenGivenCategoryExists() {
         //when
-        when(financialTransactionCategoryRepository.existsById(anyLong())).thenReturn(true);
+        when(financialTransactionCategoryRepository.deleteFinancialTransactionCategoryById(ID_1L)).thenReturn(1);
         financialTransactionCategoryService.deleteFinancialTransactionCategory(ID_1L);
 
         //then
-        verify(financialTransactionCategoryRepository, times(1)).deleteById(any(Long.class));
+        verify(financialTransactionCategoryRepository, times(1)).deleteFinancialTransactionCategoryById(ID_1L);
+        verify(financialTransactionCategoryRepository, never()).existsById(any(Long.class));
+        verify(monthlyCategoryTotalRepository).addCategoryTotalsToNoCategory(ID_1L);
+        verify(monthlyCategoryTotalRepository).deleteAllByCategoryId(ID_1L);
+        verify(financialTransactionCategoryCache).categoriesChanged();
     }
 
     @Test
     @DisplayName("when financial transaction category doesn't exist should throw an exception")
     void shouldFailToDeleteFinancialTransactionCategory_WhenIdNotExists() {
         //when
-        when(financialTransactionCategoryRepository.existsById(anyLong())).thenReturn(false);
+        when(financialTransactionCategoryRepository.deleteFinancialTransactionCategoryById(anyLong())).thenReturn(0);
 
         //then
         Assertions.assertThrows(AppRuntimeException.class,
                 () -> financialTransactionCategoryService.deleteFinancialTransactionCategory(ID_1L));
+        verify(financialTransactionCategoryCache, never()).categoriesChanged();
     }
 
     @Test
@@ -143,6 +139,7 @@ public class FinancialTransactionCategoryServiceImplTest {
         financialTransactionCategory.setId(id);
         financialTransactionCategory.setName("example name");
         financialTransactionCategory.setType(FinancialTransactionType.INCOME);
+        financialTransactionCategory.setTransactionCount(5L);
         BigInteger numberOfFinancialTransactions = BigInteger.valueOf(5);
 
         FinancialTransactionCategoryDTO financialTransactionCategoryDTO =
@@ -150,8 +147,6 @@ public class FinancialTransactionCategoryServiceImplTest {
 
         //when
         when(financialTransactionCategoryRepository.findById(id)).thenReturn(Optional.of(financialTransactionCategory));
-        when(financialTransactionRepository.countFinancialTransactionsByFinancialTransactionCategoryId(id))
-                .thenReturn(numberOfFinancialTransactions);
         when(financialTransactionCategoryModelMapper
                 .mapFinancialTransactionCategoryEntityToFinancialTransactionCategoryDTO(financialTransactionCategory))
                 .thenReturn(financialTransactionCategoryDTO);
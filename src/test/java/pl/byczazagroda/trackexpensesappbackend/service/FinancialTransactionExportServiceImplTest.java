@@ -0,0 +1,139 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.mapper.FinancialTransactionModelMapper;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.EXPENSE;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.INCOME;
+
+@ExtendWith(MockitoExtension.class)
+class FinancialTransactionExportServiceImplTest {
+
+    private static final long ID_1L = 1L;
+
+    private static final long ID_2L = 2L;
+
+    private static final Instant DATE = Instant.parse("2023-02-19T09:47:52Z");
+
+    @Mock
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Mock
+    private FinancialTransactionModelMapper financialTransactionModelMapper;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FinancialTransactionExportServiceImpl financialTransactionExportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        financialTransactionExportService = new FinancialTransactionExportServiceImpl(financialTransactionRepository,
+                financialTransactionModelMapper, walletRepository, entityManager, transactionManager, objectMapper);
+    }
+
+    @Test
+    @DisplayName("when wallet does not exist should throw an exception before anything is streamed")
+    void shouldThrowAnException_WhenWalletDoesNotExist() {
+        //given
+        when(walletRepository.existsActiveById(ID_1L)).thenReturn(false);
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionExportService
+                        .exportFinancialTransactionsByWalletId(ID_1L, FinancialTransactionExportFormat.CSV));
+        assertEquals(ErrorCode.W003.getBusinessStatus(), exception.getBusinessStatus());
+        verify(financialTransactionRepository, never()).streamAllByWalletId(ID_1L);
+    }
+
+    @Test
+    @DisplayName("when exporting as csv should write header and one escaped line per transaction")
+    void shouldWriteCsvLines_WhenExportingAsCsv() throws Exception {
+        //given
+        givenTransactions(new FinancialTransactionDTO(ID_1L, BigDecimal.TEN, "rent, march", EXPENSE, DATE, 3L),
+                new FinancialTransactionDTO(ID_2L, new BigDecimal("1500.50"), null, INCOME, DATE, null));
+
+        //when
+        String result = export(FinancialTransactionExportFormat.CSV);
+
+        //then
+        assertEquals("""
+                id,transaction_type,amount,transaction_date,description,financial_transaction_category_id
+                1,EXPENSE,10,2023-02-19T09:47:52Z,"rent, march",3
+                2,INCOME,1500.50,2023-02-19T09:47:52Z,,
+                """, result);
+    }
+
+    @Test
+    @DisplayName("when exporting as ndjson should write one json object per line")
+    void shouldWriteJsonLines_WhenExportingAsNdjson() throws Exception {
+        //given
+        givenTransactions(new FinancialTransactionDTO(ID_1L, BigDecimal.TEN, "rent", EXPENSE, DATE, 3L),
+                new FinancialTransactionDTO(ID_2L, BigDecimal.ONE, "salary", INCOME, DATE, null));
+
+        //when
+        String result = export(FinancialTransactionExportFormat.NDJSON);
+
+        //then
+        assertEquals("""
+                {"id":1,"amount":10,"description":"rent","type":"EXPENSE","date":"2023-02-19T09:47:52Z","categoryId":3}
+                {"id":2,"amount":1,"description":"salary","type":"INCOME","date":"2023-02-19T09:47:52Z","categoryId":null}
+                """, result);
+    }
+
+    private void givenTransactions(FinancialTransactionDTO first, FinancialTransactionDTO second) {
+        FinancialTransaction firstEntity = FinancialTransaction.builder().id(first.id()).build();
+        FinancialTransaction secondEntity = FinancialTransaction.builder().id(second.id()).build();
+        when(walletRepository.existsActiveById(ID_1L)).thenReturn(true);
+        when(financialTransactionRepository.streamAllByWalletId(ID_1L)).thenReturn(Stream.of(firstEntity, secondEntity));
+        when(financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(firstEntity))
+                .thenReturn(first);
+        when(financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(secondEntity))
+                .thenReturn(second);
+    }
+
+    private String export(FinancialTransactionExportFormat format) throws Exception {
+        StreamingResponseBody body = financialTransactionExportService.exportFinancialTransactionsByWalletId(ID_1L, format);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+        verify(entityManager, times(2)).detach(any());
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
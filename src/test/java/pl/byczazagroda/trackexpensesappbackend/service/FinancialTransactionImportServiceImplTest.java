@@ -0,0 +1,306 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionImportJobDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransaction;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionCategory;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionImportStatus;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.EXPENSE;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.INCOME;
+
+@ExtendWith(MockitoExtension.class)
+class FinancialTransactionImportServiceImplTest {
+
+    private static final long WALLET_ID = 1L;
+
+    private static final String HEADER = "id,wallet_id,transaction_type,amount,transaction_date,description,financial_transaction_category_id";
+
+    @Mock
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Mock
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @Mock
+    private FinancialTransactionCategoryCache financialTransactionCategoryCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path tempDir;
+
+    private FinancialTransactionImportServiceImpl financialTransactionImportService;
+
+    @BeforeEach
+    void setUp() {
+        financialTransactionImportService = new FinancialTransactionImportServiceImpl(financialTransactionRepository,
+                walletRepository, financialTransactionCategoryRepository, monthlyCategoryTotalRepository,
+                financialTransactionCategoryCache, new WalletCache(), entityManager, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(financialTransactionImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(financialTransactionImportService, "jdbcBatchSize", 50);
+        ReflectionTestUtils.setField(financialTransactionImportService, "maxReportedRejections", 100);
+        lenient().when(walletRepository.lockActiveById(WALLET_ID)).thenReturn(Optional.of(WALLET_ID));
+        lenient().when(walletRepository.addToBalance(eq(WALLET_ID), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    @DisplayName("when the file is valid should import all lines in chunks, each in its own transaction")
+    void shouldImportAllLinesInChunks_WhenFileIsValid() throws IOException {
+        //given
+        FinancialTransactionImportJob job = new FinancialTransactionImportJob(WALLET_ID, 100);
+        Path importFile = writeImportFile(HEADER,
+                "1,1,INCOME,15000,2022-02-19T09:47:52.595721658,\"\",\"\"",
+                "2,1,EXPENSE,50.5,2022-02-19T09:47:52Z,null,null",
+                "3,1,expense,12,2022-02-20,\"rent, \"\"March\"\"\",");
+
+        //when
+        financialTransactionImportService.runImport(job, importFile);
+
+        //then
+        FinancialTransactionImportJobDTO jobDTO = job.toDTO();
+        assertEquals(FinancialTransactionImportStatus.COMPLETED, jobDTO.status());
+        assertEquals(3, jobDTO.processedLines());
+        assertEquals(3, jobDTO.importedTransactions());
+        assertEquals(0, jobDTO.rejectedLines());
+        verify(transactionManager, times(2)).commit(any());
+        ArgumentCaptor<FinancialTransaction> captor = ArgumentCaptor.forClass(FinancialTransaction.class);
+        verify(entityManager, times(3)).persist(captor.capture());
+        FinancialTransaction third = captor.getAllValues().get(2);
+        assertEquals(EXPENSE, third.getType());
+        assertEquals("rent, \"March\"", third.getDescription());
+        assertEquals(Instant.parse("2022-02-20T00:00:00Z"), third.getDate());
+        assertEquals(64, third.getImportHash().length());
+        assertFalse(Files.exists(importFile));
+    }
+
+    @Test
+    @DisplayName("when lines are invalid should reject them with line numbers and import the rest")
+    void shouldRejectInvalidLines_WhenLinesAreInvalid() throws IOException {
+        //given
+        FinancialTransactionImportJob job = new FinancialTransactionImportJob(WALLET_ID, 100);
+        FinancialTransactionCategoryDTO incomeCategory = new FinancialTransactionCategoryDTO(4L, "salary", INCOME);
+        when(financialTransactionCategoryCache.findById(4L)).thenReturn(Optional.of(incomeCategory));
+        when(financialTransactionCategoryCache.findById(9L)).thenReturn(Optional.empty());
+        when(financialTransactionCategoryRepository.addToTransactionCount(4L, 1)).thenReturn(1);
+        Path importFile = writeImportFile(HEADER,
+                "1,1,EXPENSE,abc,2022-02-19T09:47:52Z,,",
+                "2,1,EXPENSE,-5,2022-02-19T09:47:52Z,,",
+                "3,1,EXPENSE,5,2022-02-19T09:47:52Z,,4",
+                "4,1,EXPENSE,5,2022-02-19T09:47:52Z,,9",
+                "5,1,INCOME,5,2022-02-19T09:47:52Z,,4");
+
+        //when
+        financialTransactionImportService.runImport(job, importFile);
+
+        //then
+        FinancialTransactionImportJobDTO jobDTO = job.toDTO();
+        assertEquals(FinancialTransactionImportStatus.COMPLETED, jobDTO.status());
+        assertEquals(5, jobDTO.processedLines());
+        assertEquals(1, jobDTO.importedTransactions());
+        assertEquals(4, jobDTO.rejectedLines());
+        assertEquals(List.of(2L, 3L, 4L, 5L), jobDTO.rejections().stream().map(r -> r.lineNumber()).toList());
+        assertEquals(List.of("TEA003", "TEA003", "FT002", "FTC001"),
+                jobDTO.rejections().stream().map(r -> r.errorStatus()).toList());
+        verify(financialTransactionCategoryCache, times(1)).findById(4L);
+    }
+
+    @Test
+    @DisplayName("when lines were imported before should skip them as duplicates")
+    void shouldSkipDuplicates_WhenLinesWereImportedBefore() throws IOException {
+        //given
+        FinancialTransactionImportJob job = new FinancialTransactionImportJob(WALLET_ID, 100);
+        Path firstImportFile = writeImportFile(HEADER, "1,1,EXPENSE,5.00,2022-02-19T09:47:52Z,shop,");
+        financialTransactionImportService.runImport(job, firstImportFile);
+        ArgumentCaptor<FinancialTransaction> captor = ArgumentCaptor.forClass(FinancialTransaction.class);
+        verify(entityManager).persist(captor.capture());
+        String importHash = captor.getValue().getImportHash();
+
+        ReflectionTestUtils.setField(financialTransactionImportService, "chunkSize", 3);
+        FinancialTransactionImportJob secondJob = new FinancialTransactionImportJob(WALLET_ID, 100);
+        when(financialTransactionRepository.findImportHashesByWalletId(eq(WALLET_ID), anyCollection()))
+                .thenReturn(List.of(importHash));
+        Path secondImportFile = writeImportFile(HEADER,
+                "1,1,EXPENSE,5,2022-02-19T09:47:52Z,shop,",
+                "2,1,EXPENSE,7,2022-02-19T09:47:52Z,shop,",
+                "3,1,EXPENSE,7,2022-02-19T09:47:52Z,shop,");
+
+        //when
+        financialTransactionImportService.runImport(secondJob, secondImportFile);
+
+        //then
+        FinancialTransactionImportJobDTO jobDTO = secondJob.toDTO();
+        assertEquals(1, jobDTO.importedTransactions());
+        assertEquals(2, jobDTO.skippedDuplicates());
+        verify(entityManager, times(2)).persist(any(FinancialTransaction.class));
+    }
+
+    @Test
+    @DisplayName("when a chunk is written should lock the wallet before looking up duplicates")
+    void shouldLockWalletBeforeLookingUpDuplicates_WhenChunkIsWritten() throws IOException {
+        //given
+        FinancialTransactionImportJob job = new FinancialTransactionImportJob(WALLET_ID, 100);
+        Path importFile = writeImportFile(HEADER, "1,1,EXPENSE,5,2022-02-19T09:47:52Z,shop,");
+
+        //when
+        financialTransactionImportService.runImport(job, importFile);
+
+        //then
+        InOrder inOrder = inOrder(walletRepository, financialTransactionRepository);
+        inOrder.verify(walletRepository).lockActiveById(WALLET_ID);
+        inOrder.verify(financialTransactionRepository).findImportHashesByWalletId(eq(WALLET_ID), anyCollection());
+        inOrder.verify(walletRepository).addToBalance(eq(WALLET_ID), any(), any());
+    }
+
+    @Test
+    @DisplayName("when the wallet is queued for deletion during the import should reject the lines of the chunk")
+    void shouldRejectLinesOfChunk_WhenWalletIsQueuedForDeletion() throws IOException {
+        //given
+        FinancialTransactionImportJob job = new FinancialTransactionImportJob(WALLET_ID, 100);
+        when(walletRepository.lockActiveById(WALLET_ID)).thenReturn(Optional.empty());
+        Path importFile = writeImportFile(HEADER, "1,1,EXPENSE,5,2022-02-19T09:47:52Z,shop,");
+
+        //when
+        financialTransactionImportService.runImport(job, importFile);
+
+        //then
+        FinancialTransactionImportJobDTO jobDTO = job.toDTO();
+        assertEquals(0, jobDTO.importedTransactions());
+        assertEquals(1, jobDTO.rejectedLines());
+        verify(financialTransactionRepository, never()).findImportHashesByWalletId(any(), anyCollection());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    @DisplayName("when a chunk fails should reject only the lines of that chunk")
+    void shouldRejectOnlyLinesOfChunk_WhenChunkFails() throws IOException {
+        //given
+        FinancialTransactionImportJob job = new FinancialTransactionImportJob(WALLET_ID, 100);
+        when(financialTransactionRepository.findImportHashesByWalletId(eq(WALLET_ID), anyCollection()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(List.of());
+        Path importFile = writeImportFile(HEADER,
+                "1,1,EXPENSE,1,2022-02-19T09:47:52Z,,",
+                "2,1,EXPENSE,2,2022-02-19T09:47:52Z,,",
+                "3,1,EXPENSE,3,2022-02-19T09:47:52Z,,");
+
+        //when
+        financialTransactionImportService.runImport(job, importFile);
+
+        //then
+        FinancialTransactionImportJobDTO jobDTO = job.toDTO();
+        assertEquals(FinancialTransactionImportStatus.COMPLETED, jobDTO.status());
+        assertEquals(1, jobDTO.importedTransactions());
+        assertEquals(2, jobDTO.rejectedLines());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("when the header misses required columns should fail the job")
+    void shouldFailJob_WhenHeaderMissesRequiredColumns() throws IOException {
+        //given
+        FinancialTransactionImportJob job = new FinancialTransactionImportJob(WALLET_ID, 100);
+        Path importFile = writeImportFile("id,amount,description", "1,5,shop");
+
+        //when
+        financialTransactionImportService.runImport(job, importFile);
+
+        //then
+        FinancialTransactionImportJobDTO jobDTO = job.toDTO();
+        assertEquals(FinancialTransactionImportStatus.FAILED, jobDTO.status());
+        assertEquals("Import file header misses columns: transaction_type, transaction_date", jobDTO.failureMessage());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    @DisplayName("when the uploaded file is empty should throw an exception")
+    void shouldThrowAnException_WhenUploadedFileIsEmpty() {
+        //given
+        MockMultipartFile file = new MockMultipartFile("file", new byte[0]);
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionImportService.importFinancialTransactions(WALLET_ID, file));
+        assertEquals(ErrorCode.FT006.getBusinessMessage(), exception.getBusinessMessage());
+    }
+
+    @Test
+    @DisplayName("when the wallet does not exist should throw an exception")
+    void shouldThrowAnException_WhenWalletDoesNotExist() {
+        //given
+        MockMultipartFile file = new MockMultipartFile("file", HEADER.getBytes(StandardCharsets.UTF_8));
+        when(walletRepository.existsActiveById(WALLET_ID)).thenReturn(false);
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionImportService.importFinancialTransactions(WALLET_ID, file));
+        assertEquals(ErrorCode.W003.getBusinessMessage(), exception.getBusinessMessage());
+    }
+
+    @Test
+    @DisplayName("when the import job does not exist should throw an exception")
+    void shouldThrowAnException_WhenImportJobDoesNotExist() {
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionImportService.findImportJob(WALLET_ID, UUID.randomUUID()));
+        assertEquals(ErrorCode.FT007.getBusinessMessage(), exception.getBusinessMessage());
+    }
+
+    private Path writeImportFile(String... lines) throws IOException {
+        Path importFile = Files.createTempFile(tempDir, "import-", ".csv");
+        Files.write(importFile, List.of(lines), StandardCharsets.UTF_8);
+        return importFile;
+    }
+}
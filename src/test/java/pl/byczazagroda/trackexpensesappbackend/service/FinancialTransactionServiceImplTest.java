@@ -2,17 +2,29 @@ package pl.byczazagroda.trackexpensesappbackend.service;
 
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionAmountDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionBatchItemDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCategoryDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionCreateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionFilterDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionPageDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchHitDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionSearchOrder;
 import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionUpdateDTO;
 import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
@@ -24,11 +36,14 @@ import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
 import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
 
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import javax.validation.Validator;
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,7 +54,9 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOf
 import static org.junit.Assert.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.atMostOnce;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -61,6 +78,8 @@ class FinancialTransactionServiceImplTest {
 
     private static final String DESCRIPTION = "Description";
 
+    private static final FinancialTransactionFilterDTO NO_FILTER = FinancialTransactionFilterDTO.none();
+
     @Mock
     private ErrorStrategy errorStrategy;
 
@@ -79,32 +98,53 @@ class FinancialTransactionServiceImplTest {
     @Mock
     private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
 
+    @Mock
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @Mock
+    private FinancialTransactionCategoryCache financialTransactionCategoryCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private WalletCache walletCache = new WalletCache();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(financialTransactionService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(financialTransactionService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(financialTransactionService, "maxBatchItems", 5000);
+        ReflectionTestUtils.setField(financialTransactionService, "jdbcBatchSize", 50);
+    }
 
     @Test
     @DisplayName("When financial transaction type and financial transaction category type are different throw AppRuntimeException")
     void testCreateFinancialTransaction_WhenTransactionTypeDoesNotMatchCategoryType_ThenThrowAppRunTimeException() {
         //given
         FinancialTransactionCreateDTO ftCreateDTO = createFinancialTransactionCreateDTO();
-        Wallet wallet = new Wallet();
-        when(walletRepository.findById(any())).thenReturn(Optional.of(wallet));
-        FinancialTransaction ft = createEntityFinancialTransaction();
-        when(financialTransactionRepository.save(any())).thenReturn(ft);
-        FinancialTransactionDTO ftDTO = createFinancialTransactionDTO();
-        when(financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(any()))
-                .thenReturn(ftDTO);
-        FinancialTransactionCategory ftCategory = createFinancialTransactionCategory(INCOME);
-        when(financialTransactionCategoryRepository.findById(any())).thenReturn(Optional.of(ftCategory));
+        FinancialTransactionCategoryDTO ftCategory = createFinancialTransactionCategoryDTO(INCOME);
+        when(financialTransactionCategoryCache.findById(any())).thenReturn(Optional.of(ftCategory));
 
         //when & then
         AppRuntimeException exception = assertThrows(
                 AppRuntimeException.class,
                 () -> financialTransactionService.createFinancialTransaction(ftCreateDTO));
         assertEquals(ErrorCode.FT002.getBusinessStatusCode(), exception.getBusinessStatusCode());
+        verify(walletRepository, never()).addToBalance(any(), any(), any());
     }
 
     @NotNull
     private FinancialTransactionCategory createFinancialTransactionCategory(FinancialTransactionType type) {
-        return new FinancialTransactionCategory(ID_1L, "Category name", type, DATE_NOW, null);
+        return new FinancialTransactionCategory(ID_1L, "Category name", type, DATE_NOW, 0L, 0L, null);
+    }
+
+    @NotNull
+    private FinancialTransactionCategoryDTO createFinancialTransactionCategoryDTO(FinancialTransactionType type) {
+        return new FinancialTransactionCategoryDTO(ID_1L, "Category name", type);
     }
 
     @Test
@@ -112,7 +152,9 @@ class FinancialTransactionServiceImplTest {
     void testCreateFinancialTransaction_WhenWalletNotFound_ThenThrowWalletException() {
         //given
         FinancialTransactionCreateDTO financialTransactionCreateDTO = createFinancialTransactionCreateDTO();
-        when(walletRepository.findById(any())).thenReturn(Optional.empty());
+        when(financialTransactionCategoryCache.findById(ID_1L))
+                .thenReturn(Optional.of(createFinancialTransactionCategoryDTO(EXPENSE)));
+        when(walletRepository.addToBalance(ID_1L, BigDecimal.ZERO, ONE)).thenReturn(0);
 
         //when & then
         AppRuntimeException exception = assertThrows(
@@ -121,6 +163,7 @@ class FinancialTransactionServiceImplTest {
         );
         assertEquals(ErrorCode.W003.getBusinessStatusCode(), exception.getBusinessStatusCode());
         verify(walletRepository, never()).save(any());
+        verify(financialTransactionRepository, never()).save(any());
     }
 
     @Test
@@ -129,15 +172,15 @@ class FinancialTransactionServiceImplTest {
         //given
         FinancialTransactionCreateDTO financialTransactionCreateDTO = new FinancialTransactionCreateDTO(
                 ID_1L, ONE, EMPTY, DATE_NOW, EXPENSE, ID_1L);
-        Wallet wallet = new Wallet();
-        when(walletRepository.findById(any())).thenReturn(Optional.of(wallet));
+        when(walletRepository.addToBalance(ID_1L, BigDecimal.ZERO, ONE)).thenReturn(1);
+        when(financialTransactionCategoryRepository.addToTransactionCount(ID_1L, 1)).thenReturn(1);
         FinancialTransaction financialTransaction = createEntityFinancialTransaction();
         when(financialTransactionRepository.save(any())).thenReturn(financialTransaction);
         FinancialTransactionDTO financialTransactionDTO = createFinancialTransactionDTO();
         when(financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(any()))
                 .thenReturn(financialTransactionDTO);
-        FinancialTransactionCategory financialTransactionCategory = createFinancialTransactionCategory(EXPENSE);
-        when(financialTransactionCategoryRepository.findById(any())).thenReturn(Optional.of(financialTransactionCategory));
+        FinancialTransactionCategoryDTO financialTransactionCategory = createFinancialTransactionCategoryDTO(EXPENSE);
+        when(financialTransactionCategoryCache.findById(any())).thenReturn(Optional.of(financialTransactionCategory));
 
         //when
         FinancialTransactionDTO result = financialTransactionService
@@ -147,19 +190,39 @@ class FinancialTransactionServiceImplTest {
         assertAll(() -> assertEquals(financialTransactionDTO, result), () -> assertEquals(financialTransactionDTO.id(),
                 result.id()));
         verify(financialTransactionRepository, atMostOnce()).save(any());
-        verify(walletRepository, atMostOnce()).findById(any());
+        verify(walletRepository, never()).findById(any());
+        verify(walletRepository).getReferenceById(ID_1L);
         verify(financialTransactionModelMapper, atMostOnce())
                 .mapFinancialTransactionEntityToFinancialTransactionDTO(any());
     }
 
+    @Test
+    @DisplayName("when category was deleted after it was cached should throw AppRuntimeException")
+    void testCreateFinancialTransaction_WhenCachedCategoryWasDeleted_ThenThrowAppRuntimeException() {
+        //given
+        FinancialTransactionCreateDTO financialTransactionCreateDTO = createFinancialTransactionCreateDTO();
+        when(financialTransactionCategoryCache.findById(ID_1L))
+                .thenReturn(Optional.of(createFinancialTransactionCategoryDTO(EXPENSE)));
+        when(walletRepository.addToBalance(ID_1L, BigDecimal.ZERO, ONE)).thenReturn(1);
+        when(financialTransactionCategoryRepository.addToTransactionCount(ID_1L, 1)).thenReturn(0);
+
+        //when & then
+        AppRuntimeException exception = assertThrows(
+                AppRuntimeException.class,
+                () -> financialTransactionService.createFinancialTransaction(financialTransactionCreateDTO)
+        );
+        assertEquals(ErrorCode.FTC001.getBusinessStatusCode(), exception.getBusinessStatusCode());
+        verify(financialTransactionRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("create financial transaction with empty description")
     void testCreateFinancialTransaction_WhenDescriptionIsEmpty_ThenCreateFinancialTransaction() {
         //given
         FinancialTransactionCreateDTO financialTransactionCreateDTO = new FinancialTransactionCreateDTO(
                 ID_1L, ONE, EMPTY, DATE_NOW, EXPENSE, ID_1L);
-        Wallet wallet = new Wallet();
-        when(walletRepository.findById(any())).thenReturn(Optional.of(wallet));
+        when(walletRepository.addToBalance(ID_1L, BigDecimal.ZERO, ONE)).thenReturn(1);
+        when(financialTransactionCategoryRepository.addToTransactionCount(ID_1L, 1)).thenReturn(1);
         FinancialTransaction financialTransaction = createEntityFinancialTransaction();
         financialTransaction.setDescription(EMPTY);
         financialTransaction.setAmount(ONE);
@@ -168,8 +231,8 @@ class FinancialTransactionServiceImplTest {
                 new FinancialTransactionDTO(ID_1L, ONE, EMPTY, EXPENSE, DATE_NOW, ID_1L);
         when(financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(any()))
                 .thenReturn(financialTransactionDTO);
-        FinancialTransactionCategory financialTransactionCategory = createFinancialTransactionCategory(EXPENSE);
-        when(financialTransactionCategoryRepository.findById(any())).thenReturn(Optional.of(financialTransactionCategory));
+        FinancialTransactionCategoryDTO financialTransactionCategory = createFinancialTransactionCategoryDTO(EXPENSE);
+        when(financialTransactionCategoryCache.findById(any())).thenReturn(Optional.of(financialTransactionCategory));
 
         //when
         FinancialTransactionDTO result = financialTransactionService
@@ -185,6 +248,108 @@ class FinancialTransactionServiceImplTest {
                 .mapFinancialTransactionEntityToFinancialTransactionDTO(any());
     }
 
+    @Test
+    @DisplayName("when a category of the batch was deleted after it was cached should throw AppRuntimeException")
+    void shouldThrowAnException_WhenCachedCategoryOfBatchWasDeleted() {
+        //given
+        Wallet wallet = new Wallet();
+        wallet.setId(ID_1L);
+        List<FinancialTransactionCreateDTO> ftCreateDTOs = List.of(
+                new FinancialTransactionCreateDTO(ID_1L, TEN, DESCRIPTION, DATE_NOW, EXPENSE, ID_1L));
+        when(walletRepository.lockActiveById(ID_1L)).thenReturn(Optional.of(ID_1L));
+        when(walletRepository.getReferenceById(ID_1L)).thenReturn(wallet);
+        when(financialTransactionCategoryCache.findById(ID_1L))
+                .thenReturn(Optional.of(createFinancialTransactionCategoryDTO(EXPENSE)));
+        when(financialTransactionCategoryRepository.addToTransactionCount(ID_1L, 1)).thenReturn(0);
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionService.createFinancialTransactions(ftCreateDTOs));
+        assertEquals(ErrorCode.FTC001.getBusinessStatusCode(), exception.getBusinessStatusCode());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    @DisplayName("when creating a batch should persist valid items and report the rejected ones with their error")
+    void shouldPersistValidItemsAndRejectInvalidOnes_WhenCreatingBatch() {
+        //given
+        Wallet wallet = new Wallet();
+        wallet.setId(ID_1L);
+        FinancialTransactionCategoryDTO ftCategory = createFinancialTransactionCategoryDTO(EXPENSE);
+        List<FinancialTransactionCreateDTO> ftCreateDTOs = List.of(
+                new FinancialTransactionCreateDTO(ID_1L, TEN, DESCRIPTION, DATE_NOW, EXPENSE, ID_1L),
+                new FinancialTransactionCreateDTO(ID_2L, TEN, DESCRIPTION, DATE_NOW, EXPENSE, null),
+                new FinancialTransactionCreateDTO(ID_1L, TEN, DESCRIPTION, DATE_NOW, INCOME, ID_1L),
+                new FinancialTransactionCreateDTO(ID_1L, TEN, DESCRIPTION, DATE_NOW, null, null),
+                new FinancialTransactionCreateDTO(ID_1L, TEN, DESCRIPTION, DATE_NOW, EXPENSE, ID_10L));
+        when(walletRepository.lockActiveById(ID_1L)).thenReturn(Optional.of(ID_1L));
+        when(walletRepository.getReferenceById(ID_1L)).thenReturn(wallet);
+        when(financialTransactionCategoryCache.findById(ID_1L)).thenReturn(Optional.of(ftCategory));
+        when(financialTransactionCategoryCache.findById(ID_10L)).thenReturn(Optional.empty());
+        when(financialTransactionCategoryRepository.addToTransactionCount(ID_1L, 1)).thenReturn(1);
+        FinancialTransactionDTO ftDTO = createFinancialTransactionDTO();
+        when(financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(any()))
+                .thenReturn(ftDTO);
+
+        //when
+        List<FinancialTransactionBatchItemDTO> result = financialTransactionService.createFinancialTransactions(ftCreateDTOs);
+
+        //then
+        assertAll(() -> assertEquals(new FinancialTransactionBatchItemDTO(0, ftDTO, null, null), result.get(0)),
+                () -> assertEquals(ErrorCode.W003.getBusinessStatus(), result.get(1).errorStatus()),
+                () -> assertEquals(ErrorCode.FT002.getBusinessStatus(), result.get(2).errorStatus()),
+                () -> assertEquals(ErrorCode.TEA003.getBusinessStatus(), result.get(3).errorStatus()),
+                () -> assertEquals(ErrorCode.FTC001.getBusinessStatus(), result.get(4).errorStatus()));
+        verify(entityManager, Mockito.times(1)).persist(any());
+        verify(entityManager, Mockito.times(1)).flush();
+        verify(walletRepository, never()).findById(any());
+        verify(walletRepository).addToBalance(ID_1L, BigDecimal.ZERO, TEN);
+    }
+
+    @Test
+    @DisplayName("when a wallet of the batch is queued for deletion should reject its items without writing to it")
+    void shouldRejectItemsOfWalletQueuedForDeletion_WhenCreatingBatch() {
+        //given
+        Wallet wallet = new Wallet();
+        wallet.setId(ID_1L);
+        List<FinancialTransactionCreateDTO> ftCreateDTOs = List.of(
+                new FinancialTransactionCreateDTO(ID_2L, TEN, DESCRIPTION, DATE_NOW, EXPENSE, null),
+                new FinancialTransactionCreateDTO(ID_1L, TEN, DESCRIPTION, DATE_NOW, EXPENSE, null));
+        when(walletRepository.lockActiveById(ID_1L)).thenReturn(Optional.of(ID_1L));
+        when(walletRepository.getReferenceById(ID_1L)).thenReturn(wallet);
+        when(walletRepository.lockActiveById(ID_2L)).thenReturn(Optional.empty());
+        when(financialTransactionModelMapper.mapFinancialTransactionEntityToFinancialTransactionDTO(any()))
+                .thenReturn(createFinancialTransactionDTO());
+
+        //when
+        List<FinancialTransactionBatchItemDTO> result = financialTransactionService.createFinancialTransactions(ftCreateDTOs);
+
+        //then
+        assertEquals(ErrorCode.W003.getBusinessStatus(), result.get(0).errorStatus());
+        assertNull(result.get(1).errorStatus());
+        InOrder inOrder = Mockito.inOrder(walletRepository);
+        inOrder.verify(walletRepository).lockActiveById(ID_1L);
+        inOrder.verify(walletRepository).lockActiveById(ID_2L);
+        inOrder.verify(walletRepository).addToBalance(ID_1L, BigDecimal.ZERO, TEN);
+        verify(walletRepository, never()).addToBalance(Mockito.eq(ID_2L), any(), any());
+        verify(entityManager, Mockito.times(1)).persist(any());
+    }
+
+    @Test
+    @DisplayName("when batch has more items than the limit should throw AppRuntimeException")
+    void shouldThrowAnException_WhenBatchExceedsItemLimit() {
+        //given
+        ReflectionTestUtils.setField(financialTransactionService, "maxBatchItems", 1);
+        List<FinancialTransactionCreateDTO> ftCreateDTOs =
+                List.of(createFinancialTransactionCreateDTO(), createFinancialTransactionCreateDTO());
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionService.createFinancialTransactions(ftCreateDTOs));
+        assertEquals(ErrorCode.FT005.getBusinessStatus(), exception.getBusinessStatus());
+        verify(entityManager, never()).persist(any());
+    }
+
     @Test
     @DisplayName("do not update financial transaction without valid id and throw AppRuntimeException")
     void shouldThrowExceptionWhenUpdatingFinancialTransactionWithInvalidId() {
@@ -195,7 +360,7 @@ class FinancialTransactionServiceImplTest {
         //when & then
         AppRuntimeException exception = assertThrows(
                 AppRuntimeException.class,
-                () -> financialTransactionService.updateFinancialTransaction(ID_1L, updateDTO)
+                () -> financialTransactionService.updateFinancialTransaction(ID_1L, updateDTO, null)
         );
         assertEquals(ErrorCode.FT001.getBusinessStatusCode(), exception.getBusinessStatusCode());
         assertEquals(ErrorCode.FT001.getBusinessMessage(), exception.getBusinessMessage());
@@ -212,6 +377,7 @@ class FinancialTransactionServiceImplTest {
         FinancialTransaction financialTransaction = createEntityFinancialTransaction();
         financialTransaction.setDescription(EMPTY);
         financialTransaction.setAmount(ONE);
+        financialTransaction.setWallet(Wallet.builder().id(ID_1L).build());
 
         FinancialTransactionDTO financialTransactionDTO
                 = new FinancialTransactionDTO(ID_1L, TEN, DESCRIPTION, EXPENSE, DATE_NOW, null);
@@ -227,7 +393,7 @@ class FinancialTransactionServiceImplTest {
         //when
         FinancialTransactionDTO result
                     = financialTransactionService
-                    .updateFinancialTransaction(ID_1L,updateDTO);
+                    .updateFinancialTransaction(ID_1L, updateDTO, null);
 
         //then
         assertAll(
@@ -240,52 +406,184 @@ class FinancialTransactionServiceImplTest {
         verify(financialTransactionRepository, atMostOnce()).findById(any());
         verify(financialTransactionModelMapper, atMostOnce())
                 .mapFinancialTransactionEntityToFinancialTransactionDTO(any());
+        verify(walletRepository).addToBalance(ID_1L, BigDecimal.ZERO, BigDecimal.valueOf(9));
+    }
+
+    @Test
+    @DisplayName("when the new category was deleted after it was cached should throw AppRuntimeException")
+    void shouldThrowAnException_WhenCachedCategoryOfUpdateWasDeleted() {
+        //given
+        FinancialTransaction financialTransaction = createEntityFinancialTransaction();
+        financialTransaction.setAmount(TEN);
+        financialTransaction.setWallet(Wallet.builder().id(ID_1L).build());
+        FinancialTransactionCategoryDTO newCategory = new FinancialTransactionCategoryDTO(ID_2L, "Other category", EXPENSE);
+        when(financialTransactionRepository.findById(ID_1L)).thenReturn(Optional.of(financialTransaction));
+        when(financialTransactionCategoryCache.findById(ID_2L)).thenReturn(Optional.of(newCategory));
+        when(financialTransactionCategoryRepository.addToTransactionCount(ID_2L, 1)).thenReturn(0);
+        FinancialTransactionUpdateDTO updateDTO = new FinancialTransactionUpdateDTO(TEN, DATE_NOW, DESCRIPTION, EXPENSE, ID_2L);
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionService.updateFinancialTransaction(ID_1L, updateDTO, null));
+        assertEquals(ErrorCode.FTC001.getBusinessStatusCode(), exception.getBusinessStatusCode());
+    }
+
+    @Test
+    @DisplayName("when financial transaction is moved to another category should move it between category counters")
+    void shouldMoveTransactionBetweenCategoryCounters_WhenCategoryIsChanged() {
+        //given
+        FinancialTransaction financialTransaction = createEntityFinancialTransaction();
+        financialTransaction.setAmount(TEN);
+        financialTransaction.setWallet(Wallet.builder().id(ID_1L).build());
+        financialTransaction.setFinancialTransactionCategory(createFinancialTransactionCategory(EXPENSE));
+        FinancialTransactionCategoryDTO newCategory = new FinancialTransactionCategoryDTO(ID_2L, "Other category", EXPENSE);
+        when(financialTransactionRepository.findById(ID_1L)).thenReturn(Optional.of(financialTransaction));
+        when(financialTransactionCategoryCache.findById(ID_2L)).thenReturn(Optional.of(newCategory));
+        when(financialTransactionCategoryRepository.addToTransactionCount(ID_2L, 1)).thenReturn(1);
+
+        //when
+        financialTransactionService.updateFinancialTransaction(ID_1L,
+                new FinancialTransactionUpdateDTO(TEN, DATE_NOW, DESCRIPTION, EXPENSE, ID_2L), null);
+
+        //then
+        verify(financialTransactionCategoryRepository).addToTransactionCount(ID_1L, -1);
+        verify(financialTransactionCategoryRepository).addToTransactionCount(ID_2L, 1);
+        // the totals stay the same, the update only increments the wallet's version
+        verify(walletRepository).addToBalance(ID_1L, BigDecimal.ZERO, BigDecimal.ZERO);
     }
 
     @Test
     @DisplayName("when finding with proper wallet transaction id should successfully find transactions")
     void shouldSuccessfullyFindFinancialTransactions_WhenWalletIdIsGiven() {
         //given
-        FinancialTransaction financialTransaction1 = createEntityFinancialTransaction();
         FinancialTransactionDTO financialTransactionDTO1 = createFinancialTransactionDTO();
-
-        FinancialTransaction financialTransaction2 = createEntityFinancialTransaction();
-        financialTransaction2.setId(ID_2L);
-
         FinancialTransactionDTO financialTransactionDTO2 =
                 new FinancialTransactionDTO(ID_2L, BigDecimal.ONE, "desc",
                         FinancialTransactionType.EXPENSE, DATE_NOW, null);
 
-        List<FinancialTransaction> financialTransactionsList = new ArrayList<>();
-        financialTransactionsList.add(financialTransaction1);
-        financialTransactionsList.add(financialTransaction2);
+        //when
+        when(walletRepository.existsActiveById(ID_1L)).thenReturn(true);
+        when(financialTransactionRepository.findAllByWalletIdAndFilter(any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(financialTransactionDTO1, financialTransactionDTO2));
 
-        Wallet wallet = new Wallet("Random wallet");
-        wallet.setId(ID_1L);
-        wallet.setCreationDate(DATE_NOW);
+        FinancialTransactionPageDTO returnedFinancialTransactionPageDTO =
+                financialTransactionService.getFinancialTransactionsByWalletId(ID_1L, NO_FILTER, null, null);
+        List<FinancialTransactionDTO> returnedFinancialTransactionDTOsList =
+                returnedFinancialTransactionPageDTO.financialTransactions();
 
-        financialTransaction1.setWallet(wallet);
-        financialTransaction2.setWallet(wallet);
+        //then
+        Assertions.assertEquals(returnedFinancialTransactionDTOsList.get(0), financialTransactionDTO1);
+        Assertions.assertEquals(returnedFinancialTransactionDTOsList.get(1), financialTransactionDTO2);
+        Assertions.assertNull(returnedFinancialTransactionPageDTO.nextCursor());
+        verify(financialTransactionModelMapper, never()).mapFinancialTransactionEntityToFinancialTransactionDTO(any());
+    }
 
-        wallet.setFinancialTransactionList(financialTransactionsList);
+    @Test
+    @DisplayName("when wallet has more transactions than page size should return next cursor pointing at the last one")
+    void shouldReturnNextCursor_WhenWalletHasMoreTransactionsThanPageSize() {
+        //given
+        FinancialTransactionDTO financialTransactionDTO1 = createFinancialTransactionDTO();
+        FinancialTransactionDTO financialTransactionDTO2 =
+                new FinancialTransactionDTO(ID_2L, ONE, DESCRIPTION, EXPENSE, DATE_NOW, null);
 
         //when
-        when(walletRepository.existsById(ID_1L)).thenReturn(true);
-        when(financialTransactionRepository.findAllByWalletIdOrderByDateDesc(ID_1L))
-                .thenReturn(financialTransactionsList);
-        when(financialTransactionModelMapper
-                .mapFinancialTransactionEntityToFinancialTransactionDTO(financialTransaction1))
-                .thenReturn(financialTransactionDTO1);
-        when(financialTransactionModelMapper
-                .mapFinancialTransactionEntityToFinancialTransactionDTO(financialTransaction2))
-                .thenReturn(financialTransactionDTO2);
+        when(walletRepository.existsActiveById(ID_1L)).thenReturn(true);
+        when(financialTransactionRepository.findAllByWalletIdAndFilter(ID_1L, NO_FILTER, null, null, 2))
+                .thenReturn(List.of(financialTransactionDTO1, financialTransactionDTO2));
+        FinancialTransactionPageDTO firstPage =
+                financialTransactionService.getFinancialTransactionsByWalletId(ID_1L, NO_FILTER, null, 1);
 
-        List<FinancialTransactionDTO> returnedFinancialTransactionDTOsList =
-                financialTransactionService.getFinancialTransactionsByWalletId(ID_1L);
+        when(financialTransactionRepository.findAllByWalletIdAndFilter(ID_1L, NO_FILTER, DATE_NOW, ID_1L, 2))
+                .thenReturn(List.of(financialTransactionDTO2));
+        FinancialTransactionPageDTO secondPage =
+                financialTransactionService.getFinancialTransactionsByWalletId(ID_1L, NO_FILTER, firstPage.nextCursor(), 1);
 
         //then
-        Assertions.assertEquals(returnedFinancialTransactionDTOsList.get(0), financialTransactionDTO1);
-        Assertions.assertEquals(returnedFinancialTransactionDTOsList.get(1), financialTransactionDTO2);
+        assertAll(() -> assertEquals(1, firstPage.financialTransactions().size()),
+                () -> Assertions.assertNotNull(firstPage.nextCursor()),
+                () -> assertEquals(1, secondPage.financialTransactions().size()),
+                () -> Assertions.assertNull(secondPage.nextCursor()));
+    }
+
+    @Test
+    @DisplayName("when filter is given should pass it to the repository together with the page position")
+    void shouldPassFilterToRepository_WhenFilterIsGiven() {
+        //given
+        FinancialTransactionFilterDTO filter = new FinancialTransactionFilterDTO(DATE_NOW.minusSeconds(60), DATE_NOW,
+                ONE, TEN, EXPENSE, ID_2L);
+        String cursor = new FinancialTransactionCursor(DATE_NOW, ID_10L).encode();
+
+        //when
+        when(walletRepository.existsActiveById(ID_1L)).thenReturn(true);
+        when(financialTransactionRepository.findAllByWalletIdAndFilter(ID_1L, filter, DATE_NOW, ID_10L, 21))
+                .thenReturn(List.of());
+        FinancialTransactionPageDTO page = financialTransactionService.getFinancialTransactionsByWalletId(ID_1L,
+                filter, cursor, null);
+
+        //then
+        verify(financialTransactionRepository).findAllByWalletIdAndFilter(ID_1L, filter, DATE_NOW, ID_10L, 21);
+        assertEquals(0, page.financialTransactions().size());
+        Assertions.assertNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("when search has more matches than page size should continue after the score of the last one")
+    void shouldContinueAfterScoreOfLastHit_WhenSearchHasMoreMatchesThanPageSize() {
+        //given
+        FinancialTransactionSearchDTO search = new FinancialTransactionSearchDTO("netflix", null, ID_1L,
+                null, null, FinancialTransactionSearchOrder.RELEVANCE);
+        FinancialTransactionSearchHitDTO hit1 = new FinancialTransactionSearchHitDTO(createFinancialTransactionDTO(), 900_000L);
+        FinancialTransactionSearchHitDTO hit2 = new FinancialTransactionSearchHitDTO(
+                new FinancialTransactionDTO(ID_2L, ONE, DESCRIPTION, EXPENSE, DATE_NOW, null), 400_000L);
+
+        //when
+        when(financialTransactionRepository.searchByDescription(search, null, null, null, 2))
+                .thenReturn(List.of(hit1, hit2));
+        FinancialTransactionPageDTO firstPage = financialTransactionService.searchFinancialTransactions(search, null, 1);
+
+        when(financialTransactionRepository.searchByDescription(search, 900_000L, null, ID_1L, 2))
+                .thenReturn(List.of(hit2));
+        FinancialTransactionPageDTO secondPage =
+                financialTransactionService.searchFinancialTransactions(search, firstPage.nextCursor(), 1);
+
+        //then
+        assertAll(() -> assertEquals(List.of(hit1.financialTransaction()), firstPage.financialTransactions()),
+                () -> Assertions.assertNotNull(firstPage.nextCursor()),
+                () -> assertEquals(List.of(hit2.financialTransaction()), secondPage.financialTransactions()),
+                () -> Assertions.assertNull(secondPage.nextCursor()));
+    }
+
+    @Test
+    @DisplayName("when search is scoped by neither or both of wallet and user should throw AppRuntimeException")
+    void shouldThrowAnException_WhenSearchScopeIsInvalid() {
+        //given
+        FinancialTransactionSearchDTO unscoped = new FinancialTransactionSearchDTO("netflix", null, null,
+                null, null, null);
+        FinancialTransactionSearchDTO doublyScoped = new FinancialTransactionSearchDTO("netflix", ID_1L, ID_1L,
+                null, null, null);
+
+        //when & then
+        AppRuntimeException unscopedException = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionService.searchFinancialTransactions(unscoped, null, null));
+        AppRuntimeException doublyScopedException = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionService.searchFinancialTransactions(doublyScoped, null, null));
+        assertEquals(ErrorCode.FT008.getBusinessStatusCode(), unscopedException.getBusinessStatusCode());
+        assertEquals(ErrorCode.FT008.getBusinessStatusCode(), doublyScopedException.getBusinessStatusCode());
+        verify(financialTransactionRepository, never()).searchByDescription(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("when page cursor is malformed should throw AppRuntimeException")
+    void shouldThrowAnException_WhenPageCursorIsMalformed() {
+        //given
+
+        //when
+        when(walletRepository.existsActiveById(ID_1L)).thenReturn(true);
+
+        //then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionService.getFinancialTransactionsByWalletId(ID_1L, NO_FILTER, "not-a-cursor", null));
+        assertEquals(ErrorCode.FT003.getBusinessStatus(), exception.getBusinessStatus());
     }
 
 
@@ -328,10 +626,62 @@ class FinancialTransactionServiceImplTest {
         //given
 
         //when
-        when(financialTransactionRepository.existsById(ID_1L)).thenReturn(false);
+        when(financialTransactionRepository.findFinancialTransactionAmountDTOById(ID_1L)).thenReturn(Optional.empty());
 
         //then
         Assertions.assertThrows(AppRuntimeException.class, () -> financialTransactionService.deleteTransactionById(ID_1L));
+        verify(financialTransactionRepository, never()).deleteFinancialTransactionByIdAndVersion(any(), any());
+    }
+
+    @Test
+    @DisplayName("when financial transaction was changed or deleted concurrently after it was read should throw an exception")
+    void shouldThrowAnException_WhenTransactionWasChangedConcurrently() {
+        //given
+        when(financialTransactionRepository.findFinancialTransactionAmountDTOById(ID_1L)).thenReturn(Optional.of(
+                new FinancialTransactionAmountDTO(ID_1L, ID_2L, EXPENSE, TEN, DATE_NOW, null, 3L)));
+        when(financialTransactionRepository.deleteFinancialTransactionByIdAndVersion(ID_1L, 3L)).thenReturn(0);
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> financialTransactionService.deleteTransactionById(ID_1L));
+        assertEquals(ErrorCode.TEA007.getBusinessStatus(), exception.getBusinessStatus());
+    }
+
+    @Test
+    @DisplayName("when deleting financial transaction should subtract its amount from the wallet before deleting it")
+    void shouldSubtractAmountFromWalletBalance_WhenTransactionIsDeleted() {
+        //given
+        when(financialTransactionRepository.findFinancialTransactionAmountDTOById(ID_1L)).thenReturn(Optional.of(
+                new FinancialTransactionAmountDTO(ID_1L, ID_2L, EXPENSE, TEN, DATE_NOW, ID_1L, 3L)));
+        when(financialTransactionRepository.deleteFinancialTransactionByIdAndVersion(ID_1L, 3L)).thenReturn(1);
+
+        //when
+        financialTransactionService.deleteTransactionById(ID_1L);
+
+        //then
+        InOrder inOrder = Mockito.inOrder(walletRepository, financialTransactionRepository);
+        inOrder.verify(walletRepository).addToBalance(ID_2L, BigDecimal.ZERO, TEN.negate());
+        verify(financialTransactionCategoryRepository).addToTransactionCount(ID_1L, -1);
+        inOrder.verify(financialTransactionRepository).deleteFinancialTransactionByIdAndVersion(ID_1L, 3L);
+        verify(financialTransactionRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("when creating financial transaction should add its amount to the wallet before saving it")
+    void shouldAddAmountToWalletBalance_WhenTransactionIsCreated() {
+        //given
+        FinancialTransactionCreateDTO ftCreateDTO = new FinancialTransactionCreateDTO(ID_1L, TEN, DESCRIPTION,
+                DATE_NOW, INCOME, null);
+        when(walletRepository.addToBalance(ID_1L, TEN, BigDecimal.ZERO)).thenReturn(1);
+        when(financialTransactionRepository.save(any())).thenReturn(createEntityFinancialTransaction());
+
+        //when
+        financialTransactionService.createFinancialTransaction(ftCreateDTO);
+
+        //then
+        InOrder inOrder = Mockito.inOrder(walletRepository, financialTransactionRepository);
+        inOrder.verify(walletRepository).addToBalance(ID_1L, TEN, BigDecimal.ZERO);
+        inOrder.verify(financialTransactionRepository).save(any());
     }
 
     private FinancialTransaction createEntityFinancialTransaction() {
@@ -1,22 +1,30 @@
 package pl.byczazagroda.trackexpensesappbackend.service;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 import pl.byczazagroda.trackexpensesappbackend.dto.AuthRegisterDTO;
 import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.model.User;
 import pl.byczazagroda.trackexpensesappbackend.repository.UserRepository;
 
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -40,12 +48,23 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     private UserServiceImpl userService;
 
     @BeforeEach
     public void setUp() {
         Mockito.reset(userRepository);
+        passwordHashingExecutor = new PasswordHashingExecutor();
+        ReflectionTestUtils.setField(passwordHashingExecutor, "threads", 1);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "queueCapacity", 1);
+        passwordHashingExecutor.startExecutor();
+        userService = new UserServiceImpl(userRepository, new BCryptPasswordEncoder(4), passwordHashingExecutor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingExecutor.stopExecutor();
     }
 
     @DisplayName("A valid password should return a hash of the correct length")
@@ -72,7 +91,7 @@ public class UserServiceImplTest {
                 .existsByEmail(anyString()))
                 .thenReturn(false);
 
-        assertDoesNotThrow(() -> userService.registerUser(REGISTER_DTO));
+        assertDoesNotThrow(() -> userService.registerUser(REGISTER_DTO).join());
 
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(userCaptor.capture());
@@ -113,4 +132,51 @@ public class UserServiceImplTest {
         assertEquals(ErrorCode.U004.getBusinessMessage(), exception.getMessage());
         verify(userRepository, never()).save(any(User.class));
     }
+
+    @DisplayName("When the same email is registered concurrently, the unique index violation should be reported as U001")
+    @Test
+    public void testRegisterUser_whenEmailSavedConcurrently_thenThrowException() {
+        when(userRepository
+                .existsByEmail(anyString()))
+                .thenReturn(false);
+        when(userRepository
+                .save(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'uq_users_email'"));
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> userService.registerUser(REGISTER_DTO).join());
+        AppRuntimeException cause = assertInstanceOf(AppRuntimeException.class, exception.getCause());
+        assertEquals(ErrorCode.U001.getBusinessMessage(), cause.getMessage());
+    }
+
+    @DisplayName("When the hashing queue is full, an AppRuntimeException (TEA005) should be thrown at once")
+    @Test
+    public void testRegisterUser_whenHashingQueueIsFull_thenThrowException() {
+        when(userRepository
+                .existsByEmail(anyString()))
+                .thenReturn(false);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // one task occupies the only thread, another the only place in the queue
+            passwordHashingExecutor.supplyAsync(() -> await(release));
+            passwordHashingExecutor.supplyAsync(() -> await(release));
+
+            AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                    () -> userService.registerUser(REGISTER_DTO));
+            assertEquals(ErrorCode.TEA005.getBusinessMessage(), exception.getMessage());
+            assertEquals(1, passwordHashingExecutor.getRejections());
+            verify(userRepository, never()).save(any(User.class));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static Boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 }
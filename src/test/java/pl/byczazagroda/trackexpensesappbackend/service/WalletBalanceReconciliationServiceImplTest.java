@@ -0,0 +1,102 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionTotalDTO;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.EXPENSE;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.INCOME;
+
+@ExtendWith(MockitoExtension.class)
+class WalletBalanceReconciliationServiceImplTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WalletBalanceReconciliationServiceImpl walletBalanceReconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        walletBalanceReconciliationService = new WalletBalanceReconciliationServiceImpl(walletRepository,
+                financialTransactionRepository, transactionManager, new WalletCache());
+        ReflectionTestUtils.setField(walletBalanceReconciliationService, "chunkSize", CHUNK_SIZE);
+    }
+
+    @Test
+    @DisplayName("when stored totals differ from the transactions should correct only the drifted wallets")
+    void shouldCorrectDriftedWallets_WhenStoredTotalsDifferFromTransactions() {
+        //given
+        Wallet consistent = createWallet(1L, new BigDecimal("100.00"), new BigDecimal("40.00"));
+        Wallet drifted = createWallet(2L, new BigDecimal("10.00"), BigDecimal.ZERO);
+        Wallet empty = createWallet(3L, BigDecimal.ZERO, new BigDecimal("5.00"));
+        PageRequest chunk = PageRequest.ofSize(CHUNK_SIZE);
+        when(walletRepository.findAllByIdGreaterThanForUpdate(0L, chunk)).thenReturn(List.of(consistent, drifted));
+        when(walletRepository.findAllByIdGreaterThanForUpdate(2L, chunk)).thenReturn(List.of(empty));
+        when(walletRepository.findAllByIdGreaterThanForUpdate(3L, chunk)).thenReturn(List.of());
+        when(financialTransactionRepository.sumAmountsByWalletIds(List.of(1L, 2L))).thenReturn(List.of(
+                new FinancialTransactionTotalDTO(1L, INCOME, new BigDecimal("100")),
+                new FinancialTransactionTotalDTO(1L, EXPENSE, new BigDecimal("40")),
+                new FinancialTransactionTotalDTO(2L, INCOME, new BigDecimal("10")),
+                new FinancialTransactionTotalDTO(2L, EXPENSE, new BigDecimal("2.50"))));
+        when(financialTransactionRepository.sumAmountsByWalletIds(List.of(3L))).thenReturn(List.of());
+
+        //when
+        int driftedWallets = walletBalanceReconciliationService.reconcileBalances();
+
+        //then
+        assertEquals(2, driftedWallets);
+        verify(walletRepository).setBalance(2L, new BigDecimal("10"), new BigDecimal("2.50"));
+        verify(walletRepository).setBalance(3L, BigDecimal.ZERO, BigDecimal.ZERO);
+        verify(walletRepository, never()).setBalance(eq(1L), any(), any());
+    }
+
+    @Test
+    @DisplayName("when there are no wallets should not recompute anything")
+    void shouldNotRecompute_WhenThereAreNoWallets() {
+        //given
+        when(walletRepository.findAllByIdGreaterThanForUpdate(anyLong(), any())).thenReturn(List.of());
+
+        //when
+        int driftedWallets = walletBalanceReconciliationService.reconcileBalances();
+
+        //then
+        assertEquals(0, driftedWallets);
+        verify(financialTransactionRepository, never()).sumAmountsByWalletIds(any());
+    }
+
+    private static Wallet createWallet(Long id, BigDecimal incomeTotal, BigDecimal expenseTotal) {
+        return Wallet.builder()
+                .id(id)
+                .incomeTotal(incomeTotal)
+                .expenseTotal(expenseTotal)
+                .build();
+    }
+}
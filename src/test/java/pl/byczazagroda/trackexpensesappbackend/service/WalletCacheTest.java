@@ -0,0 +1,177 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WalletCacheTest {
+
+    private static final WalletDTO WALLET = new WalletDTO(1L, "Savings", Instant.parse("2022-01-01T00:00:00Z"),
+            1L, BigDecimal.TEN, BigDecimal.ONE, BigDecimal.valueOf(9));
+
+    private static final VersionedDTO<WalletDTO> VERSIONED_WALLET = new VersionedDTO<>(WALLET, "3");
+
+    private WalletCache walletCache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        walletCache = new WalletCache();
+        ReflectionTestUtils.setField(walletCache, "enabled", true);
+        ReflectionTestUtils.setField(walletCache, "maximumSize", 2);
+        ReflectionTestUtils.setField(walletCache, "ttlMillis", 60_000L);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("when a wallet is read twice should load it once and count a miss and a hit")
+    void shouldLoadOnce_WhenWalletIsReadTwice() {
+        //when
+        Optional<VersionedDTO<WalletDTO>> first = walletCache.get(1L, this::loadWallet);
+        Optional<VersionedDTO<WalletDTO>> second = walletCache.get(1L, this::loadWallet);
+
+        //then
+        assertEquals(Optional.of(VERSIONED_WALLET), first);
+        assertEquals(Optional.of(VERSIONED_WALLET), second);
+        assertEquals(1, loads.get());
+        WalletCacheStatistics statistics = walletCache.getStatistics();
+        assertEquals(1, statistics.hits());
+        assertEquals(1, statistics.misses());
+        assertEquals(0.5, statistics.hitRate());
+    }
+
+    @Test
+    @DisplayName("when the cache is full should evict the least recently used wallet")
+    void shouldEvictLeastRecentlyUsed_WhenCacheIsFull() {
+        //given
+        walletCache.exists(1L, this::loadExists);
+        walletCache.exists(2L, this::loadExists);
+        walletCache.exists(1L, this::loadExists);
+
+        //when
+        walletCache.exists(3L, this::loadExists);
+        walletCache.exists(1L, this::loadExists);
+        walletCache.exists(2L, this::loadExists);
+
+        //then
+        assertEquals(4, loads.get());
+        assertEquals(2, walletCache.getStatistics().evictions());
+    }
+
+    @Test
+    @DisplayName("when an entry is older than the time to live should load the wallet again")
+    void shouldLoadAgain_WhenEntryExpired() {
+        //given
+        ReflectionTestUtils.setField(walletCache, "ttlMillis", 0L);
+        walletCache.get(1L, this::loadWallet);
+
+        //when
+        busyWaitOneMillisecond();
+        walletCache.get(1L, this::loadWallet);
+
+        //then
+        assertEquals(2, loads.get());
+        assertEquals(1, walletCache.getStatistics().evictions());
+    }
+
+    @Test
+    @DisplayName("when the balance of a wallet changed should keep its existence and load the wallet again")
+    void shouldKeepExistenceAndReloadWallet_WhenBalanceChanged() {
+        //given
+        walletCache.get(1L, this::loadWallet);
+
+        //when
+        walletCache.balanceChanged(1L);
+        boolean exists = walletCache.exists(1L, this::loadExists);
+        walletCache.get(1L, this::loadWallet);
+
+        //then
+        assertTrue(exists);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("when a wallet is invalidated while it is loaded should not store the loaded wallet")
+    void shouldNotStoreLoadedWallet_WhenInvalidatedDuringLoad() {
+        //when
+        walletCache.get(1L, () -> {
+            walletCache.invalidate(1L);
+            return loadWallet();
+        });
+        walletCache.get(1L, this::loadWallet);
+
+        //then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("when the transaction invalidating a wallet commits should drop what was cached before the commit")
+    void shouldDropEntryAgain_WhenInvalidatingTransactionCommits() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        walletCache.invalidate(1L);
+        walletCache.exists(1L, () -> false);
+
+        //when
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        //then
+        assertTrue(walletCache.exists(1L, this::loadExists));
+    }
+
+    @Test
+    @DisplayName("when the cache is disabled should always call the loader")
+    void shouldAlwaysLoad_WhenDisabled() {
+        //given
+        ReflectionTestUtils.setField(walletCache, "enabled", false);
+
+        //when
+        walletCache.get(1L, this::loadWallet);
+        walletCache.get(1L, this::loadWallet);
+
+        //then
+        assertEquals(2, loads.get());
+        assertFalse(walletCache.getStatistics().enabled());
+        assertEquals(0, walletCache.getStatistics().size());
+    }
+
+    private Optional<VersionedDTO<WalletDTO>> loadWallet() {
+        loads.incrementAndGet();
+        return Optional.of(VERSIONED_WALLET);
+    }
+
+    private boolean loadExists() {
+        loads.incrementAndGet();
+        return true;
+    }
+
+    private static void busyWaitOneMillisecond() {
+        long startedAt = System.nanoTime();
+        while (System.nanoTime() - startedAt <= 1_000_000) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -2,19 +2,24 @@ package pl.byczazagroda.trackexpensesappbackend.service;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.controller.AsyncQueryExecutor;
 import pl.byczazagroda.trackexpensesappbackend.controller.WalletController;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorStrategy;
 import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.mapper.WalletModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
 
 import java.time.Instant;
@@ -22,6 +27,8 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Validated
@@ -29,7 +36,9 @@ import static org.mockito.Mockito.when;
         controllers = WalletController.class,
         includeFilters = @ComponentScan.Filter(
                 type = FilterType.ASSIGNABLE_TYPE,
-                classes = {WalletRepository.class, WalletServiceImpl.class}))
+                classes = {WalletRepository.class, WalletServiceImpl.class, WalletCache.class, AsyncQueryExecutor.class}))
+// the mocked repositories do not change between the lookups the way the cache expects
+@TestPropertySource(properties = "application.wallet-cache.enabled=false")
 class WalletDeleteServiceImplTest {
 
     public static final long ID_1L = 1L;
@@ -49,6 +58,15 @@ class WalletDeleteServiceImplTest {
     @MockBean
     private WalletRepository walletRepository;
 
+    @MockBean
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @MockBean
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @MockBean
+    private WalletNameIndex walletNameIndex;
+
     @Autowired
     private WalletServiceImpl walletService;
 
@@ -61,10 +79,32 @@ class WalletDeleteServiceImplTest {
         wallet.setCreationDate(DATE_NOW);
 
         //when
-        when(walletRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        when(walletRepository.lockActiveById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         //then
         assertThatThrownBy(() -> walletService.deleteWalletById(ID_5L)).isInstanceOf(AppRuntimeException.class);
         assertThatExceptionOfType(AppRuntimeException.class).isThrownBy(() -> walletService.deleteWalletById(ID_5L)).withMessage(ErrorCode.W003.getBusinessMessage());
+        verify(walletRepository, never()).deleteWalletById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("when wallet exists should delete it with a single statement after its totals and counters")
+    void shouldDeleteWalletWithSingleStatement_WhenWalletExists() {
+        //given
+        when(walletRepository.lockActiveById(ID_1L)).thenReturn(Optional.of(ID_1L));
+        when(walletRepository.deleteWalletById(ID_1L)).thenReturn(1);
+
+        //when
+        walletService.deleteWalletById(ID_1L);
+
+        //then
+        InOrder inOrder = Mockito.inOrder(walletRepository, monthlyCategoryTotalRepository,
+                financialTransactionCategoryRepository);
+        inOrder.verify(walletRepository).lockActiveById(ID_1L);
+        inOrder.verify(monthlyCategoryTotalRepository).deleteAllByWalletId(ID_1L);
+        inOrder.verify(financialTransactionCategoryRepository).subtractTransactionCountsOfWallet(ID_1L);
+        inOrder.verify(walletRepository).deleteWalletById(ID_1L);
+        verify(walletRepository, never()).findById(Mockito.anyLong());
+        verify(walletRepository, never()).deleteById(Mockito.anyLong());
     }
 }
@@ -0,0 +1,226 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletDeletionJobDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionJob;
+import pl.byczazagroda.trackexpensesappbackend.model.WalletDeletionStatus;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletDeletionJobRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WalletDeletionServiceImplTest {
+
+    private static final Long WALLET_ID = 1L;
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Mock
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @Mock
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @Mock
+    private WalletDeletionJobRepository walletDeletionJobRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WalletNameIndex walletNameIndex;
+
+    private WalletDeletionServiceImpl walletDeletionService;
+
+    @BeforeEach
+    void setUp() {
+        walletDeletionService = new WalletDeletionServiceImpl(walletRepository, financialTransactionRepository,
+                financialTransactionCategoryRepository, monthlyCategoryTotalRepository, walletDeletionJobRepository,
+                transactionManager, walletNameIndex, new WalletCache());
+        ReflectionTestUtils.setField(walletDeletionService, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(walletDeletionService, "batchPauseMillis", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("when deletion of a wallet is requested should hide it and queue the job after the commit")
+    void shouldHideWalletAndQueueJob_WhenDeletionIsRequested() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        when(walletRepository.lockActiveById(WALLET_ID)).thenReturn(Optional.of(WALLET_ID));
+        when(walletDeletionJobRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        WalletDeletionJobDTO deletionJobDTO = walletDeletionService.requestWalletDeletion(WALLET_ID);
+
+        //then
+        assertEquals(WalletDeletionStatus.QUEUED, deletionJobDTO.status());
+        assertEquals(0L, deletionJobDTO.deletedTransactions());
+        verify(walletRepository).markDeletionRequested(any(), any());
+        verify(walletNameIndex).walletRemoved(WALLET_ID);
+        verify(monthlyCategoryTotalRepository).deleteAllByWalletId(WALLET_ID);
+        verify(financialTransactionRepository, never()).deleteFinancialTransactionsByIds(any());
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    @DisplayName("when wallet does not exist and has no failed deletion should throw an exception")
+    void shouldThrowAnException_WhenWalletDoesNotExist() {
+        //given
+        when(walletRepository.lockActiveById(WALLET_ID)).thenReturn(Optional.empty());
+        when(walletDeletionJobRepository.findById(WALLET_ID)).thenReturn(Optional.empty());
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> walletDeletionService.requestWalletDeletion(WALLET_ID));
+        assertEquals(ErrorCode.W003.getBusinessStatusCode(), exception.getBusinessStatusCode());
+        verify(walletRepository, never()).markDeletionRequested(any(), any());
+    }
+
+    @Test
+    @DisplayName("when deletion of a wallet failed before requesting it again should queue the same job")
+    void shouldQueueFailedJobAgain_WhenDeletionIsRequestedAgain() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        WalletDeletionJob failedJob = createJob(WalletDeletionStatus.FAILED, 4L);
+        failedJob.setFailureMessage("Lock wait timeout exceeded");
+        failedJob.setFinishedAt(Instant.now());
+        when(walletRepository.lockActiveById(WALLET_ID)).thenReturn(Optional.empty());
+        when(walletDeletionJobRepository.findById(WALLET_ID)).thenReturn(Optional.of(failedJob));
+
+        //when
+        WalletDeletionJobDTO deletionJobDTO = walletDeletionService.requestWalletDeletion(WALLET_ID);
+
+        //then
+        assertEquals(WalletDeletionStatus.QUEUED, deletionJobDTO.status());
+        assertEquals(4L, deletionJobDTO.deletedTransactions());
+        assertNull(deletionJobDTO.failureMessage());
+        assertNull(deletionJobDTO.finishedAt());
+        verify(walletDeletionJobRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("when wallet is purged should delete its transactions in batches and then the wallet")
+    void shouldDeleteTransactionsInBatchesAndThenWallet_WhenWalletIsPurged() {
+        //given
+        WalletDeletionJob job = createJob(WalletDeletionStatus.QUEUED, 0L);
+        when(walletRepository.lockById(WALLET_ID)).thenReturn(Optional.of(WALLET_ID));
+        when(walletDeletionJobRepository.findById(WALLET_ID)).thenReturn(Optional.of(job));
+        when(financialTransactionRepository.findIdsByWalletId(WALLET_ID, BATCH_SIZE))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(financialTransactionRepository.deleteFinancialTransactionsByIds(List.of(1L, 2L))).thenReturn(2);
+        when(financialTransactionRepository.deleteFinancialTransactionsByIds(List.of(3L))).thenReturn(1);
+
+        //when
+        walletDeletionService.purgeWallet(WALLET_ID);
+
+        //then
+        assertEquals(WalletDeletionStatus.COMPLETED, job.getStatus());
+        assertEquals(3L, job.getDeletedTransactions());
+        assertNotNull(job.getFinishedAt());
+        InOrder inOrder = Mockito.inOrder(financialTransactionCategoryRepository, financialTransactionRepository,
+                walletRepository);
+        inOrder.verify(financialTransactionCategoryRepository).subtractTransactionCountsOfTransactions(List.of(1L, 2L));
+        inOrder.verify(financialTransactionRepository).deleteFinancialTransactionsByIds(List.of(1L, 2L));
+        inOrder.verify(financialTransactionCategoryRepository).subtractTransactionCountsOfTransactions(List.of(3L));
+        inOrder.verify(financialTransactionRepository).deleteFinancialTransactionsByIds(List.of(3L));
+        inOrder.verify(walletRepository).deleteWalletById(WALLET_ID);
+    }
+
+    @Test
+    @DisplayName("when wallet was deleted before a resumed purge should only complete the job")
+    void shouldCompleteJob_WhenWalletWasAlreadyDeleted() {
+        //given
+        WalletDeletionJob job = createJob(WalletDeletionStatus.RUNNING, 5000L);
+        when(walletRepository.lockById(WALLET_ID)).thenReturn(Optional.empty());
+        when(walletDeletionJobRepository.findById(WALLET_ID)).thenReturn(Optional.of(job));
+
+        //when
+        walletDeletionService.purgeWallet(WALLET_ID);
+
+        //then
+        assertEquals(WalletDeletionStatus.COMPLETED, job.getStatus());
+        verify(financialTransactionRepository, never()).findIdsByWalletId(anyLong(), anyInt());
+        verify(walletRepository, never()).deleteWalletById(any());
+    }
+
+    @Test
+    @DisplayName("when a batch fails should mark the job failed and stop")
+    void shouldMarkJobFailed_WhenBatchFails() {
+        //given
+        WalletDeletionJob job = createJob(WalletDeletionStatus.QUEUED, 0L);
+        when(walletRepository.lockById(WALLET_ID)).thenReturn(Optional.of(WALLET_ID));
+        when(walletDeletionJobRepository.findById(WALLET_ID)).thenReturn(Optional.of(job));
+        when(financialTransactionRepository.findIdsByWalletId(WALLET_ID, BATCH_SIZE))
+                .thenThrow(new IllegalStateException("Lock wait timeout exceeded"));
+
+        //when
+        walletDeletionService.purgeWallet(WALLET_ID);
+
+        //then
+        assertEquals(WalletDeletionStatus.FAILED, job.getStatus());
+        assertEquals("Lock wait timeout exceeded", job.getFailureMessage());
+        verify(walletRepository, never()).deleteWalletById(any());
+    }
+
+    @Test
+    @DisplayName("when wallet has no deletion job should throw an exception")
+    void shouldThrowAnException_WhenDeletionJobDoesNotExist() {
+        //given
+        when(walletDeletionJobRepository.findById(WALLET_ID)).thenReturn(Optional.empty());
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> walletDeletionService.findWalletDeletionJob(WALLET_ID));
+        assertEquals(ErrorCode.W006.getBusinessStatusCode(), exception.getBusinessStatusCode());
+    }
+
+    private static WalletDeletionJob createJob(WalletDeletionStatus status, Long deletedTransactions) {
+        WalletDeletionJob job = new WalletDeletionJob(WALLET_ID, Instant.now());
+        job.setStatus(status);
+        job.setDeletedTransactions(deletedTransactions);
+        return job;
+    }
+}
@@ -11,17 +11,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.controller.AsyncQueryExecutor;
 import pl.byczazagroda.trackexpensesappbackend.controller.WalletController;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletUpdateDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.VersionedDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorStrategy;
 import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.mapper.WalletModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
@@ -40,7 +46,9 @@ import static org.mockito.Mockito.when;
         controllers = WalletController.class,
         includeFilters = @ComponentScan.Filter(
                 type = FilterType.ASSIGNABLE_TYPE,
-                classes = {WalletRepository.class, WalletServiceImpl.class}))
+                classes = {WalletRepository.class, WalletServiceImpl.class, WalletCache.class, AsyncQueryExecutor.class}))
+// the mocked repositories do not change between the lookups the way the cache expects
+@TestPropertySource(properties = "application.wallet-cache.enabled=false")
 class WalletGetServiceImplTest {
 
     public static final long WALLET_ID_1L = 1L;
@@ -65,17 +73,26 @@ class WalletGetServiceImplTest {
     @MockBean
     private WalletModelMapper walletModelMapper;
 
+    @MockBean
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @MockBean
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @MockBean
+    private WalletNameIndex walletNameIndex;
+
     @Test
     @DisplayName("when wallet id doesn't exist should not return wallet")
     void shouldNotReturnWalletById_WhenWalletIdNotExist() {
         // given
-        given(walletRepository.findById(Mockito.anyLong())).willReturn(Optional.empty());
+        given(walletRepository.findActiveById(Mockito.anyLong())).willReturn(Optional.empty());
         WalletUpdateDTO walletUpdateDto = new WalletUpdateDTO(NAME_1);
 
         // when
 
         // then
-        assertThatThrownBy(() -> walletService.updateWallet(WALLET_ID_1L, walletUpdateDto)).isInstanceOf(AppRuntimeException.class);
+        assertThatThrownBy(() -> walletService.updateWallet(WALLET_ID_1L, walletUpdateDto, null)).isInstanceOf(AppRuntimeException.class);
     }
 
     @Test
@@ -85,11 +102,11 @@ class WalletGetServiceImplTest {
         Wallet wallet = new Wallet(NAME_1);
         wallet.setId(WALLET_ID_1L);
         wallet.setCreationDate(DATE_NOW);
-        WalletDTO expectedDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L);
+        WalletDTO expectedDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
 
         //when
         when(walletRepository.existsById(WALLET_ID_1L)).thenReturn(true);
-        when(walletRepository.findById(WALLET_ID_1L)).thenReturn(Optional.of(wallet));
+        when(walletRepository.findActiveById(WALLET_ID_1L)).thenReturn(Optional.of(wallet));
         when(walletModelMapper.mapWalletEntityToWalletDTO(wallet)).thenReturn(expectedDTO);
         WalletDTO foundWallet = walletService.findById(WALLET_ID_1L);
 
@@ -97,6 +114,25 @@ class WalletGetServiceImplTest {
         Assertions.assertEquals(expectedDTO, foundWallet);
     }
 
+    @Test
+    @DisplayName("when finding wallet with version should return the version the wallet was read at")
+    void shouldReturnVersionOfReadWallet_WhenFindingWalletWithVersion() {
+        //given
+        Wallet wallet = new Wallet(NAME_1);
+        wallet.setId(WALLET_ID_1L);
+        wallet.setCreationDate(DATE_NOW);
+        wallet.setVersion(7L);
+        WalletDTO expectedDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        //when
+        when(walletRepository.findActiveById(WALLET_ID_1L)).thenReturn(Optional.of(wallet));
+        when(walletModelMapper.mapWalletEntityToWalletDTO(wallet)).thenReturn(expectedDTO);
+        VersionedDTO<WalletDTO> foundWallet = walletService.findByIdWithVersion(WALLET_ID_1L);
+
+        //then
+        Assertions.assertEquals(new VersionedDTO<>(expectedDTO, "7"), foundWallet);
+    }
+
     @Test
     @DisplayName("when wallet by id not found should not return wallet")
     void shouldNotReturnWallet_WhenWalletByIdNotFound() {
@@ -106,7 +142,7 @@ class WalletGetServiceImplTest {
         wallet.setCreationDate(DATE_NOW);
 
         //when
-        given(walletRepository.findById(Mockito.anyLong())).willReturn(Optional.empty());
+        given(walletRepository.findActiveById(Mockito.anyLong())).willReturn(Optional.empty());
 
         //then
         assertThatThrownBy(() -> walletService.findById(ID_5L)).isInstanceOf(AppRuntimeException.class);
@@ -123,7 +159,8 @@ class WalletGetServiceImplTest {
         String walletNameSearched = "Family";
         List<Wallet> walletList = createListOfWalletsByName("Family wallet", "Common Wallet", "Smith Family Wallet");
         List<WalletDTO> walletListDTO = walletList.stream().map((Wallet x) ->
-                new WalletDTO(x.getId(), x.getName(), x.getCreationDate(), x.getUser().getId())).toList();
+                new WalletDTO(x.getId(), x.getName(), x.getCreationDate(), x.getUser().getId(),
+                        x.getIncomeTotal(), x.getExpenseTotal(), x.getBalance())).toList();
         given(walletRepository.findAll()).willReturn(walletList);
         walletList.forEach(wallet -> given(walletModelMapper.mapWalletEntityToWalletDTO(wallet)).willReturn(
                 walletListDTO.stream().filter(walletDTO -> Objects.equals(wallet.getName(), walletDTO.name())).findAny().orElse(null)));
@@ -132,7 +169,7 @@ class WalletGetServiceImplTest {
         List<WalletDTO> fundedWallets = walletService.findAllByNameIgnoreCase(walletNameSearched);
 
         // then
-        assertThat(fundedWallets, hasSize(walletRepository.findAllByNameLikeIgnoreCase(walletNameSearched).size()));
+        assertThat(fundedWallets, hasSize(walletRepository.findAllByNameLikeIgnoreCaseAndDeletionRequestedAtIsNull(walletNameSearched).size()));
     }
 
     private List<Wallet> createListOfWalletsByName(String... name) {
@@ -0,0 +1,167 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.NameSuggestionDTO;
+import pl.byczazagroda.trackexpensesappbackend.repository.CacheVersionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WalletNameIndexTest {
+
+    private static final NameSuggestionDTO HOLIDAYS = new NameSuggestionDTO(1L, "Holidays");
+
+    private static final NameSuggestionDTO HOME = new NameSuggestionDTO(2L, "home");
+
+    private static final NameSuggestionDTO SAVINGS = new NameSuggestionDTO(3L, "Savings");
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WalletNameIndex walletNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        walletNameIndex = new WalletNameIndex(walletRepository, cacheVersionRepository, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("when names are looked up by a prefix should return the matches ignoring case, in name order, up to the limit")
+    void shouldReturnMatchesInNameOrderUpToLimit_WhenLookedUpByPrefix() {
+        //given
+        when(cacheVersionRepository.findVersionByName(WalletNameIndex.CACHE_NAME)).thenReturn(Optional.of(1L));
+        when(walletRepository.findAllActiveWalletNames()).thenReturn(List.of(SAVINGS, HOME, HOLIDAYS));
+
+        //when
+        List<NameSuggestionDTO> all = walletNameIndex.findByPrefix("hO", 10);
+        List<NameSuggestionDTO> limited = walletNameIndex.findByPrefix("H", 1);
+        List<NameSuggestionDTO> none = walletNameIndex.findByPrefix("x", 10);
+
+        //then
+        assertEquals(List.of(HOLIDAYS, HOME), all);
+        assertEquals(List.of(HOLIDAYS), limited);
+        assertEquals(List.of(), none);
+        verify(walletRepository, times(1)).findAllActiveWalletNames();
+    }
+
+    @Test
+    @DisplayName("when a wallet is renamed and removed by this instance should apply the changes without reloading")
+    void shouldApplyOwnChangesWithoutReloading_WhenSnapshotIsOneVersionBehind() {
+        //given
+        when(cacheVersionRepository.findVersionByName(WalletNameIndex.CACHE_NAME))
+                .thenReturn(Optional.of(1L), Optional.of(2L), Optional.of(3L));
+        when(walletRepository.findAllActiveWalletNames()).thenReturn(List.of(HOLIDAYS, HOME, SAVINGS));
+        walletNameIndex.findByPrefix("", 10);
+
+        //when
+        TransactionSynchronizationManager.initSynchronization();
+        walletNameIndex.walletNameChanged(2L, "Garden");
+        walletNameIndex.walletRemoved(3L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        //then
+        assertEquals(List.of(new NameSuggestionDTO(2L, "Garden"), HOLIDAYS), walletNameIndex.findByPrefix("", 10));
+        verify(cacheVersionRepository, times(2)).incrementVersion(WalletNameIndex.CACHE_NAME);
+        verify(walletRepository, times(1)).findAllActiveWalletNames();
+    }
+
+    @Test
+    @DisplayName("when a wallet is renamed should not touch the version until the renaming transaction commits")
+    void shouldIncrementVersionAfterCommit_WhenWalletIsRenamed() {
+        //given
+        when(cacheVersionRepository.findVersionByName(WalletNameIndex.CACHE_NAME))
+                .thenReturn(Optional.of(1L), Optional.of(2L));
+        when(walletRepository.findAllActiveWalletNames()).thenReturn(List.of(HOLIDAYS, HOME));
+        walletNameIndex.findByPrefix("", 10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        walletNameIndex.walletNameChanged(2L, "Garden");
+
+        //then
+        verify(cacheVersionRepository, never()).incrementVersion(WalletNameIndex.CACHE_NAME);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(cacheVersionRepository, times(1)).incrementVersion(WalletNameIndex.CACHE_NAME);
+        assertEquals(List.of(new NameSuggestionDTO(2L, "Garden"), HOLIDAYS), walletNameIndex.findByPrefix("", 10));
+    }
+
+    @Test
+    @DisplayName("when the version cannot be incremented after a rename should reload the names and retry the increment on the next check")
+    void shouldReloadAndRetryIncrement_WhenIncrementFails() {
+        //given
+        NameSuggestionDTO renamed = new NameSuggestionDTO(2L, "Garden");
+        when(cacheVersionRepository.findVersionByName(WalletNameIndex.CACHE_NAME))
+                .thenReturn(Optional.of(1L), Optional.of(1L), Optional.of(2L), Optional.of(2L));
+        when(walletRepository.findAllActiveWalletNames())
+                .thenReturn(List.of(HOLIDAYS, HOME), List.of(HOLIDAYS, renamed), List.of(HOLIDAYS, renamed));
+        when(cacheVersionRepository.incrementVersion(WalletNameIndex.CACHE_NAME))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout exceeded"))
+                .thenReturn(1);
+        walletNameIndex.findByPrefix("", 10);
+        TransactionSynchronizationManager.initSynchronization();
+        walletNameIndex.walletNameChanged(renamed.id(), renamed.name());
+
+        //when
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        List<NameSuggestionDTO> afterFailure = walletNameIndex.findByPrefix("", 10);
+        walletNameIndex.checkVersion();
+
+        //then
+        assertEquals(List.of(renamed, HOLIDAYS), afterFailure);
+        verify(cacheVersionRepository, times(2)).incrementVersion(WalletNameIndex.CACHE_NAME);
+        verify(walletRepository, times(3)).findAllActiveWalletNames();
+    }
+
+    @Test
+    @DisplayName("when another instance changed a name in between should reload all names")
+    void shouldReloadAllNames_WhenChangeOfAnotherInstanceIsMissing() {
+        //given
+        NameSuggestionDTO created = new NameSuggestionDTO(4L, "Hobby");
+        NameSuggestionDTO createdElsewhere = new NameSuggestionDTO(5L, "Health");
+        when(cacheVersionRepository.findVersionByName(WalletNameIndex.CACHE_NAME))
+                .thenReturn(Optional.of(1L), Optional.of(3L), Optional.of(3L));
+        when(walletRepository.findAllActiveWalletNames())
+                .thenReturn(List.of(HOLIDAYS), List.of(HOLIDAYS, created, createdElsewhere));
+        walletNameIndex.findByPrefix("", 10);
+
+        //when
+        TransactionSynchronizationManager.initSynchronization();
+        walletNameIndex.walletNameChanged(created.id(), created.name());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        //then
+        assertEquals(List.of(createdElsewhere, created, HOLIDAYS), walletNameIndex.findByPrefix("h", 10));
+        verify(walletRepository, times(2)).findAllActiveWalletNames();
+    }
+}
@@ -0,0 +1,177 @@
+package pl.byczazagroda.trackexpensesappbackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.byczazagroda.trackexpensesappbackend.dto.FinancialTransactionDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.MonthlyCategoryTotalDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletMonthSummaryDTO;
+import pl.byczazagroda.trackexpensesappbackend.dto.WalletSummaryDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
+import pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType;
+import pl.byczazagroda.trackexpensesappbackend.model.MonthlyCategoryTotal;
+import pl.byczazagroda.trackexpensesappbackend.model.MonthlyCategoryTotalId;
+import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.EXPENSE;
+import static pl.byczazagroda.trackexpensesappbackend.model.FinancialTransactionType.INCOME;
+
+@ExtendWith(MockitoExtension.class)
+class WalletSummaryServiceImplTest {
+
+    private static final long WALLET_ID = 1L;
+
+    private static final long CATEGORY_ID = 7L;
+
+    private static final LocalDate JANUARY = LocalDate.of(2024, 1, 1);
+
+    private static final LocalDate FEBRUARY = LocalDate.of(2024, 2, 1);
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @Mock
+    private FinancialTransactionRepository financialTransactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WalletSummaryServiceImpl walletSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        walletSummaryService = new WalletSummaryServiceImpl(walletRepository, monthlyCategoryTotalRepository,
+                financialTransactionRepository, transactionManager);
+        ReflectionTestUtils.setField(walletSummaryService, "backfillThreads", 2);
+    }
+
+    @Test
+    @DisplayName("when rollups exist should group them by month and sum incomes and expenses")
+    void shouldGroupTotalsByMonth_WhenRollupsExist() {
+        //given
+        when(walletRepository.existsActiveById(WALLET_ID)).thenReturn(true);
+        when(monthlyCategoryTotalRepository.findAllByWalletIdAndMonthBetween(WALLET_ID, JANUARY, LocalDate.of(2024, 12, 1)))
+                .thenReturn(List.of(
+                        createMonthlyTotal(JANUARY, EXPENSE, MonthlyCategoryTotalId.NO_CATEGORY, "5.00", 1),
+                        createMonthlyTotal(JANUARY, EXPENSE, CATEGORY_ID, "20.00", 2),
+                        createMonthlyTotal(JANUARY, INCOME, MonthlyCategoryTotalId.NO_CATEGORY, "1000.00", 1),
+                        createMonthlyTotal(FEBRUARY, EXPENSE, CATEGORY_ID, "40.00", 1)));
+
+        //when
+        WalletSummaryDTO summary = walletSummaryService.getSummary(WALLET_ID, YearMonth.of(2024, 1), YearMonth.of(2024, 12));
+
+        //then
+        assertEquals(2, summary.months().size());
+        WalletMonthSummaryDTO january = summary.months().get(0);
+        assertEquals(YearMonth.of(2024, 1), january.month());
+        assertEquals(new BigDecimal("1000.00"), january.incomeTotal());
+        assertEquals(new BigDecimal("25.00"), january.expenseTotal());
+        assertEquals(new MonthlyCategoryTotalDTO(null, EXPENSE, new BigDecimal("5.00"), 1L), january.categories().get(0));
+        assertEquals(new MonthlyCategoryTotalDTO(CATEGORY_ID, EXPENSE, new BigDecimal("20.00"), 2L),
+                january.categories().get(1));
+        WalletMonthSummaryDTO february = summary.months().get(1);
+        assertEquals(YearMonth.of(2024, 2), february.month());
+        assertEquals(BigDecimal.ZERO, february.incomeTotal());
+        assertEquals(new BigDecimal("40.00"), february.expenseTotal());
+    }
+
+    @Test
+    @DisplayName("when the first month is after the last one should throw AppRuntimeException")
+    void shouldThrowAnException_WhenRangeIsReversed() {
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> walletSummaryService.getSummary(WALLET_ID, YearMonth.of(2024, 2), YearMonth.of(2024, 1)));
+        assertEquals(ErrorCode.W005.getBusinessStatus(), exception.getBusinessStatus());
+        verify(monthlyCategoryTotalRepository, never()).findAllByWalletIdAndMonthBetween(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("when wallet does not exist should throw AppRuntimeException")
+    void shouldThrowAnException_WhenWalletDoesNotExist() {
+        //given
+        when(walletRepository.existsActiveById(WALLET_ID)).thenReturn(false);
+
+        //when & then
+        AppRuntimeException exception = assertThrows(AppRuntimeException.class,
+                () -> walletSummaryService.getSummary(WALLET_ID, YearMonth.of(2024, 1), YearMonth.of(2024, 1)));
+        assertEquals(ErrorCode.W003.getBusinessStatus(), exception.getBusinessStatus());
+    }
+
+    @Test
+    @DisplayName("when rebuilding a wallet should replace its rollups with totals of its transactions")
+    void shouldReplaceRollupsWithTransactionTotals_WhenRebuildingWallet() {
+        //given
+        when(walletRepository.findByIdForUpdate(WALLET_ID)).thenReturn(Optional.of(Wallet.builder().id(WALLET_ID).build()));
+        when(financialTransactionRepository.streamAllFinancialTransactionDTOsByWalletId(WALLET_ID)).thenReturn(Stream.of(
+                createFinancialTransactionDTO("10.00", "2024-01-31T23:59:59Z", EXPENSE, CATEGORY_ID),
+                createFinancialTransactionDTO("2.50", "2024-01-01T00:00:00Z", EXPENSE, CATEGORY_ID),
+                createFinancialTransactionDTO("7.00", "2024-02-01T00:00:00Z", EXPENSE, null)));
+
+        //when
+        walletSummaryService.rebuildWallet(WALLET_ID);
+
+        //then
+        InOrder inOrder = Mockito.inOrder(monthlyCategoryTotalRepository);
+        inOrder.verify(monthlyCategoryTotalRepository).deleteAllByWalletId(WALLET_ID);
+        inOrder.verify(monthlyCategoryTotalRepository).addToTotal(WALLET_ID, JANUARY, EXPENSE.name(), CATEGORY_ID,
+                new BigDecimal("12.50"), 2);
+        inOrder.verify(monthlyCategoryTotalRepository).addToTotal(WALLET_ID, FEBRUARY, EXPENSE.name(),
+                MonthlyCategoryTotalId.NO_CATEGORY, new BigDecimal("7.00"), 1);
+        verifyNoMoreInteractions(monthlyCategoryTotalRepository);
+    }
+
+    @Test
+    @DisplayName("when wallet was deleted before rebuilding it should not write rollups")
+    void shouldNotWriteRollups_WhenWalletWasDeleted() {
+        //given
+        when(walletRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
+
+        //when
+        walletSummaryService.rebuildWallet(WALLET_ID);
+
+        //then
+        verify(monthlyCategoryTotalRepository, never()).deleteAllByWalletId(any());
+        verify(financialTransactionRepository, never()).streamAllFinancialTransactionDTOsByWalletId(any());
+    }
+
+    private static MonthlyCategoryTotal createMonthlyTotal(LocalDate month, FinancialTransactionType type,
+                                                          long categoryId, String total, long transactionCount) {
+        return new MonthlyCategoryTotal(new MonthlyCategoryTotalId(WALLET_ID, month, type, categoryId),
+                new BigDecimal(total), transactionCount);
+    }
+
+    private static FinancialTransactionDTO createFinancialTransactionDTO(String amount, String date,
+                                                                         FinancialTransactionType type, Long categoryId) {
+        return new FinancialTransactionDTO(null, new BigDecimal(amount), null, type, Instant.parse(date), categoryId);
+    }
+}
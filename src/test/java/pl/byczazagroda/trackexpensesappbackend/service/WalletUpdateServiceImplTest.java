@@ -7,19 +7,27 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.validation.annotation.Validated;
+import pl.byczazagroda.trackexpensesappbackend.controller.AsyncQueryExecutor;
 import pl.byczazagroda.trackexpensesappbackend.controller.WalletController;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletUpdateDTO;
 import pl.byczazagroda.trackexpensesappbackend.dto.WalletDTO;
+import pl.byczazagroda.trackexpensesappbackend.exception.AppRuntimeException;
+import pl.byczazagroda.trackexpensesappbackend.exception.ErrorCode;
 import pl.byczazagroda.trackexpensesappbackend.exception.ErrorStrategy;
 import pl.byczazagroda.trackexpensesappbackend.mapper.WalletModelMapper;
 import pl.byczazagroda.trackexpensesappbackend.model.Wallet;
+import pl.byczazagroda.trackexpensesappbackend.repository.FinancialTransactionCategoryRepository;
+import pl.byczazagroda.trackexpensesappbackend.repository.MonthlyCategoryTotalRepository;
 import pl.byczazagroda.trackexpensesappbackend.repository.WalletRepository;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
 
 @Validated
@@ -27,7 +35,9 @@ import static org.mockito.BDDMockito.given;
         controllers = WalletController.class,
         includeFilters = @ComponentScan.Filter(
                 type = FilterType.ASSIGNABLE_TYPE,
-                classes = {WalletRepository.class, WalletServiceImpl.class}))
+                classes = {WalletRepository.class, WalletServiceImpl.class, WalletCache.class, AsyncQueryExecutor.class}))
+// the mocked repositories do not change between the lookups the way the cache expects
+@TestPropertySource(properties = "application.wallet-cache.enabled=false")
 class WalletUpdateServiceImplTest {
 
     public static final long WALLET_ID_1L = 1L;
@@ -52,6 +62,15 @@ class WalletUpdateServiceImplTest {
     @MockBean
     private WalletModelMapper walletModelMapper;
 
+    @MockBean
+    private FinancialTransactionCategoryRepository financialTransactionCategoryRepository;
+
+    @MockBean
+    private MonthlyCategoryTotalRepository monthlyCategoryTotalRepository;
+
+    @MockBean
+    private WalletNameIndex walletNameIndex;
+
     @Test
     @DisplayName("when finding wallet by id should update wallet")
     void shouldUpdateWallet_whenFindWalletById() {
@@ -60,15 +79,30 @@ class WalletUpdateServiceImplTest {
         Wallet wallet = new Wallet(NAME_2);
         wallet.setId(WALLET_ID_1L);
         wallet.setCreationDate(DATE_NOW);
-        WalletDTO newWalletDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L);
-        given(walletRepository.findById(WALLET_ID_1L)).willReturn(Optional.of(wallet));
+        WalletDTO newWalletDTO = new WalletDTO(WALLET_ID_1L, NAME_1, DATE_NOW, USER_ID_1L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        given(walletRepository.findActiveById(WALLET_ID_1L)).willReturn(Optional.of(wallet));
         given(walletModelMapper.mapWalletEntityToWalletDTO(wallet)).willReturn(newWalletDTO);
 
         // when
-        WalletDTO walletDTO = walletService.updateWallet(WALLET_ID_1L, walletUpdateDto);
+        WalletDTO walletDTO = walletService.updateWallet(WALLET_ID_1L, walletUpdateDto, null);
 
         // then
         assertThat(walletDTO.name()).isEqualTo(walletUpdateDto.name());
     }
 
+    @Test
+    @DisplayName("when wallet changed since the expected version should not update wallet")
+    void shouldNotUpdateWallet_whenWalletChangedSinceExpectedVersion() {
+        // given
+        Wallet wallet = new Wallet(NAME_2);
+        wallet.setId(WALLET_ID_1L);
+        wallet.setVersion(4L);
+        given(walletRepository.findActiveById(WALLET_ID_1L)).willReturn(Optional.of(wallet));
+
+        // when & then
+        assertThatThrownBy(() -> walletService.updateWallet(WALLET_ID_1L, new WalletUpdateDTO(NAME_1), 3L))
+                .isInstanceOf(AppRuntimeException.class)
+                .hasFieldOrPropertyWithValue("businessStatusCode", ErrorCode.TEA006.getBusinessStatusCode());
+        assertThat(wallet.getName()).isEqualTo(NAME_2);
+    }
 }